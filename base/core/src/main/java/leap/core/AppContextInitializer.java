@@ -15,6 +15,8 @@
  */
 package leap.core;
 
+import leap.core.startup.StartupProfiler;
+import leap.core.startup.StartupStep;
 import leap.core.sys.DefaultSysSecurity;
 import leap.core.sys.SysContext;
 import leap.lang.Classes;
@@ -88,14 +90,17 @@ public class AppContextInitializer {
         if (!createNew && AppContext.tryGetCurrent() != null) {
             throw new IllegalStateException("App context already initialized");
         }
-        AppConfig config = null;
+        AppConfig   config  = null;
+        StartupStep startup = StartupProfiler.start("startup");
         try {
             initializing = true;
             initialAppConfig = new InheritableThreadLocal<>();
 
             log.debug("Starting standalone app...");
             AppConfigSource cs = Factory.newInstance(AppConfigSource.class);
-            config = cs.loadConfig(null, null);
+            try (StartupStep step = StartupProfiler.start("config")) {
+                config = cs.loadConfig(null, null);
+            }
 
             initialAppConfig.set(config);
 
@@ -105,7 +110,9 @@ public class AppContextInitializer {
                 ClassLoader parent = getClassLoader();
                 appCl = AppClassLoader.init(parent);
                 Thread.currentThread().setContextClassLoader(appCl);
-                appCl.load(config);
+                try (StartupStep step = StartupProfiler.start("instrument")) {
+                    appCl.load(config);
+                }
             }
             try {
                 BeanFactoryInternal factory = createStandaloneAppFactory(config, externalAppFactory);
@@ -120,7 +127,9 @@ public class AppContextInitializer {
                 AppContext.setStandalone(context);
                 RequestContext.setStandalone(new StandaloneRequestContext());
 
-                factory.load(context);
+                try (StartupStep step = StartupProfiler.start("beans")) {
+                    factory.load(context);
+                }
 
                 onInited(context);
 
@@ -141,6 +150,9 @@ public class AppContextInitializer {
             if (null != config) {
                 AppResources.destroy(config);
             }
+
+            startup.end();
+            StartupProfiler.finish();
         }
     }
 
@@ -159,14 +171,17 @@ public class AppContextInitializer {
             throw new IllegalStateException("App context already initialized");
         }
 
-        AppConfig config = null;
+        AppConfig   config  = null;
+        StartupStep startup = StartupProfiler.start("startup");
         try {
             initializing = true;
             initialAppConfig = new InheritableThreadLocal<>();
 
             //log.info("Initializing app context");
             AppConfigSource cs = Factory.newInstance(AppConfigSource.class);
-            config = cs.loadConfig(externalContext, initProperties);
+            try (StartupStep step = StartupProfiler.start("config")) {
+                config = cs.loadConfig(externalContext, initProperties);
+            }
 
             initialAppConfig.set(config);
 
@@ -177,7 +192,9 @@ public class AppContextInitializer {
                 ClassLoader parent = getClassLoader();
                 appCl = AppClassLoader.init(parent);
                 Thread.currentThread().setContextClassLoader(appCl);
-                appCl.load(config);
+                try (StartupStep step = StartupProfiler.start("instrument")) {
+                    appCl.load(config);
+                }
             }
             try {
                 BeanFactory factory = newBeanFactory.apply(config);
@@ -191,11 +208,15 @@ public class AppContextInitializer {
 
                 AppContext.setCurrent(context);
 
-                onAppContextCreated.accept(context);
+                try (StartupStep step = StartupProfiler.start("beans")) {
+                    onAppContextCreated.accept(context);
+                }
 
                 onInited(context);
 
-                onAppContextinited.accept(context);
+                try (StartupStep step = StartupProfiler.start("app-init")) {
+                    onAppContextinited.accept(context);
+                }
             } finally {
                 if (null != appCl) {
                     appCl.done();
@@ -210,6 +231,9 @@ public class AppContextInitializer {
             if (null != config) {
                 AppResources.destroy(config);
             }
+
+            startup.end();
+            StartupProfiler.finish();
         }
     }
 
@@ -224,7 +248,7 @@ public class AppContextInitializer {
     }
 
     protected static void onInited(AppContext context) {
-        try {
+        try (StartupStep step = StartupProfiler.start("post-init")) {
             context.postInit();
 
             for (AppContextInitializable bean : context.getBeanFactory().getBeans(AppContextInitializable.class)) {
@@ -16,6 +16,8 @@
 
 package leap.core;
 
+import leap.core.startup.StartupProfiler;
+import leap.core.startup.StartupStep;
 import leap.lang.Classes;
 import leap.lang.Strings;
 import leap.lang.Try;
@@ -110,7 +112,10 @@ public class AppResources {
     }
 
     static AppResources create(DefaultAppConfig config, Object externalContext) {
-        AppResources inst = new AppResources(config, externalContext);
+        AppResources inst;
+        try (StartupStep step = StartupProfiler.start("scan-resources")) {
+            inst = new AppResources(config, externalContext);
+        }
 
         instances.put(config, inst);
 
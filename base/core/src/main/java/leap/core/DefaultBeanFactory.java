@@ -18,6 +18,8 @@ package leap.core;
 import leap.core.ioc.BeanContainer;
 import leap.core.ioc.BeanDefinition;
 import leap.core.ioc.BeanDefinitionException;
+import leap.core.startup.StartupProfiler;
+import leap.core.startup.StartupStep;
 import leap.lang.Args;
 import leap.lang.Disposable;
 import leap.lang.beans.BeanException;
@@ -59,9 +61,16 @@ public class DefaultBeanFactory extends BeanFactoryInternal implements BeanFacto
     protected DefaultBeanFactory load(AppContext appContext){
         AppResources resources = AppResources.get(appContext.getConfig());
 
+		Class<?>[]    classes;
+		AppResource[] beans;
+		try(StartupStep step = StartupProfiler.start("scan-beans")) {
+			classes = config.getResources().searchClasses();
+			beans   = resources.search("beans");
+		}
+
 		this.beanContainer.setAppContext(appContext);
-		this.beanContainer.loadFromClasses(config.getResources().searchClasses())
-						  .loadFromResources(resources.search("beans"))
+		this.beanContainer.loadFromClasses(classes)
+						  .loadFromResources(beans)
 						  .init()
 						  .registerShutdownHook();
 		return this;
@@ -28,6 +28,13 @@ public interface AopConfig {
      */
     boolean isEnabled();
 
+    /**
+     * Returns true if the method interceptions was configured.
+     */
+    default boolean hasMethodInterceptions() {
+        return true;
+    }
+
     /**
      * Returns all the interceptor configs of the given method.
      *
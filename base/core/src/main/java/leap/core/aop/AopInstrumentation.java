@@ -145,6 +145,15 @@ public class AopInstrumentation extends AsmInstrumentProcessor {
         this.config = config.getExtension(AopConfig.class);
     }
 
+    @Override
+    public String getVersion() {
+        if(null == config || !config.isEnabled()) {
+            return "disabled";
+        }
+        //the configured interceptions can not be versioned.
+        return config.hasMethodInterceptions() ? null : "enabled";
+    }
+
     @Override
     protected boolean preInstrument(AppInstrumentContext context) {
         if(null == config || !config.isEnabled()) {
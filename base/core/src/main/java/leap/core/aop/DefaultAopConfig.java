@@ -42,6 +42,11 @@ public class DefaultAopConfig implements AopConfig, ConfigBean {
         this.enabled = enabled;
     }
 
+    @Override
+    public boolean hasMethodInterceptions() {
+        return !methodInterceptions.isEmpty();
+    }
+
     public void addMethodInterception(MethodInterceptionConfig interception) {
         methodInterceptions.add(interception);
     }
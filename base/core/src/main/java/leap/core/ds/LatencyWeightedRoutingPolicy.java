@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.core.ds;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chooses the replica with the lowest cost, the cost is the EWMA latency of executing statements
+ * multiplied by the number of outstanding connections plus one.
+ *
+ * <p/>
+ * The replicas without latency samples have zero cost, so they will be chosen first to warm up.
+ */
+public class LatencyWeightedRoutingPolicy implements ReplicaRoutingPolicy {
+
+    private final AtomicInteger counter = new AtomicInteger();
+
+    @Override
+    public ReplicaDataSource choose(List<ReplicaDataSource> candidates) {
+        final int size  = candidates.size();
+        final int start = (counter.getAndIncrement() & Integer.MAX_VALUE) % size;
+
+        ReplicaDataSource chosen = null;
+        double            cost   = 0;
+        for(int i=0;i<size;i++) {
+            ReplicaDataSource replica = candidates.get((start + i) % size);
+
+            double c = Math.max(replica.getLatencyEwma(), 0) * (replica.getOutstanding() + 1);
+            if(null == chosen || c < cost) {
+                chosen = replica;
+                cost   = c;
+            }
+        }
+        return chosen;
+    }
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.core.ds;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chooses the replica with the least outstanding (borrowed but not closed) connections,
+ * the ties are chosen in turn.
+ */
+public class LeastOutstandingRoutingPolicy implements ReplicaRoutingPolicy {
+
+    private final AtomicInteger counter = new AtomicInteger();
+
+    @Override
+    public ReplicaDataSource choose(List<ReplicaDataSource> candidates) {
+        final int size  = candidates.size();
+        final int start = (counter.getAndIncrement() & Integer.MAX_VALUE) % size;
+
+        ReplicaDataSource chosen = null;
+        for(int i=0;i<size;i++) {
+            ReplicaDataSource replica = candidates.get((start + i) % size);
+            if(null == chosen || replica.getOutstanding() < chosen.getOutstanding()) {
+                chosen = replica;
+            }
+        }
+        return chosen;
+    }
+
+}
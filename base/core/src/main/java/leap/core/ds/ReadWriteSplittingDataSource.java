@@ -1,21 +1,43 @@
 package leap.core.ds;
 
+import leap.core.RequestContext;
 import leap.core.exception.DataAccessException;
 import leap.core.jdbc.SqlExecutionContext;
 import leap.core.jdbc.SqlExcutionType;
+import leap.lang.logging.Log;
+import leap.lang.logging.LogFactory;
 
 import javax.sql.DataSource;
 import java.io.PrintWriter;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
+/**
+ * Routes the write executions to the write data source and the read executions to the read replicas.
+ *
+ * <p/>
+ * The replica is chosen by the {@link ReplicaRoutingPolicy} (round robin by default) in the replicas which circuit
+ * is not open. If borrowing connection from the chosen replica failed, the next replica will be tried,
+ * and the write data source will be used if all the replicas failed and {@link #isFallbackToWrite()}.
+ *
+ * <p/>
+ * If the {@link #getStickyWindow()} is positive, the reads in current request will be routed to the write data source
+ * in the window after a write, so the reads can see the writes before the replicas catch up.
+ * The write time is kept in the current {@link RequestContext} and ends with the request,
+ * or kept in current thread if no request context.
+ */
 public class ReadWriteSplittingDataSource implements DataSource {
 
-    private AtomicInteger counter = new AtomicInteger();
+    private static final Log log = LogFactory.get(ReadWriteSplittingDataSource.class);
+
+    private final ThreadLocal<Long> lastWriteTime = new ThreadLocal<>();
+    private final String            lastWriteAttr = ReadWriteSplittingDataSource.class.getName() + "@" +
+                                                    Integer.toHexString(System.identityHashCode(this)) + ".lastWriteTime";
 
     private DataSource writeDataSource;
 
@@ -23,27 +45,146 @@ public class ReadWriteSplittingDataSource implements DataSource {
 
     private List<DataSource> readDataSources;
 
+    private List<ReplicaDataSource> replicas = Collections.emptyList();
+
+    private ReplicaRoutingPolicy routingPolicy = new RoundRobinRoutingPolicy();
+
+    private long    stickyWindow;
+    private int     failureThreshold = 3;
+    private long    circuitOpenTime  = 30000;
+    private boolean fallbackToWrite  = true;
+
     @Override
     public Connection getConnection() throws SQLException {
-        return determineTargetDataSource().getConnection();
+        return doGetConnection(null, null, false);
     }
 
     @Override
     public Connection getConnection(String username, String password) throws SQLException {
-        return determineTargetDataSource().getConnection(username, password);
+        return doGetConnection(username, password, true);
+    }
+
+    protected Connection doGetConnection(String username, String password, boolean withCredentials) throws SQLException {
+        SqlExcutionType type = SqlExecutionContext.getType();
+
+        if(type.equals(SqlExcutionType.Read) && !isStickyToWrite()) {
+            return getReadConnection(username, password, withCredentials);
+        }
+
+        if(type.equals(SqlExcutionType.Write) && stickyWindow > 0) {
+            setLastWriteTime(System.currentTimeMillis());
+        }
+
+        DataSource ds = determineTargetDataSource();
+        return withCredentials ? ds.getConnection(username, password) : ds.getConnection();
+    }
+
+    protected Connection getReadConnection(String username, String password, boolean withCredentials) throws SQLException {
+        List<ReplicaDataSource> candidates = getAvailableReplicas();
+
+        SQLException error = null;
+        while(!candidates.isEmpty()) {
+            ReplicaDataSource replica = routingPolicy.choose(candidates);
+            if(!replica.tryAcquire(System.currentTimeMillis())) {
+                candidates.remove(replica);
+                continue;
+            }
+            try {
+                return replica.getConnection(username, password, withCredentials);
+            }catch (SQLException e) {
+                log.warn("Error borrowing connection from read replica '{}', {}", replica.getName(), e.getMessage());
+                error = e;
+                candidates.remove(replica);
+            }
+        }
+
+        if(fallbackToWrite && null != writeDataSource) {
+            log.debug("No available read replica, use the write data source");
+            return withCredentials ? writeDataSource.getConnection(username, password) : writeDataSource.getConnection();
+        }
+
+        if(null != error) {
+            throw error;
+        }
+        throw new DataAccessException("No available read replica");
+    }
+
+    /**
+     * Returns a new list of the replicas which circuit is not open now.
+     */
+    protected List<ReplicaDataSource> getAvailableReplicas() {
+        List<ReplicaDataSource> available = new ArrayList<>(replicas.size());
+
+        long now = System.currentTimeMillis();
+        for(ReplicaDataSource replica : replicas) {
+            if(replica.isAvailable(now)) {
+                available.add(replica);
+            }
+        }
+        return available;
+    }
+
+    protected boolean isStickyToWrite() {
+        if(stickyWindow <= 0) {
+            return false;
+        }
+
+        Long time = getLastWriteTime();
+        if(null == time) {
+            return false;
+        }
+
+        if(System.currentTimeMillis() - time < stickyWindow) {
+            return true;
+        }
+
+        clearSticky();
+        return false;
+    }
+
+    /**
+     * Clears the write time of current request or thread, the reads will be routed to the replicas again.
+     */
+    public void clearSticky() {
+        RequestContext request = RequestContext.tryGetCurrent();
+        if(null != request) {
+            request.removeAttribute(lastWriteAttr);
+        }
+        lastWriteTime.remove();
+    }
+
+    protected Long getLastWriteTime() {
+        RequestContext request = RequestContext.tryGetCurrent();
+        return null != request ? (Long)request.getAttribute(lastWriteAttr) : lastWriteTime.get();
+    }
+
+    protected void setLastWriteTime(long time) {
+        RequestContext request = RequestContext.tryGetCurrent();
+        if(null != request) {
+            request.setAttribute(lastWriteAttr, time);
+        }else{
+            lastWriteTime.set(time);
+        }
     }
 
     protected DataSource determineTargetDataSource() {
         DataSource returnDataSource;
 
-        if(SqlExecutionContext.getType().equals(SqlExcutionType.Write)){
+        SqlExcutionType type = SqlExecutionContext.getType();
+
+        if(type.equals(SqlExcutionType.Write)){
 
             returnDataSource = writeDataSource;
 
-        } else if(SqlExecutionContext.getType().equals(SqlExcutionType.Read)){
+        } else if(type.equals(SqlExcutionType.Read) && !replicas.isEmpty() && !isStickyToWrite()){
+
+            //skips the replicas which circuit is open, uses the write data source if no available replica.
+            List<ReplicaDataSource> available = getAvailableReplicas();
+            returnDataSource = available.isEmpty() ? writeDataSource : routingPolicy.choose(available).getDataSource();
 
-            int index = determindIndex();
-            returnDataSource = readDataSources.get(index);
+        } else if(type.equals(SqlExcutionType.Read)) {
+
+            returnDataSource = writeDataSource;
 
         }else{
 
@@ -57,21 +198,6 @@ public class ReadWriteSplittingDataSource implements DataSource {
         return returnDataSource;
     }
 
-    private int determindIndex() {
-
-        if(readDataSources.size() < 2) return 0;
-
-        int count = counter.incrementAndGet();
-
-        if(count > 1000000){
-            counter.set(0);
-        }
-
-        int index = count % readDataSources.size();
-
-        return index;
-    }
-
     public DataSource getWriteDataSource() {
         return writeDataSource;
     }
@@ -86,6 +212,24 @@ public class ReadWriteSplittingDataSource implements DataSource {
 
     public void setReadDataSources(List<DataSource> readDataSources) {
         this.readDataSources = readDataSources;
+
+        List<ReplicaDataSource> list = new ArrayList<>();
+        if(null != readDataSources) {
+            for(int i=0;i<readDataSources.size();i++) {
+                ReplicaDataSource replica = new ReplicaDataSource("read" + i, readDataSources.get(i));
+                replica.setFailureThreshold(failureThreshold);
+                replica.setCircuitOpenTime(circuitOpenTime);
+                list.add(replica);
+            }
+        }
+        this.replicas = Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Returns the replicas of the read data sources, contains the metrics of each replica.
+     */
+    public List<ReplicaDataSource> getReplicas() {
+        return replicas;
     }
 
     public DataSource getDefaultDataSource() {
@@ -96,6 +240,61 @@ public class ReadWriteSplittingDataSource implements DataSource {
         this.defaultDataSource = defaultDataSource;
     }
 
+    public ReplicaRoutingPolicy getRoutingPolicy() {
+        return routingPolicy;
+    }
+
+    public void setRoutingPolicy(ReplicaRoutingPolicy routingPolicy) {
+        this.routingPolicy = routingPolicy;
+    }
+
+    /**
+     * Returns the milliseconds of routing reads to the write data source after a write in current thread,
+     * zero or negative (default) disables the stickiness.
+     */
+    public long getStickyWindow() {
+        return stickyWindow;
+    }
+
+    public void setStickyWindow(long stickyWindow) {
+        this.stickyWindow = stickyWindow;
+    }
+
+    /**
+     * Returns the number of consecutive connection failures to open the circuit of a replica.
+     */
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public void setFailureThreshold(int failureThreshold) {
+        this.failureThreshold = failureThreshold;
+        replicas.forEach(r -> r.setFailureThreshold(failureThreshold));
+    }
+
+    /**
+     * Returns the milliseconds of the circuit of a failed replica keeping open.
+     */
+    public long getCircuitOpenTime() {
+        return circuitOpenTime;
+    }
+
+    public void setCircuitOpenTime(long circuitOpenTime) {
+        this.circuitOpenTime = circuitOpenTime;
+        replicas.forEach(r -> r.setCircuitOpenTime(circuitOpenTime));
+    }
+
+    /**
+     * Returns <code>true</code> if uses the write data source for reading when all the replicas are not available.
+     */
+    public boolean isFallbackToWrite() {
+        return fallbackToWrite;
+    }
+
+    public void setFallbackToWrite(boolean fallbackToWrite) {
+        this.fallbackToWrite = fallbackToWrite;
+    }
+
     @Override
     public <T> T unwrap(Class<T> iface) throws SQLException {
         return determineTargetDataSource().unwrap(iface);
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.core.ds;
+
+import leap.lang.Args;
+import leap.lang.jdbc.ConnectionProxy;
+import leap.lang.jdbc.StatementProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A read replica of {@link ReadWriteSplittingDataSource}, tracks the metrics and circuit state of the replica.
+ *
+ * <p/>
+ * The circuit opens after {@link #getFailureThreshold()} consecutive connection failures, the replica will not be
+ * chosen until the {@link #getCircuitOpenTime()} elapsed, after that only one borrowing is allowed as a trial
+ * which closes the circuit if success or opens it again if failed.
+ *
+ * <p/>
+ * The latency is the execution time of the statements created by the borrowed connections, not the borrowing time.
+ */
+public class ReplicaDataSource {
+
+    private static final double EWMA_ALPHA = 0.3d;
+
+    private final String     name;
+    private final DataSource dataSource;
+
+    private final AtomicInteger outstanding         = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final LongAdder     borrows             = new LongAdder();
+    private final LongAdder     failures            = new LongAdder();
+    private final LongAdder     circuitOpens        = new LongAdder();
+    private final AtomicBoolean probing             = new AtomicBoolean();
+
+    private volatile double latencyEwma = -1;
+    private volatile long   openUntil;
+
+    private int  failureThreshold = 3;
+    private long circuitOpenTime  = 30000;
+
+    public ReplicaDataSource(String name, DataSource dataSource) {
+        Args.notNull(dataSource, "dataSource");
+        this.name       = name;
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Returns the name of replica.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the underlying data source.
+     */
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    /**
+     * Returns the number of consecutive failures to open the circuit, zero or negative disables the circuit breaking.
+     */
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public void setFailureThreshold(int failureThreshold) {
+        this.failureThreshold = failureThreshold;
+    }
+
+    /**
+     * Returns the milliseconds of the circuit keeping open.
+     */
+    public long getCircuitOpenTime() {
+        return circuitOpenTime;
+    }
+
+    public void setCircuitOpenTime(long circuitOpenTime) {
+        this.circuitOpenTime = circuitOpenTime;
+    }
+
+    /**
+     * Returns <code>true</code> if the replica can be chosen at the given time.
+     *
+     * <p/>
+     * Returns <code>false</code> if the circuit is half open and the trial is in progress.
+     */
+    public boolean isAvailable(long now) {
+        long until = openUntil;
+        return until == 0 || (now >= until && !probing.get());
+    }
+
+    /**
+     * Acquires the permission of borrowing connection from the chosen replica at the given time.
+     *
+     * <p/>
+     * Returns <code>true</code> if the circuit is closed, or the circuit is half open and the caller wins the trial.
+     */
+    public boolean tryAcquire(long now) {
+        long until = openUntil;
+        if(until == 0) {
+            return true;
+        }
+        return now >= until && probing.compareAndSet(false, true);
+    }
+
+    /**
+     * Returns <code>true</code> if the circuit is open now.
+     */
+    public boolean isCircuitOpen() {
+        return !isAvailable(System.currentTimeMillis());
+    }
+
+    /**
+     * Returns the number of borrowed but not closed connections.
+     */
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    /**
+     * Returns the total number of borrowed connections.
+     */
+    public long getBorrows() {
+        return borrows.sum();
+    }
+
+    /**
+     * Returns the total number of failures of borrowing connection.
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * Returns the times of circuit opened.
+     */
+    public long getCircuitOpens() {
+        return circuitOpens.sum();
+    }
+
+    /**
+     * Returns the EWMA latency in milliseconds of executing statements, or <code>-1</code> if no samples.
+     */
+    public double getLatencyEwma() {
+        return latencyEwma;
+    }
+
+    /**
+     * Borrows a connection from the replica.
+     */
+    public Connection getConnection(String username, String password, boolean withCredentials) throws SQLException {
+        Connection conn;
+        try {
+            conn = withCredentials ? dataSource.getConnection(username, password) : dataSource.getConnection();
+        }catch (SQLException | RuntimeException e) {
+            onFailure();
+            throw e;
+        }
+
+        onSuccess();
+
+        outstanding.incrementAndGet();
+        return new ReplicaConnection(conn);
+    }
+
+    protected void onSuccess() {
+        borrows.increment();
+        consecutiveFailures.set(0);
+        openUntil = 0;
+        probing.set(false);
+    }
+
+    protected void onFailure() {
+        failures.increment();
+
+        int n = consecutiveFailures.incrementAndGet();
+        if(failureThreshold > 0 && n >= failureThreshold) {
+            openUntil = System.currentTimeMillis() + circuitOpenTime;
+            circuitOpens.increment();
+        }
+        probing.set(false);
+    }
+
+    protected void onExecuted(long ms) {
+        //the racing updates may lose a sample, it's acceptable for an estimation.
+        double ewma = latencyEwma;
+        latencyEwma = ewma < 0 ? ms : ewma + EWMA_ALPHA * (ms - ewma);
+    }
+
+    @Override
+    public String toString() {
+        return "Replica[" + name + ", outstanding=" + getOutstanding() + ", borrows=" + getBorrows() +
+               ", failures=" + getFailures() + ", latency=" + String.format("%.2f", latencyEwma) + "ms" +
+               (isCircuitOpen() ? ", circuit open" : "") + "]";
+    }
+
+    protected class ReplicaConnection extends ConnectionProxy {
+
+        private boolean closed;
+
+        public ReplicaConnection(Connection conn) {
+            super(conn);
+        }
+
+        @Override
+        protected void endExecuteStatement(StatementProxy stmt) {
+            onExecuted(stmt.getLastExecutingDurationMs());
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                conn.close();
+            }finally {
+                if(!closed) {
+                    closed = true;
+                    outstanding.decrementAndGet();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.core.event;
+
+/**
+ * The options of delivering the events of a category asynchronously.
+ *
+ * @see EventManager#setAsyncDelivery(String, AsyncEventConfig)
+ */
+public class AsyncEventConfig {
+
+	public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+	public static final int DEFAULT_WORKERS        = 1;
+	public static final int DEFAULT_BATCH_SIZE     = 1;
+
+	/**
+	 * The policy when the queue is full.
+	 */
+	public enum OverflowPolicy {
+		/**
+		 * Blocks the publisher until the queue has space.
+		 */
+		BLOCK,
+
+		/**
+		 * Drops the event, the dropped events are counted.
+		 */
+		DROP,
+
+		/**
+		 * Delivers the event synchronously in the publisher thread.
+		 *
+		 * <p/>
+		 * The events with key are blocked as {@link #BLOCK} to keep the per-key order.
+		 */
+		CALLER_RUNS
+	}
+
+	protected int            queueCapacity  = DEFAULT_QUEUE_CAPACITY;
+	protected int            workers        = DEFAULT_WORKERS;
+	protected int            batchSize      = DEFAULT_BATCH_SIZE;
+	protected OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+	/**
+	 * Returns the capacity of the queue of each worker.
+	 */
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Returns the number of worker threads.
+	 *
+	 * <p/>
+	 * The events with the same {@link Event#getKey()} are delivered by the same worker in the publishing order.
+	 */
+	public int getWorkers() {
+		return workers;
+	}
+
+	public void setWorkers(int workers) {
+		this.workers = workers;
+	}
+
+	/**
+	 * Returns the max number of events delivered to a {@link BatchEventListener} at once.
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public OverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+		this.overflowPolicy = overflowPolicy;
+	}
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.core.event;
+
+import leap.lang.Args;
+import leap.lang.logging.Log;
+import leap.lang.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Delivers the events of a category in worker threads, each worker has a bounded queue.
+ *
+ * <p/>
+ * The events with the same key are queued to the same worker, so they are delivered in the publishing order.
+ */
+public class AsyncEventDispatcher {
+
+	private static final Log log = LogFactory.get(AsyncEventDispatcher.class);
+
+	protected final String                 category;
+	protected final AsyncEventConfig       config;
+	protected final Consumer<List<Event>>  deliverer;
+	protected final Worker[]               workers;
+	protected final AtomicInteger          counter   = new AtomicInteger();
+	protected final AtomicLong             pending   = new AtomicLong();
+	protected final Object                 idle      = new Object();
+	protected final LongAdder              published = new LongAdder();
+	protected final LongAdder              delivered = new LongAdder();
+	protected final LongAdder              dropped   = new LongAdder();
+	protected final LongAdder              errors    = new LongAdder();
+	protected final LongAdder              totalLag  = new LongAdder();
+	protected final LongAccumulator        maxLag    = new LongAccumulator(Long::max, 0);
+
+	private volatile boolean stopped;
+
+	/**
+	 * @param deliverer delivers a batch of events to the listeners.
+	 */
+	public AsyncEventDispatcher(String category, AsyncEventConfig config, Consumer<List<Event>> deliverer) {
+		Args.notEmpty(category, "category");
+		Args.assertTrue(config.getWorkers() > 0, "workers must be positive");
+		Args.assertTrue(config.getQueueCapacity() > 0, "queue capacity must be positive");
+
+		this.category  = category;
+		this.config    = config;
+		this.deliverer = deliverer;
+		this.workers   = new Worker[config.getWorkers()];
+
+		for(int i=0;i<workers.length;i++) {
+			workers[i] = new Worker("event-" + category + "-" + i);
+			workers[i].start();
+		}
+	}
+
+	public String getCategory() {
+		return category;
+	}
+
+	/**
+	 * Queues the event.
+	 */
+	public void dispatch(Event event) {
+		if(stopped) {
+			throw new IllegalStateException("The event dispatcher of category '" + category + "' was stopped");
+		}
+
+		Object key   = event.getKey();
+		int    index = null == key ? counter.getAndIncrement() : key.hashCode();
+		Worker w     = workers[(index & Integer.MAX_VALUE) % workers.length];
+
+		Envelope envelope = new Envelope(event);
+
+		published.increment();
+		pending.incrementAndGet();
+
+		boolean queued = w.queue.offer(envelope);
+		if(!queued) {
+			switch (config.getOverflowPolicy()) {
+				case DROP:
+					decrementPending(1);
+					dropped.increment();
+					log.debug("Event queue of category '{}' is full, drop the event '{}'", category, event.getName());
+					return;
+				case CALLER_RUNS:
+					//the keyed event must be queued to the owning worker to keep the per-key order.
+					if(null == key) {
+						deliver(new Envelope[]{envelope}, 1);
+						return;
+					}
+				default:
+					try {
+						w.queue.put(envelope);
+					} catch (InterruptedException e) {
+						decrementPending(1);
+						dropped.increment();
+						Thread.currentThread().interrupt();
+						throw new EventNotifyException("Interrupted while queueing event '" + event.getName() + "'", e);
+					}
+			}
+		}
+	}
+
+	/**
+	 * Waits until all the queued events are delivered, returns false if timeout.
+	 */
+	public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+		long remaining = unit.toNanos(timeout);
+		long deadline  = System.nanoTime() + remaining;
+		synchronized (idle) {
+			while(pending.get() > 0) {
+				if(remaining <= 0) {
+					return false;
+				}
+				TimeUnit.NANOSECONDS.timedWait(idle, remaining);
+				remaining = deadline - System.nanoTime();
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Stops the workers after the queued events are delivered or the timeout elapsed.
+	 */
+	public void stop(long timeout, TimeUnit unit) {
+		stopped = true;
+		try {
+			if(!awaitIdle(timeout, unit)) {
+				log.warn("{} events of category '{}' are not delivered before stopping", pending.get(), category);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		for(Worker w : workers) {
+			w.interrupt();
+		}
+	}
+
+	/**
+	 * Returns the number of events in the queues.
+	 */
+	public int getQueueDepth() {
+		int n = 0;
+		for(Worker w : workers) {
+			n += w.queue.size();
+		}
+		return n;
+	}
+
+	/**
+	 * Returns the number of published events.
+	 */
+	public long getPublished() {
+		return published.sum();
+	}
+
+	/**
+	 * Returns the number of delivered events.
+	 */
+	public long getDelivered() {
+		return delivered.sum();
+	}
+
+	/**
+	 * Returns the number of dropped events by {@link AsyncEventConfig.OverflowPolicy#DROP}.
+	 */
+	public long getDropped() {
+		return dropped.sum();
+	}
+
+	/**
+	 * Returns the number of listener errors.
+	 */
+	public long getErrors() {
+		return errors.sum();
+	}
+
+	/**
+	 * Returns the max lag in milliseconds between publishing and delivering.
+	 */
+	public long getMaxLag() {
+		return maxLag.get();
+	}
+
+	/**
+	 * Returns the average lag in milliseconds between publishing and delivering.
+	 */
+	public double getAvgLag() {
+		long n = delivered.sum();
+		return n == 0 ? 0 : totalLag.sum() / (double)n;
+	}
+
+	protected void deliver(Envelope[] batch, int size) {
+		long now = System.currentTimeMillis();
+
+		List<Event> events = new ArrayList<>(size);
+		for(int i=0;i<size;i++) {
+			long lag = now - batch[i].time;
+			totalLag.add(lag);
+			maxLag.accumulate(lag);
+			events.add(batch[i].event);
+		}
+
+		try {
+			deliverer.accept(events);
+		}catch (Throwable e) {
+			errors.increment();
+			log.error("Error delivering {} event(s) of category '{}'", size, category, e);
+		}finally {
+			delivered.add(size);
+			decrementPending(size);
+		}
+	}
+
+	protected void decrementPending(int n) {
+		if(pending.addAndGet(-n) == 0) {
+			synchronized (idle) {
+				idle.notifyAll();
+			}
+		}
+	}
+
+	protected static final class Envelope {
+		final Event event;
+		final long  time;
+
+		Envelope(Event event) {
+			this.event = event;
+			this.time  = System.currentTimeMillis();
+		}
+	}
+
+	protected final class Worker extends Thread {
+
+		final BlockingQueue<Envelope> queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+
+		Worker(String name) {
+			super(name);
+			setDaemon(true);
+		}
+
+		@Override
+		public void run() {
+			final int        batchSize = Math.max(1, config.getBatchSize());
+			final Envelope[] batch     = new Envelope[batchSize];
+
+			for(;;) {
+				try {
+					batch[0] = queue.take();
+				} catch (InterruptedException e) {
+					if(stopped) {
+						return;
+					}
+					continue;
+				}
+
+				int size = 1;
+				while(size < batchSize) {
+					Envelope next = queue.poll();
+					if(null == next) {
+						break;
+					}
+					batch[size++] = next;
+				}
+
+				deliver(batch, size);
+
+				for(int i=0;i<size;i++) {
+					batch[i] = null;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.core.event;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An {@link EventListener} which receives the events in batches when the event category is delivered asynchronously.
+ *
+ * <p/>
+ * The events in a batch are in the publishing order (per key), the listener receives single event batch
+ * when the category is delivered synchronously.
+ */
+public interface BatchEventListener extends EventListener {
+
+	/**
+	 * Handles the batch of events.
+	 */
+	void onEvents(List<Event> events) throws Exception;
+
+	@Override
+	default void onEvent(Event event) throws Exception {
+		onEvents(Collections.singletonList(event));
+	}
+
+}
@@ -25,6 +25,8 @@ public class DefaultEvent implements Event {
 	protected final Object  source;
 	protected final boolean cancelable;
 	
+	protected Object key;
+
 	private boolean cancelled;
 	
 	public DefaultEvent(String name,String category,Object source){
@@ -67,6 +69,15 @@ public class DefaultEvent implements Event {
 		return source;
 	}
 
+	@Override
+	public Object getKey() {
+		return key;
+	}
+
+	public void setKey(Object key) {
+		this.key = key;
+	}
+
 	@Override
 	public boolean cancelable() {
 		return cancelable;
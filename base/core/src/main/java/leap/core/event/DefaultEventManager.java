@@ -15,19 +15,23 @@
  */
 package leap.core.event;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 import leap.lang.Args;
+import leap.lang.Disposable;
 import leap.lang.Strings;
 import leap.lang.exception.ObjectExistsException;
 import leap.lang.exception.ObjectNotFoundException;
 import leap.lang.logging.Log;
 import leap.lang.logging.LogFactory;
 
-public class DefaultEventManager implements EventManager {
+public class DefaultEventManager implements EventManager, Disposable {
 	private static final Log log = LogFactory.get(DefaultEventManager.class);
 	
 	private final Object _lock = new Object();
@@ -36,6 +40,9 @@ public class DefaultEventManager implements EventManager {
 	protected Map<String, List<String>>        categoryEvents    = new ConcurrentHashMap<String, List<String>>();
 	protected Map<String, List<EventListener>> categoryListeners = new ConcurrentHashMap<String, List<EventListener>>();
 	protected Map<String, List<EventListener>> eventListeners    = new ConcurrentHashMap<String, List<EventListener>>();
+	protected Map<String, AsyncEventDispatcher> dispatchers      = new ConcurrentHashMap<String, AsyncEventDispatcher>();
+
+	protected long stopTimeout = 5000;
 	
 	@Override
 	public boolean isEventCategoryRegistered(String category){
@@ -140,12 +147,56 @@ public class DefaultEventManager implements EventManager {
         }
     }
 	
+	@Override
+	public void setAsyncDelivery(String category, AsyncEventConfig config) throws ObjectNotFoundException {
+		Args.notEmpty(category,"category");
+		Args.notNull(config,"config");
+
+		synchronized (_lock) {
+			if(!categoryListeners.containsKey(category)){
+				throw new ObjectNotFoundException("event category '" + category + "' not register");
+			}
+
+			if(dispatchers.containsKey(category)){
+				throw new IllegalStateException("async delivery of event category '" + category + "' aleady enabled");
+			}
+
+			log.debug("Events of category '{}' will be delivered asynchronously",category);
+
+			dispatchers.put(category, new AsyncEventDispatcher(category, config, this::deliverEvents));
+		}
+	}
+
+	@Override
+	public AsyncEventDispatcher getAsyncDispatcher(String category) {
+		return dispatchers.get(category);
+	}
+
+	public long getStopTimeout() {
+		return stopTimeout;
+	}
+
+	/**
+	 * Sets the max milliseconds to wait for delivering the queued events on disposing.
+	 */
+	public void setStopTimeout(long stopTimeout) {
+		this.stopTimeout = stopTimeout;
+	}
+
 	@Override
     public void fireEvent(Event event) throws ObjectNotFoundException {
 		List<EventListener> listeners = eventListeners.get(event.getName());
 		if(null == listeners){
 			throw new ObjectNotFoundException("event name '" + event.getName() + "' not register");
 		}
+
+		if(!dispatchers.isEmpty()){
+			AsyncEventDispatcher dispatcher = dispatchers.get(event.getCategory());
+			if(null != dispatcher){
+				dispatcher.dispatch(event);
+				return;
+			}
+		}
 	
 		if(!fireEvent(event, listeners)){
 			return;
@@ -153,6 +204,14 @@ public class DefaultEventManager implements EventManager {
 		
 		fireEvent(event, allListeners);
     }
+
+	@Override
+	public void dispose() throws Throwable {
+		for(AsyncEventDispatcher dispatcher : dispatchers.values()){
+			dispatcher.stop(stopTimeout, TimeUnit.MILLISECONDS);
+		}
+		dispatchers.clear();
+	}
 	
 	protected boolean fireEvent(Event event,List<EventListener> listeners){
 		for(int i=0;i<listeners.size();i++){
@@ -173,4 +232,72 @@ public class DefaultEventManager implements EventManager {
 		
 		return true;
 	}
+
+	/**
+	 * Delivers the events queued by an {@link AsyncEventDispatcher}.
+	 *
+	 * <p>
+	 * The {@link BatchEventListener}s receive all the events of the batch in one call after the other listeners,
+	 * so the cancellation of an event does not affect them.
+	 *
+	 * <p>
+	 * An error of a listener is logged and does not stop the delivering to other listeners.
+	 */
+	protected void deliverEvents(List<Event> events) {
+		Map<BatchEventListener, List<Event>> batches = null;
+
+		for(Event event : events){
+			List<EventListener> listeners = eventListeners.get(event.getName());
+
+			//the cancellation stops the delivering to the remaining non-batch listeners only.
+			boolean cancelled = false;
+			for(int n=0;n<2;n++){
+				if(n == 1){
+					listeners = allListeners;
+				}
+
+				for(int i=0;i<listeners.size();i++){
+					EventListener listener = listeners.get(i);
+
+					if(listener instanceof BatchEventListener){
+						if(null == batches){
+							batches = new IdentityHashMap<>();
+						}
+						batches.computeIfAbsent((BatchEventListener)listener, k -> new ArrayList<>(events.size())).add(event);
+						continue;
+					}
+
+					if(cancelled){
+						continue;
+					}
+
+					try{
+						listener.onEvent(event);
+					}catch(Throwable e){
+						onDeliverError(event, listener, e);
+					}
+
+					cancelled = event.isCancelled();
+				}
+			}
+		}
+
+		if(null != batches){
+			for(Map.Entry<BatchEventListener, List<Event>> entry : batches.entrySet()){
+				try{
+					entry.getKey().onEvents(entry.getValue());
+				}catch(Throwable e){
+					onDeliverError(entry.getValue().get(0), entry.getKey(), e);
+				}
+			}
+		}
+	}
+
+	protected void onDeliverError(Event event, EventListener listener, Throwable e) {
+		AsyncEventDispatcher dispatcher = dispatchers.get(event.getCategory());
+		if(null != dispatcher){
+			dispatcher.errors.increment();
+		}
+		log.error("Error notify listener '{}' on event '{}'", listener.getClass().getName(), event.getName(), e);
+	}
 }
\ No newline at end of file
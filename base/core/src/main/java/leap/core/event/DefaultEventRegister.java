@@ -22,6 +22,7 @@ import leap.core.AppContextInitializable;
 import leap.core.annotation.Inject;
 import leap.core.ioc.BeanDefinition;
 import leap.lang.Arrays2;
+import leap.lang.Strings;
 
 public class DefaultEventRegister implements AppContextInitializable {
 	
@@ -59,6 +60,21 @@ public class DefaultEventRegister implements AppContextInitializable {
 				eventManager.registerEventName(category, eventName);
 			}
 		}
+
+		if(reg.isAsync()){
+			AsyncEventConfig config = new AsyncEventConfig();
+			config.setQueueCapacity(reg.getQueueCapacity());
+			config.setWorkers(reg.getWorkers());
+			config.setBatchSize(reg.getBatchSize());
+			if(!Strings.isEmpty(reg.getOverflowPolicy())){
+				try{
+					config.setOverflowPolicy(AsyncEventConfig.OverflowPolicy.valueOf(reg.getOverflowPolicy().toUpperCase()));
+				}catch(IllegalArgumentException e){
+					throw new EventRegistrationException("invalid overflow policy '" + reg.getOverflowPolicy() + "', source : " + bd.getSource());
+				}
+			}
+			eventManager.setAsyncDelivery(category, config);
+		}
 	}
 	
 	protected void register(EventListenerRegistration reg,BeanDefinition bd){
@@ -37,6 +37,16 @@ public interface Event {
 	 */
 	Object getSource();
 
+	/**
+	 * Returns the ordering key of this event, may be null.
+	 *
+	 * <p>
+	 * The events with the same key are delivered in the firing order when delivering asynchronously.
+	 */
+	default Object getKey() {
+		return null;
+	}
+
 	/**
 	 * Returns <code>true</code> if this event is cancelable.
 	 * 
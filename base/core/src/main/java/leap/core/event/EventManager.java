@@ -79,5 +79,18 @@ public interface EventManager {
 	 * Throws {@link ObjectNotFoundException} if the given event's name not exists.
 	 */
 	void fireEvent(Event event) throws ObjectNotFoundException;
-	
+
+	/**
+	 * Delivers the events of the given category asynchronously, the events are delivered synchronously by default.
+	 *
+	 * <p>
+	 * Throws {@link ObjectNotFoundException} if the given event category not exists.
+	 */
+	void setAsyncDelivery(String category, AsyncEventConfig config) throws ObjectNotFoundException;
+
+	/**
+	 * Returns the {@link AsyncEventDispatcher} of the given category or <code>null</code> if the category is delivered synchronously.
+	 */
+	AsyncEventDispatcher getAsyncDispatcher(String category);
+
 }
\ No newline at end of file
@@ -21,6 +21,11 @@ public class EventRegistration {
 	
 	protected @NotNull String category;
 	protected String[]        eventNames;
+	protected boolean         async;
+	protected int             queueCapacity  = AsyncEventConfig.DEFAULT_QUEUE_CAPACITY;
+	protected int             workers        = AsyncEventConfig.DEFAULT_WORKERS;
+	protected int             batchSize      = AsyncEventConfig.DEFAULT_BATCH_SIZE;
+	protected String          overflowPolicy;
 
 	public String getCategory() {
 		return category;
@@ -37,4 +42,50 @@ public class EventRegistration {
 	public void setEventNames(String[] events) {
 		this.eventNames = events;
 	}
+
+	/**
+	 * Returns <code>true</code> if the events of the category are delivered asynchronously.
+	 */
+	public boolean isAsync() {
+		return async;
+	}
+
+	public void setAsync(boolean async) {
+		this.async = async;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	public int getWorkers() {
+		return workers;
+	}
+
+	public void setWorkers(int workers) {
+		this.workers = workers;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Returns the name of {@link AsyncEventConfig.OverflowPolicy}, may be null.
+	 */
+	public String getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	public void setOverflowPolicy(String overflowPolicy) {
+		this.overflowPolicy = overflowPolicy;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.core.instrument;
+
+import leap.lang.Strings;
+import leap.lang.codec.Digests;
+import leap.lang.codec.Hex;
+import leap.lang.io.IO;
+import leap.lang.logging.Log;
+import leap.lang.logging.LogFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The persistent cache of instrumentation results.
+ *
+ * <p/>
+ * The results are keyed by the hash of class bytes and the versions of processors,
+ * both the instrumented and the not instrumented classes are cached, so a cached class will not be parsed again.
+ *
+ * <p/>
+ * The cache reads the prebuilt entries in classpath location {@link #CLASSPATH_LOCATION} (see {@link AppInstrumentCacheBuilder})
+ * if the prebuilt entries were built by the same processor versions, and reads and writes the entries in the cache directory if configured.
+ */
+public class AppInstrumentCache {
+
+    private static final Log log = LogFactory.get(AppInstrumentCache.class);
+
+    public static final String CLASSPATH_LOCATION = "META-INF/leap/instrument/";
+    public static final String VERSION_FILE       = "version";
+
+    private static final int MAGIC = 0x4C494331; //LIC1
+
+    private final String      version;
+    private final File        dir;
+    private final ClassLoader prebuiltLoader;
+
+    /**
+     * @param version        the versions of processors.
+     * @param dir            the cache directory, <code>null</code> if no cache directory.
+     * @param prebuiltLoader the class loader to read the prebuilt entries, <code>null</code> if no prebuilt entries.
+     */
+    public AppInstrumentCache(String version, File dir, ClassLoader prebuiltLoader) {
+        this.version        = version;
+        this.dir            = dir;
+        this.prebuiltLoader = null != prebuiltLoader && isPrebuilt(prebuiltLoader, version) ? prebuiltLoader : null;
+    }
+
+    /**
+     * Returns <code>true</code> if the prebuilt entries are available.
+     */
+    public boolean isPrebuiltAvailable() {
+        return null != prebuiltLoader;
+    }
+
+    /**
+     * Returns <code>true</code> if the cache directory or the prebuilt entries are available.
+     */
+    public boolean isAvailable() {
+        return null != dir || null != prebuiltLoader;
+    }
+
+    /**
+     * Returns the cache key of the class bytes.
+     */
+    public String key(byte[] bytes, boolean methodBodyOnly) {
+        MessageDigest md = Digests.getDigest("SHA-1");
+        md.update(version.getBytes(StandardCharsets.UTF_8));
+        md.update((byte) (methodBodyOnly ? 1 : 0));
+        md.update(bytes);
+        return Hex.encode(md.digest());
+    }
+
+    /**
+     * Returns the cached entry or <code>null</code>.
+     */
+    public Entry get(String key) {
+        if (null != dir) {
+            File file = file(dir, key);
+            if (file.exists()) {
+                try (InputStream in = new FileInputStream(file)) {
+                    return read(in);
+                } catch (IOException e) {
+                    log.warn("Error reading instrument cache '{}', {}", file.getAbsolutePath(), e.getMessage());
+                }
+            }
+        }
+
+        if (null != prebuiltLoader) {
+            InputStream in = prebuiltLoader.getResourceAsStream(CLASSPATH_LOCATION + path(key));
+            if (null != in) {
+                try {
+                    return read(in);
+                } catch (IOException e) {
+                    log.warn("Error reading prebuilt instrument cache '{}', {}", key, e.getMessage());
+                } finally {
+                    IO.close(in);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Writes the entry to the cache directory, does nothing if no cache directory.
+     */
+    public void put(String key, Entry entry) {
+        if (null == dir) {
+            return;
+        }
+
+        File file = file(dir, key);
+        File tmp  = new File(file.getPath() + ".tmp");
+        try {
+            file.getParentFile().mkdirs();
+            try (OutputStream out = new FileOutputStream(tmp)) {
+                write(out, entry);
+            }
+            if (!tmp.renameTo(file)) {
+                tmp.delete();
+            }
+        } catch (IOException e) {
+            log.warn("Error writing instrument cache '{}', {}", file.getAbsolutePath(), e.getMessage());
+            tmp.delete();
+        }
+    }
+
+    /**
+     * Writes the version file to the cache directory, the directory can be packaged as prebuilt entries.
+     */
+    public void writeVersion() throws IOException {
+        dir.mkdirs();
+        try (OutputStream out = new FileOutputStream(new File(dir, VERSION_FILE))) {
+            out.write(version.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    protected static boolean isPrebuilt(ClassLoader loader, String version) {
+        InputStream in = loader.getResourceAsStream(CLASSPATH_LOCATION + VERSION_FILE);
+        if (null == in) {
+            return false;
+        }
+        try {
+            return version.equals(IO.readString(in, StandardCharsets.UTF_8));
+        } finally {
+            IO.close(in);
+        }
+    }
+
+    protected static File file(File dir, String key) {
+        return new File(dir, path(key));
+    }
+
+    protected static String path(String key) {
+        return key.substring(0, 2) + "/" + key.substring(2) + ".bin";
+    }
+
+    protected static Entry read(InputStream is) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(is));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Invalid instrument cache format");
+        }
+
+        Entry entry = new Entry();
+        entry.instrumented = in.readBoolean();
+        if (entry.instrumented) {
+            entry.internalClassName = in.readUTF();
+            entry.ensure            = in.readBoolean();
+            entry.beanDeclared      = in.readBoolean();
+
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                entry.instrumentedBy.add(in.readUTF());
+            }
+
+            entry.classData = new byte[in.readInt()];
+            in.readFully(entry.classData);
+        }
+        return entry;
+    }
+
+    protected static void write(OutputStream os, Entry entry) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os));
+        out.writeInt(MAGIC);
+        out.writeBoolean(entry.instrumented);
+        if (entry.instrumented) {
+            out.writeUTF(entry.internalClassName);
+            out.writeBoolean(entry.ensure);
+            out.writeBoolean(entry.beanDeclared);
+            out.writeInt(entry.instrumentedBy.size());
+            for (String name : entry.instrumentedBy) {
+                out.writeUTF(name);
+            }
+            out.writeInt(entry.classData.length);
+            out.write(entry.classData);
+        }
+        out.flush();
+    }
+
+    @Override
+    public String toString() {
+        return "AppInstrumentCache[dir=" + dir + ", prebuilt=" + isPrebuiltAvailable() + ", version=" + Strings.abbreviate(version, 32) + "]";
+    }
+
+    /**
+     * The cached result of a class.
+     */
+    public static final class Entry {
+        boolean      instrumented;
+        String       internalClassName;
+        boolean      ensure;
+        boolean      beanDeclared;
+        List<String> instrumentedBy = new ArrayList<>(2);
+        byte[]       classData;
+
+        public boolean isInstrumented() {
+            return instrumented;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.core.instrument;
+
+import leap.core.AppConfig;
+import leap.core.AppConfigSource;
+import leap.lang.Classes;
+import leap.lang.Factory;
+import leap.lang.io.IO;
+import leap.lang.resource.Resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Instruments all the app classes at build time and writes the results as the prebuilt entries of {@link AppInstrumentCache}.
+ *
+ * <p/>
+ * The entries are written to the directory {@link AppInstrumentCache#CLASSPATH_LOCATION} of the given classes directory
+ * and will be packaged with the classes, so the app starts with the instrumented classes without instrumenting.
+ *
+ * <p/>
+ * Usage in maven (the classes directory is the first argument) :
+ * <pre>
+ *     mvn process-classes exec:java -Dexec.mainClass=leap.core.instrument.AppInstrumentCacheBuilder
+ *                                   -Dexec.args=target/classes -Dexec.classpathScope=runtime
+ * </pre>
+ */
+public class AppInstrumentCacheBuilder {
+
+    public static void main(String[] args) throws IOException {
+        if(args.length == 0) {
+            System.err.println("Usage : AppInstrumentCacheBuilder <classes-dir>");
+            System.exit(1);
+        }
+
+        File dir = new File(args[0], AppInstrumentCache.CLASSPATH_LOCATION);
+
+        AppConfig config = Factory.newInstance(AppConfigSource.class).loadConfig(null, null);
+
+        int count = build(config, dir);
+
+        System.out.println("Instrumented " + count + " classes into '" + dir.getAbsolutePath() + "'");
+    }
+
+    /**
+     * Instruments the classes of the app and writes the results to the directory, returns the number of instrumented classes.
+     */
+    public static int build(AppConfig config, File dir) throws IOException {
+        DefaultAppInstrumentation instrumentation = new DefaultAppInstrumentation();
+        instrumentation.init(config);
+
+        String version = instrumentation.getProcessorsVersion();
+        if(null == version) {
+            throw new IllegalStateException("The instrumentation can not be cached, check the versions of processors");
+        }
+
+        AppInstrumentCache cache = new AppInstrumentCache(version, dir, null);
+        cache.writeVersion();
+        instrumentation.setCache(cache);
+
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+
+        int count = 0;
+        for(Resource resource : config.getResources()) {
+            String filename = resource.getFilename();
+            if(!resource.exists() || null == filename || !filename.endsWith(Classes.CLASS_FILE_SUFFIX)) {
+                continue;
+            }
+
+            InputStream in = resource.getInputStream();
+            try {
+                if(null != instrumentation.tryInstrument(loader, resource, IO.readByteArray(in), false)) {
+                    count++;
+                }
+            } finally {
+                IO.close(in);
+            }
+        }
+
+        return count;
+    }
+}
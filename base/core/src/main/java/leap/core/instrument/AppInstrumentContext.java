@@ -15,6 +15,10 @@
  */
 package leap.core.instrument;
 
+import leap.lang.asm.ASM;
+import leap.lang.asm.ClassReader;
+import leap.lang.asm.tree.ClassNode;
+
 import java.util.Collection;
 
 public interface AppInstrumentContext {
@@ -24,6 +28,20 @@ public interface AppInstrumentContext {
      */
     ClassLoader getClassLoader();
 
+    /**
+     * Returns the {@link ClassReader} of the class bytes, the reader may be shared by the processors.
+     */
+    default ClassReader getClassReader(byte[] bytes) {
+        return new ClassReader(bytes);
+    }
+
+    /**
+     * Returns the {@link ClassNode} of the reader, the node may be shared by the processors and must not be modified.
+     */
+    default ClassNode getClassNode(ClassReader cr) {
+        return ASM.getClassNode(cr);
+    }
+
     /**
      * Returns true if the given class name was instrumented by the class.
      */
@@ -52,6 +52,17 @@ public interface AppInstrumentProcessor {
         return false;
     }
 
+    /**
+     * Returns the version of the instrumentation result, the results cached by other versions will be discarded.
+     *
+     * <p/>
+     * The processor must returns a different version if the result changed by config.
+     * Returns <code>null</code> (default) if the result can not be cached, so a processor must opt in explicitly.
+     */
+    default String getVersion() {
+        return null;
+    }
+
     /**
      * Instrument the class.
      *
@@ -50,7 +50,7 @@ public abstract class AsmInstrumentProcessor implements AppInstrumentProcessor {
         }
 
         try{
-            ClassReader cr = new ClassReader(bytes);
+            ClassReader cr = context.getClassReader(bytes);
 
             if(acceptsClass(context, cr)) {
                 if(context.isInstrumentedBy(cr.getClassName(), this.getClass())) {
@@ -61,12 +61,12 @@ public abstract class AsmInstrumentProcessor implements AppInstrumentProcessor {
                 AppInstrumentClass ic = context.getInstrumentedClass(cr.getClassName());
                 if(null != ic) {
                     is = new ByteArrayInputStreamSource(ic.getClassData());
-                    cr = new ClassReader(ic.getClassData());
+                    cr = context.getClassReader(ic.getClassData());
                 }else{
                     ic = context.newInstrumentedClass(cr.getClassName());
                 }
 
-                ClassNode cn = ASM.getClassNode(cr);
+                ClassNode cn = context.getClassNode(cr);
 
                 ClassInfo ci = new ClassInfo();
                 ci.rs = resource;
@@ -74,7 +74,6 @@ public abstract class AsmInstrumentProcessor implements AppInstrumentProcessor {
                 ci.cr = cr;
                 ci.cn = cn;
 
-                //todo : optimize performance?
                 processClass(context, ic, ci, methodBodyOnly);
 
                 if(null == ic) {
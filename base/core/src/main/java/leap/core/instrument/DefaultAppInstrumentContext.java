@@ -15,6 +15,10 @@
  */
 package leap.core.instrument;
 
+import leap.lang.asm.ASM;
+import leap.lang.asm.ClassReader;
+import leap.lang.asm.tree.ClassNode;
+
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -24,6 +28,11 @@ public class DefaultAppInstrumentContext implements AppInstrumentContext {
     private final ClassLoader                     classLoader;
     private final Map<String, AppInstrumentClass> instrumentedMap = new LinkedHashMap<>();
 
+    //the last parsed class, the processors read the same bytes until one of them instruments the class.
+    private byte[]      lastBytes;
+    private ClassReader lastReader;
+    private ClassNode   lastNode;
+
     public DefaultAppInstrumentContext(ClassLoader classLoader) {
         this.classLoader = classLoader;
     }
@@ -33,6 +42,27 @@ public class DefaultAppInstrumentContext implements AppInstrumentContext {
         return classLoader;
     }
 
+    @Override
+    public ClassReader getClassReader(byte[] bytes) {
+        if(bytes != lastBytes) {
+            lastBytes  = bytes;
+            lastReader = new ClassReader(bytes);
+            lastNode   = null;
+        }
+        return lastReader;
+    }
+
+    @Override
+    public ClassNode getClassNode(ClassReader cr) {
+        if(cr != lastReader) {
+            return ASM.getClassNode(cr);
+        }
+        if(null == lastNode) {
+            lastNode = ASM.getClassNode(cr);
+        }
+        return lastNode;
+    }
+
     @Override
     public Collection<AppInstrumentClass> getAllInstrumentedClasses() {
         return instrumentedMap.values();
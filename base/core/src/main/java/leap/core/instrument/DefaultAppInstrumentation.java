@@ -34,11 +34,19 @@ package leap.core.instrument;
 
 import leap.core.AppConfig;
 import leap.core.AppInitException;
+import leap.lang.Classes;
 import leap.lang.Factory;
+import leap.lang.Strings;
+import leap.lang.codec.Digests;
+import leap.lang.exception.NestedIOException;
+import leap.lang.io.IO;
 import leap.lang.logging.Log;
 import leap.lang.logging.LogFactory;
 import leap.lang.resource.Resource;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -46,17 +54,87 @@ public class DefaultAppInstrumentation implements AppInstrumentation {
 
     private static final Log log = LogFactory.get(DefaultAppInstrumentation.class);
 
+    /**
+     * The directory of the persistent instrument cache, disabled if not set.
+     */
+    public static final String CACHE_DIR_PROPERTY = "instrument.cache.dir";
+
     private final List<AppInstrumentProcessor> processors = Factory.newInstances(AppInstrumentProcessor.class);
 
+    protected AppInstrumentCache cache;
+
     @Override
     public void init(AppConfig config) {
         for(AppInstrumentProcessor p : processors) {
             p.init(config);
         }
+
+        String version = getProcessorsVersion();
+        if(null == version) {
+            log.debug("Instrument cache disabled, the result of processors can not be cached");
+            return;
+        }
+
+        String dir = config.getProperty(CACHE_DIR_PROPERTY);
+
+        AppInstrumentCache cache = new AppInstrumentCache(version,
+                                                          Strings.isEmpty(dir) ? null : new File(dir),
+                                                          Thread.currentThread().getContextClassLoader());
+        if(cache.isAvailable()) {
+            log.info("Use {}", cache);
+            this.cache = cache;
+        }
+    }
+
+    /**
+     * Sets the cache, the cache will be used if the processors not changed.
+     */
+    public void setCache(AppInstrumentCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Returns the version of all processors or <code>null</code> if the result of processors can not be cached.
+     */
+    public String getProcessorsVersion() {
+        StringBuilder s = new StringBuilder();
+        for(AppInstrumentProcessor p : processors) {
+            String version = p.getVersion();
+            if(null == version) {
+                return null;
+            }
+
+            Class<?>    c  = p.getClass();
+            InputStream in = Classes.getClassLoader(c).getResourceAsStream(Classes.getClassResourcePath(c));
+            try {
+                s.append(c.getName()).append('@').append(null == in ? "" : Digests.md5Hex(in)).append(':').append(version).append(';');
+            } catch (IOException e) {
+                throw new NestedIOException(e);
+            } finally {
+                IO.close(in);
+            }
+        }
+        return Digests.shaHex(s.toString());
     }
 
     @Override
     public AppInstrumentClass tryInstrument(ClassLoader loader, Resource r, byte[] bytes, boolean methodBodyOnly) {
+        if(null == cache) {
+            return doInstrument(loader, r, bytes, methodBodyOnly);
+        }
+
+        String                   key   = cache.key(bytes, methodBodyOnly);
+        AppInstrumentCache.Entry entry = cache.get(key);
+        if(null != entry) {
+            return fromCacheEntry(entry);
+        }
+
+        AppInstrumentClass ic = doInstrument(loader, r, bytes, methodBodyOnly);
+        cache.put(key, toCacheEntry(ic));
+        return ic;
+    }
+
+    protected AppInstrumentClass doInstrument(ClassLoader loader, Resource r, byte[] bytes, boolean methodBodyOnly) {
         DefaultAppInstrumentContext context = new DefaultAppInstrumentContext(loader);
 
         for(AppInstrumentProcessor p : processors){
@@ -80,6 +158,43 @@ public class DefaultAppInstrumentation implements AppInstrumentation {
         return ic;
     }
 
+    protected AppInstrumentClass fromCacheEntry(AppInstrumentCache.Entry entry) {
+        if(!entry.instrumented) {
+            return null;
+        }
+
+        SimpleAppInstrumentClass ic = new SimpleAppInstrumentClass(entry.internalClassName);
+        ic.updateClassData(entry.classData);
+        ic.setBeanDeclared(entry.beanDeclared);
+        if(entry.ensure) {
+            ic.makeEnsure();
+        }
+        for(String name : entry.instrumentedBy) {
+            for(AppInstrumentProcessor p : processors) {
+                if(p.getClass().getName().equals(name)) {
+                    ic.addInstrumentedBy(p);
+                }
+            }
+        }
+
+        log.trace("Instrument '{}' from cache", ic.getClassName());
+        return ic;
+    }
+
+    protected AppInstrumentCache.Entry toCacheEntry(AppInstrumentClass ic) {
+        AppInstrumentCache.Entry entry = new AppInstrumentCache.Entry();
+        if(null != ic) {
+            entry.instrumented      = true;
+            entry.internalClassName = ic.getInternalClassName();
+            entry.ensure            = ic.isEnsure();
+            entry.beanDeclared      = ic.isBeanDeclared();
+            entry.classData         = ic.getClassData();
+            for(AppInstrumentProcessor p : ic.getAllInstrumentedBy()) {
+                entry.instrumentedBy.add(p.getClass().getName());
+            }
+        }
+        return entry;
+    }
 
     private String getInstrumentedBy(Set<AppInstrumentProcessor> classes) {
         StringBuilder s = new StringBuilder();
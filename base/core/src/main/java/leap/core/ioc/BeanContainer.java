@@ -19,6 +19,8 @@ import leap.core.*;
 import leap.core.annotation.*;
 import leap.core.config.AppConfigInitializer;
 import leap.core.config.dyna.PropertyProvider;
+import leap.core.startup.StartupProfiler;
+import leap.core.startup.StartupStep;
 import leap.core.validation.annotations.NotEmpty;
 import leap.core.validation.annotations.NotNull;
 import leap.core.web.ServletContextAware;
@@ -51,6 +53,24 @@ public class BeanContainer implements BeanFactory {
 
     private static final Log log = LogFactory.get(BeanContainer.class);
 
+    /**
+     * Set to <code>true</code> to initialize the non-lazy singleton beans in parallel, see {@link ParallelBeanInitializer}.
+     */
+    public static final String PARALLEL_INIT_PROPERTY = "beans.parallel-init";
+
+    /**
+     * The number of threads for parallel initialization, default is the number of available processors.
+     */
+    public static final String PARALLEL_INIT_THREADS_PROPERTY = "beans.parallel-init-threads";
+
+    /**
+     * The max milliseconds a parallel worker waits for a bean created by another worker, default is 30 seconds.
+     *
+     * <p/>
+     * The parallel initialization falls back to serial initialization if the wait timed out.
+     */
+    public static final String PARALLEL_INIT_TIMEOUT_PROPERTY = "beans.parallel-init-timeout";
+
     /**
      * Definition of beans that are currently in creation
      */
@@ -58,6 +78,11 @@ public class BeanContainer implements BeanFactory {
 
     private static final BeanDefinitionBase NULL_BD = new BeanDefinitionBase(null);
 
+    /**
+     * Not null while the non-lazy beans are initializing in parallel.
+     */
+    private volatile ParallelBeanInitializer parallelInitializer;
+
     protected final PlaceholderResolver            placeholderResolver;
     protected final AnnotationBeanDefinitionLoader annotationBeanDefinitionLoader;
     protected final XmlBeanDefinitionLoader        xmlBeanDefinitionLoader;
@@ -132,7 +157,9 @@ public class BeanContainer implements BeanFactory {
     public BeanContainer loadFromClasses(Class<?>[] classes) throws IllegalStateException {
         log.debug("Load beans from {} classes", classes.length);
         ensureContainerNotInited();
-        this.annotationBeanDefinitionLoader.load(this, classes);
+        try (StartupStep step = StartupProfiler.start("load-classes")) {
+            this.annotationBeanDefinitionLoader.load(this, classes);
+        }
         return this;
     }
 
@@ -146,7 +173,9 @@ public class BeanContainer implements BeanFactory {
     public BeanContainer loadFromResources(AppResource[] resources) throws IllegalStateException {
         log.debug("Load beans from {} resources", resources.length);
         ensureContainerNotInited();
-        this.xmlBeanDefinitionLoader.load(resources);
+        try (StartupStep step = StartupProfiler.start("load-xml")) {
+            this.xmlBeanDefinitionLoader.load(resources);
+        }
         return this;
     }
 
@@ -253,6 +282,17 @@ public class BeanContainer implements BeanFactory {
 
         ensureContainerNotInited();
 
+        StartupStep step = StartupProfiler.start("init");
+        try {
+            doInit();
+        } finally {
+            step.end();
+        }
+
+        return this;
+    }
+
+    protected void doInit() {
         initializing = true;
         this.checkAfterLoading();
         this.initAfterLoading();
@@ -301,8 +341,6 @@ public class BeanContainer implements BeanFactory {
         }
 
         this.containerInited = true;
-
-        return this;
     }
 
     @Override
@@ -324,7 +362,9 @@ public class BeanContainer implements BeanFactory {
         if (appInited) {
             throw new IllegalStateException("postInitialize already called");
         }
-        this.initNonLazyBeans();
+        try (StartupStep step = StartupProfiler.start("non-lazy-beans")) {
+            this.initNonLazyBeans();
+        }
         this.appInited = true;
     }
 
@@ -994,13 +1034,17 @@ public class BeanContainer implements BeanFactory {
 
         //null if post processors not resolved, see #resolveAfterLoading
         if (null != bd && null != processors) {
-            for (int i = 0; i < processors.length; i++) {
-                processors[i].postCreateBean(appContext, beanFactory, bd, bean);
+            try (StartupStep step = StartupProfiler.start(StartupProfiler.CATEGORY_BEAN, "processors")) {
+                for (int i = 0; i < processors.length; i++) {
+                    processors[i].postCreateBean(appContext, beanFactory, bd, bean);
+                }
             }
         }
 
         if (bean instanceof PostCreateBean) {
-            ((PostCreateBean) bean).postCreate(appContext.getBeanFactory());
+            try (StartupStep step = StartupProfiler.start(StartupProfiler.CATEGORY_BEAN, "postCreate")) {
+                ((PostCreateBean) bean).postCreate(appContext.getBeanFactory());
+            }
             init = true;
         }
 
@@ -1228,6 +1272,15 @@ public class BeanContainer implements BeanFactory {
     }
 
     protected void initNonLazyBeans() {
+        if (config.getBooleanProperty(PARALLEL_INIT_PROPERTY)) {
+            ParallelBeanInitializer initializer =
+                    new ParallelBeanInitializer(this, config.getIntProperty(PARALLEL_INIT_THREADS_PROPERTY),
+                                                config.getLongProperty(PARALLEL_INIT_TIMEOUT_PROPERTY, ParallelBeanInitializer.DEFAULT_TIMEOUT));
+
+            initParallel(initializer, bds.allBeanDefinitions);
+            return;
+        }
+
         for (BeanDefinitionBase bd : bds.allBeanDefinitions) {
             if (!bd.isLazyInit()) {
                 doGetBean(bd);
@@ -1235,14 +1288,28 @@ public class BeanContainer implements BeanFactory {
         }
     }
 
+    void initParallel(ParallelBeanInitializer initializer, Collection<BeanDefinitionBase> definitions) {
+        parallelInitializer = initializer;
+        try {
+            initializer.init(definitions);
+        } finally {
+            parallelInitializer = null;
+        }
+    }
+
     protected Object doGetBean(BeanDefinitionBase bd) {
         if (bd.isSingleton()) {
             Object instance = bd.getInstance();
             if (null == instance) {
-                synchronized (bd.getSingletonLock()) {
-                    if (null == (instance = bd.getInstance())) {
-                        instance = doCreateBean(bd);
+                ParallelBeanInitializer initializer = parallelInitializer;
+                if (null != initializer && initializer.acquire(bd)) {
+                    try {
+                        instance = doGetSingleton(bd);
+                    } finally {
+                        initializer.release(bd);
                     }
+                } else {
+                    instance = doGetSingleton(bd);
                 }
             }
             return instance;
@@ -1251,6 +1318,16 @@ public class BeanContainer implements BeanFactory {
         }
     }
 
+    private Object doGetSingleton(BeanDefinitionBase bd) {
+        Object instance;
+        synchronized (bd.getSingletonLock()) {
+            if (null == (instance = bd.getInstance())) {
+                instance = doCreateBean(bd);
+            }
+        }
+        return instance;
+    }
+
     protected Object doCreateBean(BeanDefinitionBase bd) {
 
         Object bean = doCreateBeanOnly(bd);
@@ -1332,13 +1409,20 @@ public class BeanContainer implements BeanFactory {
             throw new BeanCreationException("Requested bean '" + bd + "' is currently in creation: Is there an unresolvable circular reference?");
         }
 
-        beforeBeanCreation(bd);
+        StartupStep step = StartupProfiler.start(StartupProfiler.CATEGORY_BEAN, bd);
 
-        bean = doBeanCreation(bd, factory);
-
-        afterBeanCreation(bd);
+        try {
+            beforeBeanCreation(bd);
+            try {
+                bean = doBeanCreation(bd, factory);
+            } finally {
+                afterBeanCreation(bd);
+            }
 
-        bd.setInited(true);
+            bd.setInited(true);
+        } finally {
+            step.end();
+        }
 
         return bean;
     }
@@ -0,0 +1,496 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.core.ioc;
+
+import leap.core.AppContext;
+import leap.core.annotation.Inject;
+import leap.lang.Lazy;
+import leap.lang.Strings;
+import leap.lang.Types;
+import leap.lang.beans.BeanCreationException;
+import leap.lang.beans.BeanProperty;
+import leap.lang.beans.BeanType;
+import leap.lang.logging.Log;
+import leap.lang.logging.LogFactory;
+import leap.lang.reflect.ReflectField;
+import leap.lang.reflect.ReflectValued;
+import leap.lang.time.StopWatch;
+
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Initializes the non-lazy singleton beans in parallel.
+ *
+ * <p/>
+ * The dependency graph of beans is built from the injection points and the bean references of definitions.
+ * Beans in a dependency cycle are grouped and created by a single thread,
+ * a group will be created after all the groups it depends on were created,
+ * so the singleton locks never wait for each other across threads.
+ *
+ * <p/>
+ * Dependencies which can not be known before creation (i.e. beans looked up in <code>init</code> or <code>postCreate</code>)
+ * may still make two workers wait for each other, so the owner of each bean in creation is tracked.
+ * A worker aborts its creation if waiting for the bean would close a wait cycle or the wait timed out,
+ * and then the beans not created yet will be initialized serially by the calling thread.
+ */
+class ParallelBeanInitializer {
+
+    private static final Log log = LogFactory.get(ParallelBeanInitializer.class);
+
+    static final long DEFAULT_TIMEOUT = 30000L;
+
+    private final BeanContainer container;
+    private final int           threads;
+    private final long          timeout;
+
+    private final Map<BeanDefinitionBase, Set<BeanDefinitionBase>> graph = new LinkedHashMap<>();
+
+    private final Object                          monitor = new Object();
+    private final Map<BeanDefinitionBase, Thread> owners  = new HashMap<>();
+    private final Map<Thread, BeanDefinitionBase> waiting = new HashMap<>();
+
+    private volatile String abortReason;
+
+    ParallelBeanInitializer(BeanContainer container, int threads) {
+        this(container, threads, DEFAULT_TIMEOUT);
+    }
+
+    ParallelBeanInitializer(BeanContainer container, int threads, long timeout) {
+        this.container = container;
+        this.threads   = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.timeout   = timeout > 0 ? timeout : DEFAULT_TIMEOUT;
+    }
+
+    void init(Collection<BeanDefinitionBase> bds) {
+        StopWatch sw = StopWatch.startNew();
+
+        for (BeanDefinitionBase bd : bds) {
+            if (!bd.isLazyInit()) {
+                addNode(bd);
+            }
+        }
+
+        List<Group> groups = groups();
+
+        ClassLoader  loader = Thread.currentThread().getContextClassLoader();
+        ForkJoinPool pool   = new ForkJoinPool(threads, new WorkerThreadFactory(loader), null, false);
+        try {
+            Map<Group, CompletableFuture<Void>> futures = new HashMap<>();
+
+            //the groups are sorted by dependencies, the dependencies come first.
+            for (Group group : groups) {
+                CompletableFuture<?>[] dependencies = group.dependencies.stream().map(futures::get).toArray(CompletableFuture[]::new);
+
+                futures.put(group, CompletableFuture.allOf(dependencies).thenRunAsync(() -> init(group), pool));
+            }
+
+            CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            Throwable cause = null == e.getCause() ? e : e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new BeanCreationException(cause.getMessage(), cause);
+        } finally {
+            pool.shutdown();
+        }
+
+        if (null != abortReason) {
+            log.warn("Parallel initialization aborted ({}), falls back to serial initialization", abortReason);
+            for (BeanDefinitionBase bd : bds) {
+                if (!bd.isLazyInit() && !bd.isInited()) {
+                    container.doGetBean(bd);
+                }
+            }
+        }
+
+        log.info("{} initialized {} beans in {} groups with {} threads, {}ms",
+                null == abortReason ? "Parallel" : "Parallel (fallback to serial)",
+                graph.size(), groups.size(), threads, sw.getElapsedMilliseconds());
+    }
+
+    /**
+     * Acquires the creation of the singleton bean by the current thread.
+     *
+     * <p/>
+     * Returns <code>true</code> if acquired and {@link #release(BeanDefinitionBase)} must be called after creation,
+     * returns <code>false</code> if the bean is already in creation by the current thread.
+     *
+     * @throws AbortException if waiting for the bean would cause a dead lock or timed out.
+     */
+    boolean acquire(BeanDefinitionBase bd) {
+        final Thread current  = Thread.currentThread();
+        final long   deadline = System.currentTimeMillis() + timeout;
+
+        synchronized (monitor) {
+            for (;;) {
+                Thread owner = owners.get(bd);
+                if (null == owner) {
+                    owners.put(bd, current);
+                    return true;
+                }
+
+                if (owner == current) {
+                    return false;
+                }
+
+                if (isWaitingFor(owner, current)) {
+                    throw abort("dead lock detected, bean '" + bd + "' is in creation by '" + owner.getName() + "'");
+                }
+
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw abort("timed out waiting for bean '" + bd + "' in creation by '" + owner.getName() + "'");
+                }
+
+                waiting.put(current, bd);
+                try {
+                    monitor.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw abort("interrupted waiting for bean '" + bd + "'");
+                } finally {
+                    waiting.remove(current);
+                }
+            }
+        }
+    }
+
+    /**
+     * Releases the creation of the singleton bean acquired by {@link #acquire(BeanDefinitionBase)}.
+     */
+    void release(BeanDefinitionBase bd) {
+        synchronized (monitor) {
+            owners.remove(bd);
+            monitor.notifyAll();
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if the thread is waiting for the target thread directly or transitively.
+     */
+    private boolean isWaitingFor(Thread thread, Thread target) {
+        Set<Thread> visited = new HashSet<>();
+        for (Thread t = thread; null != t && visited.add(t); ) {
+            if (t == target) {
+                return true;
+            }
+            BeanDefinitionBase bd = waiting.get(t);
+            if (null == bd) {
+                return false;
+            }
+            t = owners.get(bd);
+        }
+        return false;
+    }
+
+    private AbortException abort(String reason) {
+        if (null == abortReason) {
+            abortReason = reason;
+        }
+        return new AbortException("Parallel initialization aborted, " + reason);
+    }
+
+    private void init(Group group) {
+        if (null != abortReason) {
+            return;
+        }
+
+        AppContext context = container.getAppContext();
+        if (null != context) {
+            AppContext.setCurrent(context);
+        }
+        try {
+            boolean cycle = group.members.size() > 1;
+            for (BeanDefinitionBase bd : group.members) {
+                //creates the lazy beans in a cycle to prevent that two threads entering the cycle at the same time.
+                if ((!bd.isLazyInit() || cycle) && !bd.isInited()) {
+                    container.doGetBean(bd);
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            //the error may be caused by the abort (maybe wrapped), the beans will be created again by serial initialization.
+            if (null == abortReason) {
+                throw e;
+            }
+            log.debug("Error creating beans of aborted parallel initialization : {}", e.getMessage());
+        } finally {
+            if (null != context) {
+                AppContext.removeCurrent();
+            }
+        }
+    }
+
+    private void addNode(BeanDefinitionBase bd) {
+        if (graph.containsKey(bd)) {
+            return;
+        }
+
+        Set<BeanDefinitionBase> dependencies = new LinkedHashSet<>();
+        graph.put(bd, dependencies);
+
+        resolveDependencies(bd, dependencies);
+
+        BeanDefinitionBase pd = container.findProxy(bd);
+        if (null != pd) {
+            resolveDependencies(pd, dependencies);
+        }
+
+        dependencies.remove(bd);
+
+        for (BeanDefinitionBase dependency : new ArrayList<>(dependencies)) {
+            addNode(dependency);
+        }
+    }
+
+    private void resolveDependencies(BeanDefinitionBase bd, Set<BeanDefinitionBase> dependencies) {
+        if (null != bd.getValueDefinition()) {
+            resolveValueDependencies(bd.getValueDefinition(), dependencies);
+        }
+
+        if (null != bd.getFactoryDefinition()) {
+            for (ArgumentDefinition arg : bd.getFactoryDefinition().getArguments()) {
+                resolveValueDependencies(arg.getValueDefinition(), dependencies);
+            }
+        }
+
+        for (ArgumentDefinition arg : bd.getConstructorArguments()) {
+            resolveValueDependencies(arg.getValueDefinition(), dependencies);
+        }
+
+        for (PropertyDefinition pd : bd.getProperties()) {
+            resolveValueDependencies(pd.getValueDefinition(), dependencies);
+        }
+
+        for (InvokeDefinition id : bd.getInvokes()) {
+            for (ArgumentDefinition arg : id.getArguments()) {
+                resolveValueDependencies(arg.getValueDefinition(), dependencies);
+            }
+        }
+
+        BeanType bt = bd.getBeanClassType();
+        if (null != bt) {
+            for (BeanProperty bp : bt.getProperties()) {
+                resolveInjectDependencies(bp, dependencies);
+            }
+            for (ReflectField rf : bt.getReflectClass().getFields()) {
+                resolveInjectDependencies(rf, dependencies);
+            }
+        }
+    }
+
+    private void resolveValueDependencies(Object value, Set<BeanDefinitionBase> dependencies) {
+        if (null == value) {
+            return;
+        }
+
+        if (value instanceof ValueDefinition) {
+            resolveValueDependencies(((ValueDefinition) value).getDefinedValue(), dependencies);
+        } else if (value instanceof BeanReference) {
+            BeanDefinitionBase referenced = container.findBeanDefinition((BeanReference) value);
+            if (null != referenced) {
+                dependencies.add(referenced);
+            }
+        } else if (value instanceof BeanDefinitionBase) {
+            //inner bean, created by the outer bean.
+            resolveDependencies((BeanDefinitionBase) value, dependencies);
+        } else if (value instanceof Collection) {
+            for (Object item : (Collection<?>) value) {
+                resolveValueDependencies(item, dependencies);
+            }
+        } else if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                resolveValueDependencies(entry.getKey(), dependencies);
+                resolveValueDependencies(entry.getValue(), dependencies);
+            }
+        } else if (value instanceof Object[]) {
+            for (Object item : (Object[]) value) {
+                resolveValueDependencies(item, dependencies);
+            }
+        }
+    }
+
+    private void resolveInjectDependencies(ReflectValued v, Set<BeanDefinitionBase> dependencies) {
+        Inject inject = v.getAnnotation(Inject.class);
+        if (null == inject) {
+            return;
+        }
+
+        if (!Strings.isEmpty(inject.id())) {
+            BeanDefinitionBase bd = container.findBeanOrAliasDefinition(inject.id());
+            if (null != bd) {
+                dependencies.add(bd);
+            }
+            return;
+        }
+
+        Class<?> type     = v.getType();
+        Class<?> beanType = Object.class.equals(inject.type()) ? null : inject.type();
+        boolean  multiple = false;
+
+        if (type.isArray()) {
+            multiple = true;
+            type     = type.getComponentType();
+        } else if (Collection.class.isAssignableFrom(type)) {
+            multiple = true;
+            type     = Types.getActualTypeArgument(v.getGenericType());
+        } else if (Map.class.isAssignableFrom(type)) {
+            multiple = true;
+            Type[] types = Types.getTypeArguments(v.getGenericType());
+            type = types.length == 2 ? Types.getActualType(types[1]) : Object.class;
+        } else if (Lazy.class.equals(type)) {
+            //resolved on demand.
+            return;
+        }
+
+        if (null == beanType) {
+            beanType = type;
+        }
+
+        if (null == beanType || Object.class.equals(beanType) || beanType.isPrimitive() || beanType.getName().startsWith("java.")) {
+            return;
+        }
+
+        if (!multiple) {
+            BeanDefinitionBase bd = Strings.isEmpty(inject.name()) ?
+                    container.findPrimaryBeanDefinition(beanType) :
+                    container.findBeanOrAliasDefinition(beanType, inject.name());
+
+            if (null != bd) {
+                dependencies.add(bd);
+                return;
+            }
+        }
+
+        Set<BeanDefinitionBase> typed = container.bds.beanTypeDefinitions.get(beanType);
+        if (null != typed) {
+            dependencies.addAll(typed);
+        }
+
+        Set<BeanDefinitionBase> classed = container.bds.beanClassDefinitions.get(beanType);
+        if (null != classed) {
+            dependencies.addAll(classed);
+        }
+    }
+
+    /**
+     * Groups the beans by the strongly connected components (Tarjan's algorithm),
+     * the groups are returned in dependency order.
+     */
+    private List<Group> groups() {
+        Map<BeanDefinitionBase, Integer> indexes = new HashMap<>();
+        Map<BeanDefinitionBase, Integer> lowlinks = new HashMap<>();
+        Map<BeanDefinitionBase, Group>   grouped = new HashMap<>();
+        Deque<BeanDefinitionBase>        stack   = new ArrayDeque<>();
+        Set<BeanDefinitionBase>          onStack = new HashSet<>();
+        List<Group>                      groups  = new ArrayList<>();
+
+        AtomicInteger index = new AtomicInteger();
+
+        for (BeanDefinitionBase bd : graph.keySet()) {
+            if (!indexes.containsKey(bd)) {
+                connect(bd, index, indexes, lowlinks, stack, onStack, grouped, groups);
+            }
+        }
+
+        for (Group group : groups) {
+            for (BeanDefinitionBase member : group.members) {
+                for (BeanDefinitionBase dependency : graph.get(member)) {
+                    Group dg = grouped.get(dependency);
+                    if (dg != group) {
+                        group.dependencies.add(dg);
+                    }
+                }
+            }
+        }
+
+        return groups;
+    }
+
+    private void connect(BeanDefinitionBase bd, AtomicInteger index,
+                         Map<BeanDefinitionBase, Integer> indexes, Map<BeanDefinitionBase, Integer> lowlinks,
+                         Deque<BeanDefinitionBase> stack, Set<BeanDefinitionBase> onStack,
+                         Map<BeanDefinitionBase, Group> grouped, List<Group> groups) {
+
+        indexes.put(bd, index.get());
+        lowlinks.put(bd, index.getAndIncrement());
+        stack.push(bd);
+        onStack.add(bd);
+
+        for (BeanDefinitionBase dependency : graph.get(bd)) {
+            if (!indexes.containsKey(dependency)) {
+                connect(dependency, index, indexes, lowlinks, stack, onStack, grouped, groups);
+                lowlinks.put(bd, Math.min(lowlinks.get(bd), lowlinks.get(dependency)));
+            } else if (onStack.contains(dependency)) {
+                lowlinks.put(bd, Math.min(lowlinks.get(bd), indexes.get(dependency)));
+            }
+        }
+
+        if (lowlinks.get(bd).equals(indexes.get(bd))) {
+            Group group = new Group();
+            BeanDefinitionBase member;
+            do {
+                member = stack.pop();
+                onStack.remove(member);
+                group.members.add(0, member);
+                grouped.put(member, group);
+            } while (member != bd);
+            groups.add(group);
+        }
+    }
+
+    /**
+     * Thrown by a worker to abort the parallel initialization.
+     */
+    static final class AbortException extends BeanCreationException {
+        private static final long serialVersionUID = 1L;
+
+        AbortException(String message) {
+            super(message);
+        }
+    }
+
+    private static final class Group {
+        final List<BeanDefinitionBase> members      = new ArrayList<>();
+        final Set<Group>               dependencies = new LinkedHashSet<>();
+    }
+
+    private static final class WorkerThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+        private final ClassLoader   loader;
+
+        WorkerThreadFactory(ClassLoader loader) {
+            this.loader = loader;
+        }
+
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("bean-init-" + counter.incrementAndGet());
+            thread.setContextClassLoader(loader);
+            return thread;
+        }
+    }
+}
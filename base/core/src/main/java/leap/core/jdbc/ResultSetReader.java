@@ -21,5 +21,15 @@ import java.sql.SQLException;
 public interface ResultSetReader<T> {
 
 	T read(ResultSet rs) throws SQLException;
+
+	/**
+	 * Returns the fetch size set to the statement before executing the query, zero means the driver's default.
+	 *
+	 * <p/>
+	 * A positive fetch size is a hint for reading a large result set row by row instead of loading all the rows at once.
+	 */
+	default int getFetchSize() {
+		return 0;
+	}
 	
 }
\ No newline at end of file
@@ -25,9 +25,11 @@ public class DefaultMonitorConfig implements MonitorConfig, ConfigBean {
 
     protected boolean enabled;
     protected boolean reportError;
-    protected boolean reportArgs       = true;
-    protected boolean reportLineNumber = true;
-    protected int     methodThreshold  = DEFAULT_METHOD_THRESHOLD;
+    protected boolean reportArgs            = true;
+    protected boolean reportLineNumber      = true;
+    protected int     methodThreshold       = DEFAULT_METHOD_THRESHOLD;
+    protected String  mode                  = MODE_TRACE;
+    protected int     metricsExportInterval = DEFAULT_METRICS_EXPORT_INTERVAL;
 
     @Override
     public boolean isEnabled() {
@@ -79,4 +81,24 @@ public class DefaultMonitorConfig implements MonitorConfig, ConfigBean {
         this.methodThreshold = methodThreshold;
     }
 
-}
\ No newline at end of file
+    @Override
+    public String getMode() {
+        return mode;
+    }
+
+    @ConfigProperty
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    @Override
+    public int getMetricsExportInterval() {
+        return metricsExportInterval;
+    }
+
+    @ConfigProperty
+    public void setMetricsExportInterval(int metricsExportInterval) {
+        this.metricsExportInterval = metricsExportInterval;
+    }
+
+}
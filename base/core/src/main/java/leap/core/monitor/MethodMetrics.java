@@ -0,0 +1,247 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.core.monitor;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The aggregated metrics of a monitored method, used as the shared {@link MethodMonitor} of all the calls
+ * in {@link MonitorConfig#MODE_METRICS}.
+ *
+ * <p/>
+ * The start time of each call is pushed to a pre-allocated stack of current thread, the counters and the latency
+ * histogram are striped {@link LongAdder}, so recording a call allocates nothing and takes no lock.
+ *
+ * <p/>
+ * The histogram buckets are powers of two in microseconds, the percentiles are estimated by the bucket upper bounds.
+ */
+public class MethodMetrics implements MethodMonitor {
+
+    static final int BUCKETS = 32;
+
+    private static final ThreadLocal<Frames> frames = ThreadLocal.withInitial(Frames::new);
+
+    private final String className;
+    private final String methodName;
+
+    private final LongAdder       calls      = new LongAdder();
+    private final LongAdder       errors     = new LongAdder();
+    private final LongAdder       totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos   = new LongAccumulator(Long::max, 0);
+    private final LongAdder[]     histogram  = new LongAdder[BUCKETS];
+
+    long lastExportedCalls;
+
+    public MethodMetrics(String className, String methodName) {
+        this.className  = className;
+        this.methodName = methodName;
+        for(int i=0;i<BUCKETS;i++) {
+            histogram[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Starts a call in current thread.
+     */
+    public MethodMetrics start() {
+        frames.get().push(System.nanoTime());
+        return this;
+    }
+
+    @Override
+    public void error(Throwable e) {
+        frames.get().error();
+    }
+
+    @Override
+    public void exit() {
+        Frames  f     = frames.get();
+        boolean error = f.isError();
+        long    nanos = System.nanoTime() - f.pop();
+        record(nanos, error);
+    }
+
+    /**
+     * Records a call.
+     */
+    public void record(long nanos, boolean error) {
+        calls.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        histogram[bucket(nanos)].increment();
+        if(error) {
+            errors.increment();
+        }
+    }
+
+    static int bucket(long nanos) {
+        long micros = nanos / 1000;
+        int  i      = 64 - Long.numberOfLeadingZeros(micros);
+        return i < BUCKETS ? i : BUCKETS - 1;
+    }
+
+    /**
+     * Returns the upper bound in microseconds of the bucket.
+     */
+    static long bucketBound(int i) {
+        return i == 0 ? 0 : (1L << i) - 1;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    /**
+     * Returns the number of calls.
+     */
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    /**
+     * Returns the number of calls with error.
+     */
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * Returns the total time in milliseconds.
+     */
+    public double getTotalTime() {
+        return totalNanos.sum() / 1000000d;
+    }
+
+    /**
+     * Returns the average time in milliseconds.
+     */
+    public double getAvgTime() {
+        long n = calls.sum();
+        return n == 0 ? 0 : totalNanos.sum() / (double)n / 1000000d;
+    }
+
+    /**
+     * Returns the max time in milliseconds.
+     */
+    public double getMaxTime() {
+        return maxNanos.get() / 1000000d;
+    }
+
+    /**
+     * Returns the estimated percentile time in milliseconds.
+     *
+     * @param percentile 0 ~ 100, i.e. 99 for p99.
+     */
+    public double getPercentile(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long   total  = 0;
+        for(int i=0;i<BUCKETS;i++) {
+            counts[i] = histogram[i].sum();
+            total += counts[i];
+        }
+        if(total == 0) {
+            return 0;
+        }
+
+        long rank = (long)Math.ceil(total * percentile / 100d);
+        long sum  = 0;
+        for(int i=0;i<BUCKETS;i++) {
+            sum += counts[i];
+            if(sum >= rank) {
+                return Math.min(TimeUnit.MICROSECONDS.toNanos(bucketBound(i)) / 1000000d, getMaxTime());
+            }
+        }
+        return getMaxTime();
+    }
+
+    /**
+     * Clears the metrics.
+     */
+    public void reset() {
+        calls.reset();
+        errors.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+        for(LongAdder bucket : histogram) {
+            bucket.reset();
+        }
+        lastExportedCalls = 0;
+    }
+
+    /**
+     * Returns a map contains the metrics values.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("method",    toString());
+        map.put("calls",     getCalls());
+        map.put("errors",    getErrors());
+        map.put("totalTime", getTotalTime());
+        map.put("avgTime",   getAvgTime());
+        map.put("maxTime",   getMaxTime());
+        map.put("p50",       getPercentile(50));
+        map.put("p95",       getPercentile(95));
+        map.put("p99",       getPercentile(99));
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return className + "." + methodName;
+    }
+
+    /**
+     * The stack of the start times of calls in a thread.
+     */
+    private static final class Frames {
+        private long[]    starts = new long[32];
+        private boolean[] errors = new boolean[32];
+        private int       depth;
+
+        void push(long start) {
+            if(depth == starts.length) {
+                starts = Arrays.copyOf(starts, depth * 2);
+                errors = Arrays.copyOf(errors, depth * 2);
+            }
+            starts[depth] = start;
+            errors[depth] = false;
+            depth++;
+        }
+
+        void error() {
+            if(depth > 0) {
+                errors[depth - 1] = true;
+            }
+        }
+
+        boolean isError() {
+            return depth > 0 && errors[depth - 1];
+        }
+
+        long pop() {
+            return depth > 0 ? starts[--depth] : System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.core.monitor;
+
+import leap.lang.jmx.Managed;
+import leap.lang.jmx.SimpleMBeanExporter;
+import leap.lang.json.JSON;
+import leap.lang.logging.Log;
+import leap.lang.logging.LogFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The registry of {@link MethodMetrics}, logs the metrics to <code>applog.monitor.metrics</code> periodically
+ * and exports them as jmx managed bean <code>monitor:name=methods</code>.
+ */
+public class MethodMetricsRegistry {
+
+    private static final Log log         = LogFactory.get(MethodMetricsRegistry.class);
+    private static final Log METRICS_LOG = LogFactory.get("applog.monitor.metrics");
+
+    public static final String MBEAN_DOMAIN = "monitor";
+    public static final String MBEAN_NAME   = "methods";
+
+    private final Map<String, Map<String, MethodMetrics>> metrics = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService exporter;
+
+    /**
+     * Returns the metrics of the given method, creates a new one if not exists.
+     *
+     * <p/>
+     * The lookup is two-level by the class name and the method name, so no key object will be allocated.
+     */
+    public MethodMetrics get(String className, String methodName) {
+        Map<String, MethodMetrics> methods = metrics.get(className);
+        if(null == methods) {
+            methods = metrics.computeIfAbsent(className, (k) -> new ConcurrentHashMap<>());
+        }
+
+        MethodMetrics m = methods.get(methodName);
+        if(null == m) {
+            m = methods.computeIfAbsent(methodName, (k) -> new MethodMetrics(className, methodName));
+        }
+        return m;
+    }
+
+    /**
+     * Returns the metrics of all methods.
+     */
+    public List<MethodMetrics> getAll() {
+        List<MethodMetrics> list = new ArrayList<>();
+        metrics.values().forEach(methods -> list.addAll(methods.values()));
+        return list;
+    }
+
+    /**
+     * Returns the top n methods by total time.
+     */
+    public List<MethodMetrics> getTop(int n) {
+        List<MethodMetrics> list = getAll();
+        list.sort(Comparator.comparingDouble(MethodMetrics::getTotalTime).reversed());
+        return list.size() > n ? new ArrayList<>(list.subList(0, n)) : list;
+    }
+
+    /**
+     * Clears all the metrics.
+     */
+    public void reset() {
+        getAll().forEach(MethodMetrics::reset);
+    }
+
+    /**
+     * Logs the metrics of the methods called since last export.
+     */
+    public void export() {
+        if(!METRICS_LOG.isInfoEnabled()) {
+            return;
+        }
+
+        List<MethodMetrics> list = getAll();
+        list.sort(Comparator.comparingDouble(MethodMetrics::getTotalTime).reversed());
+
+        StringBuilder s = new StringBuilder();
+        for(MethodMetrics m : list) {
+            long calls = m.getCalls();
+            long delta = calls - m.lastExportedCalls;
+            if(delta <= 0) {
+                continue;
+            }
+            m.lastExportedCalls = calls;
+
+            s.append("\n  ").append(m)
+             .append(" calls=").append(calls).append(" (+").append(delta).append(")")
+             .append(", errors=").append(m.getErrors())
+             .append(String.format(", avg=%.2fms, p50=%.2fms, p95=%.2fms, p99=%.2fms, max=%.2fms",
+                                   m.getAvgTime(), m.getPercentile(50), m.getPercentile(95),
+                                   m.getPercentile(99), m.getMaxTime()));
+        }
+
+        if(s.length() > 0) {
+            METRICS_LOG.info("Method metrics :{}", s);
+        }
+    }
+
+    /**
+     * Starts logging the metrics periodically and exports the jmx managed bean.
+     *
+     * @param interval the interval in seconds, zero or negative disables the periodic logging.
+     */
+    public synchronized void start(int interval) {
+        if(interval > 0 && null == exporter) {
+            exporter = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "monitor-metrics-exporter");
+                t.setDaemon(true);
+                return t;
+            });
+            exporter.scheduleWithFixedDelay(() -> {
+                try {
+                    export();
+                }catch (Throwable e) {
+                    log.warn("Error exporting method metrics, {}", e.getMessage(), e);
+                }
+            }, interval, interval, TimeUnit.SECONDS);
+        }
+
+        try {
+            new SimpleMBeanExporter(ManagementFactory.getPlatformMBeanServer(), MBEAN_DOMAIN)
+                    .export(MBEAN_NAME, new MetricsMBean());
+        }catch (Throwable e) {
+            log.warn("Error exporting mbean of method metrics, {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the periodic logging.
+     */
+    public synchronized void stop() {
+        if(null != exporter) {
+            exporter.shutdownNow();
+            exporter = null;
+        }
+    }
+
+    @Managed(desc = "The metrics of monitored methods")
+    protected class MetricsMBean {
+
+        @Managed
+        public int getMethodCount() {
+            return getAll().size();
+        }
+
+        @Managed
+        public long getTotalCalls() {
+            long n = 0;
+            for(MethodMetrics m : getAll()) {
+                n += m.getCalls();
+            }
+            return n;
+        }
+
+        @Managed(desc = "Returns the top n methods by total time as json")
+        public String top(int n) {
+            List<Map<String, Object>> list = new ArrayList<>();
+            for(MethodMetrics m : getTop(n)) {
+                list.add(m.toMap());
+            }
+            return JSON.encode(list);
+        }
+
+        @Managed(desc = "Clears all the metrics")
+        public void reset() {
+            MethodMetricsRegistry.this.reset();
+        }
+    }
+}
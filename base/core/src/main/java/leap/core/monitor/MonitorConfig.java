@@ -20,6 +20,18 @@ public interface MonitorConfig {
 
     int DEFAULT_METHOD_THRESHOLD = 50;
 
+    int DEFAULT_METRICS_EXPORT_INTERVAL = 60;
+
+    /**
+     * Logs the slow method calls with the call stack, the default mode.
+     */
+    String MODE_TRACE = "trace";
+
+    /**
+     * Aggregates the method calls into {@link MethodMetrics} without per-call allocation.
+     */
+    String MODE_METRICS = "metrics";
+
     /**
      * Returns true if monitoring is enabled.
      */
@@ -44,4 +56,22 @@ public interface MonitorConfig {
      * Returns the threshold of milli-seconds for reporting method execution times.
      */
     int getMethodThreshold();
+
+    /**
+     * Returns the monitor mode, {@link #MODE_TRACE} or {@link #MODE_METRICS}.
+     */
+    String getMode();
+
+    /**
+     * Returns true if the mode is {@link #MODE_METRICS}.
+     */
+    default boolean isMetricsMode() {
+        return MODE_METRICS.equalsIgnoreCase(getMode());
+    }
+
+    /**
+     * Returns the interval in seconds of logging the method metrics, zero or negative disables the logging.
+     */
+    int getMetricsExportInterval();
+
 }
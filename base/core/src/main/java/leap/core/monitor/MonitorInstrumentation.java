@@ -72,6 +72,11 @@ public class MonitorInstrumentation extends AsmInstrumentProcessor {
         this.mc = config.getExtension(MonitorConfig.class);
     }
 
+    @Override
+    public String getVersion() {
+        return null == mc || !mc.isEnabled() ? "disabled" : "enabled:" + mc.isMetricsMode();
+    }
+
     @Override
     protected boolean preInstrument(AppInstrumentContext context) {
         if(null == mc || !mc.isEnabled()) {
@@ -174,6 +179,9 @@ public class MonitorInstrumentation extends AsmInstrumentProcessor {
         MonitoredClassVisitor visitor =
                 new MonitoredClassVisitor(cn ,new ClassWriter(cr, ClassWriter.COMPUTE_FRAMES), methodBodyOnly);
 
+        //the args are not used in metrics mode, don't allocate the array.
+        visitor.loadArgs = !mc.isMetricsMode();
+
         cr.accept(visitor, ClassReader.EXPAND_FRAMES);
 
         byte[] data = visitor.getClassData();
@@ -189,6 +197,7 @@ public class MonitorInstrumentation extends AsmInstrumentProcessor {
 
         private boolean visitStaticInit;
         private boolean methodBodyOnly;
+        private boolean loadArgs = true;
 
         public MonitoredClassVisitor(ClassNode cn, ClassWriter cw, boolean methodBodyOnly) {
             super(ASM.API, cw);
@@ -319,7 +328,7 @@ public class MonitorInstrumentation extends AsmInstrumentProcessor {
                 mv.visitLdcInsn(type.getClassName()); //classname
                 mv.visitLdcInsn(mn.name);             //methodDesc
 
-                if(argumentTypes.length > 0) {
+                if(argumentTypes.length > 0 && loadArgs) {
                     loadArgArray();
                     invokeInterface(PROVIDER_TYPE, START_MONITOR_METHOD_WITH_ARGS);
                 }else{
@@ -28,7 +28,8 @@ public class SimpleMonitorProvider implements MonitorProvider {
 
     private static MethodMonitor NOP_METHOD_MONITOR = new NopMonitorProvider.NopMethodMonitor();
 
-    protected MonitorConfig config;
+    protected MonitorConfig         config;
+    protected MethodMetricsRegistry metrics;
 
     public SimpleMonitorProvider() {
         AppConfig appConfig = AppContextInitializer.getInitialConfig();
@@ -36,9 +37,20 @@ public class SimpleMonitorProvider implements MonitorProvider {
             log.warn("App config not found, monitoring disabled!!!");
         }else{
             config = appConfig.getExtension(MonitorConfig.class);
+            if(null != config && config.isEnabled() && config.isMetricsMode()) {
+                metrics = new MethodMetricsRegistry();
+                metrics.start(config.getMetricsExportInterval());
+            }
         }
     }
 
+    /**
+     * Returns the metrics registry or null if not in {@link MonitorConfig#MODE_METRICS}.
+     */
+    public MethodMetricsRegistry getMetrics() {
+        return metrics;
+    }
+
     @Override
     public MethodMonitor startMethodMonitor(String className, String methodDesc) {
         return startMethodMonitor(className, methodDesc, Arrays2.EMPTY_OBJECT_ARRAY);
@@ -46,9 +58,15 @@ public class SimpleMonitorProvider implements MonitorProvider {
 
     @Override
     public MethodMonitor startMethodMonitor(String className, String methodDesc, Object[] args) {
-        return null != config && config.isEnabled() ?
-                    new SimpleMethodMonitor(this, className, methodDesc, args) :
-                    NOP_METHOD_MONITOR;
+        if(null == config || !config.isEnabled()) {
+            return NOP_METHOD_MONITOR;
+        }
+
+        if(null != metrics) {
+            return metrics.get(className, methodDesc).start();
+        }
+
+        return new SimpleMethodMonitor(this, className, methodDesc, args);
     }
 
 }
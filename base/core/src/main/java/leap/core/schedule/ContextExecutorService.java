@@ -0,0 +1,290 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.core.schedule;
+
+import leap.lang.Args;
+import leap.lang.Disposable;
+import leap.lang.logging.Log;
+import leap.lang.logging.LogFactory;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An {@link ExecutorService} propagates the thread bound contexts of the submitting thread to the executing thread.
+ *
+ * <p/>
+ * The transaction context is not propagated by default, use {@link #withTransaction()} to propagate it
+ * if the submitting thread waits for the task, such as a blocking hand-off.
+ *
+ * <p/>
+ * The number of pending (submitted but not completed) tasks is bounded by <code>maxPending</code>,
+ * the task exceeds the bound will be rejected by {@link ScheduleRejectedException}.
+ */
+public class ContextExecutorService extends AbstractExecutorService implements Disposable {
+
+    private static final Log log = LogFactory.get(ContextExecutorService.class);
+
+    protected final String              name;
+    protected final ExecutorService     executor;
+    protected final ContextPropagator[] propagators;
+    protected final boolean             transactional;
+    protected final int                 maxPending;
+
+    protected final AtomicInteger pending;
+    protected final AtomicInteger active;
+    protected final LongAdder     submitted;
+    protected final LongAdder     completed;
+    protected final LongAdder     failed;
+    protected final LongAdder     rejected;
+    protected final LongAdder     waitTime;
+
+    /**
+     * @param maxPending the max number of pending tasks, zero or negative means unbounded.
+     */
+    public ContextExecutorService(String name, ExecutorService executor, ContextPropagator[] propagators, int maxPending) {
+        Args.notEmpty(name, "name");
+        Args.notNull(executor, "executor");
+        this.name          = name;
+        this.executor      = executor;
+        this.propagators   = null == propagators ? new ContextPropagator[0] : propagators;
+        this.transactional = false;
+        this.maxPending    = maxPending;
+        this.pending       = new AtomicInteger();
+        this.active        = new AtomicInteger();
+        this.submitted     = new LongAdder();
+        this.completed     = new LongAdder();
+        this.failed        = new LongAdder();
+        this.rejected      = new LongAdder();
+        this.waitTime      = new LongAdder();
+    }
+
+    protected ContextExecutorService(ContextExecutorService source, boolean transactional) {
+        this.name          = source.name;
+        this.executor      = source.executor;
+        this.propagators   = source.propagators;
+        this.transactional = transactional;
+        this.maxPending    = source.maxPending;
+        this.pending       = source.pending;
+        this.active        = source.active;
+        this.submitted     = source.submitted;
+        this.completed     = source.completed;
+        this.failed        = source.failed;
+        this.rejected      = source.rejected;
+        this.waitTime      = source.waitTime;
+    }
+
+    /**
+     * Returns a view of this executor which propagates the transaction context too.
+     *
+     * <p/>
+     * The view shares the pool and the metrics of this executor.
+     */
+    public ContextExecutorService withTransaction() {
+        return transactional ? this : new ContextExecutorService(this, true);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the underlying executor.
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    public boolean isTransactional() {
+        return transactional;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        Args.notNull(task, "task");
+
+        if(pending.incrementAndGet() > maxPending && maxPending > 0) {
+            pending.decrementAndGet();
+            rejected.increment();
+            throw new ScheduleRejectedException("The task was rejected by executor '" + name +
+                                                "', max pending tasks " + maxPending + " reached");
+        }
+
+        final ContextSnapshot snapshot = ContextSnapshot.capture(propagators, transactional);
+        final long            queued   = System.nanoTime();
+
+        submitted.increment();
+        try {
+            executor.execute(() -> {
+                waitTime.add(System.nanoTime() - queued);
+                active.incrementAndGet();
+                try(ContextSnapshot.Scope scope = snapshot.apply()) {
+                    task.run();
+                    //the future task of submit() and invokeAll() keeps the exception instead of throwing it.
+                    if(task instanceof ContextFutureTask && ((ContextFutureTask<?>)task).failed) {
+                        failed.increment();
+                    }else {
+                        completed.increment();
+                    }
+                }catch (RuntimeException | Error e) {
+                    failed.increment();
+                    throw e;
+                }finally {
+                    active.decrementAndGet();
+                    pending.decrementAndGet();
+                }
+            });
+        }catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            rejected.increment();
+            throw new ScheduleRejectedException("The task was rejected by executor '" + name + "'", e);
+        }
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        return new ContextFutureTask<>(Executors.callable(runnable, value));
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        return new ContextFutureTask<>(callable);
+    }
+
+    /**
+     * Returns the number of submitted but not completed tasks.
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * Returns the number of running tasks.
+     */
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    public long getSubmittedCount() {
+        return submitted.sum();
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Returns the average milliseconds of a task waiting in the queue.
+     */
+    public double getAvgWaitTime() {
+        long n = submitted.sum() - pending.get();
+        return n <= 0 ? 0 : waitTime.sum() / 1000000d / n;
+    }
+
+    /**
+     * Returns the metrics as a map.
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("name",      name);
+        m.put("pending",   getPendingCount());
+        m.put("active",    getActiveCount());
+        m.put("submitted", getSubmittedCount());
+        m.put("completed", getCompletedCount());
+        m.put("failed",    getFailedCount());
+        m.put("rejected",  getRejectedCount());
+        m.put("avgWait",   getAvgWaitTime());
+        if(executor instanceof ForkJoinPool) {
+            ForkJoinPool pool = (ForkJoinPool)executor;
+            m.put("parallelism", pool.getParallelism());
+            m.put("poolSize",    pool.getPoolSize());
+            m.put("queued",      pool.getQueuedTaskCount());
+            m.put("steals",      pool.getStealCount());
+        }
+        return m;
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return executor.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return executor.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return executor.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public void dispose() throws Throwable {
+        if(!executor.isShutdown()) {
+            log.debug("Shutdown executor '{}'", name);
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The future task records the failure of the task for the metrics.
+     */
+    protected static class ContextFutureTask<T> extends FutureTask<T> {
+
+        private volatile boolean failed;
+
+        public ContextFutureTask(Callable<T> callable) {
+            super(callable);
+        }
+
+        @Override
+        protected void setException(Throwable t) {
+            failed = true;
+            super.setException(t);
+        }
+    }
+}
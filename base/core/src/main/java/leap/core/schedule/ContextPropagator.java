@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.core.schedule;
+
+/**
+ * Propagates a thread bound context from the thread submitting a task to the thread executing it.
+ *
+ * @see ContextSnapshot
+ */
+public interface ContextPropagator {
+
+    /**
+     * Returns <code>true</code> if this propagator propagates the transaction context.
+     *
+     * <p/>
+     * The transaction context is not propagated unless it is required explicitly, because a jdbc connection
+     * must not be used by multiple threads concurrently. The task runs without transaction if not propagated.
+     */
+    default boolean isTransactional() {
+        return false;
+    }
+
+    /**
+     * Captures the context of current thread, may be <code>null</code>.
+     */
+    Object capture();
+
+    /**
+     * Binds the captured context to current thread and returns the previous context of current thread.
+     */
+    Object apply(Object captured);
+
+    /**
+     * Restores the previous context returned by {@link #apply(Object)}.
+     */
+    void restore(Object previous);
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.core.schedule;
+
+import java.util.concurrent.Callable;
+
+/**
+ * A snapshot of the thread bound contexts, such as {@link leap.core.AppContext} and {@link leap.core.RequestContext}.
+ *
+ * <p/>
+ * Captures the snapshot in the thread submitting a task, and applies it in the thread executing the task:
+ *
+ * <pre>
+ *     ContextSnapshot snapshot = ContextSnapshot.capture(propagators, false);
+ *     executor.execute(snapshot.wrap(task));
+ * </pre>
+ */
+public final class ContextSnapshot {
+
+    private static final ContextPropagator[] EMPTY = new ContextPropagator[0];
+
+    /**
+     * Captures the core contexts of current thread.
+     *
+     * @see CoreContextPropagator
+     */
+    public static ContextSnapshot capture() {
+        return capture(EMPTY, false);
+    }
+
+    /**
+     * Captures the contexts of current thread.
+     *
+     * @param propagators the propagators in addition to {@link CoreContextPropagator}.
+     * @param transactional propagates the transaction context if <code>true</code>, else the task runs without transaction.
+     */
+    public static ContextSnapshot capture(ContextPropagator[] propagators, boolean transactional) {
+        ContextPropagator[] all    = new ContextPropagator[propagators.length + 1];
+        Object[]            values = new Object[all.length];
+
+        all[0]    = CoreContextPropagator.INSTANCE;
+        values[0] = CoreContextPropagator.INSTANCE.capture();
+
+        for(int i=0;i<propagators.length;i++) {
+            ContextPropagator p = propagators[i];
+            all[i + 1]    = p;
+            values[i + 1] = p.isTransactional() && !transactional ? null : p.capture();
+        }
+
+        return new ContextSnapshot(all, values);
+    }
+
+    private final ContextPropagator[] propagators;
+    private final Object[]            values;
+
+    private ContextSnapshot(ContextPropagator[] propagators, Object[] values) {
+        this.propagators = propagators;
+        this.values      = values;
+    }
+
+    /**
+     * Binds the snapshot to current thread, the returned {@link Scope} must be closed after executing.
+     */
+    public Scope apply() {
+        Object[] previous = new Object[propagators.length];
+        for(int i=0;i<propagators.length;i++) {
+            previous[i] = propagators[i].apply(values[i]);
+        }
+        return new Scope(previous);
+    }
+
+    /**
+     * Returns a {@link Runnable} executing the given task in this snapshot.
+     */
+    public Runnable wrap(Runnable task) {
+        return () -> {
+            try(Scope scope = apply()) {
+                task.run();
+            }
+        };
+    }
+
+    /**
+     * Returns a {@link Callable} executing the given task in this snapshot.
+     */
+    public <T> Callable<T> wrap(Callable<T> task) {
+        return () -> {
+            try(Scope scope = apply()) {
+                return task.call();
+            }
+        };
+    }
+
+    /**
+     * Restores the previous contexts of the executing thread on closing.
+     */
+    public final class Scope implements AutoCloseable {
+
+        private final Object[] previous;
+
+        private Scope(Object[] previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            for(int i=propagators.length-1;i>=0;i--) {
+                propagators[i].restore(previous[i]);
+            }
+        }
+    }
+}
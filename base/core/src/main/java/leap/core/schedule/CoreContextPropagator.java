@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.core.schedule;
+
+import leap.core.AppContext;
+import leap.core.RequestContext;
+import leap.core.jdbc.SqlExcutionType;
+import leap.core.jdbc.SqlExecutionContext;
+
+/**
+ * Propagates {@link AppContext}, {@link RequestContext} and {@link SqlExecutionContext}.
+ */
+public class CoreContextPropagator implements ContextPropagator {
+
+    public static final CoreContextPropagator INSTANCE = new CoreContextPropagator();
+
+    @Override
+    public Object capture() {
+        return new Object[]{AppContext.tryGetCurrent(),
+                            RequestContext.tryGetCurrent(),
+                            SqlExecutionContext.getType(),
+                            SqlExecutionContext.getSql()};
+    }
+
+    @Override
+    public Object apply(Object captured) {
+        Object previous = capture();
+        bind((Object[])captured);
+        return previous;
+    }
+
+    @Override
+    public void restore(Object previous) {
+        bind((Object[])previous);
+    }
+
+    protected void bind(Object[] values) {
+        AppContext     appContext     = (AppContext)values[0];
+        RequestContext requestContext = (RequestContext)values[1];
+
+        if(null == appContext) {
+            AppContext.removeCurrent();
+        }else{
+            AppContext.setCurrent(appContext);
+        }
+
+        if(null == requestContext) {
+            RequestContext.removeCurrent();
+        }else{
+            RequestContext.setCurrent(requestContext);
+        }
+
+        SqlExcutionType type = (SqlExcutionType)values[2];
+        if(SqlExcutionType.unknown == type && null == values[3]) {
+            SqlExecutionContext.clean();
+        }else{
+            SqlExecutionContext.setup(type, (String)values[3]);
+        }
+    }
+}
@@ -15,16 +15,28 @@
  */
 package leap.core.schedule;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import leap.core.AppContext;
+import leap.core.RequestContext;
+import leap.core.annotation.Inject;
 import leap.lang.Args;
 import leap.lang.Disposable;
 import leap.lang.Try;
 
 public class DefaultSchedulerManager implements SchedulerManager, Disposable {
 
+    protected @Inject ContextPropagator[] propagators = new ContextPropagator[0];
+
     protected final Set<FixedThreadPoolScheduler> fixedThreadPoolSchedulers = new CopyOnWriteArraySet<>();
+    protected final Set<ContextExecutorService>   contextExecutors          = new CopyOnWriteArraySet<>();
     
     @Override
     public Scheduler newFixedThreadPoolScheduler(String name, int corePoolSize) {
@@ -36,6 +48,39 @@ public class DefaultSchedulerManager implements SchedulerManager, Disposable {
         return scheduler;
     }
 
+    @Override
+    public ContextExecutorService newWorkStealingPool(String name, int parallelism, int maxPending) {
+        Args.notEmpty(name,"name");
+        Args.assertTrue(parallelism > 0, "parallelism must be positive");
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism, new WorkerThreadFactory(name), null, true);
+
+        return newContextExecutor(name, pool, maxPending);
+    }
+
+    @Override
+    public ContextExecutorService newContextExecutor(String name, ExecutorService executor) {
+        return newContextExecutor(name, executor, 0);
+    }
+
+    @Override
+    public ContextSnapshot captureContext(boolean transactional) {
+        return ContextSnapshot.capture(propagators, transactional);
+    }
+
+    @Override
+    public Collection<ContextExecutorService> getContextExecutors() {
+        return Collections.unmodifiableSet(contextExecutors);
+    }
+
+    protected ContextExecutorService newContextExecutor(String name, ExecutorService executor, int maxPending) {
+        ContextExecutorService ces = new ContextExecutorService(name, executor, propagators, maxPending);
+
+        contextExecutors.add(ces);
+
+        return ces;
+    }
+
     @Override
     public void dispose() throws Throwable {
         if(!fixedThreadPoolSchedulers.isEmpty()) {
@@ -43,6 +88,36 @@ public class DefaultSchedulerManager implements SchedulerManager, Disposable {
                 Try.catchAll(() -> scheduler.dispose());
             }
         }
+        if(!contextExecutors.isEmpty()) {
+            for(ContextExecutorService executor : contextExecutors) {
+                Try.catchAll(() -> executor.dispose());
+            }
+        }
+    }
+
+    protected static class WorkerThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+        private final String        name;
+
+        public WorkerThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread thread = new ForkJoinWorkerThread(pool) {
+                @Override
+                protected void onStart() {
+                    super.onStart();
+                    //the inherited contexts of the creating thread must not leak to the worker.
+                    AppContext.removeCurrent();
+                    RequestContext.removeCurrent();
+                }
+            };
+            thread.setName(name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
     }
 
 }
@@ -15,7 +15,15 @@
  */
 package leap.core.schedule;
 
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+
 public interface SchedulerManager {
+
+    /**
+     * The default max pending tasks of a work-stealing pool.
+     */
+    int DEFAULT_MAX_PENDING = 10000;
     
     default Scheduler newFixedThreadPoolScheduler(String name) {
         return newFixedThreadPoolScheduler(name, 1);
@@ -23,4 +31,38 @@ public interface SchedulerManager {
     
     Scheduler newFixedThreadPoolScheduler(String name, int corePoolSize);
 
+    /**
+     * Creates a work-stealing pool with the parallelism of available processors.
+     *
+     * @see #newWorkStealingPool(String, int, int)
+     */
+    default ContextExecutorService newWorkStealingPool(String name) {
+        return newWorkStealingPool(name, Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_PENDING);
+    }
+
+    /**
+     * Creates a bounded work-stealing pool which propagates the thread bound contexts to the tasks.
+     *
+     * @param parallelism the number of worker threads.
+     * @param maxPending the max number of pending tasks, zero or negative means unbounded.
+     */
+    ContextExecutorService newWorkStealingPool(String name, int parallelism, int maxPending);
+
+    /**
+     * Wraps the given executor as a {@link ContextExecutorService}, the executor will be shutdown on disposing.
+     */
+    ContextExecutorService newContextExecutor(String name, ExecutorService executor);
+
+    /**
+     * Captures the thread bound contexts of current thread.
+     *
+     * @param transactional propagates the transaction context if <code>true</code>.
+     */
+    ContextSnapshot captureContext(boolean transactional);
+
+    /**
+     * Returns all the {@link ContextExecutorService} created by this manager.
+     */
+    Collection<ContextExecutorService> getContextExecutors();
+
 }
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.core.startup;
+
+import leap.lang.Charsets;
+import leap.lang.Strings;
+import leap.lang.json.JSON;
+import leap.lang.logging.Log;
+import leap.lang.logging.LogFactory;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Records the startup timeline of app context.
+ *
+ * <p/>
+ * The profiler is disabled by default, sets the system property {@link #ENABLED_PROPERTY} to <code>true</code>
+ * to record the hierarchical startup phases and the creation of beans.
+ *
+ * <p/>
+ * When the startup finished, a report sorted by time will be logged and a trace file of
+ * chrome trace format (open it in <code>chrome://tracing</code>) will be written to the file
+ * specified by the system property {@link #TRACE_FILE_PROPERTY}.
+ *
+ * <p/>
+ * When disabled, {@link #start(String)} returns the {@link StartupStep#NOOP} without any allocation.
+ */
+public class StartupProfiler {
+
+    private static final Log log = LogFactory.get(StartupProfiler.class);
+
+    public static final String ENABLED_PROPERTY    = "leap.startup.profile";
+    public static final String TRACE_FILE_PROPERTY = "leap.startup.profile.file";
+    public static final String DEFAULT_TRACE_FILE  = "leap-startup-trace.json";
+
+    public static final String CATEGORY_PHASE = "phase";
+    public static final String CATEGORY_BEAN  = "bean";
+
+    private static final int TOP_BEANS = 20;
+
+    private static volatile Recorder recorder = Boolean.getBoolean(ENABLED_PROPERTY) ? new Recorder() : null;
+
+    /**
+     * Returns <code>true</code> if the profiler is recording.
+     */
+    public static boolean isEnabled() {
+        return null != recorder;
+    }
+
+    /**
+     * Enables or disables the profiler, the recorded steps will be discarded if disabled.
+     */
+    public static synchronized void setEnabled(boolean enabled) {
+        if (enabled) {
+            if (null == recorder) {
+                recorder = new Recorder();
+            }
+        } else {
+            recorder = null;
+        }
+    }
+
+    /**
+     * Starts a step of the {@link #CATEGORY_PHASE}.
+     */
+    public static StartupStep start(String name) {
+        Recorder r = recorder;
+        return null == r ? StartupStep.NOOP : r.start(CATEGORY_PHASE, name);
+    }
+
+    /**
+     * Starts a step of the given category, the name object will be converted to string only if the profiler is enabled.
+     */
+    public static StartupStep start(String category, Object name) {
+        Recorder r = recorder;
+        return null == r ? StartupStep.NOOP : r.start(category, name);
+    }
+
+    /**
+     * Stops recording, logs the report and writes the trace file.
+     *
+     * <p/>
+     * Returns <code>null</code> if the profiler is disabled.
+     */
+    public static String finish() {
+        Recorder r;
+        synchronized (StartupProfiler.class) {
+            r = recorder;
+            recorder = null;
+        }
+        if (null == r) {
+            return null;
+        }
+
+        List<Step> steps = new ArrayList<>(r.steps);
+        steps.sort(Comparator.comparingLong(s -> s.start));
+
+        String report = report(r, steps);
+        log.info(report);
+
+        File file = new File(System.getProperty(TRACE_FILE_PROPERTY,
+                                                new File(System.getProperty("java.io.tmpdir"), DEFAULT_TRACE_FILE).getPath()));
+        try {
+            writeTrace(r, steps, file);
+            log.info("Startup trace file written to '{}'", file.getAbsolutePath());
+        } catch (IOException e) {
+            log.warn("Error writing startup trace file '{}', {}", file.getAbsolutePath(), e.getMessage(), e);
+        }
+
+        return report;
+    }
+
+    protected static String report(Recorder r, List<Step> steps) {
+        StringBuilder s = new StringBuilder();
+
+        long total = 0;
+        for (Step step : steps) {
+            if (null == step.parent) {
+                total += step.duration();
+            }
+        }
+
+        s.append("Startup profile, ").append(ms(total)).append("ms total\n\n");
+
+        s.append("Phases :\n");
+        for (Step step : steps) {
+            if (CATEGORY_PHASE.equals(step.category)) {
+                s.append(Strings.repeat("  ", step.depth + 1))
+                 .append(step.name).append(" : ").append(ms(step.duration())).append("ms")
+                 .append(" (self ").append(ms(step.self())).append("ms)\n");
+            }
+        }
+
+        List<Step> beans = new ArrayList<>();
+        for (Step step : steps) {
+            if (CATEGORY_BEAN.equals(step.category)) {
+                beans.add(step);
+            }
+        }
+
+        if (!beans.isEmpty()) {
+            s.append("\nTop ").append(Math.min(TOP_BEANS, beans.size())).append(" of ").append(beans.size())
+             .append(" beans by self time (including init, processors and post create) :\n");
+
+            beans.sort((b1, b2) -> Long.compare(b2.self(), b1.self()));
+            for (int i = 0; i < beans.size() && i < TOP_BEANS; i++) {
+                Step bean = beans.get(i);
+                s.append("  ").append(ms(bean.self())).append("ms (total ").append(ms(bean.duration())).append("ms) ")
+                 .append(bean.name).append('\n');
+            }
+        }
+
+        return s.toString();
+    }
+
+    protected static void writeTrace(Recorder r, List<Step> steps, File file) throws IOException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (null != dir && !dir.exists()) {
+            dir.mkdirs();
+        }
+
+        List<Map<String, Object>> events = new ArrayList<>();
+
+        Map<Long, String> threads = new LinkedHashMap<>();
+        for (Step step : steps) {
+            threads.putIfAbsent(step.threadId, step.threadName);
+        }
+        for (Map.Entry<Long, String> thread : threads.entrySet()) {
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("name", "thread_name");
+            event.put("ph", "M");
+            event.put("pid", 1);
+            event.put("tid", thread.getKey());
+            event.put("args", Collections.singletonMap("name", thread.getValue()));
+            events.add(event);
+        }
+
+        for (Step step : steps) {
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("name", step.name);
+            event.put("cat", step.category);
+            event.put("ph", "X");
+            event.put("ts", (step.start - r.origin) / 1000L);
+            event.put("dur", step.duration() / 1000L);
+            event.put("pid", 1);
+            event.put("tid", step.threadId);
+            if (null != step.tags) {
+                event.put("args", step.tags);
+            }
+            events.add(event);
+        }
+
+        Map<String, Object> trace = new LinkedHashMap<>();
+        trace.put("displayTimeUnit", "ms");
+        trace.put("traceEvents", events);
+
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), Charsets.UTF_8))) {
+            JSON.encode(trace, out);
+        }
+    }
+
+    private static String ms(long nanos) {
+        return String.format("%.1f", nanos / 1000000.0d);
+    }
+
+    protected static final class Recorder {
+        private final long              origin  = System.nanoTime();
+        private final Queue<Step>       steps   = new ConcurrentLinkedQueue<>();
+        private final ThreadLocal<Step> current = new ThreadLocal<>();
+
+        Step start(String category, Object name) {
+            Step parent = current.get();
+            Step step   = new Step(this, parent, category, String.valueOf(name));
+            current.set(step);
+            return step;
+        }
+    }
+
+    protected static final class Step implements StartupStep {
+        private final Recorder recorder;
+        private final Step     parent;
+        private final String   category;
+        private final String   name;
+        private final int      depth;
+        private final long     threadId;
+        private final String   threadName;
+        private final long     start;
+
+        private long                end;
+        private long                children;
+        private Map<String, Object> tags;
+
+        Step(Recorder recorder, Step parent, String category, String name) {
+            this.recorder   = recorder;
+            this.parent     = parent;
+            this.category   = category;
+            this.name       = name;
+            this.depth      = null == parent ? 0 : parent.depth + 1;
+            this.threadId   = Thread.currentThread().getId();
+            this.threadName = Thread.currentThread().getName();
+            this.start      = System.nanoTime();
+        }
+
+        @Override
+        public StartupStep tag(String key, Object value) {
+            if (null == tags) {
+                tags = new LinkedHashMap<>();
+            }
+            tags.put(key, value);
+            return this;
+        }
+
+        @Override
+        public void end() {
+            if (end > 0) {
+                return;
+            }
+            end = System.nanoTime();
+
+            if (null != parent) {
+                parent.children += duration();
+            }
+            //the steps are nested, restores the parent even if some children were not ended by errors.
+            recorder.current.set(parent);
+            recorder.steps.add(this);
+        }
+
+        long duration() {
+            return end - start;
+        }
+
+        long self() {
+            return duration() - children;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.core.startup;
+
+/**
+ * A recording step of the {@link StartupProfiler}.
+ *
+ * <p/>
+ * A step must be ended by the thread which started it, the steps started (and ended) in a step are its children.
+ */
+public interface StartupStep extends AutoCloseable {
+
+    /**
+     * The step returned when the profiler is disabled, records nothing.
+     */
+    StartupStep NOOP = new StartupStep() {
+        @Override
+        public StartupStep tag(String key, Object value) {
+            return this;
+        }
+
+        @Override
+        public void end() {
+
+        }
+    };
+
+    /**
+     * Adds a tag to this step, the tag will be written to the trace file as argument of the step.
+     */
+    StartupStep tag(String key, Object value);
+
+    /**
+     * Ends this step, does nothing if already ended.
+     */
+    void end();
+
+    @Override
+    default void close() {
+        end();
+    }
+}
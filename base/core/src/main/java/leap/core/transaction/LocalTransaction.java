@@ -22,6 +22,8 @@ import leap.lang.logging.LogFactory;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 public class LocalTransaction extends AbstractTransaction {
     private static final Log log = LogFactory.get(LocalTransaction.class);
@@ -35,8 +37,11 @@ public class LocalTransaction extends AbstractTransaction {
 
     private int referenceCount = 0;
     private boolean originalAutoCommit;
+    private boolean originalReadOnly;
     private int     originalIsolationLevel;
 
+    private List<TransactionSynchronization> synchronizations;
+
     protected LocalTransaction(LocalTransactionProvider tp, TransactionDefinition td) {
         this.tp        = tp;
         this.td        = td;
@@ -85,18 +90,32 @@ public class LocalTransaction extends AbstractTransaction {
         return this;
     }
 
+    /**
+     * Adds the synchronization invoked after this transaction completed.
+     */
+    public void addSynchronization(TransactionSynchronization synchronization) {
+        if (null == synchronizations) {
+            synchronizations = new ArrayList<>();
+        }
+        synchronizations.add(synchronization);
+    }
+
     public void complete() {
         decrease();
 
         if (referenceCount == 0) {
+            boolean committed = false;
             try {
                 //Connection may be null if no database access in transaction.
-                if (null != connection) {
+                if (null == connection) {
+                    committed = !rollbackOnly;
+                } else {
                     if (rollbackOnly) {
                         try {
                             log.debug("Rollback transaction, referencedCount={}", referenceCount);
                             connection.rollback();
                             connection.setAutoCommit(originalAutoCommit); //Notice: must do the rollback before setAutoCommit
+                            restoreReadOnly();
                         } catch (SQLException e) {
                             log.warn("Error rollback transaction, " + e.getMessage(), e);
                         }
@@ -105,6 +124,9 @@ public class LocalTransaction extends AbstractTransaction {
                             log.debug("Commit transaction, referencedCount={}", referenceCount);
                             connection.commit();
                             connection.setAutoCommit(originalAutoCommit);
+                            restoreReadOnly();
+
+                            committed = true;
 
                             if (isolation != TransactionDefinition.Isolation.DEFAULT.getValue() &&
                                     isolation != originalIsolationLevel) {
@@ -119,7 +141,11 @@ public class LocalTransaction extends AbstractTransaction {
                 try {
                     tp.removeActiveTransaction();
                 } finally {
-                    tp.closeConnection(connection);
+                    try {
+                        tp.closeConnection(connection);
+                    } finally {
+                        invokeSynchronizations(committed);
+                    }
                 }
             }
         } else {
@@ -127,6 +153,28 @@ public class LocalTransaction extends AbstractTransaction {
         }
     }
 
+    protected void restoreReadOnly() throws SQLException {
+        if (td.isReadOnly() && !originalReadOnly) {
+            connection.setReadOnly(false);
+        }
+    }
+
+    protected void invokeSynchronizations(boolean committed) {
+        if (null == synchronizations) {
+            return;
+        }
+
+        List<TransactionSynchronization> list = synchronizations;
+        synchronizations = null;
+        for (TransactionSynchronization synchronization : list) {
+            try {
+                synchronization.afterCompletion(committed);
+            } catch (Throwable e) {
+                log.warn("Error invoking transaction synchronization, " + e.getMessage(), e);
+            }
+        }
+    }
+
     protected void setConnection(Connection connection) {
         try {
             this.originalAutoCommit = connection.getAutoCommit();
@@ -136,6 +184,15 @@ public class LocalTransaction extends AbstractTransaction {
             throw new NestedSQLException("Error setting connection's 'autoCommit'" + e.getMessage(), e);
         }
 
+        if (td.isReadOnly()) {
+            try {
+                this.originalReadOnly = connection.isReadOnly();
+                connection.setReadOnly(true);
+            } catch (SQLException e) {
+                log.warn("Error setting connection's 'readOnly', " + e.getMessage());
+            }
+        }
+
         if (isolation != TransactionDefinition.Isolation.DEFAULT.getValue()) {
             try {
                 this.originalIsolationLevel = connection.getTransactionIsolation();
@@ -59,6 +59,21 @@ public class LocalTransactionProvider extends AbstractTransactionProvider implem
         return getTransaction(null == td ? getRequiredDefinition() : td).begin();
     }
 
+    @Override
+    public boolean isTransactionActive() {
+        return null != peekActiveTransaction();
+    }
+
+    @Override
+    public void registerSynchronization(TransactionSynchronization synchronization) {
+        LocalTransaction trans = peekActiveTransaction();
+        if(null == trans) {
+            synchronization.afterCompletion(true);
+        }else{
+            trans.addSynchronization(synchronization);
+        }
+    }
+
     public void setDefaultPropagation(Propagation defaultPropagation) {
         this.defaultPropagation = defaultPropagation;
     }
@@ -144,6 +159,24 @@ public class LocalTransactionProvider extends AbstractTransactionProvider implem
 		returnConnectionToDataSource(connection);
     }
 	
+	/**
+	 * Returns the active transactions of current thread, may be null.
+	 */
+	protected Stack<LocalTransaction> getActiveTransactions() {
+		return currentTransactions.get();
+	}
+
+	/**
+	 * Binds the active transactions to current thread, removes the transactions of current thread if null.
+	 */
+	protected void setActiveTransactions(Stack<LocalTransaction> trans) {
+		if(null == trans) {
+			currentTransactions.remove();
+		}else{
+			currentTransactions.set(trans);
+		}
+	}
+	
 	protected LocalTransaction peekActiveTransaction() {
 		Stack<LocalTransaction> trans = currentTransactions.get();
 		if(null == trans || trans.empty()) {
@@ -25,6 +25,7 @@ public class SimpleTransactionDefinition implements TransactionDefinition, Seria
 
     protected Propagation propagation = Propagation.REQUIRED;
     protected Isolation   isolation   = Isolation.DEFAULT;
+    protected boolean     readOnly;
 
     public SimpleTransactionDefinition() {
     }
@@ -56,9 +57,18 @@ public class SimpleTransactionDefinition implements TransactionDefinition, Seria
 		this.isolation = isolation;
 	}
 
+	@Override
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+
+	public void setReadOnly(boolean readOnly) {
+		this.readOnly = readOnly;
+	}
+
 	@Override
 	public String toString() {
-		return "{propagation:" + propagation + ", isolation:" + isolation + "}";
+		return "{propagation:" + propagation + ", isolation:" + isolation + ", readOnly:" + readOnly + "}";
 	}
 
 }
\ No newline at end of file
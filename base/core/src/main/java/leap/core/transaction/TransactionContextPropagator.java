@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.core.transaction;
+
+import leap.core.annotation.Inject;
+import leap.core.schedule.ContextPropagator;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+
+/**
+ * Propagates the active local transactions of all the data sources.
+ *
+ * <p/>
+ * The propagated transactions are copied, so the transactions began in the executing thread
+ * are invisible to the submitting thread.
+ */
+public class TransactionContextPropagator implements ContextPropagator {
+
+    protected @Inject TransactionManager tm;
+
+    @Override
+    public boolean isTransactional() {
+        return true;
+    }
+
+    @Override
+    public Object capture() {
+        Map<LocalTransactionProvider, Stack<LocalTransaction>> map = null;
+
+        for(LocalTransactionProvider tp : localProviders()) {
+            Stack<LocalTransaction> trans = tp.getActiveTransactions();
+            if(null != trans && !trans.isEmpty()) {
+                if(null == map) {
+                    map = new IdentityHashMap<>();
+                }
+                Stack<LocalTransaction> copy = new Stack<>();
+                copy.addAll(trans);
+                map.put(tp, copy);
+            }
+        }
+
+        return map;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object apply(Object captured) {
+        Map<LocalTransactionProvider, Stack<LocalTransaction>> values   = (Map<LocalTransactionProvider, Stack<LocalTransaction>>)captured;
+        Map<LocalTransactionProvider, Stack<LocalTransaction>> previous = new IdentityHashMap<>();
+
+        for(LocalTransactionProvider tp : localProviders()) {
+            previous.put(tp, tp.getActiveTransactions());
+            tp.setActiveTransactions(null == values ? null : values.get(tp));
+        }
+
+        return previous;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void restore(Object previous) {
+        for(Map.Entry<LocalTransactionProvider, Stack<LocalTransaction>> entry :
+                ((Map<LocalTransactionProvider, Stack<LocalTransaction>>)previous).entrySet()) {
+            entry.getKey().setActiveTransactions(entry.getValue());
+        }
+    }
+
+    protected List<LocalTransactionProvider> localProviders() {
+        List<LocalTransactionProvider> list = new ArrayList<>(2);
+        if(tm instanceof DefaultTransactionManager) {
+            for(TransactionProvider tp : ((DefaultTransactionManager)tm).providers.values()) {
+                if(tp instanceof LocalTransactionProvider) {
+                    list.add((LocalTransactionProvider)tp);
+                }
+            }
+        }
+        return list;
+    }
+}
@@ -96,4 +96,11 @@ public interface TransactionDefinition {
 	 * Return the isolation level.
 	 */
 	Isolation getIsolation();
+
+	/**
+	 * Returns <code>true</code> if the connection of a new transaction is set to read-only.
+	 */
+	default boolean isReadOnly() {
+		return false;
+	}
 }
@@ -62,6 +62,12 @@ public class TransactionInstrumentation extends AsmInstrumentProcessor implement
         });
     }
 
+    @Override
+    public String getVersion() {
+        //the result depends on the class only.
+        return "1";
+    }
+
     @Override
     protected void processClass(AppInstrumentContext context, AppInstrumentClass ic, ClassInfo ci, boolean methodBodyOnly) {
         ClassNode cn = ci.cn;
@@ -82,4 +82,17 @@ public interface TransactionProvider {
 	 */
 	<T> T doTransaction(TransactionCallbackWithResult<T> callback, TransactionDefinition td);
 
+    /**
+     * Returns <code>true</code> if an active transaction exists in current thread.
+     */
+    boolean isTransactionActive();
+
+    /**
+     * Registers the synchronization invoked after the active transaction of current thread completed.
+     *
+     * <p/>
+     * The synchronization is invoked immediately as committed if no active transaction.
+     */
+    void registerSynchronization(TransactionSynchronization synchronization);
+
 }
\ No newline at end of file
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.core.ioc;
+
+import leap.core.junit.AppTestBase;
+import leap.lang.Initializable;
+import leap.lang.beans.BeanCreationException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ParallelBeanInitializerTest extends AppTestBase {
+
+    private static BeanContainer  container;
+    private static CountDownLatch latch;
+
+    @Before
+    public void createContainer() {
+        container = new BeanContainer(config);
+        latch     = new CountDownLatch(2);
+
+        SlowBean.instances = 0;
+    }
+
+    @Test(timeout = 10000)
+    public void testHiddenDependency() {
+        container.addBean("slow", false, SlowBean.class);
+        container.addBean("lookup", false, LookupBean.class);
+
+        init(ParallelBeanInitializer.DEFAULT_TIMEOUT);
+
+        SlowBean slow = container.getBean("slow");
+        assertEquals(1, SlowBean.instances);
+        assertSame(slow, container.<LookupBean>getBean("lookup").slow);
+    }
+
+    @Test(timeout = 10000)
+    public void testHiddenCycle() {
+        container.addBean("a", false, CycleA.class);
+        container.addBean("b", false, CycleB.class);
+
+        init(ParallelBeanInitializer.DEFAULT_TIMEOUT);
+
+        CycleA a = container.getBean("a");
+        CycleB b = container.getBean("b");
+        assertSame(b, a.b);
+        assertSame(a, b.a);
+    }
+
+    @Test(timeout = 10000)
+    public void testWaitTimeout() {
+        container.addBean("slow", false, SlowBean.class);
+        container.addBean("lookup", false, LookupBean.class);
+
+        init(50);
+
+        assertSame(container.getBean("slow"), container.<LookupBean>getBean("lookup").slow);
+    }
+
+    @Test(timeout = 10000)
+    public void testInitFailure() {
+        container.addBean("slow", false, SlowBean.class);
+        container.addBean("failing", false, FailingBean.class);
+
+        try {
+            init(ParallelBeanInitializer.DEFAULT_TIMEOUT);
+            fail("Should throw BeanCreationException");
+        } catch (BeanCreationException e) {
+            assertContains(e.getMessage() + " " + e.getCause(), "init failed");
+        }
+    }
+
+    private static void init(long timeout) {
+        container.initParallel(new ParallelBeanInitializer(container, 2, timeout), container.bds.allBeanDefinitions);
+    }
+
+    private static void await() {
+        latch.countDown();
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static final class SlowBean implements Initializable {
+        static volatile int instances;
+
+        @Override
+        public void init() {
+            instances++;
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public static final class LookupBean implements Initializable {
+        SlowBean slow;
+
+        @Override
+        public void init() {
+            slow = container.getBean("slow");
+        }
+    }
+
+    public static final class CycleA implements Initializable {
+        CycleB b;
+
+        @Override
+        public void init() {
+            await();
+            b = container.getBean("b");
+        }
+    }
+
+    public static final class CycleB implements Initializable {
+        CycleA a;
+
+        @Override
+        public void init() {
+            await();
+            a = container.getBean("a");
+        }
+    }
+
+    public static final class FailingBean implements Initializable {
+        @Override
+        public void init() {
+            throw new IllegalStateException("init failed");
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tests.core.ds;
+
+import leap.core.ds.LeastOutstandingRoutingPolicy;
+import leap.core.ds.ReadWriteSplittingDataSource;
+import leap.core.ds.ReplicaDataSource;
+import leap.core.ds.UnPooledDataSource;
+import leap.core.jdbc.SqlExecutionContext;
+import leap.core.jdbc.SqlExcutionType;
+import leap.junit.TestBase;
+import leap.lang.New;
+import leap.lang.jdbc.DataSourceAdapter;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class ReadWriteSplittingDataSourceTest extends TestBase {
+
+    private static final String WRITE = "jdbc:h2:mem:rw_write";
+    private static final String READ1 = "jdbc:h2:mem:rw_read1";
+    private static final String READ2 = "jdbc:h2:mem:rw_read2";
+
+    @After
+    public void cleanContext() {
+        SqlExecutionContext.clean();
+    }
+
+    @Test
+    public void testRoundRobin() throws SQLException {
+        ReadWriteSplittingDataSource ds = create(h2(READ1), h2(READ2));
+
+        SqlExecutionContext.setType(SqlExcutionType.Read);
+        String url1 = url(ds);
+        String url2 = url(ds);
+        assertNotEquals(url1, url2);
+        assertEquals(url1, url(ds));
+
+        SqlExecutionContext.setType(SqlExcutionType.Write);
+        assertEquals(WRITE, url(ds));
+    }
+
+    @Test
+    public void testLeastOutstanding() throws SQLException {
+        ReadWriteSplittingDataSource ds = create(h2(READ1), h2(READ2));
+        ds.setRoutingPolicy(new LeastOutstandingRoutingPolicy());
+
+        SqlExecutionContext.setType(SqlExcutionType.Read);
+        try(Connection held = ds.getConnection()) {
+            String heldUrl = held.getMetaData().getURL();
+            for(int i=0;i<3;i++) {
+                assertNotEquals(heldUrl, url(ds));
+            }
+        }
+
+        for(ReplicaDataSource replica : ds.getReplicas()) {
+            assertEquals(0, replica.getOutstanding());
+            assertTrue(replica.getBorrows() > 0);
+        }
+    }
+
+    @Test
+    public void testFailoverAndCircuitBreaking() throws SQLException {
+        ReadWriteSplittingDataSource ds = create(new FailingDataSource(), h2(READ1));
+        ds.setFailureThreshold(2);
+
+        SqlExecutionContext.setType(SqlExcutionType.Read);
+        for(int i=0;i<5;i++) {
+            assertEquals(READ1, url(ds));
+        }
+
+        ReplicaDataSource failing = ds.getReplicas().get(0);
+        assertTrue(failing.isCircuitOpen());
+        assertEquals(2, failing.getFailures());
+        assertEquals(1, failing.getCircuitOpens());
+        assertEquals(5, ds.getReplicas().get(1).getBorrows());
+    }
+
+    @Test
+    public void testTargetSkipsOpenCircuit() throws SQLException {
+        ReadWriteSplittingDataSource ds = create(new FailingDataSource());
+        ds.setFailureThreshold(1);
+
+        SqlExecutionContext.setType(SqlExcutionType.Read);
+        assertTrue(ds.isWrapperFor(FailingDataSource.class));
+
+        //opens the circuit, the target is the write data source now.
+        assertEquals(WRITE, url(ds));
+        assertTrue(ds.getReplicas().get(0).isCircuitOpen());
+        assertFalse(ds.isWrapperFor(FailingDataSource.class));
+    }
+
+    @Test
+    public void testHalfOpenTrial() throws Exception {
+        FailingDataSource failing = new FailingDataSource();
+
+        ReplicaDataSource replica = new ReplicaDataSource("read0", failing);
+        replica.setFailureThreshold(1);
+        replica.setCircuitOpenTime(50);
+
+        try {
+            replica.getConnection(null, null, false);
+            fail("Should throw SQLException");
+        }catch (SQLException e) {
+            //expected.
+        }
+        assertTrue(replica.isCircuitOpen());
+        assertFalse(replica.tryAcquire(System.currentTimeMillis()));
+
+        Thread.sleep(60);
+
+        long now = System.currentTimeMillis();
+        assertTrue(replica.isAvailable(now));
+        assertTrue(replica.tryAcquire(now));
+        assertFalse(replica.tryAcquire(now));
+        assertFalse(replica.isAvailable(now));
+
+        failing.refused = false;
+        replica.getConnection(null, null, false).close();
+        assertFalse(replica.isCircuitOpen());
+        assertTrue(replica.tryAcquire(System.currentTimeMillis()));
+        assertTrue(replica.tryAcquire(System.currentTimeMillis()));
+    }
+
+    @Test
+    public void testExecutionLatency() throws SQLException {
+        ReadWriteSplittingDataSource ds = create(h2(READ1));
+        ReplicaDataSource replica = ds.getReplicas().get(0);
+
+        SqlExecutionContext.setType(SqlExcutionType.Read);
+        try(Connection conn = ds.getConnection()) {
+            assertEquals(-1d, replica.getLatencyEwma(), 0d);
+            try(Statement stmt = conn.createStatement()) {
+                stmt.executeQuery("select 1").close();
+            }
+        }
+        assertTrue(replica.getLatencyEwma() >= 0);
+    }
+
+    @Test
+    public void testFallbackToWrite() throws SQLException {
+        ReadWriteSplittingDataSource ds = create(new FailingDataSource());
+
+        SqlExecutionContext.setType(SqlExcutionType.Read);
+        assertEquals(WRITE, url(ds));
+
+        ds.setFallbackToWrite(false);
+        try {
+            url(ds);
+            fail("Should throw SQLException");
+        }catch (SQLException e) {
+            //expected.
+        }
+    }
+
+    @Test
+    public void testStickyAfterWrite() throws SQLException {
+        ReadWriteSplittingDataSource ds = create(h2(READ1));
+        ds.setStickyWindow(60000);
+
+        SqlExecutionContext.setType(SqlExcutionType.Read);
+        assertEquals(READ1, url(ds));
+
+        SqlExecutionContext.setType(SqlExcutionType.Write);
+        assertEquals(WRITE, url(ds));
+
+        SqlExecutionContext.setType(SqlExcutionType.Read);
+        assertEquals(WRITE, url(ds));
+
+        ds.clearSticky();
+        assertEquals(READ1, url(ds));
+    }
+
+    private static ReadWriteSplittingDataSource create(DataSource... reads) {
+        ReadWriteSplittingDataSource ds = new ReadWriteSplittingDataSource();
+        ds.setWriteDataSource(h2(WRITE));
+        ds.setReadDataSources(New.arrayList(reads));
+        return ds;
+    }
+
+    private static DataSource h2(String url) {
+        return new UnPooledDataSource("org.h2.Driver", url, "sa", "");
+    }
+
+    private static String url(DataSource ds) throws SQLException {
+        try(Connection conn = ds.getConnection()) {
+            return conn.getMetaData().getURL();
+        }
+    }
+
+    private static final class FailingDataSource extends DataSourceAdapter {
+        private volatile boolean refused = true;
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if(refused) {
+                throw new SQLException("Connection refused");
+            }
+            return h2(READ1).getConnection();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tests.core.event;
+
+import leap.core.event.AsyncEventConfig;
+import leap.core.event.AsyncEventDispatcher;
+import leap.core.event.BatchEventListener;
+import leap.core.event.DefaultEvent;
+import leap.core.event.DefaultEventManager;
+import leap.core.event.Event;
+import leap.core.event.EventManager;
+import leap.junit.TestBase;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class AsyncEventTest extends TestBase {
+
+    private final DefaultEventManager em = new DefaultEventManager();
+
+    @After
+    public void disposeEventManager() throws Throwable {
+        em.dispose();
+    }
+
+    @Test
+    public void testSyncByDefault() {
+        em.registerEventName("c1", "e1");
+
+        List<Thread> threads = new ArrayList<>();
+        em.addEventNameListener("e1", e -> threads.add(Thread.currentThread()));
+
+        em.fireEvent(new DefaultEvent("e1", "c1", this));
+        assertNull(em.getAsyncDispatcher("c1"));
+        assertEquals(1, threads.size());
+        assertSame(Thread.currentThread(), threads.get(0));
+    }
+
+    @Test
+    public void testOrderedByKey() throws Exception {
+        AsyncEventConfig config = new AsyncEventConfig();
+        config.setWorkers(4);
+
+        em.registerEventName("c2", "e2");
+        em.setAsyncDelivery("c2", config);
+
+        Map<Object, List<Integer>> received = new ConcurrentHashMap<>();
+        em.addEventNameListener("e2", e -> received.computeIfAbsent(e.getKey(), k -> Collections.synchronizedList(new ArrayList<>()))
+                                                   .add((Integer) e.getContext()));
+
+        for(int i=0;i<100;i++) {
+            for(String key : new String[]{"a", "b", "c"}) {
+                DefaultEvent event = new DefaultEvent("e2", "c2", i, this);
+                event.setKey(key);
+                em.fireEvent(event);
+            }
+        }
+
+        AsyncEventDispatcher dispatcher = em.getAsyncDispatcher("c2");
+        assertTrue(dispatcher.awaitIdle(5, TimeUnit.SECONDS));
+        assertEquals(300, dispatcher.getPublished());
+        assertEquals(300, dispatcher.getDelivered());
+        assertEquals(0, dispatcher.getQueueDepth());
+
+        for(String key : new String[]{"a", "b", "c"}) {
+            List<Integer> list = received.get(key);
+            assertEquals(100, list.size());
+            for(int i=0;i<100;i++) {
+                assertEquals(i, list.get(i).intValue());
+            }
+        }
+    }
+
+    @Test
+    public void testBatchListener() throws Exception {
+        AsyncEventConfig config = new AsyncEventConfig();
+        config.setBatchSize(10);
+
+        em.registerEventName("c3", "e3");
+        em.setAsyncDelivery("c3", config);
+
+        CountDownLatch block = new CountDownLatch(1);
+        List<Integer> sizes  = Collections.synchronizedList(new ArrayList<>());
+        em.addEventNameListener("e3", (BatchEventListener) events -> {
+            block.await();
+            sizes.add(events.size());
+        });
+
+        for(int i=0;i<25;i++) {
+            em.fireEvent(new DefaultEvent("e3", "c3", this));
+        }
+        block.countDown();
+
+        assertTrue(em.getAsyncDispatcher("c3").awaitIdle(5, TimeUnit.SECONDS));
+
+        int total = 0;
+        for(Integer size : sizes) {
+            assertTrue(size <= 10);
+            total += size;
+        }
+        assertEquals(25, total);
+        assertTrue(sizes.size() < 25);
+    }
+
+    @Test
+    public void testDropOnOverflow() throws Exception {
+        AsyncEventConfig config = new AsyncEventConfig();
+        config.setQueueCapacity(2);
+        config.setOverflowPolicy(AsyncEventConfig.OverflowPolicy.DROP);
+
+        em.registerEventName("c4", "e4");
+        em.setAsyncDelivery("c4", config);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch block   = new CountDownLatch(1);
+        em.addEventNameListener("e4", e -> {
+            started.countDown();
+            block.await();
+        });
+
+        em.fireEvent(new DefaultEvent("e4", "c4", this));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        for(int i=0;i<5;i++) {
+            em.fireEvent(new DefaultEvent("e4", "c4", this));
+        }
+
+        AsyncEventDispatcher dispatcher = em.getAsyncDispatcher("c4");
+        assertEquals(2, dispatcher.getQueueDepth());
+        assertEquals(3, dispatcher.getDropped());
+
+        block.countDown();
+        assertTrue(dispatcher.awaitIdle(5, TimeUnit.SECONDS));
+        assertEquals(3, dispatcher.getDelivered());
+    }
+
+    @Test
+    public void testCallerRunsOnOverflow() throws Exception {
+        AsyncEventConfig config = new AsyncEventConfig();
+        config.setQueueCapacity(1);
+        config.setOverflowPolicy(AsyncEventConfig.OverflowPolicy.CALLER_RUNS);
+
+        em.registerEventName("c6", "e6");
+        em.setAsyncDelivery("c6", config);
+
+        List<Integer> keyed   = Collections.synchronizedList(new ArrayList<>());
+        List<Thread>  threads = Collections.synchronizedList(new ArrayList<>());
+        em.addEventNameListener("e6", e -> {
+            if(null == e.getKey()) {
+                threads.add(Thread.currentThread());
+            }else{
+                Thread.sleep(1);
+                keyed.add((Integer) e.getContext());
+            }
+        });
+
+        for(int i=0;i<20;i++) {
+            DefaultEvent event = new DefaultEvent("e6", "c6", i, this);
+            event.setKey("k");
+            em.fireEvent(event);
+        }
+        em.fireEvent(new DefaultEvent("e6", "c6", this));
+
+        AsyncEventDispatcher dispatcher = em.getAsyncDispatcher("c6");
+        assertTrue(dispatcher.awaitIdle(5, TimeUnit.SECONDS));
+        assertEquals(21, dispatcher.getDelivered());
+
+        assertEquals(20, keyed.size());
+        for(int i=0;i<20;i++) {
+            assertEquals(i, keyed.get(i).intValue());
+        }
+        assertEquals(1, threads.size());
+    }
+
+    @Test
+    public void testCancelledStillBatched() throws Exception {
+        em.registerEventName("c7", "e7");
+        em.setAsyncDelivery("c7", new AsyncEventConfig());
+
+        List<Event> received = Collections.synchronizedList(new ArrayList<>());
+        List<Event> batched  = Collections.synchronizedList(new ArrayList<>());
+        em.addEventNameListener("e7", Event::cancel);
+        em.addEventNameListener("e7", received::add);
+        em.addEventCategoryListener(EventManager.ALL_CATEGORY, received::add);
+        em.addEventCategoryListener(EventManager.ALL_CATEGORY, (BatchEventListener) batched::addAll);
+
+        em.fireEvent(new DefaultEvent("e7", "c7", null, this, true));
+
+        assertTrue(em.getAsyncDispatcher("c7").awaitIdle(5, TimeUnit.SECONDS));
+        assertTrue(received.isEmpty());
+        assertEquals(1, batched.size());
+        assertTrue(batched.get(0).isCancelled());
+    }
+
+    @Test
+    public void testListenerError() throws Exception {
+        em.registerEventName("c5", "e5");
+        em.setAsyncDelivery("c5", new AsyncEventConfig());
+
+        List<Event> received = Collections.synchronizedList(new ArrayList<>());
+        em.addEventNameListener("e5", e -> { throw new IllegalStateException("test"); });
+        em.addEventNameListener("e5", received::add);
+
+        em.fireEvent(new DefaultEvent("e5", "c5", this));
+
+        AsyncEventDispatcher dispatcher = em.getAsyncDispatcher("c5");
+        assertTrue(dispatcher.awaitIdle(5, TimeUnit.SECONDS));
+        assertEquals(1, dispatcher.getErrors());
+        assertEquals(1, received.size());
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tests.core.instrument;
+
+import leap.core.instrument.AppInstrumentCache;
+import leap.junit.TestBase;
+import leap.lang.io.Files;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+public class AppInstrumentCacheTest extends TestBase {
+
+    @Test
+    public void testCacheDir() throws Exception {
+        File dir = java.nio.file.Files.createTempDirectory("instrument").toFile();
+        try {
+            AppInstrumentCache cache = new AppInstrumentCache("v1", dir, null);
+            assertTrue(cache.isAvailable());
+            assertFalse(cache.isPrebuiltAvailable());
+
+            byte[] bytes = new byte[]{1, 2, 3};
+            String key   = cache.key(bytes, false);
+            assertNotEquals(key, cache.key(bytes, true));
+            assertNotEquals(key, new AppInstrumentCache("v2", dir, null).key(bytes, false));
+
+            assertNull(cache.get(key));
+            cache.put(key, new AppInstrumentCache.Entry());
+
+            AppInstrumentCache.Entry entry = cache.get(key);
+            assertNotNull(entry);
+            assertFalse(entry.isInstrumented());
+        } finally {
+            Files.deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void testPrebuilt() throws Exception {
+        File root = java.nio.file.Files.createTempDirectory("instrument").toFile();
+        try {
+            File dir = new File(root, AppInstrumentCache.CLASSPATH_LOCATION);
+
+            AppInstrumentCache builder = new AppInstrumentCache("v1", dir, null);
+            builder.writeVersion();
+
+            String key = builder.key(new byte[]{1}, false);
+            builder.put(key, new AppInstrumentCache.Entry());
+
+            try (URLClassLoader loader = new URLClassLoader(new URL[]{root.toURI().toURL()}, null)) {
+                AppInstrumentCache cache = new AppInstrumentCache("v1", null, loader);
+                assertTrue(cache.isPrebuiltAvailable());
+                assertNotNull(cache.get(key));
+
+                assertFalse(new AppInstrumentCache("v2", null, loader).isPrebuiltAvailable());
+            }
+        } finally {
+            Files.deleteDirectory(root);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tests.core.monitor;
+
+import leap.core.monitor.MethodMetrics;
+import leap.core.monitor.MethodMetricsRegistry;
+import leap.junit.TestBase;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class MethodMetricsTest extends TestBase {
+
+    @Test
+    public void testNestedCalls() throws Exception {
+        MethodMetricsRegistry registry = new MethodMetricsRegistry();
+
+        MethodMetrics outer = registry.get("tests.Service", "outer");
+        MethodMetrics inner = registry.get("tests.Service", "inner");
+        assertSame(outer, registry.get("tests.Service", "outer"));
+
+        MethodMetrics m1 = outer.start();
+        MethodMetrics m2 = inner.start();
+        Thread.sleep(5);
+        m2.error(new RuntimeException());
+        m2.exit();
+        m1.exit();
+
+        assertEquals(1, outer.getCalls());
+        assertEquals(0, outer.getErrors());
+        assertEquals(1, inner.getCalls());
+        assertEquals(1, inner.getErrors());
+        assertTrue(outer.getMaxTime() >= inner.getMaxTime());
+        assertTrue(inner.getMaxTime() >= 5);
+
+        List<MethodMetrics> top = registry.getTop(1);
+        assertEquals(1, top.size());
+        assertSame(outer, top.get(0));
+
+        registry.reset();
+        assertEquals(0, outer.getCalls());
+    }
+
+    @Test
+    public void testPercentiles() {
+        MethodMetrics m = new MethodMetrics("tests.Service", "call");
+        for(int i=0;i<99;i++) {
+            m.record(TimeUnit.MICROSECONDS.toNanos(100), false);
+        }
+        m.record(TimeUnit.MILLISECONDS.toNanos(50), false);
+
+        assertEquals(100, m.getCalls());
+        assertTrue(m.getPercentile(50) >= 0.1 && m.getPercentile(50) < 0.13);
+        assertTrue(m.getPercentile(99) < 0.13);
+        assertEquals(50d, m.getPercentile(100), 0.001);
+        assertEquals(50d, m.getMaxTime(), 0.001);
+    }
+
+}
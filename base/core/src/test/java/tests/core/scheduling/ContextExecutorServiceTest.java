@@ -0,0 +1,179 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tests.core.scheduling;
+
+import leap.core.jdbc.SqlExcutionType;
+import leap.core.jdbc.SqlExecutionContext;
+import leap.core.schedule.ContextExecutorService;
+import leap.core.schedule.ContextPropagator;
+import leap.core.schedule.DefaultSchedulerManager;
+import leap.core.schedule.ScheduleRejectedException;
+import leap.junit.TestBase;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class ContextExecutorServiceTest extends TestBase {
+
+    private static final ThreadLocal<String> user = new ThreadLocal<>();
+    private static final ThreadLocal<String> tx   = new ThreadLocal<>();
+
+    private static final ContextPropagator USER = new SimplePropagator(user, false);
+    private static final ContextPropagator TX   = new SimplePropagator(tx, true);
+
+    @Test
+    public void testPropagateContexts() throws Throwable {
+        ContextExecutorService executor =
+                new ContextExecutorService("test", new ForkJoinPool(2), new ContextPropagator[]{USER, TX}, 0);
+        try {
+            user.set("u1");
+            tx.set("t1");
+            SqlExecutionContext.setup(SqlExcutionType.Read, "select 1");
+
+            List<Future<String>> futures = new ArrayList<>();
+            for(int i=0;i<10;i++) {
+                futures.add(executor.submit(() -> user.get() + ":" + tx.get() + ":" + SqlExecutionContext.getType()));
+            }
+            for(Future<String> f : futures) {
+                assertEquals("u1:null:Read", f.get());
+            }
+
+            assertEquals("u1:t1:Read",
+                         executor.withTransaction().submit(() -> user.get() + ":" + tx.get() + ":" + SqlExecutionContext.getType()).get());
+
+            //the contexts of workers are restored after executing.
+            assertEquals("null:null:unknown",
+                         executor.getExecutor().submit(() -> user.get() + ":" + tx.get() + ":" + SqlExecutionContext.getType()).get());
+
+            assertEquals(11, executor.getSubmittedCount());
+            assertEquals(0,  executor.getFailedCount());
+        } finally {
+            user.remove();
+            tx.remove();
+            SqlExecutionContext.clean();
+            executor.dispose();
+        }
+    }
+
+    @Test
+    public void testBoundedPending() throws Throwable {
+        DefaultSchedulerManager manager = new DefaultSchedulerManager();
+        try {
+            ContextExecutorService executor = manager.newWorkStealingPool("bounded", 1, 2);
+
+            CountDownLatch latch = new CountDownLatch(1);
+            executor.execute(() -> await(latch));
+            executor.execute(() -> await(latch));
+
+            try {
+                executor.execute(() -> {});
+                fail("Should be rejected");
+            } catch (ScheduleRejectedException e) {
+                //expected
+            }
+            assertEquals(1, executor.getRejectedCount());
+            assertEquals(2, executor.getPendingCount());
+
+            latch.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+            assertEquals(2, executor.getCompletedCount());
+            assertEquals(0, executor.getPendingCount());
+            assertTrue(manager.getContextExecutors().contains(executor));
+        } finally {
+            manager.dispose();
+        }
+    }
+
+    @Test
+    public void testFailedCount() throws Throwable {
+        ContextExecutorService executor = new ContextExecutorService("failed", new ForkJoinPool(2), null, 0);
+        try {
+            Future<String> future = executor.submit(() -> { throw new IllegalStateException("test"); });
+            try {
+                future.get();
+                fail("Should throw ExecutionException");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+
+            List<Callable<String>> tasks = new ArrayList<>();
+            tasks.add(() -> "ok");
+            tasks.add(() -> { throw new IllegalStateException("test"); });
+            executor.invokeAll(tasks);
+
+            executor.execute(() -> { throw new IllegalStateException("test"); });
+
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+            assertEquals(3, executor.getFailedCount());
+            assertEquals(1, executor.getCompletedCount());
+        } finally {
+            executor.dispose();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class SimplePropagator implements ContextPropagator {
+        private final ThreadLocal<String> local;
+        private final boolean             transactional;
+
+        SimplePropagator(ThreadLocal<String> local, boolean transactional) {
+            this.local = local;
+            this.transactional = transactional;
+        }
+
+        @Override
+        public boolean isTransactional() {
+            return transactional;
+        }
+
+        @Override
+        public Object capture() {
+            return local.get();
+        }
+
+        @Override
+        public Object apply(Object captured) {
+            Object previous = local.get();
+            restore(captured);
+            return previous;
+        }
+
+        @Override
+        public void restore(Object previous) {
+            if(null == previous) {
+                local.remove();
+            }else {
+                local.set((String)previous);
+            }
+        }
+    }
+}
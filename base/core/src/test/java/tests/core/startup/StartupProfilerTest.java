@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tests.core.startup;
+
+import leap.core.startup.StartupProfiler;
+import leap.core.startup.StartupStep;
+import leap.junit.TestBase;
+import leap.lang.Charsets;
+import leap.lang.io.IO;
+import leap.lang.json.JSON;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+public class StartupProfilerTest extends TestBase {
+
+    @Test
+    public void testDisabled() {
+        StartupProfiler.setEnabled(false);
+
+        StartupStep step = StartupProfiler.start("test");
+        assertSame(StartupStep.NOOP, step);
+        step.end();
+
+        assertNull(StartupProfiler.finish());
+    }
+
+    @Test
+    public void testReportAndTrace() throws Exception {
+        File file = File.createTempFile("startup", ".json");
+        System.setProperty(StartupProfiler.TRACE_FILE_PROPERTY, file.getAbsolutePath());
+        try {
+            StartupProfiler.setEnabled(true);
+
+            try (StartupStep root = StartupProfiler.start("root")) {
+                try (StartupStep beans = StartupProfiler.start("beans")) {
+                    try (StartupStep bean = StartupProfiler.start(StartupProfiler.CATEGORY_BEAN, "bean1")) {
+                        bean.tag("class", "Bean1");
+                        Thread.sleep(5);
+                    }
+                }
+            }
+
+            String report = StartupProfiler.finish();
+            assertFalse(StartupProfiler.isEnabled());
+            assertContains(report, "  root : ");
+            assertContains(report, "    beans : ");
+            assertContains(report, "bean1");
+
+            Map<String, Object>       trace  = JSON.decodeMap(IO.readString(file, Charsets.UTF_8));
+            List<Map<String, Object>> events = (List<Map<String, Object>>) trace.get("traceEvents");
+
+            //one thread name event and three step events.
+            assertEquals(4, events.size());
+            assertEquals("thread_name", events.get(0).get("name"));
+            assertEquals("root", events.get(1).get("name"));
+            assertEquals("bean1", events.get(3).get("name"));
+            assertEquals("bean", events.get(3).get("cat"));
+            assertEquals("Bean1", ((Map) events.get(3).get("args")).get("class"));
+        } finally {
+            System.clearProperty(StartupProfiler.TRACE_FILE_PROPERTY);
+            StartupProfiler.setEnabled(false);
+            file.delete();
+        }
+    }
+}
@@ -132,6 +132,16 @@ public class Converts {
 		assignableFromConverters.put(superType, converter);
 	}
 	
+	/**
+	 * Returns the registered {@link Converter} for converting values from or to the given type.
+	 *
+	 * <p/>
+	 * Returns <code>null</code> if no converter registered for the type.
+	 */
+	public static <T> Converter<T> getConverter(Class<T> type) {
+		return findConverter(type);
+	}
+
 	public static <T> T convert(Object value,Class<T> targetType) throws ConvertUnsupportedException {
 		return convert(value,targetType,null,null);
 	}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.lang.csv;
+
+import leap.lang.Args;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * Writes the rows one by one to the underlying output, nothing is buffered except the output itself.
+ */
+public final class CsvWriter implements Flushable, Closeable {
+
+	private final CSVPrinter printer;
+
+	public CsvWriter(Appendable out) {
+		this(out, CSVFormat.DEFAULT);
+	}
+
+	public CsvWriter(Appendable out, CSVFormat format) {
+		Args.notNull(out, "out");
+		Args.notNull(format, "format");
+		this.printer = new CSVPrinter(out, format);
+	}
+
+	/**
+	 * Writes the values as a row.
+	 */
+	public void writeRow(Object... values) throws IOException {
+		printer.printRecord(values);
+	}
+
+	/**
+	 * Writes the values as a row.
+	 */
+	public void writeRow(Iterable<?> values) throws IOException {
+		printer.printRecord(values);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		printer.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		printer.close();
+	}
+}
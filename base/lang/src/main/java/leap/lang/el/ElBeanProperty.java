@@ -25,6 +25,10 @@ public class ElBeanProperty implements ElProperty {
 		this.bp = bp;
 	}
 
+	public BeanProperty getBeanProperty() {
+		return bp;
+	}
+
 	@Override
 	public Object getValue(ElEvalContext context, Object instance) throws Throwable {
 		return bp.getValue(instance);
@@ -0,0 +1,459 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.lang.el.spel;
+
+import leap.lang.asm.ClassWriter;
+import leap.lang.asm.Label;
+import leap.lang.asm.MethodVisitor;
+import leap.lang.asm.Type;
+import leap.lang.beans.BeanProperty;
+import leap.lang.el.ElBeanProperty;
+import leap.lang.el.ElEvalContext;
+import leap.lang.el.ElException;
+import leap.lang.el.ElProperty;
+import leap.lang.el.ElPropertyResolver;
+import leap.lang.el.spel.ast.AstExpr;
+import leap.lang.el.spel.ast.AstProperty;
+import leap.lang.el.spel.ast.AstVisitorAdapter;
+import leap.lang.el.spel.ast.CompiledPropertyAccessor;
+import leap.lang.logging.Log;
+import leap.lang.logging.LogFactory;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static leap.lang.asm.Opcodes.*;
+
+/**
+ * Compiles the property chains (i.e. <code>user.address.city</code>) of a stable {@link SpelExpression} to bytecode.
+ *
+ * <p/>
+ * The compiler uses the owner classes profiled by the interpreter,
+ * every property access in the generated code is guarded by the profiled class (monomorphic inline cache),
+ * the public getter method will be invoked directly if possible.
+ *
+ * <p/>
+ * The compiler is disabled by default, sets the system property {@link #THRESHOLD_PROPERTY} to a positive number
+ * to compile the expressions after the given number of interpreted evaluations.
+ */
+public class SpelCompiler {
+
+    private static final Log log = LogFactory.get(SpelCompiler.class);
+
+    public static final String THRESHOLD_PROPERTY = "leap.spel.compileThreshold";
+
+    private static final String BASE_CLASS      = Type.getInternalName(CompiledPropertyAccessor.class);
+    private static final String CONTEXT_CLASS   = Type.getInternalName(ElEvalContext.class);
+    private static final String CONTEXT_DESC    = Type.getDescriptor(ElEvalContext.class);
+    private static final String RESOLVER_CLASS  = Type.getInternalName(ElPropertyResolver.class);
+    private static final String ELPROP_DESC     = Type.getDescriptor(ElProperty.class);
+    private static final String ELEXCEPTION_DESC= Type.getDescriptor(ElException.class);
+    private static final String CLASS_PREFIX    = "leap/lang/el/spel/gen/CompiledProperty";
+
+    private static final AtomicInteger counter   = new AtomicInteger();
+    private static volatile int        threshold = Integer.getInteger(THRESHOLD_PROPERTY, 0);
+
+    /**
+     * Returns <code>true</code> if the compiler is enabled.
+     */
+    public static boolean isEnabled() {
+        return threshold > 0;
+    }
+
+    /**
+     * Returns the number of interpreted evaluations before compiling an expression, zero means disabled.
+     */
+    public static int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Sets the number of interpreted evaluations before compiling an expression, zero or negative disables the compiler.
+     */
+    public static void setThreshold(int threshold) {
+        SpelCompiler.threshold = threshold;
+    }
+
+    /**
+     * Compiles all the compilable property chains in the expression, returns the number of compiled chains.
+     */
+    public static int compile(AstExpr expr) {
+        final int[] compiled = new int[1];
+
+        expr.accept(new AstVisitorAdapter() {
+            @Override
+            public boolean startVisit(AstProperty node) {
+                if(null != node.getCompiled() || compile(node)) {
+                    compiled[0]++;
+                    return false;
+                }
+                return true;
+            }
+        });
+
+        return compiled[0];
+    }
+
+    /**
+     * Compiles the property chain ends with the given property, returns <code>false</code> if not compilable.
+     */
+    public static boolean compile(AstProperty node) {
+        List<AstProperty> chain = new ArrayList<>();
+
+        AstExpr owner = node;
+        while (owner instanceof AstProperty) {
+            chain.add((AstProperty)owner);
+            owner = ((AstProperty) owner).getOwner();
+        }
+        Collections.reverse(chain);
+
+        Step[] steps = new Step[chain.size()];
+        for(int i=0;i<steps.length;i++) {
+            if(null == (steps[i] = step(chain.get(i)))) {
+                return false;
+            }
+        }
+
+        try {
+            CompiledPropertyAccessor accessor = generate(node, owner, steps);
+            node.setCompiled(accessor);
+            log.debug("Compiled property '{}' by class '{}'", node, accessor.getClass().getName());
+            return true;
+        }catch (Throwable e) {
+            log.info("Error compiling property '{}', use interpreter : {}", node, e.getMessage(), e);
+            return false;
+        }
+    }
+
+    protected static Step step(AstProperty node) {
+        Class<?> c = node.getProfiledClass();
+        if(null == c || node.isPolymorphic() || !Modifier.isPublic(c.getModifiers())) {
+            return null;
+        }
+
+        Step step = new Step(node, c);
+
+        switch (node.getProfiledKind()) {
+            case AstProperty.KIND_MAP :
+            case AstProperty.KIND_RESOLVER:
+                return step;
+
+            case AstProperty.KIND_BEAN:
+                ElProperty p = node.getProfiledProperty();
+                if(null == p || ElProperty.NULL == p) {
+                    return null;
+                }
+                step.property = p;
+                if(p instanceof ElBeanProperty) {
+                    step.getter = accessibleGetter(((ElBeanProperty) p).getBeanProperty(), c);
+                }
+                return step;
+
+            default:
+                return null;
+        }
+    }
+
+    protected static Method accessibleGetter(BeanProperty bp, Class<?> c) {
+        Method m = null == bp ? null : bp.getGetter();
+        if(null == m || Modifier.isStatic(m.getModifiers()) || !Modifier.isPublic(m.getModifiers())) {
+            return null;
+        }
+
+        for(Class<?> dc = m.getDeclaringClass(); null != dc; dc = dc.getEnclosingClass()) {
+            if(!Modifier.isPublic(dc.getModifiers())) {
+                return null;
+            }
+        }
+
+        if(!m.getDeclaringClass().isAssignableFrom(c)) {
+            return null;
+        }
+
+        return m;
+    }
+
+    protected static CompiledPropertyAccessor generate(AstProperty node, AstExpr root, Step[] steps) throws Exception {
+        String className = CLASS_PREFIX + counter.incrementAndGet();
+
+        SpelClassLoader loader = new SpelClassLoader(SpelCompiler.class.getClassLoader());
+
+        Class<?>[]   classes    = new Class<?>[steps.length];
+        ElProperty[] properties = new ElProperty[steps.length];
+        for(int i=0;i<steps.length;i++) {
+            classes[i]    = steps[i].cls;
+            properties[i] = steps[i].property;
+            if(null != steps[i].getter) {
+                loader.add(steps[i].getter.getDeclaringClass());
+                loader.add(steps[i].getter.getReturnType());
+            }
+        }
+
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(V1_6, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, className, null, BASE_CLASS, null);
+
+        String initDesc = "(" + Type.getDescriptor(AstProperty.class) + Type.getDescriptor(AstExpr.class) +
+                          "[Ljava/lang/Class;[" + ELPROP_DESC + ")V";
+
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", initDesc, null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitVarInsn(ALOAD, 3);
+        mv.visitVarInsn(ALOAD, 4);
+        mv.visitMethodInsn(INVOKESPECIAL, BASE_CLASS, "<init>", initDesc, false);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        generateEval(cw, steps);
+
+        cw.visitEnd();
+
+        Class<?> c = loader.define(className.replace('/', '.'), cw.toByteArray());
+
+        return (CompiledPropertyAccessor)c.getConstructors()[0].newInstance(node, root, classes, properties);
+    }
+
+    /*
+     * Locals : 0 -> this, 1 -> context, 2 -> current value, 3 -> exception.
+     *
+     * The generated code keeps the semantics of the interpreter :
+     *
+     *   1. resolve variable by the qualified name of each property from the last to the first.
+     *   2. evaluate the root if no variable resolved.
+     *   3. get the value of properties one by one, returns null if the owner is null.
+     */
+    protected static void generateEval(ClassWriter cw, Step[] steps) {
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "eval", "(" + CONTEXT_DESC + ")Ljava/lang/Object;", null, null);
+        mv.visitCode();
+
+        Label   returnValue = new Label();
+        Label   returnNull  = new Label();
+        Label   deopt       = new Label();
+        Label[] resolved    = new Label[steps.length];
+        Label[] tryStarts   = new Label[steps.length];
+        Label[] tryEnds     = new Label[steps.length];
+        Label[] handlers    = new Label[steps.length];
+
+        for(int i=0;i<steps.length;i++) {
+            resolved[i] = new Label();
+            if(null != steps[i].getter) {
+                tryStarts[i] = new Label();
+                tryEnds[i]   = new Label();
+                handlers[i]  = new Label();
+                mv.visitTryCatchBlock(tryStarts[i], tryEnds[i], handlers[i], "java/lang/Throwable");
+            }
+        }
+
+        //resolve variables by qualified names.
+        for(int i=steps.length-1;i>=0;i--) {
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitLdcInsn(steps[i].qname);
+            mv.visitMethodInsn(INVOKEINTERFACE, CONTEXT_CLASS, "resolveVariable", "(Ljava/lang/String;)Ljava/lang/Object;", true);
+            mv.visitVarInsn(ASTORE, 2);
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitJumpInsn(IFNONNULL, i == steps.length - 1 ? returnValue : resolved[i]);
+        }
+
+        //evaluates the root.
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitMethodInsn(INVOKEVIRTUAL, BASE_CLASS, "evalRoot", "(" + CONTEXT_DESC + ")Ljava/lang/Object;", false);
+        mv.visitVarInsn(ASTORE, 2);
+
+        for(int i=0;i<steps.length;i++) {
+            Step step = steps[i];
+
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitJumpInsn(IFNULL, returnNull);
+
+            if(step.node.getProfiledKind() == AstProperty.KIND_MAP) {
+                mv.visitVarInsn(ALOAD, 2);
+                mv.visitTypeInsn(INSTANCEOF, "java/util/Map");
+                mv.visitJumpInsn(IFEQ, deopt);
+                mv.visitVarInsn(ALOAD, 2);
+                mv.visitTypeInsn(CHECKCAST, "java/util/Map");
+                mv.visitLdcInsn(step.name);
+                mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Map", "get", "(Ljava/lang/Object;)Ljava/lang/Object;", true);
+                mv.visitVarInsn(ASTORE, 2);
+            }else{
+                //guard : value.getClass() == classes[i]
+                mv.visitVarInsn(ALOAD, 2);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Object", "getClass", "()Ljava/lang/Class;", false);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitFieldInsn(GETFIELD, BASE_CLASS, "classes", "[Ljava/lang/Class;");
+                pushInt(mv, i);
+                mv.visitInsn(AALOAD);
+                mv.visitJumpInsn(IF_ACMPNE, deopt);
+
+                if(step.node.getProfiledKind() == AstProperty.KIND_RESOLVER) {
+                    mv.visitVarInsn(ALOAD, 2);
+                    mv.visitTypeInsn(CHECKCAST, RESOLVER_CLASS);
+                    mv.visitLdcInsn(step.name);
+                    mv.visitVarInsn(ALOAD, 1);
+                    mv.visitMethodInsn(INVOKEINTERFACE, RESOLVER_CLASS, "resolveProperty", "(Ljava/lang/String;" + CONTEXT_DESC + ")Ljava/lang/Object;", true);
+                }else if(null != step.getter) {
+                    Method   m  = step.getter;
+                    Class<?> dc = m.getDeclaringClass();
+                    mv.visitLabel(tryStarts[i]);
+                    mv.visitVarInsn(ALOAD, 2);
+                    mv.visitTypeInsn(CHECKCAST, Type.getInternalName(dc));
+                    if(dc.isInterface()) {
+                        mv.visitMethodInsn(INVOKEINTERFACE, Type.getInternalName(dc), m.getName(), Type.getMethodDescriptor(m), true);
+                    }else{
+                        mv.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(dc), m.getName(), Type.getMethodDescriptor(m), false);
+                    }
+                    box(mv, m.getReturnType());
+                    mv.visitLabel(tryEnds[i]);
+                }else{
+                    mv.visitVarInsn(ALOAD, 0);
+                    mv.visitFieldInsn(GETFIELD, BASE_CLASS, "properties", "[" + ELPROP_DESC);
+                    pushInt(mv, i);
+                    mv.visitInsn(AALOAD);
+                    mv.visitVarInsn(ALOAD, 1);
+                    mv.visitVarInsn(ALOAD, 2);
+                    mv.visitLdcInsn(step.name);
+                    mv.visitMethodInsn(INVOKESTATIC, BASE_CLASS, "getValue",
+                                       "(" + ELPROP_DESC + CONTEXT_DESC + "Ljava/lang/Object;Ljava/lang/String;)Ljava/lang/Object;", false);
+                }
+                mv.visitVarInsn(ASTORE, 2);
+            }
+
+            mv.visitLabel(resolved[i]);
+        }
+
+        mv.visitLabel(returnValue);
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitInsn(ARETURN);
+
+        mv.visitLabel(returnNull);
+        mv.visitInsn(ACONST_NULL);
+        mv.visitInsn(ARETURN);
+
+        mv.visitLabel(deopt);
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitMethodInsn(INVOKEVIRTUAL, BASE_CLASS, "deopt", "(" + CONTEXT_DESC + ")Ljava/lang/Object;", false);
+        mv.visitInsn(ARETURN);
+
+        //throw wrap(context, e, owner, name)
+        for(int i=0;i<steps.length;i++) {
+            if(null != handlers[i]) {
+                mv.visitLabel(handlers[i]);
+                mv.visitVarInsn(ASTORE, 3);
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitVarInsn(ALOAD, 3);
+                mv.visitVarInsn(ALOAD, 2);
+                mv.visitLdcInsn(steps[i].name);
+                mv.visitMethodInsn(INVOKESTATIC, BASE_CLASS, "wrap",
+                                   "(" + CONTEXT_DESC + "Ljava/lang/Throwable;Ljava/lang/Object;Ljava/lang/String;)" + ELEXCEPTION_DESC, false);
+                mv.visitInsn(ATHROW);
+            }
+        }
+
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void pushInt(MethodVisitor mv, int i) {
+        if(i <= 5) {
+            mv.visitInsn(ICONST_0 + i);
+        }else{
+            mv.visitIntInsn(BIPUSH, i);
+        }
+    }
+
+    private static void box(MethodVisitor mv, Class<?> type) {
+        if(!type.isPrimitive()) {
+            return;
+        }
+
+        Type t = Type.getType(type);
+        String wrapper;
+        switch (t.getSort()) {
+            case Type.BOOLEAN: wrapper = "java/lang/Boolean";   break;
+            case Type.CHAR:    wrapper = "java/lang/Character"; break;
+            case Type.BYTE:    wrapper = "java/lang/Byte";      break;
+            case Type.SHORT:   wrapper = "java/lang/Short";     break;
+            case Type.INT:     wrapper = "java/lang/Integer";   break;
+            case Type.FLOAT:   wrapper = "java/lang/Float";     break;
+            case Type.LONG:    wrapper = "java/lang/Long";      break;
+            case Type.DOUBLE:  wrapper = "java/lang/Double";    break;
+            default:
+                throw new IllegalStateException("Unsupported primitive type '" + type + "'");
+        }
+        mv.visitMethodInsn(INVOKESTATIC, wrapper, "valueOf", "(" + t.getDescriptor() + ")L" + wrapper + ";", false);
+    }
+
+    protected static final class Step {
+        final AstProperty node;
+        final Class<?>    cls;
+        final String      name;
+        final String      qname;
+
+        ElProperty property;
+        Method     getter;
+
+        Step(AstProperty node, Class<?> cls) {
+            this.node  = node;
+            this.cls   = cls;
+            this.name  = node.getName();
+            this.qname = node.toString();
+        }
+    }
+
+    /**
+     * Loads the generated class and resolves the classes used by the generated code to the exactly same classes.
+     */
+    protected static final class SpelClassLoader extends ClassLoader {
+
+        private final Map<String, Class<?>> classes = new HashMap<>();
+
+        SpelClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        void add(Class<?> c) {
+            while (c.isArray()) {
+                c = c.getComponentType();
+            }
+            if(!c.isPrimitive()) {
+                classes.put(c.getName(), c);
+            }
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            Class<?> c = classes.get(name);
+            if(null != c) {
+                return c;
+            }
+            return super.loadClass(name, resolve);
+        }
+    }
+}
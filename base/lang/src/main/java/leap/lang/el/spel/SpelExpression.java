@@ -16,6 +16,7 @@
 package leap.lang.el.spel;
 
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import leap.lang.el.DefaultElEvalContext;
 import leap.lang.el.ElEvalContext;
@@ -23,8 +24,18 @@ import leap.lang.el.spel.ast.AstExpr;
 import leap.lang.expression.AbstractExpression;
 
 public class SpelExpression extends AbstractExpression {
+
+	/**
+	 * The max attempts of compiling, the property chains may not be compilable until the evaluated values are not null.
+	 */
+	private static final int MAX_COMPILE_ATTEMPTS = 3;
 	
 	protected final AstExpr expr;
+
+	private final AtomicInteger evaluations = new AtomicInteger();
+
+	private volatile boolean compiled;
+	private volatile int     compileAttempts;
 	
 	public SpelExpression(AstExpr expr) {
 		this.expr = expr;
@@ -32,13 +43,53 @@ public class SpelExpression extends AbstractExpression {
 
 	@Override
     protected Object eval(Object context, Map<String, Object> vars) {
-	    return expr.eval(new DefaultElEvalContext(context, vars));
+	    return eval(new DefaultElEvalContext(context, vars));
     }
 
 	public Object eval(ElEvalContext context) {
+		//reads the threshold once, it may be set to zero (disabled) concurrently.
+		int threshold = SpelCompiler.getThreshold();
+		if(!compiled && compileAttempts < MAX_COMPILE_ATTEMPTS && threshold > 0) {
+			Object v = expr.eval(context);
+			if(evaluations.incrementAndGet() % threshold == 0) {
+				compile();
+			}
+			return v;
+		}
 		return expr.eval(context);
 	}
 
+	/**
+	 * Compiles the property chains of this expression by {@link SpelCompiler}, returns the number of compiled chains.
+	 *
+	 * <p/>
+	 * The expression is marked as compiled only if at least one chain was compiled, otherwise the compiling
+	 * will be retried after next {@link SpelCompiler#getThreshold()} evaluations, at most 3 attempts.
+	 */
+	public synchronized int compile() {
+		int n = SpelCompiler.compile(expr);
+		if(n > 0) {
+			compiled = true;
+		}else {
+			compileAttempts++;
+		}
+		return n;
+	}
+
+	/**
+	 * Returns <code>true</code> if this expression was compiled.
+	 */
+	public boolean isCompiled() {
+		return compiled;
+	}
+
+	/**
+	 * Returns the number of failed compile attempts.
+	 */
+	public int getCompileAttempts() {
+		return compileAttempts;
+	}
+
 	@Override
     public String toString() {
 		return expr.toString();
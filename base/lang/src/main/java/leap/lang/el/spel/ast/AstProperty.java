@@ -25,12 +25,24 @@ import java.util.Map;
 
 public class AstProperty extends AstExpr implements Named {
 
+    public static final int KIND_NONE     = 0;
+    public static final int KIND_MAP      = 1;
+    public static final int KIND_RESOLVER = 2;
+    public static final int KIND_BEAN     = 3;
+    public static final int KIND_DYNAMIC  = 4;
+
     private AstExpr owner;
     private String  name;
     private String  qName;
     
     private Class<?>   c;
     private ElProperty p;
+
+    private Class<?> profiledClass;
+    private int      profiledKind;
+    private boolean  polymorphic;
+
+    private volatile CompiledPropertyAccessor compiled;
     
     public AstProperty() {
 
@@ -61,9 +73,64 @@ public class AstProperty extends AstExpr implements Named {
         this.name = name;
     }
 
+    /**
+     * Returns the class of owner objects observed by the interpreter, or <code>null</code> if not evaluated yet.
+     */
+    public Class<?> getProfiledClass() {
+        return profiledClass;
+    }
+
+    /**
+     * Returns the kind of property access observed by the interpreter, see <code>KIND_*</code>.
+     */
+    public int getProfiledKind() {
+        return profiledKind;
+    }
+
+    /**
+     * Returns <code>true</code> if the interpreter observed owner objects of more than one class.
+     */
+    public boolean isPolymorphic() {
+        return polymorphic;
+    }
+
+    /**
+     * Returns the resolved {@link ElProperty} of the profiled class, or <code>null</code>.
+     */
+    public ElProperty getProfiledProperty() {
+        ElProperty p = this.p;
+        return null != profiledClass && this.c == profiledClass ? p : null;
+    }
+
+    /**
+     * Returns the compiled accessor or <code>null</code>.
+     */
+    public CompiledPropertyAccessor getCompiled() {
+        return compiled;
+    }
+
+    /**
+     * Sets the compiled accessor which evaluates this property instead of the interpreter,
+     * <code>null</code> reverts to the interpreter.
+     */
+    public void setCompiled(CompiledPropertyAccessor compiled) {
+        this.compiled = compiled;
+    }
+
     @Override
-    @SuppressWarnings("rawtypes")
     public Object eval(ElEvalContext context) {
+        CompiledPropertyAccessor accessor = compiled;
+        if(null != accessor) {
+            return accessor.eval(context);
+        }
+        return interpret(context);
+    }
+
+    /**
+     * Evaluates the property by the interpreter.
+     */
+    @SuppressWarnings("rawtypes")
+    public Object interpret(ElEvalContext context) {
         if(null == qName) {
             qName = owner.toString() + "." + name;
             Object o = context.resolveVariable(qName);
@@ -84,10 +151,12 @@ public class AstProperty extends AstExpr implements Named {
     	}
     	
     	if(o instanceof Map){
+            profile(o, KIND_MAP);
     		return ((Map)o).get(name);
     	}
     	
     	if(o instanceof ElPropertyResolver){
+            profile(o, KIND_RESOLVER);
     		return ((ElPropertyResolver) o).resolveProperty(name, context);
     	}
 
@@ -102,6 +171,7 @@ public class AstProperty extends AstExpr implements Named {
         }else {
     	    dyna = false;
         }
+        profile(o, dyna || o instanceof Class<?> ? KIND_DYNAMIC : KIND_BEAN);
         if(null != v) {
             return v;
         }
@@ -167,6 +237,16 @@ public class AstProperty extends AstExpr implements Named {
     	return p;
     }
     
+    private void profile(Object o, int kind) {
+        Class<?> c = o.getClass();
+        if(null == profiledClass) {
+            profiledClass = c;
+            profiledKind  = kind;
+        }else if(profiledClass != c) {
+            polymorphic = true;
+        }
+    }
+
     static Class<?> cls(Object o){
     	Class<?> c = o.getClass();
     	if(c == Class.class){
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.lang.el.spel.ast;
+
+import leap.lang.el.ElEvalContext;
+import leap.lang.el.ElException;
+import leap.lang.el.ElProperty;
+
+/**
+ * The base class of the generated accessors which evaluates a chain of {@link AstProperty}.
+ *
+ * <p/>
+ * The generated code guards every property access by the profiled class of owner (monomorphic inline cache),
+ * if the guard fails the property will be evaluated by the interpreter,
+ * and the accessor will be removed after {@link #MAX_MISSES} misses.
+ */
+public abstract class CompiledPropertyAccessor {
+
+    public static final int MAX_MISSES = 100;
+
+    protected final AstProperty  node;
+    protected final AstExpr      root;
+    protected final Class<?>[]   classes;
+    protected final ElProperty[] properties;
+
+    private volatile int misses;
+
+    protected CompiledPropertyAccessor(AstProperty node, AstExpr root, Class<?>[] classes, ElProperty[] properties) {
+        this.node       = node;
+        this.root       = root;
+        this.classes    = classes;
+        this.properties = properties;
+    }
+
+    /**
+     * Returns the compiled {@link AstProperty}.
+     */
+    public AstProperty getNode() {
+        return node;
+    }
+
+    /**
+     * Returns the number of guard misses.
+     */
+    public int getMisses() {
+        return misses;
+    }
+
+    /**
+     * Evaluates the compiled property chain.
+     */
+    public abstract Object eval(ElEvalContext context);
+
+    /**
+     * Evaluates the root (the owner of the first property) of property chain.
+     */
+    protected final Object evalRoot(ElEvalContext context) {
+        return root.eval(context);
+    }
+
+    /**
+     * Called by the generated code when a guard fails, evaluates the property by the interpreter.
+     */
+    protected final Object deopt(ElEvalContext context) {
+        if(++misses >= MAX_MISSES && node.getCompiled() == this) {
+            node.setCompiled(null);
+        }
+        return node.interpret(context);
+    }
+
+    /**
+     * Called by the generated code to get the value by the resolved {@link ElProperty}.
+     */
+    protected static Object getValue(ElProperty p, ElEvalContext context, Object o, String name) {
+        try {
+            return p.getValue(context, o);
+        } catch (Throwable e) {
+            throw wrap(context, e, o, name);
+        }
+    }
+
+    /**
+     * Called by the generated code when invoking a getter method throws an exception.
+     */
+    protected static ElException wrap(ElEvalContext context, Throwable e, Object o, String name) {
+        return new ElException(context.getMessage("el.errors.getPropertyError", name, o, e.getMessage()),e);
+    }
+}
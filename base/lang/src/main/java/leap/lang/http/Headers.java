@@ -33,6 +33,10 @@ public class Headers {
      * See {@link <a href="http://www.w3.org/Protocols/rfc2616/rfc2616-sec14.html#sec14.4">HTTP/1.1 documentation</a>}.
      */
     public static final String ACCEPT_LANGUAGE = "Accept-Language";
+    /**
+     * See {@link <a href="http://tools.ietf.org/html/rfc7233#section-2.3">IETF RFC-7233</a>}.
+     */
+    public static final String ACCEPT_RANGES = "Accept-Ranges";
     /**
      * See {@link <a href="http://www.w3.org/Protocols/rfc2616/rfc2616-sec14.html#sec14.7">HTTP/1.1 documentation</a>}.
      */
@@ -69,6 +73,10 @@ public class Headers {
      * See {@link <a href="http://www.w3.org/Protocols/rfc2616/rfc2616-sec14.html#sec14.14">HTTP/1.1 documentation</a>}.
      */
     public static final String CONTENT_LOCATION = "Content-Location";
+    /**
+     * See {@link <a href="http://tools.ietf.org/html/rfc7233#section-4.2">IETF RFC-7233</a>}.
+     */
+    public static final String CONTENT_RANGE = "Content-Range";
     /**
      * See {@link <a href="http://www.w3.org/Protocols/rfc2616/rfc2616-sec14.html#sec14.17">HTTP/1.1 documentation</a>}.
      */
@@ -101,6 +109,10 @@ public class Headers {
      * See {@link <a href="http://www.w3.org/Protocols/rfc2616/rfc2616-sec14.html#sec14.26">HTTP/1.1 documentation</a>}.
      */
     public static final String IF_NONE_MATCH = "If-None-Match";
+    /**
+     * See {@link <a href="http://tools.ietf.org/html/rfc7233#section-3.2">IETF RFC-7233</a>}.
+     */
+    public static final String IF_RANGE = "If-Range";
     /**
      * See {@link <a href="http://www.w3.org/Protocols/rfc2616/rfc2616-sec14.html#sec14.28">HTTP/1.1 documentation</a>}.
      */
@@ -117,6 +129,10 @@ public class Headers {
      * See {@link <a href="http://tools.ietf.org/html/rfc5988#page-6">Web Linking (IETF RFC-5988) documentation</a>}.
      */
     public static final String LINK = "Link";
+    /**
+     * See {@link <a href="http://tools.ietf.org/html/rfc7233#section-3.1">IETF RFC-7233</a>}.
+     */
+    public static final String RANGE = "Range";
     /**
      * See {@link <a href="http://www.w3.org/Protocols/rfc2616/rfc2616-sec14.html#sec14.37">HTTP/1.1 documentation</a>}.
      */
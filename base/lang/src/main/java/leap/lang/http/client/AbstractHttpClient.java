@@ -17,13 +17,27 @@
 package leap.lang.http.client;
 
 import leap.lang.Charsets;
+import leap.lang.Disposable;
+import leap.lang.Strings;
+import leap.lang.http.exception.HttpException;
 
 import javax.net.ssl.*;
+import java.net.URI;
 import java.nio.charset.Charset;
 import java.security.SecureRandom;
 import java.security.cert.X509Certificate;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public abstract class AbstractHttpClient implements HttpClient {
+public abstract class AbstractHttpClient implements HttpClient, Disposable {
 
     protected final static SSLContext SSL_CONTEXT;
 
@@ -46,6 +60,13 @@ public abstract class AbstractHttpClient implements HttpClient {
 
     protected int     defaultConnectTimeout = 30 * 1000;
     protected Charset defaultCharset        = Charsets.UTF_8;
+    protected int     maxConnectionsPerHost = 50;
+    protected int     maxAsyncThreads       = 200;
+    protected boolean streamingBody;
+
+    private final Map<String, HttpHostLimiter> hostLimiters = new ConcurrentHashMap<>();
+
+    private volatile ExecutorService asyncExecutor;
 
     /**
      * Connect timeout in milli-seconds.
@@ -66,4 +87,115 @@ public abstract class AbstractHttpClient implements HttpClient {
         this.defaultCharset = defaultCharset;
     }
 
+    /**
+     * Returns the max number of concurrent requests to a host.
+     */
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    public void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+    }
+
+    /**
+     * Returns <code>true</code> if the request body is streamed to the connection (chunked if the length is unknown).
+     *
+     * <p/>
+     * Default is <code>false</code>, the body is buffered and sent with the content length.
+     */
+    public boolean isStreamingBody() {
+        return streamingBody;
+    }
+
+    public void setStreamingBody(boolean streamingBody) {
+        this.streamingBody = streamingBody;
+    }
+
+    /**
+     * Returns the max number of threads executing the asynchronous requests.
+     */
+    public int getMaxAsyncThreads() {
+        return maxAsyncThreads;
+    }
+
+    public void setMaxAsyncThreads(int maxAsyncThreads) {
+        this.maxAsyncThreads = maxAsyncThreads;
+    }
+
+    /**
+     * Returns the {@link HttpHostLimiter} of the host in the given url.
+     */
+    public HttpHostLimiter getHostLimiter(String url) {
+        String host = resolveHost(url);
+        return hostLimiters.computeIfAbsent(host, h -> new HttpHostLimiter(h, maxConnectionsPerHost));
+    }
+
+    /**
+     * Executes the request task asynchronously, the task is queued if the host's concurrency limit reached.
+     */
+    public <T> CompletableFuture<T> executeAsync(String url, Callable<T> task) {
+        final CompletableFuture<T> future  = new CompletableFuture<>();
+        final HttpHostLimiter      limiter = getHostLimiter(url);
+
+        limiter.submit(() -> {
+            try {
+                getAsyncExecutor().execute(() -> {
+                    try {
+                        future.complete(task.call());
+                    } catch (Throwable e) {
+                        future.completeExceptionally(e);
+                    } finally {
+                        limiter.release();
+                    }
+                });
+            }catch (RejectedExecutionException e) {
+                limiter.release();
+                future.completeExceptionally(new HttpException("The async request to '" + url + "' was rejected", e));
+            }
+        });
+
+        return future;
+    }
+
+    @Override
+    public void dispose() throws Throwable {
+        if(null != asyncExecutor) {
+            asyncExecutor.shutdownNow();
+            asyncExecutor = null;
+        }
+    }
+
+    protected ExecutorService getAsyncExecutor() {
+        if(null == asyncExecutor) {
+            synchronized (this) {
+                if(null == asyncExecutor) {
+                    asyncExecutor = createAsyncExecutor();
+                }
+            }
+        }
+        return asyncExecutor;
+    }
+
+    protected ExecutorService createAsyncExecutor() {
+        final AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor =
+                new ThreadPoolExecutor(maxAsyncThreads, maxAsyncThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(r, "http-client-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    protected String resolveHost(String url) {
+        try {
+            URI uri = URI.create(url);
+            return Strings.lowerCase(uri.getScheme()) + "://" + Strings.lowerCase(uri.getHost()) + ":" + uri.getPort();
+        }catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.lang.http.client;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the number of concurrent requests to a host.
+ *
+ * <p/>
+ * A synchronous request waits for a permit, an asynchronous request is queued and started after a permit released,
+ * so the waiting asynchronous requests do not occupy threads.
+ */
+public class HttpHostLimiter {
+
+    private final String          host;
+    private final int             maxConcurrent;
+    private final Queue<Runnable> waiting = new ArrayDeque<>();
+
+    private int active;
+
+    public HttpHostLimiter(String host, int maxConcurrent) {
+        this.host          = host;
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /**
+     * Returns the number of running requests.
+     */
+    public synchronized int getActive() {
+        return active;
+    }
+
+    /**
+     * Returns the number of queued asynchronous requests.
+     */
+    public synchronized int getWaiting() {
+        return waiting.size();
+    }
+
+    /**
+     * Waits for a permit, returns <code>false</code> if timeout.
+     */
+    public synchronized boolean acquire(long timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        while(active >= maxConcurrent) {
+            long remaining = deadline - System.nanoTime();
+            if(timeout > 0 && remaining <= 0) {
+                return false;
+            }
+            if(timeout > 0) {
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }else{
+                wait();
+            }
+        }
+        active++;
+        return true;
+    }
+
+    /**
+     * Runs the task if a permit available, or else queues it until a permit released.
+     *
+     * <p/>
+     * The task must call {@link #release()} after completed.
+     */
+    public void submit(Runnable task) {
+        synchronized (this) {
+            if(active >= maxConcurrent) {
+                waiting.add(task);
+                return;
+            }
+            active++;
+        }
+        task.run();
+    }
+
+    /**
+     * Releases a permit, the permit is handed over to the next queued task if exists.
+     */
+    public void release() {
+        Runnable next;
+        synchronized (this) {
+            next = waiting.poll();
+            if(null == next) {
+                active--;
+                notifyAll();
+                return;
+            }
+        }
+        next.run();
+    }
+}
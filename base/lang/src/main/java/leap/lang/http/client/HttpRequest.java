@@ -15,16 +15,22 @@
  */
 package leap.lang.http.client;
 
+import leap.lang.Charsets;
 import leap.lang.Strings;
 import leap.lang.convert.Converts;
 import leap.lang.http.ContentTypes;
 import leap.lang.http.HTTP;
 import leap.lang.http.Headers;
+import leap.lang.http.exception.HttpIOException;
 import leap.lang.json.JSON;
 import leap.lang.json.JsonSettings;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 /**
@@ -50,10 +56,15 @@ public interface HttpRequest {
     }
 
     /**
-     * Encodes the json value to string and set body.
+     * Encodes the json value and writes it to the request body directly.
      */
     default HttpRequest json(Object o) {
-        return setJson(JSON.encode(o));
+        setContentType(ContentTypes.APPLICATION_JSON_UTF8);
+        return setBody(out -> {
+            Writer writer = new OutputStreamWriter(out, Charsets.UTF_8);
+            JSON.encode(o, writer);
+            writer.flush();
+        });
     }
 
     /**
@@ -162,6 +173,20 @@ public interface HttpRequest {
      */
     HttpRequest setBody(InputStream is);
 
+    /**
+     * Sets the writer of request body, the body is written to the connection directly if the client enables streaming body,
+     * otherwise it is buffered and sent with the content length.
+     */
+    default HttpRequest setBody(HttpBodyWriter writer) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            writer.write(out);
+        } catch (IOException e) {
+            throw new HttpIOException(e);
+        }
+        return setBody(out.toByteArray());
+    }
+
     /**
      * Appends a query parameter (name=value) to the url.
      */
@@ -254,7 +279,27 @@ public interface HttpRequest {
     }
 
     /**
-     * Sends the request and callback the handler later.
+     * Sends the request asynchronously, the returned future completes after the response body has been read.
+     *
+     * <p/>
+     * The request is executed by the async executor of client and limited by the max concurrent requests of the host.
+     */
+    CompletableFuture<HttpResponse> sendAsync();
+
+    /**
+     * Sends the request with the given method asynchronously.
+     *
+     * @see #sendAsync()
+     */
+    default CompletableFuture<HttpResponse> sendAsync(HTTP.Method method) {
+        return setMethod(method).sendAsync();
+    }
+
+    /**
+     * Sends the request asynchronously and callback the handler in the async thread.
+     *
+     * <p/>
+     * The request is executed as same as {@link #sendAsync()}, the errors are logged.
      */
     void sendAsync(HttpHandler handler);
 
@@ -46,6 +46,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
 
 class JdkHttpRequest implements HttpRequest {
     
@@ -64,6 +65,8 @@ class JdkHttpRequest implements HttpRequest {
     protected int               readTimeout;
     protected Charset           charset;
     protected InputStream       content;
+    protected byte[]            data;
+    protected HttpBodyWriter    bodyWriter;
     protected HTTP.Method       method;
     protected HttpURLConnection conn;
     
@@ -141,14 +144,27 @@ class JdkHttpRequest implements HttpRequest {
     @Override
     public HttpRequest setBody(byte[] data) {
         Args.notNull(data, "data");
-        this.content = new ByteArrayInputStream(data);
+        this.data       = data;
+        this.content    = null;
+        this.bodyWriter = null;
         return this;
     }
 
     @Override
     public HttpRequest setBody(InputStream is) {
         Args.notNull(is);
-        this.content = is;
+        this.content    = is;
+        this.data       = null;
+        this.bodyWriter = null;
+        return this;
+    }
+
+    @Override
+    public HttpRequest setBody(HttpBodyWriter writer) {
+        Args.notNull(writer);
+        this.bodyWriter = writer;
+        this.data       = null;
+        this.content    = null;
         return this;
     }
 
@@ -164,16 +180,49 @@ class JdkHttpRequest implements HttpRequest {
 
     @Override
     public HttpResponse send() {
-        return doSend(initConnUrl(), true);
+        String          connUrl = initConnUrl();
+        HttpHostLimiter limiter = client.getHostLimiter(connUrl);
+        try {
+            if(!limiter.acquire(connectTimeout)) {
+                throw new HttpException("Max " + limiter.getMaxConcurrent() + " concurrent requests to '" +
+                                        limiter.getHost() + "' reached, timeout after " + connectTimeout + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HttpException("Interrupted while waiting connection to '" + limiter.getHost() + "'", e);
+        }
+        try {
+            return doSend(connUrl, true);
+        }finally {
+            limiter.release();
+        }
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> sendAsync() {
+        String connUrl = initConnUrl();
+        return client.executeAsync(connUrl, () -> doSend(connUrl, true));
     }
 
     @Override
     public void sendAsync(HttpHandler handler) {
         String connUrl = initConnUrl();
+        client.executeAsync(connUrl, () -> {
+            doSendAsync(connUrl, handler);
+            return null;
+        }).exceptionally(e -> {
+            log.error("Error sending async request to '" + connUrl + "'", e);
+            return null;
+        });
+    }
 
+    protected void doSendAsync(String connUrl, HttpHandler handler) {
         handler.beforeRequest(this);
+
+        JdkHttpResponse response = null;
         try {
-            handler.afterResponse(this, doSend(connUrl, false));
+            response = doSend(connUrl, false);
+            handler.afterResponse(this, response);
         } catch (Exception e) {
             if(aborted) {
                 handler.afterAborted(this);
@@ -183,7 +232,12 @@ class JdkHttpRequest implements HttpRequest {
                 throw new HttpException(e);
             }
         }finally{
-            Try.catchAll(conn::disconnect);
+            //closes the stream instead of disconnecting, the connection can be reused by keep-alive.
+            if(null != response) {
+                response.close();
+            }else if(null != conn) {
+                Try.catchAll(conn::disconnect);
+            }
         }
     }
 
@@ -195,7 +249,7 @@ class JdkHttpRequest implements HttpRequest {
         }
 
         if(null == method) {
-            if(form || null != content) {
+            if(form || null != content || null != data || null != bodyWriter) {
                 method = HTTP.Method.POST;
             }else{
                 method = HTTP.Method.GET;
@@ -237,21 +291,47 @@ class JdkHttpRequest implements HttpRequest {
 
             if(m == HTTP.Method.POST || m == HTTP.Method.PUT || m == HTTP.Method.PATCH) {
                 conn.setDoOutput(true);
-                
-                try(final InputStream body = getBody()) {
-                    if(null != body) {
-                        
-                        //Set form content type.
-                        if(form && !hasHeader(Headers.CONTENT_TYPE)) {
-                            conn.setRequestProperty(Headers.CONTENT_TYPE, 
-                                                    ContentTypes.create(ContentTypes.APPLICATION_FORM_URLENCODED, charset.name()));
-                        }
-                        
-                        log.debug("writing body content");
-                        
-                        //Writes content.
-                        try(final OutputStream out = conn.getOutputStream()){
-                            IO.copy(body, out);
+
+                //the body is buffered by the connection and sent with content length if not streaming.
+                final boolean streaming = client.isStreamingBody();
+
+                if(null != bodyWriter) {
+                    log.debug("writing body content by writer");
+
+                    if(streaming) {
+                        conn.setChunkedStreamingMode(0);
+                    }
+                    try(final OutputStream out = conn.getOutputStream()){
+                        bodyWriter.write(out);
+                    }
+                }else if(null != data) {
+                    log.debug("writing body content, {} bytes", data.length);
+
+                    if(streaming) {
+                        conn.setFixedLengthStreamingMode(data.length);
+                    }
+                    try(final OutputStream out = conn.getOutputStream()){
+                        out.write(data);
+                    }
+                }else {
+                    try(final InputStream body = getBody()) {
+                        if(null != body) {
+
+                            //Set form content type.
+                            if(form && !hasHeader(Headers.CONTENT_TYPE)) {
+                                conn.setRequestProperty(Headers.CONTENT_TYPE,
+                                                        ContentTypes.create(ContentTypes.APPLICATION_FORM_URLENCODED, charset.name()));
+                            }
+
+                            log.debug("writing body content");
+
+                            //Writes content.
+                            if(streaming && !form) {
+                                conn.setChunkedStreamingMode(0);
+                            }
+                            try(final OutputStream out = conn.getOutputStream()){
+                                IO.copy(body, out);
+                            }
                         }
                     }
                 }
@@ -264,11 +344,11 @@ class JdkHttpRequest implements HttpRequest {
         } catch (MalformedURLException e) {
             throw new HttpException("Invalid url : " + e.getMessage(), e);
         } catch (IOException e) {
-            throw new HttpIOException(e);
-        } finally {
-            if(immediately) {
+            //the connection can not be reused.
+            if(null != conn) {
                 Try.catchAll(conn::disconnect);
             }
+            throw new HttpIOException(e);
         }
     }
 
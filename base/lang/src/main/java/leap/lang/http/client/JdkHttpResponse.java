@@ -50,6 +50,22 @@ class JdkHttpResponse extends AbstractHttpResponse {
         }
     }
 
+    /**
+     * Closes the response stream if the body was not read, so that the connection can be reused.
+     */
+    protected void close() {
+        if(null == bytes) {
+            try {
+                InputStream is = getUnderlyingInputStream();
+                if(null != is) {
+                    is.close();
+                }
+            }catch (IOException e) {
+                conn.disconnect();
+            }
+        }
+    }
+
     protected void readHead() {
         try{
             status  = conn.getResponseCode();
@@ -47,9 +47,12 @@ public class ApacheHttpClient extends AbstractHttpClient implements Initializabl
     private CloseableHttpClient httpClient;
     private RequestConfig       requestConfig;
     private int                 maxConnectionTotal    = 1000;
-    private int                 maxConnectionPerRoute = 1000;
     private int                 bufferSize;
 
+    public ApacheHttpClient() {
+        this.maxConnectionsPerHost = 1000;
+    }
+
     public HttpClient getHttpClient() {
         return httpClient;
     }
@@ -62,12 +65,15 @@ public class ApacheHttpClient extends AbstractHttpClient implements Initializabl
         this.maxConnectionTotal = maxConnectionTotal;
     }
 
+    /**
+     * Same as {@link #getMaxConnectionsPerHost()}.
+     */
     public int getMaxConnectionPerRoute() {
-        return maxConnectionPerRoute;
+        return getMaxConnectionsPerHost();
     }
 
     public void setMaxConnectionPerRoute(int maxConnectionPerRoute) {
-        this.maxConnectionPerRoute = maxConnectionPerRoute;
+        setMaxConnectionsPerHost(maxConnectionPerRoute);
     }
 
     public int getBufferSize() {
@@ -95,6 +101,7 @@ public class ApacheHttpClient extends AbstractHttpClient implements Initializabl
 
     @Override
     public void dispose() throws Throwable {
+        super.dispose();
         if(null != httpClient) {
             log.info("Close http client");
             this.init = false;
@@ -120,7 +127,7 @@ public class ApacheHttpClient extends AbstractHttpClient implements Initializabl
         //cm.setDefaultConnectionConfig(ConnectionConfig.custom().setBufferSize(1024 * 1024).build());
 
         cm.setMaxTotal(maxConnectionTotal);
-        cm.setDefaultMaxPerRoute(maxConnectionPerRoute);
+        cm.setDefaultMaxPerRoute(maxConnectionsPerHost);
 
         if(bufferSize > 0) {
             ConnectionConfig cc =
@@ -18,6 +18,7 @@ package leap.lang.http.client.apache;
 
 import leap.lang.http.HTTP;
 import leap.lang.http.QueryStringBuilder;
+import leap.lang.http.client.HttpBodyWriter;
 import leap.lang.http.client.HttpRequest;
 import leap.lang.http.client.HttpResponse;
 import leap.lang.http.client.HttpHandler;
@@ -33,6 +34,7 @@ import org.apache.http.client.HttpClient;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.*;
 import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.EntityTemplate;
 import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.impl.execchain.RequestAbortedException;
 import org.apache.http.message.BasicHeader;
@@ -43,6 +45,7 @@ import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class ApacheHttpRequest implements HttpRequest {
 
@@ -60,6 +63,7 @@ public class ApacheHttpRequest implements HttpRequest {
     private HTTP.Method     method;
     private byte[]          body;
     private InputStream     inputStream;
+    private HttpBodyWriter  bodyWriter;
     private HttpRequestBase request;
     private HttpEntity      entity;
 
@@ -105,13 +109,29 @@ public class ApacheHttpRequest implements HttpRequest {
 
     @Override
     public HttpRequest setBody(byte[] data) {
-        this.body = data;
+        this.body        = data;
+        this.inputStream = null;
+        this.bodyWriter  = null;
         return this;
     }
 
     @Override
     public HttpRequest setBody(InputStream is) {
         this.inputStream = is;
+        this.body        = null;
+        this.bodyWriter  = null;
+        return this;
+    }
+
+    @Override
+    public HttpRequest setBody(HttpBodyWriter writer) {
+        if(!client.isStreamingBody()) {
+            //buffers the body, it will be sent with content length.
+            return HttpRequest.super.setBody(writer);
+        }
+        this.bodyWriter  = writer;
+        this.body        = null;
+        this.inputStream = null;
         return this;
     }
 
@@ -158,9 +178,24 @@ public class ApacheHttpRequest implements HttpRequest {
         }
     }
 
+    @Override
+    public CompletableFuture<HttpResponse> sendAsync() {
+        return client.executeAsync(buildRequestUrl(), this::send);
+    }
+
     @Override
     public void sendAsync(HttpHandler handler) {
         String url = buildRequestUrl();
+        client.executeAsync(url, () -> {
+            doSendAsync(url, handler);
+            return null;
+        }).exceptionally(e -> {
+            log.error("Error sending async request to '" + url + "'", e);
+            return null;
+        });
+    }
+
+    protected void doSendAsync(String url, HttpHandler handler) {
         try {
             newRequest(url);
 
@@ -215,6 +250,10 @@ public class ApacheHttpRequest implements HttpRequest {
             entity = new ByteArrayEntity(body);
         }else if(null != inputStream) {
             entity = new InputStreamEntity(inputStream);
+        }else if(null != bodyWriter) {
+            EntityTemplate template = new EntityTemplate(bodyWriter::write);
+            template.setChunked(true);
+            entity = template;
         }else if(!formParams.isEmpty()) {
             entity = new UrlEncodedFormEntity(formParams, charset);
         }
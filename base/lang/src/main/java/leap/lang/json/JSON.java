@@ -26,6 +26,7 @@ import java.lang.reflect.Type;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 public class JSON {
 
@@ -263,6 +264,26 @@ public class JSON {
         return parse(json).asArray();
     }
 
+    /**
+     * Parse the json array incrementally, each raw element is passed to the handler once parsed.
+     *
+     * <p/>
+     * The whole array is never held in memory, returns the number of elements.
+     */
+    public static int decodeArray(Reader json, Consumer<Object> handler) {
+        return decoder.decodeArray(json, handler);
+    }
+
+    /**
+     * Parse the json array incrementally, each element is converted to the given type and passed to the handler.
+     *
+     * <p/>
+     * The whole array is never held in memory, returns the number of elements.
+     */
+    public static <T> int decodeArray(Reader json, Class<T> componentType, Consumer<? super T> handler) {
+        return decoder.decodeArray(json, e -> handler.accept(Converts.convert(e, componentType, null, convertContext)));
+    }
+
     /**
      * Parse the json string and returns the the array of the given type.
      */
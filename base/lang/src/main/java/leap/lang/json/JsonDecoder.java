@@ -24,6 +24,7 @@ import leap.lang.beans.DynaProps;
 import java.io.Reader;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.function.Consumer;
 
 class JsonDecoder {
     
@@ -39,6 +40,10 @@ class JsonDecoder {
         return new JsonParser(JsonParser.MODE_PERMISSIVE).parse(reader);
     }
 
+    public int decodeArray(Reader reader, Consumer<Object> handler) {
+        return new JsonParser(JsonParser.MODE_PERMISSIVE).parseArray(reader, handler);
+    }
+
     static Set<String> checkMissingProperties(Class<?> type, Map map) {
         Set<String> set = new LinkedHashSet<>();
 
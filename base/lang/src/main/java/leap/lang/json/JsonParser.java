@@ -17,6 +17,7 @@ package leap.lang.json;
  */
 import java.io.InputStream;
 import java.io.Reader;
+import java.util.function.Consumer;
 
 class JsonParser {
 	/**
@@ -152,6 +153,15 @@ class JsonParser {
 		return pStream.parse(in);
 	}
 
+	/**
+	 * Parses a json array and passes each element to the handler, returns the number of elements.
+	 */
+	public int parseArray(Reader in, Consumer<Object> handler) throws JsonParserException {
+		if (pStream == null)
+			pStream = new JsonParserReader(mode);
+		return pStream.parseArray(in, handler);
+	}
+
 	/**
 	 * use to return Primitive Type, or String, Or JsonObject or JsonArray
 	 * generated by a ContainerFactory
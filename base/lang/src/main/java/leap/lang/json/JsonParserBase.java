@@ -29,6 +29,7 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * JSONParserBase is the common code between {@link JsonParserString} and
@@ -162,6 +163,41 @@ abstract class JsonParserBase {
 		return result;
 	}
 
+	/**
+	 * Parses a json array and passes each element to the handler without holding the whole array.
+	 * 
+	 * <p/>
+	 * Returns the number of elements.
+	 */
+	public int parseArray(Consumer<Object> handler) throws JsonParserException {
+		this.pos = -1;
+		int count;
+		try {
+			read();
+			while (c == ' ' || c == '\r' || c == '\n' || c == '\t') {
+				read();
+			}
+			if (c != '[')
+				throw new JsonParserException(pos, ERROR_UNEXPECTED_CHAR, c);
+			int[] counter = new int[1];
+			readArray(e -> {
+				counter[0]++;
+				handler.accept(e);
+			});
+			count = counter[0];
+			if (checkTaillingData) {
+				skipSpace();
+				if (c != EOI)
+					throw new JsonParserException(pos - 1, ERROR_UNEXPECTED_TOKEN, c);
+			}
+		} catch (IOException e) {
+			throw new JsonParserException(pos, e);
+		}
+		xs = null;
+		xo = null;
+		return count;
+	}
+
 	protected Number parseNumber(String s) throws JsonParserException {
 		// pos
 		int p = 0;
@@ -229,6 +265,11 @@ abstract class JsonParserBase {
 
 	protected List<Object> readArray() throws JsonParserException, IOException {
 		List<Object> obj = new ArrayList<Object>();
+		readArray(obj::add);
+		return obj;
+	}
+
+	protected void readArray(Consumer<Object> obj) throws JsonParserException, IOException {
 		if (c != '[')
 			throw new RuntimeException("Internal Error");
 		read();
@@ -249,7 +290,7 @@ abstract class JsonParserBase {
 				if (needData && !acceptUselessComma)
 					throw new JsonParserException(pos, ERROR_UNEXPECTED_CHAR, (char) c);
 				read(); /* unstack */
-				return obj;
+				return;
 			case ':':
 			case '}':
 				throw new JsonParserException(pos, ERROR_UNEXPECTED_CHAR, (char) c);
@@ -262,7 +303,7 @@ abstract class JsonParserBase {
 			case EOI:
 				throw new JsonParserException(pos - 1, ERROR_UNEXPECTED_EOF, "EOF");
 			default:
-				obj.add(readMain(stopArray));
+				obj.accept(readMain(stopArray));
 				needData = false;
 				continue;
 			}
@@ -19,6 +19,7 @@ import static leap.lang.json.JsonParserException.ERROR_UNEXPECTED_EOF;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.util.function.Consumer;
 
 /**
  * Parser for JSON text. Please note that JSONParser is NOT thread-safe.
@@ -43,6 +44,14 @@ class JsonParserReader extends JsonParserStream {
 		return super.parse();
 	}
 
+	/**
+	 * Parses a json array and passes each element to the handler.
+	 */
+	public int parseArray(Reader in, Consumer<Object> handler) throws JsonParserException {
+		this.in = in;
+		return super.parseArray(handler);
+	}
+
 	protected void read() throws IOException {
 		int i = in.read();
 		c = (i == -1) ? (char) EOI : (char) i;
@@ -31,6 +31,7 @@ import leap.lang.reflect.Reflection;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.ref.SoftReference;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.net.JarURLConnection;
@@ -38,6 +39,7 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -170,6 +172,8 @@ class DefaultResourceScanner implements ResourceScanner {
 
 	private static Method equinoxResolveMethod;
 
+	private static final Map<String, SoftReference<CachedIndex>> indexes = new ConcurrentHashMap<>();
+
 	static {
 		// Detect Equinox OSGi (e.g. on WebSphere 6.1)
 		try {
@@ -183,8 +187,9 @@ class DefaultResourceScanner implements ResourceScanner {
 
 	private final ResourceLoader resourceLoader;
 	
-	private boolean         quietly     = true;
-	private PathMatcher     pathMatcher = Resources.matcher;
+	private boolean         quietly       = true;
+	private boolean         indexDisabled = ResourceIndex.isDisabled();
+	private PathMatcher     pathMatcher   = Resources.matcher;
 	private ExecutorService executorService;
 
 	public DefaultResourceScanner() {
@@ -439,14 +444,14 @@ class DefaultResourceScanner implements ResourceScanner {
 				rootEntryPath = rootEntryPath + "/";
 			}
 			Set<Resource> result = new LinkedHashSet<Resource>(8);
-			for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements();) {
-				JarEntry entry = entries.nextElement();
-				String entryPath = entry.getName();
-				if (entryPath.startsWith(rootEntryPath)) {
-					String relativePath = entryPath.substring(rootEntryPath.length());
-					if (getPathMatcher().match(subPattern, relativePath)) {
-						result.add(rootDirResource.createRelative(relativePath));
-					}
+			ResourceIndex index  = getResourceIndex(jarFileUrl, jarFile);
+			if (null != index) {
+				for (String entryPath : index.getNames()) {
+					matchJarEntry(result, rootDirResource, rootEntryPath, subPattern, entryPath);
+				}
+			} else {
+				for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements();) {
+					matchJarEntry(result, rootDirResource, rootEntryPath, subPattern, entries.nextElement().getName());
 				}
 			}
 			return result;
@@ -460,6 +465,49 @@ class DefaultResourceScanner implements ResourceScanner {
 		}
 	}
 
+	protected void matchJarEntry(Set<Resource> result, Resource rootDirResource, String rootEntryPath, String subPattern, String entryPath) throws IOException {
+		if (entryPath.startsWith(rootEntryPath)) {
+			String relativePath = entryPath.substring(rootEntryPath.length());
+			if (getPathMatcher().match(subPattern, relativePath)) {
+				result.add(rootDirResource.createRelative(relativePath));
+			}
+		}
+	}
+
+	/**
+	 * Returns the {@link ResourceIndex} of the jar file or <code>null</code> if the jar has no matched index.
+	 *
+	 * <p/>
+	 * The index (or the absence of it) is read once and cached for the scans of other locations in the same jar,
+	 * the cached one will be discarded if the length or last modified time of the jar file changed.
+	 */
+	protected ResourceIndex getResourceIndex(String jarFileUrl, JarFile jarFile) {
+		if (indexDisabled) {
+			return null;
+		}
+
+		File file         = new File(jarFile.getName());
+		long length       = file.length();
+		long lastModified = file.lastModified();
+
+		SoftReference<CachedIndex> ref    = indexes.get(jarFileUrl);
+		CachedIndex                cached = null == ref ? null : ref.get();
+		if (null != cached && cached.length == length && cached.lastModified == lastModified) {
+			return cached.index;
+		}
+
+		ResourceIndex index;
+		try {
+			index = ResourceIndex.read(jarFile);
+		} catch (IOException e) {
+			logger.warn("Error reading resource index of jar '{}', {}", jarFileUrl, e.getMessage());
+			index = null;
+		}
+
+		indexes.put(jarFileUrl, new SoftReference<>(new CachedIndex(length, lastModified, index)));
+		return index;
+	}
+
 	/**
 	 * Resolve the given jar file URL into a JarFile object.
 	 */
@@ -671,4 +719,16 @@ class DefaultResourceScanner implements ResourceScanner {
 			return sb.toString();
 		}
 	}
+
+	private static final class CachedIndex {
+		final long          length;
+		final long          lastModified;
+		final ResourceIndex index;
+
+		CachedIndex(long length, long lastModified, ResourceIndex index) {
+			this.length       = length;
+			this.lastModified = lastModified;
+			this.index        = index;
+		}
+	}
 }
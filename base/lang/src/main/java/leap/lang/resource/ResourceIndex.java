@@ -0,0 +1,173 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.lang.resource;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.UUID;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * A precomputed index of the entry names in a jar file.
+ *
+ * <p/>
+ * The index is stored as the entry {@link #INDEX_ENTRY} of the jar and created at build time by {@link ResourceIndexer},
+ * the scanner reads the names from the index instead of walking all the entries of the jar.
+ *
+ * <p/>
+ * A random build id is written into both the index and the main attributes of the manifest
+ * (see {@link #MANIFEST_ATTRIBUTE}), the index will be ignored if the number of entries changed or
+ * the manifest does not have the same id (i.e. the jar was repackaged after indexing).
+ * The validation reads the manifest only, the entries of the jar are not walked.
+ *
+ * <p/>
+ * Only the entry names are indexed, the bean definitions are still parsed at startup because
+ * the conditions and placeholders in the definitions are resolved by the runtime config.
+ */
+public final class ResourceIndex {
+
+    public static final String INDEX_ENTRY       = "META-INF/leap/resources.idx";
+    public static final String DISABLED_PROPERTY = "leap.resources.index.disabled";
+    public static final String MANIFEST_ATTRIBUTE = "Leap-Resources-Index";
+
+    private static final int MAGIC   = 0x4C524931; //LRI1
+    private static final int VERSION = 3;
+
+    /**
+     * Returns <code>true</code> if the index is disabled by the system property {@link #DISABLED_PROPERTY}.
+     */
+    public static boolean isDisabled() {
+        return Boolean.getBoolean(DISABLED_PROPERTY);
+    }
+
+    /**
+     * Creates an index with a new build id of all the entries in the given jar file.
+     *
+     * <p/>
+     * The names are in the order of the indexed jar written by {@link ResourceIndexer} : the manifest (added if absent) first,
+     * then the other entries except the index itself, the index entry is counted in {@link #getEntries()}.
+     */
+    public static ResourceIndex create(JarFile jarFile) {
+        List<String> names = new ArrayList<>(jarFile.size() + 1);
+        names.add(JarFile.MANIFEST_NAME);
+        for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements(); ) {
+            String name = entries.nextElement().getName();
+            if (!INDEX_ENTRY.equals(name) && !JarFile.MANIFEST_NAME.equalsIgnoreCase(name)) {
+                names.add(name);
+            }
+        }
+        return new ResourceIndex(names.size() + 1, UUID.randomUUID().toString(), names);
+    }
+
+    /**
+     * Reads the index of the given jar file, returns <code>null</code> if the jar has no index or the index does not match.
+     */
+    public static ResourceIndex read(JarFile jarFile) throws IOException {
+        JarEntry entry = jarFile.getJarEntry(INDEX_ENTRY);
+        if (null == entry) {
+            return null;
+        }
+
+        ResourceIndex index;
+        try (InputStream in = jarFile.getInputStream(entry)) {
+            index = read(in);
+        }
+
+        return null != index && index.matches(jarFile) ? index : null;
+    }
+
+    /**
+     * Reads the index from the stream, returns <code>null</code> if the format is unknown.
+     */
+    public static ResourceIndex read(InputStream is) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(is));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            return null;
+        }
+
+        int          entries = in.readInt();
+        String       id      = in.readUTF();
+        int          size    = in.readInt();
+        List<String> names   = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            names.add(in.readUTF());
+        }
+        return new ResourceIndex(entries, id, names);
+    }
+
+    private final int          entries;
+    private final String       id;
+    private final List<String> names;
+
+    ResourceIndex(int entries, String id, List<String> names) {
+        this.entries = entries;
+        this.id      = id;
+        this.names   = Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Returns the number of entries in the indexed jar.
+     */
+    public int getEntries() {
+        return entries;
+    }
+
+    /**
+     * Returns the build id of the index, which is also written in the manifest as {@link #MANIFEST_ATTRIBUTE}.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Returns the indexed entry names in the order of jar entries.
+     */
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * Returns <code>true</code> if the jar file has the same number of entries and the same build id in the manifest.
+     */
+    public boolean matches(JarFile jarFile) throws IOException {
+        if (entries != jarFile.size()) {
+            return false;
+        }
+        Manifest manifest = jarFile.getManifest();
+        return null != manifest && id.equals(manifest.getMainAttributes().getValue(MANIFEST_ATTRIBUTE));
+    }
+
+    /**
+     * Writes the index to the stream.
+     */
+    public void write(OutputStream os) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(entries);
+        out.writeUTF(id);
+        out.writeInt(names.size());
+        for (String name : names) {
+            out.writeUTF(name);
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.lang.resource;
+
+import leap.lang.io.IO;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Enumeration;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Adds the {@link ResourceIndex} to jar files at build time.
+ *
+ * <p/>
+ * Usage : <code>java leap.lang.resource.ResourceIndexer jar1 [jar2 ...]</code>
+ *
+ * <p/>
+ * In maven, runs it after packaging with the <code>resources-index</code> profile, i.e. <code>mvn package -Dleap.resources.index</code>.
+ */
+public class ResourceIndexer {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage : ResourceIndexer jar1 [jar2 ...]");
+            System.exit(1);
+        }
+
+        for (String arg : args) {
+            File file = new File(arg);
+            if (!file.isFile()) {
+                System.out.println("Skip indexing '" + arg + "', not a file");
+                continue;
+            }
+            int size = index(file);
+            System.out.println("Indexed " + size + " entries of '" + file.getPath() + "'");
+        }
+    }
+
+    /**
+     * Writes the index entry and the build id in manifest into the jar file, returns the number of indexed entries.
+     */
+    public static int index(File file) throws IOException {
+        File          tmp = new File(file.getPath() + ".indexing");
+        ResourceIndex index;
+
+        try (JarFile jar = new JarFile(file)) {
+            index = ResourceIndex.create(jar);
+
+            Manifest manifest = null == jar.getManifest() ? new Manifest() : new Manifest(jar.getManifest());
+            Attributes attrs  = manifest.getMainAttributes();
+            if (null == attrs.getValue(Attributes.Name.MANIFEST_VERSION)) {
+                attrs.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+            }
+            attrs.putValue(ResourceIndex.MANIFEST_ATTRIBUTE, index.getId());
+
+            try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(tmp))) {
+                out.putNextEntry(new ZipEntry(JarFile.MANIFEST_NAME));
+                manifest.write(out);
+                out.closeEntry();
+
+                for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements(); ) {
+                    JarEntry entry = entries.nextElement();
+                    if (ResourceIndex.INDEX_ENTRY.equals(entry.getName()) ||
+                            JarFile.MANIFEST_NAME.equalsIgnoreCase(entry.getName())) {
+                        continue;
+                    }
+
+                    ZipEntry copy = new ZipEntry(entry.getName());
+                    copy.setTime(entry.getTime());
+                    out.putNextEntry(copy);
+                    try (InputStream in = jar.getInputStream(entry)) {
+                        IO.copy(in, out);
+                    }
+                    out.closeEntry();
+                }
+
+                out.putNextEntry(new ZipEntry(ResourceIndex.INDEX_ENTRY));
+                index.write(out);
+                out.closeEntry();
+            }
+        }
+
+        if (!file.delete() || !tmp.renameTo(file)) {
+            throw new IOException("Cannot replace '" + file.getPath() + "' by the indexed jar");
+        }
+
+        return index.getNames().size();
+    }
+}
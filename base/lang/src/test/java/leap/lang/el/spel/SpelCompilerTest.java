@@ -0,0 +1,279 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.lang.el.spel;
+
+import leap.lang.New;
+import leap.lang.el.DefaultElEvalContext;
+import leap.lang.el.ElEvalContext;
+import leap.lang.el.ElException;
+import leap.lang.el.spel.ast.AstExpr;
+import leap.lang.el.spel.ast.AstProperty;
+import leap.lang.el.spel.ast.CompiledPropertyAccessor;
+import leap.lang.el.spel.parser.Parser;
+import leap.lang.time.StopWatch;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class SpelCompilerTest extends SpelTestCase {
+
+    @Test
+    public void testCompileBeanProperty() {
+        Map<String, Object> vars = New.hashMap("user", new User("tom", 20, new Address("beijing")));
+
+        SpelExpression expr = compiled("user.address.city", vars);
+        assertCompiled(expr);
+
+        assertEquals("beijing", expr.eval(new DefaultElEvalContext(vars)));
+        assertEquals(20,        compiled("user.age", vars).eval(new DefaultElEvalContext(vars)));
+        assertEquals(true,      compiled("user.age > 18 && user.name == 'tom'", vars).eval(new DefaultElEvalContext(vars)));
+
+        vars.put("user", new User("jerry", 10, null));
+        assertNull(expr.eval(new DefaultElEvalContext(vars)));
+        vars.put("user", null);
+        assertNull(expr.eval(new DefaultElEvalContext(vars)));
+    }
+
+    @Test
+    public void testCompileMapProperty() {
+        Map<String, Object> m    = New.hashMap("a", New.hashMap("b", "c"));
+        Map<String, Object> vars = New.hashMap("m", m);
+
+        SpelExpression expr = compiled("m.a.b", vars);
+        assertCompiled(expr);
+        assertEquals("c", expr.eval(new DefaultElEvalContext(vars)));
+
+        m.put("a", New.hashMap("b", "d"));
+        assertEquals("d", expr.eval(new DefaultElEvalContext(vars)));
+    }
+
+    @Test
+    public void testQualifiedVariable() {
+        Map<String, Object> vars = New.hashMap("user", new User("tom", 20, new Address("beijing")));
+
+        SpelExpression expr = compiled("user.address.city", vars);
+        assertCompiled(expr);
+
+        vars.put("user.address.city", "shanghai");
+        assertEquals("shanghai", expr.eval(new DefaultElEvalContext(vars)));
+
+        vars.remove("user.address.city");
+        vars.put("user.address", new Address("guangzhou"));
+        assertEquals("guangzhou", expr.eval(new DefaultElEvalContext(vars)));
+    }
+
+    @Test
+    public void testDeoptimize() {
+        Map<String, Object> vars = New.hashMap("o", new User("tom", 20, null));
+
+        SpelExpression expr = compiled("o.name", vars);
+        AstProperty    node = (AstProperty)expr.expr;
+        assertNotNull(node.getCompiled());
+
+        vars.put("o", new Address("beijing"));
+        try {
+            expr.eval(new DefaultElEvalContext(vars));
+            fail("Should throw ElException");
+        }catch (ElException e) {
+            //no such property
+        }
+
+        Map<String, Object> other = new HashMap<>();
+        other.put("name", "jerry");
+        vars.put("o", other);
+        for(int i=0;i<CompiledPropertyAccessor.MAX_MISSES;i++) {
+            assertEquals("jerry", expr.eval(new DefaultElEvalContext(vars)));
+        }
+        assertNull(node.getCompiled());
+        assertEquals("jerry", expr.eval(new DefaultElEvalContext(vars)));
+    }
+
+    @Test
+    public void testGetterError() {
+        Map<String, Object> vars = New.hashMap("user", new User("tom", 20, null));
+
+        SpelExpression expr = new SpelExpression(Parser.parse("user.error"));
+
+        for(int i=0;i<2;i++) {
+            try {
+                expr.eval(new DefaultElEvalContext(vars));
+                fail("Should throw ElException");
+            }catch (ElException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+            expr.compile();
+        }
+        assertCompiled(expr);
+    }
+
+    @Test
+    public void testCompileRetry() {
+        Map<String, Object> vars = New.hashMap("user", null);
+
+        SpelExpression expr = new SpelExpression(Parser.parse("user.address.city"));
+        assertNull(expr.eval(new DefaultElEvalContext(vars)));
+        assertEquals(0, expr.compile());
+        assertFalse(expr.isCompiled());
+        assertEquals(1, expr.getCompileAttempts());
+
+        vars.put("user", new User("tom", 20, new Address("beijing")));
+        assertEquals("beijing", expr.eval(new DefaultElEvalContext(vars)));
+        assertTrue(expr.compile() > 0);
+        assertCompiled(expr);
+    }
+
+    @Test
+    public void testAutoCompileRetry() {
+        int threshold = SpelCompiler.getThreshold();
+        SpelCompiler.setThreshold(2);
+        try {
+            Map<String, Object> vars = New.hashMap("user", null);
+
+            SpelExpression expr = new SpelExpression(Parser.parse("user.address.city"));
+            expr.eval(new DefaultElEvalContext(vars));
+            expr.eval(new DefaultElEvalContext(vars));
+            assertFalse(expr.isCompiled());
+            assertEquals(1, expr.getCompileAttempts());
+
+            vars.put("user", new User("tom", 20, new Address("beijing")));
+            expr.eval(new DefaultElEvalContext(vars));
+            expr.eval(new DefaultElEvalContext(vars));
+            assertCompiled(expr);
+        }finally {
+            SpelCompiler.setThreshold(threshold);
+        }
+    }
+
+    @Test
+    public void testAutoCompileDisabled() {
+        int threshold = SpelCompiler.getThreshold();
+        try {
+            Map<String, Object> vars = New.hashMap("user", new User("tom", 20, new Address("beijing")));
+            SpelExpression expr = new SpelExpression(Parser.parse("user.address.city"));
+
+            for(int t : new int[]{0, -1}) {
+                SpelCompiler.setThreshold(t);
+                assertEquals("beijing", expr.eval(new DefaultElEvalContext(vars)));
+                assertFalse(expr.isCompiled());
+                assertEquals(0, expr.getCompileAttempts());
+            }
+        }finally {
+            SpelCompiler.setThreshold(threshold);
+        }
+    }
+
+    @Test
+    public void testPolymorphicNotCompiled() {
+        Map<String, Object> vars = new HashMap<>();
+        AstExpr ast = Parser.parse("o.name");
+
+        vars.put("o", new User("tom", 20, null));
+        ast.eval(new DefaultElEvalContext(vars));
+        vars.put("o", New.hashMap("name", "jerry"));
+        ast.eval(new DefaultElEvalContext(vars));
+
+        assertEquals(0, SpelCompiler.compile(ast));
+        assertEquals("jerry", ast.eval(new DefaultElEvalContext(vars)));
+    }
+
+    @Test
+    public void testPerformance() {
+        Map<String, Object> vars = New.hashMap("user", new User("tom", 20, new Address("beijing")));
+
+        String[] exprs = new String[]{"user.name", "user.address.city", "user.age > 18 && user.address.city == 'beijing'"};
+
+        for(String s : exprs) {
+            SpelExpression interpreted = new SpelExpression(Parser.parse(s));
+            SpelExpression compiled    = compiled(s, vars);
+            ElEvalContext  context     = new DefaultElEvalContext(vars);
+
+            assertEquals(interpreted.eval(context), compiled.eval(context));
+
+            run(interpreted, context, 100000);
+            run(compiled, context, 100000);
+
+            int n = 1000000;
+            StopWatch sw = StopWatch.startNew();
+            run(interpreted, context, n);
+            long t1 = sw.getElapsedMilliseconds();
+
+            sw.restart();
+            run(compiled, context, n);
+            long t2 = sw.getElapsedMilliseconds();
+
+            System.out.println("Eval '" + s + "' " + n + " times, interpreted : " + t1 + "ms, compiled : " + t2 + "ms");
+        }
+    }
+
+    private static void run(SpelExpression expr, ElEvalContext context, int times) {
+        for(int i=0;i<times;i++) {
+            expr.eval(context);
+        }
+    }
+
+    private static SpelExpression compiled(String s, Map<String, Object> vars) {
+        SpelExpression expr = new SpelExpression(Parser.parse(s));
+        expr.eval(new DefaultElEvalContext(vars));
+        expr.compile();
+        return expr;
+    }
+
+    private static void assertCompiled(SpelExpression expr) {
+        assertTrue(expr.isCompiled());
+        assertNotNull(((AstProperty)expr.expr).getCompiled());
+    }
+
+    public static final class User {
+        private final String  name;
+        private final int     age;
+        private final Address address;
+
+        public User(String name, int age, Address address) {
+            this.name = name;
+            this.age = age;
+            this.address = address;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public Address getAddress() {
+            return address;
+        }
+
+        public String getError() {
+            throw new IllegalStateException("error");
+        }
+    }
+
+    public static final class Address {
+        private final String city;
+
+        public Address(String city) {
+            this.city = city;
+        }
+
+        public String getCity() {
+            return city;
+        }
+    }
+}
@@ -38,8 +38,13 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Contextual
 public class HttpClientTest extends TestBase {
@@ -72,17 +77,89 @@ public class HttpClientTest extends TestBase {
     }
 
     @Test
-    public void testSimpleGet() throws IOException {
+    public void testSimpleGet() throws Exception {
         handle("/simple_get", (req,resp) -> resp.getWriter().write("Hello"));
 
         HttpResponse response = client.request(url("/simple_get")).get();
         assertTrue(response.isOk());
         assertEquals("Hello", response.getString());
 
+        CompletableFuture<String> content = new CompletableFuture<>();
+        Thread caller = Thread.currentThread();
         client.request(url("/simple_get")).sendAsync((req, resp) -> {
-            assertTrue(resp.isOk());
-            assertEquals("Hello", IO.readStringAndClose(resp.getInputStream(), Charsets.UTF_8));
+            if(Thread.currentThread() == caller) {
+                content.completeExceptionally(new IllegalStateException("Handled in the caller thread"));
+            }else if(!resp.isOk()) {
+                content.completeExceptionally(new IllegalStateException("Status " + resp.getStatus()));
+            }else {
+                content.complete(IO.readStringAndClose(resp.getInputStream(), Charsets.UTF_8));
+            }
+        });
+        assertEquals("Hello", content.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testSendAsyncFuture() throws Exception {
+        handle("/async_get", (req,resp) -> resp.getWriter().write("Hello"));
+
+        List<CompletableFuture<HttpResponse>> futures = new ArrayList<>();
+        for(int i=0;i<5;i++) {
+            futures.add(client.request(url("/async_get")).sendAsync());
+        }
+
+        for(CompletableFuture<HttpResponse> future : futures) {
+            HttpResponse response = future.get(10, TimeUnit.SECONDS);
+            assertTrue(response.isOk());
+            assertEquals("Hello", response.getString());
+        }
+    }
+
+    @Test
+    public void testStreamingJsonBody() {
+        handle("/echo", (req,resp) -> {
+            resp.setHeader("X-Content-Length", String.valueOf(req.getContentLength()));
+            resp.getWriter().write(IO.readString(req.getReader()));
         });
+
+        String json = "{\"name\":\"hello\"}";
+
+        //buffered with content length by default.
+        HttpResponse response = client.request(url("/echo")).json(New.hashMap("name", "hello")).post();
+        assertTrue(response.isOk());
+        assertEquals(json, response.getString());
+        assertEquals(String.valueOf(json.length()), response.getHeader("X-Content-Length"));
+
+        AbstractHttpClient c = (AbstractHttpClient)client;
+        c.setStreamingBody(true);
+        try {
+            response = client.request(url("/echo")).json(New.hashMap("name", "hello")).post();
+            assertTrue(response.isOk());
+            assertEquals(json, response.getString());
+            assertEquals("-1", response.getHeader("X-Content-Length"));
+        }finally {
+            c.setStreamingBody(false);
+        }
+    }
+
+    @Test
+    public void testHostLimiter() throws Exception {
+        HttpHostLimiter limiter = new HttpHostLimiter("http://127.0.0.1:80", 1);
+
+        assertTrue(limiter.acquire(100));
+        assertFalse(limiter.acquire(10));
+
+        AtomicInteger executed = new AtomicInteger();
+        limiter.submit(executed::incrementAndGet);
+        assertEquals(0, executed.get());
+        assertEquals(1, limiter.getWaiting());
+
+        //the permit is handed over to the queued task.
+        limiter.release();
+        assertEquals(1, executed.get());
+        assertEquals(1, limiter.getActive());
+
+        limiter.release();
+        assertEquals(0, limiter.getActive());
     }
 
     private static void handle(String path, Handler handler) {
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.lang.resource;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.*;
+
+public class ResourceIndexTest {
+
+    @Test
+    public void testIndexAndScan() throws Exception {
+        File jar = createJar("conf/", "conf/a.xml", "conf/sub/b.xml", "conf/c.txt", "other/d.xml");
+        try {
+            //the manifest is added by the indexer.
+            assertEquals(6, ResourceIndexer.index(jar));
+
+            try (JarFile jarFile = new JarFile(jar)) {
+                ResourceIndex index = ResourceIndex.read(jarFile);
+                assertNotNull(index);
+                assertEquals(7, index.getEntries());
+                assertEquals(JarFile.MANIFEST_NAME, index.getNames().get(0));
+                assertEquals("conf/sub/b.xml", index.getNames().get(3));
+                assertEquals(index.getId(), jarFile.getManifest().getMainAttributes().getValue(ResourceIndex.MANIFEST_ATTRIBUTE));
+            }
+
+            try (URLClassLoader loader = new URLClassLoader(new URL[]{jar.toURI().toURL()}, null)) {
+                Resource[] resources = new DefaultResourceScanner(loader).scan("classpath*:conf/**/*.xml");
+                assertEquals(2, resources.length);
+                assertEquals("conf/a.xml", resources[0].getClasspath());
+                assertEquals("conf/sub/b.xml", resources[1].getClasspath());
+            }
+        } finally {
+            jar.delete();
+        }
+    }
+
+    @Test
+    public void testIndexNotMatched() throws Exception {
+        File jar = createJar("a.xml", "b.xml");
+        try {
+            ResourceIndex stale = new ResourceIndex(3, "stale", Arrays.asList("a.xml"));
+            try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+                for (String name : new String[]{"a.xml", "b.xml", ResourceIndex.INDEX_ENTRY}) {
+                    out.putNextEntry(new ZipEntry(name));
+                    if (ResourceIndex.INDEX_ENTRY.equals(name)) {
+                        stale.write(out);
+                    }
+                    out.closeEntry();
+                }
+            }
+
+            try (JarFile jarFile = new JarFile(jar)) {
+                assertNull(ResourceIndex.read(jarFile));
+            }
+        } finally {
+            jar.delete();
+        }
+    }
+
+    @Test
+    public void testIndexIdNotMatched() throws Exception {
+        File jar = createJar("a.xml", "b.xml");
+        try {
+            ResourceIndexer.index(jar);
+
+            ResourceIndex index;
+            try (JarFile jarFile = new JarFile(jar)) {
+                index = ResourceIndex.read(jarFile);
+                assertNotNull(index);
+            }
+
+            //same entries, but repackaged with another manifest.
+            try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+                for (String name : index.getNames()) {
+                    out.putNextEntry(new ZipEntry(name));
+                    if (JarFile.MANIFEST_NAME.equals(name)) {
+                        Manifest manifest = new Manifest();
+                        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+                        manifest.write(out);
+                    }
+                    out.closeEntry();
+                }
+                out.putNextEntry(new ZipEntry(ResourceIndex.INDEX_ENTRY));
+                index.write(out);
+                out.closeEntry();
+            }
+
+            try (JarFile jarFile = new JarFile(jar)) {
+                assertEquals(index.getEntries(), jarFile.size());
+                assertNull(ResourceIndex.read(jarFile));
+            }
+        } finally {
+            jar.delete();
+        }
+    }
+
+    @Test
+    public void testCachedIndexRefreshed() throws Exception {
+        File jar = createJar("conf/a.xml");
+        try {
+            String                 url     = jar.toURI().toURL().toString();
+            DefaultResourceScanner scanner = new DefaultResourceScanner();
+
+            try (JarFile jarFile = new JarFile(jar)) {
+                assertNull(scanner.getResourceIndex(url, jarFile));
+            }
+
+            ResourceIndexer.index(jar);
+
+            try (JarFile jarFile = new JarFile(jar)) {
+                ResourceIndex index = scanner.getResourceIndex(url, jarFile);
+                assertNotNull(index);
+                assertEquals("conf/a.xml", index.getNames().get(1));
+            }
+        } finally {
+            jar.delete();
+        }
+    }
+
+    private static File createJar(String... names) throws IOException {
+        File jar = File.createTempFile("index", ".jar");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+            for (String name : names) {
+                out.putNextEntry(new ZipEntry(name));
+                if (!name.endsWith("/")) {
+                    out.write(name.getBytes());
+                }
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
@@ -27,6 +27,7 @@ import leap.core.jdbc.ResultSetReader;
 import leap.core.jdbc.RawScalarReader;
 import leap.db.command.*;
 import leap.db.model.*;
+import leap.db.stats.SqlStats;
 import leap.lang.Arrays2;
 import leap.lang.Named;
 import leap.lang.exception.NestedSQLException;
@@ -80,6 +81,11 @@ public interface Db extends Named , JdbcExecutor {
 	 * Returns the cached {@link DataSource} instance of this {@link Db} object.
 	 */
 	DataSource getDataSource();
+
+    /**
+     * Returns the statistics of the sql statements executed by this {@link Db} object.
+     */
+    SqlStats getSqlStats();
 	
 	/**
 	 * Returns <code>true</code> if this db type is mysql.
@@ -18,6 +18,9 @@ package leap.db;
 import leap.core.AppContext;
 import leap.core.transaction.TransactionManager;
 import leap.core.transaction.TransactionProvider;
+import leap.db.stats.DefaultSqlStatsConfig;
+import leap.db.stats.SqlStats;
+import leap.db.stats.SqlStatsConfig;
 import leap.lang.Args;
 import leap.lang.Classes;
 import leap.lang.Strings;
@@ -48,6 +51,7 @@ public abstract class DbBase implements Db {
     protected final DbMetadata          metadata;
     protected final DbComparator        comparator;
     protected final TransactionProvider tp;
+    protected final SqlStats            sqlStats;
 
     protected DbBase(String name, DataSource ds, DatabaseMetaData md,
                      DbPlatform platform, DbMetadata metadata, DbDialect dialect, DbComparator comparator){
@@ -70,13 +74,18 @@ public abstract class DbBase implements Db {
 		this.dialect     = dialect;
 		this.comparator  = comparator;
 
+        SqlStatsConfig statsConfig = null;
+
         AppContext context = AppContext.tryGetCurrent();
         if(null != context) {
             tp = context.getBeanFactory().getBean(TransactionManager.class).getProvider(ds);
+            statsConfig = context.getBeanFactory().tryGetBean(SqlStatsConfig.class);
         }else{
             tp = null;
         }
 
+        this.sqlStats = new SqlStats(name, null == statsConfig ? new DefaultSqlStatsConfig() : statsConfig);
+
 		this.awareObjects();
 		this.log = getLog(this.getClass());
 
@@ -128,6 +137,11 @@ public abstract class DbBase implements Db {
 	    return dataSource;
     }
 
+    @Override
+    public SqlStats getSqlStats() {
+        return sqlStats;
+    }
+
     @Override
     public String toString() {
         return super.toString() + "(" + name + ")";
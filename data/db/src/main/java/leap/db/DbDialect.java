@@ -366,6 +366,16 @@ public interface DbDialect {
 	 * @see Connection#prepareStatement(String, int)
 	 */
 	PreparedStatement createPreparedStatement(Connection connection,String sql, int autoGeneratedKeys) throws SQLException;
+
+	/**
+	 * Sets the fetch size of the query statement for reading a large result set row by row.
+	 *
+	 * <p/>
+	 * Some drivers stream the rows only in a transaction (i.e. PostgreSQL requires <code>autoCommit=false</code>).
+	 *
+	 * @see Statement#setFetchSize(int)
+	 */
+	void setFetchSize(PreparedStatement ps, int fetchSize) throws SQLException;
 	
 	/**
 	 * Returns a {@link String} as the page query sql for the underlying db.
@@ -18,6 +18,8 @@ package leap.db;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
 import javax.sql.DataSource;
 
 import leap.core.AppContext;
@@ -27,13 +29,21 @@ import leap.core.annotation.Inject;
 import leap.core.annotation.M;
 import leap.core.ds.DataSourceListener;
 import leap.core.ds.DataSourceManager;
+import leap.db.stats.SqlStatsConfig;
 import leap.lang.Assert;
 import leap.lang.Lazy;
+import leap.lang.jmx.MBeanExporter;
+import leap.lang.logging.Log;
+import leap.lang.logging.LogFactory;
 
 public class DbInit implements AppContextInitializable {
+
+    private static final Log log = LogFactory.get(DbInit.class);
 	
     private @Inject @M BeanFactory       factory;
     private @Inject @M DataSourceManager dsm;
+    private @Inject @M SqlStatsConfig    statsConfig;
+    private @Inject    MBeanExporter     mbeanExporter;
 	
 	@Override
     public void postInit(AppContext context) throws Throwable {
@@ -57,6 +67,23 @@ public class DbInit implements AppContextInitializable {
 		if(!foundPrimary && null != defaultDataSource){
 			initBeans(DataSourceManager.DEFAULT_DATASOURCE_NAME, defaultDataSource, true);
 		}
+
+        if(statsConfig.isEnabled() && statsConfig.isExportMBean() && null != mbeanExporter) {
+            for(Entry<String,Db> entry : factory.getNamedBeans(Db.class).entrySet()) {
+                exportSqlStats(context, entry.getValue());
+            }
+        }
+    }
+
+    protected void exportSqlStats(AppContext context, Db db) {
+        try {
+            ObjectName name = new ObjectName("SqlStats:name=" + context.getName() + "_" + db.getName());
+            mbeanExporter.export(name, db.getSqlStats().getMBean());
+        } catch (MalformedObjectNameException e) {
+            log.warn("Invalid mbean name of sql stats '{}', {}", db.getName(), e.getMessage());
+        } catch (RuntimeException e) {
+            log.warn("Error exporting mbean of sql stats '{}', {}", db.getName(), e.getMessage(), e);
+        }
     }
 	
 	protected void initBeans(String name,DataSource ds,boolean primary) {
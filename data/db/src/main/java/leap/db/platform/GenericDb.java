@@ -19,6 +19,7 @@ import leap.core.jdbc.*;
 import leap.db.*;
 import leap.db.command.*;
 import leap.db.model.*;
+import leap.db.stats.SqlStats;
 import leap.lang.Args;
 import leap.lang.Arrays2;
 import leap.lang.Strings;
@@ -27,6 +28,7 @@ import leap.lang.jdbc.ConnectionCallback;
 import leap.lang.jdbc.ConnectionCallbackWithResult;
 import leap.lang.jdbc.JDBC;
 import leap.lang.jdbc.JdbcTypes;
+import leap.lang.jdbc.ResultSetWrapper;
 import leap.lang.logging.Log;
 import leap.lang.time.StopWatch;
 
@@ -366,12 +368,15 @@ public class GenericDb extends DbBase {
     protected int doExecuteUpdate(Connection connection, String sql, Object[] args, int[] types, PreparedStatementHandler<Db> handler) throws NestedSQLException {
         PreparedStatement ps = null;
 
+        StopWatch sw     = null;
+        int       result = -1;
+        boolean   error  = true;
         try {
             if (log.isDebugEnabled()) {
                 log.debug("Executing Sql Update -> \n\n SQL  : {}\n ARGS : {}\n", sql, getDisplayString(args, types));
             }
 
-            StopWatch sw = StopWatch.startNew();
+            sw = StopWatch.startNew();
 
             if (null != handler) {
                 ps = handler.preparedStatement(this, connection, sql);
@@ -399,7 +404,8 @@ public class GenericDb extends DbBase {
                 handler.preExecuteUpdate(this, connection, ps);
             }
 
-            int result = ps.executeUpdate();
+            result = ps.executeUpdate();
+            error  = false;
 
             log.debug("Sql Executed in {}ms, {} row(s) affected", sw.getElapsedMilliseconds(), result);
 
@@ -412,21 +418,29 @@ public class GenericDb extends DbBase {
             throw new NestedSQLException(e, metadata.getProductName());
         } finally {
             JDBC.closeStatementOnly(ps);
+            recordStats(SqlStats.Type.UPDATE, sql, args, types, sw, result, error);
         }
     }
 
     protected <T> T doExecuteQuery(Connection connection, String sql, Object[] args, int[] types, ResultSetReader<T> reader) throws NestedSQLException {
-        PreparedStatement ps = null;
-        ResultSet         rs = null;
+        PreparedStatement    ps = null;
+        RowCountingResultSet rs = null;
+
+        StopWatch sw    = null;
+        boolean   error = true;
         try {
             if (log.isDebugEnabled()) {
                 log.debug("Executing Sql Query -> \n\n SQL  : {}\n ARGS : {}\n", sql, getDisplayString(args, types));
             }
 
-            StopWatch sw = StopWatch.startNew();
+            sw = StopWatch.startNew();
 
             ps = dialect.createPreparedStatement(connection, sql);
 
+            if (reader.getFetchSize() > 0) {
+                dialect.setFetchSize(ps, reader.getFetchSize());
+            }
+
             if (null != args) {
                 if (null != types && types.length > 0) {
                     for (int i = 0; i < args.length; i++) {
@@ -439,24 +453,30 @@ public class GenericDb extends DbBase {
                 }
             }
 
-            rs = ps.executeQuery();
+            rs = new RowCountingResultSet(ps.executeQuery());
 
             log.debug("Sql Executed in {}ms", sw.getElapsedMilliseconds());
 
-            return reader.read(rs);
+            T result = reader.read(rs);
+            error = false;
+            return result;
         } catch (SQLException e) {
             throw new NestedSQLException(e, metadata.getProductName());
         } finally {
             JDBC.closeResultSetOnly(rs);
             JDBC.closeStatementOnly(ps);
+            recordStats(SqlStats.Type.QUERY, sql, args, types, sw, null == rs ? -1 : rs.rows, error);
         }
     }
 
     protected int[] doExecuteBatchUpdate(Connection connection, String sql, Object[][] batchArgs, int[] types, BatchPreparedStatementHandler<Db> handler) throws NestedSQLException {
         PreparedStatement ps = null;
 
+        StopWatch sw     = null;
+        int[]     result = null;
+        boolean   error  = true;
         try {
-            StopWatch sw = StopWatch.startNew();
+            sw = StopWatch.startNew();
 
             if (log.isDebugEnabled()) {
                 log.debug("Executing Batch Sql Update -> \n\n SQL  : {}\n ARGS : {}", sql, getDisplayString(batchArgs, types));
@@ -499,7 +519,8 @@ public class GenericDb extends DbBase {
                 handler.preExecuteBatchUpdate(this, connection, ps);
             }
 
-            int[] result = ps.executeBatch();
+            result = ps.executeBatch();
+            error  = false;
 
             log.debug("Sql Batch Executed in {}ms", sw.getElapsedMilliseconds());
 
@@ -512,9 +533,34 @@ public class GenericDb extends DbBase {
             throw new NestedSQLException(e, metadata.getProductName());
         } finally {
             JDBC.closeStatementOnly(ps);
+            recordStats(SqlStats.Type.BATCH, sql, batchArgs.length > 0 ? batchArgs[0] : null, types, sw, sumRows(result), error);
+        }
+    }
+
+    protected void recordStats(SqlStats.Type type, String sql, Object[] args, int[] types, StopWatch sw, long rows, boolean error) {
+        if (null == sw || !sqlStats.isEnabled()) {
+            return;
+        }
+        try {
+            sqlStats.record(type, sql, args, types, sw.getElapsedNanoseconds(), rows, error);
+        } catch (RuntimeException e) {
+            log.warn("Error recording sql stats, {}", e.getMessage(), e);
         }
     }
 
+    private static long sumRows(int[] result) {
+        if (null == result) {
+            return -1;
+        }
+        long rows = 0;
+        for (int n : result) {
+            if (n > 0) {
+                rows += n;
+            }
+        }
+        return rows;
+    }
+
     protected GenericSchemaChanges createSchemaChanges() {
         return new GenericSchemaChanges(this);
     }
@@ -558,4 +604,25 @@ public class GenericDb extends DbBase {
 
         return sb.toString();
     }
-}
\ No newline at end of file
+
+    /**
+     * Counts the rows read by the {@link ResultSetReader}.
+     */
+    protected static final class RowCountingResultSet extends ResultSetWrapper {
+
+        private long rows;
+
+        public RowCountingResultSet(ResultSet rs) {
+            super(rs);
+        }
+
+        @Override
+        public boolean next() throws SQLException {
+            if (rs.next()) {
+                rows++;
+                return true;
+            }
+            return false;
+        }
+    }
+}
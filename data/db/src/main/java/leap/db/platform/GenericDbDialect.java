@@ -731,6 +731,11 @@ public abstract class GenericDbDialect extends GenericDbDialectBase implements D
         return connection.prepareStatement(sql, autoGeneratedKeys);
     }
 
+    @Override
+    public void setFetchSize(PreparedStatement ps, int fetchSize) throws SQLException {
+        ps.setFetchSize(fetchSize);
+    }
+
     @Override
     public String getLimitQuerySql(DbLimitQuery query) {
         throw new UnsupportedOperationException("This dialect '" + db.getDescription() + "' not implements page query");
@@ -69,6 +69,20 @@ public class MySql5Dialect extends GenericDbDialect {
         return true;
     }
 
+    /**
+     * The driver loads all the rows into memory unless streaming by the fetch size {@link Integer#MIN_VALUE},
+     * or using the cursor fetch enabled by <code>useCursorFetch=true</code> in url.
+     */
+    @Override
+    public void setFetchSize(PreparedStatement ps, int fetchSize) throws SQLException {
+        String url = db.getMetadata().getURL();
+        if(null != url && Strings.containsIgnoreCase(url, "useCursorFetch=true")) {
+            super.setFetchSize(ps, fetchSize);
+        }else{
+            ps.setFetchSize(Integer.MIN_VALUE);
+        }
+    }
+
     @Override
     protected String getAutoIncrementColumnDefinitionEnd(DbColumn column) {
 	    return "AUTO_INCREMENT";
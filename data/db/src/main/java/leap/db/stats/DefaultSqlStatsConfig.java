@@ -0,0 +1,79 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.db.stats;
+
+import leap.core.annotation.ConfigProperty;
+import leap.core.annotation.Configurable;
+
+@Configurable(prefix = SqlStatsConfig.KEY_PREFIX)
+public class DefaultSqlStatsConfig implements SqlStatsConfig {
+
+    protected boolean enabled         = DEFAULT_ENABLED;
+    protected long    slowThreshold   = DEFAULT_SLOW_THRESHOLD;
+    protected long    slowLogInterval = DEFAULT_SLOW_LOG_INTERVAL;
+    protected int     maxStatements   = DEFAULT_MAX_STATEMENTS;
+    protected boolean exportMBean     = DEFAULT_EXPORT_MBEAN;
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @ConfigProperty
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public long getSlowThreshold() {
+        return slowThreshold;
+    }
+
+    @ConfigProperty
+    public void setSlowThreshold(long slowThreshold) {
+        this.slowThreshold = slowThreshold;
+    }
+
+    @Override
+    public long getSlowLogInterval() {
+        return slowLogInterval;
+    }
+
+    @ConfigProperty
+    public void setSlowLogInterval(long slowLogInterval) {
+        this.slowLogInterval = slowLogInterval;
+    }
+
+    @Override
+    public int getMaxStatements() {
+        return maxStatements;
+    }
+
+    @ConfigProperty
+    public void setMaxStatements(int maxStatements) {
+        this.maxStatements = maxStatements;
+    }
+
+    @Override
+    public boolean isExportMBean() {
+        return exportMBean;
+    }
+
+    @ConfigProperty
+    public void setExportMBean(boolean exportMBean) {
+        this.exportMBean = exportMBean;
+    }
+}
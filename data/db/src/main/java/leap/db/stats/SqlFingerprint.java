@@ -0,0 +1,228 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.db.stats;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Normalizes a sql statement to a fingerprint.
+ *
+ * <p/>
+ * The literals are replaced by <code>?</code>, the comments are removed, the whitespaces are collapsed,
+ * the keywords and unquoted identifiers are lower-cased and the parameter lists such as <code>in (?,?,?)</code>
+ * are collapsed to <code>in (?+)</code>, so the statements only differ in values have the same fingerprint.
+ */
+public final class SqlFingerprint {
+
+    private static final int MAX_CACHED = 2048;
+
+    private static final Map<String, SqlFingerprint> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the fingerprint of the given sql.
+     */
+    public static SqlFingerprint of(String sql) {
+        SqlFingerprint fp = cache.get(sql);
+        if(null == fp) {
+            fp = new SqlFingerprint(normalize(sql));
+            if(cache.size() >= MAX_CACHED) {
+                cache.clear();
+            }
+            cache.put(sql, fp);
+        }
+        return fp;
+    }
+
+    /**
+     * Returns the normalized text of the given sql.
+     */
+    public static String normalize(String sql) {
+        final int           len = sql.length();
+        final StringBuilder sb  = new StringBuilder(len);
+
+        boolean space = false;
+
+        for(int i=0;i<len;i++) {
+            char c = sql.charAt(i);
+
+            //comments.
+            if(c == '-' && i + 1 < len && sql.charAt(i + 1) == '-') {
+                while(i < len && sql.charAt(i) != '\n') {
+                    i++;
+                }
+                space = true;
+                continue;
+            }
+            if(c == '/' && i + 1 < len && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? len : end + 1;
+                space = true;
+                continue;
+            }
+
+            if(Character.isWhitespace(c)) {
+                space = true;
+                continue;
+            }
+
+            if(space) {
+                if(sb.length() > 0 && !isPunct(c) && !isPunct(sb.charAt(sb.length() - 1))) {
+                    sb.append(' ');
+                }
+                space = false;
+            }
+
+            //string literal.
+            if(c == '\'') {
+                for(i++;i<len;i++) {
+                    if(sql.charAt(i) == '\'') {
+                        if(i + 1 < len && sql.charAt(i + 1) == '\'') {
+                            i++;
+                        }else{
+                            break;
+                        }
+                    }
+                }
+                appendParam(sb);
+                continue;
+            }
+
+            //quoted identifier.
+            if(c == '"' || c == '`' || c == '[') {
+                char end = c == '[' ? ']' : c;
+                int  pos = sql.indexOf(end, i + 1);
+                pos = pos < 0 ? len - 1 : pos;
+                sb.append(sql, i, pos + 1);
+                i = pos;
+                continue;
+            }
+
+            //signed number literal.
+            if((c == '-' || c == '+') && i + 1 < len && isDigit(sql.charAt(i + 1)) &&
+                    (sb.length() == 0 || isPunct(sb.charAt(sb.length() - 1)))) {
+                continue;
+            }
+
+            //number literal (not a part of identifier).
+            if(isDigit(c) || (c == '.' && i + 1 < len && isDigit(sql.charAt(i + 1)))) {
+                if(sb.length() == 0 || !isIdentifierPart(sb.charAt(sb.length() - 1))) {
+                    while(i + 1 < len && (isDigit(sql.charAt(i + 1)) || sql.charAt(i + 1) == '.')) {
+                        i++;
+                    }
+                    appendParam(sb);
+                    continue;
+                }
+            }
+
+            if(c == ')') {
+                collapseParams(sb);
+            }
+
+            sb.append(c >= 'A' && c <= 'Z' ? (char)(c + 32) : c);
+        }
+
+        return sb.toString();
+    }
+
+    private static void appendParam(StringBuilder sb) {
+        sb.append('?');
+    }
+
+    /**
+     * Collapses the trailing <code>(?,?,?</code> to <code>(?+</code>.
+     */
+    private static void collapseParams(StringBuilder sb) {
+        int i = sb.length() - 1;
+        int n = 0;
+        while(i >= 0) {
+            char c = sb.charAt(i);
+            if(c == '?') {
+                n++;
+                i--;
+                if(i >= 0 && sb.charAt(i) == ',') {
+                    i--;
+                    continue;
+                }
+            }
+            break;
+        }
+        if(n > 1 && i >= 0 && sb.charAt(i) == '(') {
+            sb.setLength(i + 1);
+            sb.append("?+");
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '#' || c == '@' || c == ':';
+    }
+
+    private static boolean isPunct(char c) {
+        return c == '(' || c == ')' || c == ',' || c == '=' || c == '<' || c == '>' || c == ';';
+    }
+
+    private final String text;
+    private final String id;
+
+    private SqlFingerprint(String text) {
+        this.text = text;
+        this.id   = hash(text);
+    }
+
+    /**
+     * Returns the normalized sql text.
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Returns a short hex id of the normalized sql text.
+     */
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof SqlFingerprint && text.equals(((SqlFingerprint) o).text));
+    }
+
+    @Override
+    public int hashCode() {
+        return text.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    private static String hash(String s) {
+        //FNV-1a 64 bits.
+        long h = 0xcbf29ce484222325L;
+        for(int i=0;i<s.length();i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        String hex = Long.toHexString(h);
+        return hex.length() == 16 ? hex : "0000000000000000".substring(hex.length()) + hex;
+    }
+}
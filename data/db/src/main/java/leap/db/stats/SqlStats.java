@@ -0,0 +1,280 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.db.stats;
+
+import leap.lang.Strings;
+import leap.lang.jdbc.JdbcType;
+import leap.lang.jdbc.JdbcTypes;
+import leap.lang.jmx.Managed;
+import leap.lang.json.JSON;
+import leap.lang.logging.Log;
+import leap.lang.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The statistics registry of the sql statements executed by a db.
+ *
+ * <p/>
+ * The statements are grouped by {@link SqlFingerprint}, each group tracks the executions, latency histogram,
+ * rows and errors, see {@link SqlStatsEntry}.
+ *
+ * <p/>
+ * The calling source (i.e. the orm entity and command) can be bound to current thread by
+ * {@link #enterSource(String)} and {@link #exitSource(String)}.
+ */
+public class SqlStats {
+
+    private static final Log log = LogFactory.get(SqlStats.class);
+
+    /**
+     * The fingerprint of the statements exceed the max statements limit.
+     */
+    public static final String OTHERS = "<others>";
+
+    private static final ThreadLocal<String> SOURCE = new ThreadLocal<>();
+
+    public enum Type {
+        QUERY,
+        UPDATE,
+        BATCH
+    }
+
+    public enum Order {
+        TOTAL_TIME(Comparator.comparingLong(SqlStatsEntry::getTotalTime)),
+        AVG_TIME(Comparator.comparingDouble(SqlStatsEntry::getAvgTime)),
+        MAX_TIME(Comparator.comparingLong(SqlStatsEntry::getMaxTime)),
+        CALLS(Comparator.comparingLong(SqlStatsEntry::getCalls)),
+        ERRORS(Comparator.comparingLong(SqlStatsEntry::getErrors)),
+        ROWS(Comparator.comparingLong(SqlStatsEntry::getRows));
+
+        private final Comparator<SqlStatsEntry> comparator;
+
+        Order(Comparator<SqlStatsEntry> comparator) {
+            this.comparator = comparator.reversed();
+        }
+    }
+
+    /**
+     * Binds the calling source to current thread, returns the previous one.
+     */
+    public static String enterSource(String source) {
+        String prev = SOURCE.get();
+        SOURCE.set(source);
+        return prev;
+    }
+
+    /**
+     * Restores the previous calling source returned by {@link #enterSource(String)}.
+     */
+    public static void exitSource(String previous) {
+        if(null == previous) {
+            SOURCE.remove();
+        }else{
+            SOURCE.set(previous);
+        }
+    }
+
+    /**
+     * Returns the calling source bound to current thread or null.
+     */
+    public static String currentSource() {
+        return SOURCE.get();
+    }
+
+    protected final String                     name;
+    protected final SqlStatsConfig             config;
+    protected final Map<String, SqlStatsEntry> entries = new ConcurrentHashMap<>();
+
+    public SqlStats(String name, SqlStatsConfig config) {
+        this.name   = name;
+        this.config = config;
+    }
+
+    /**
+     * Returns the name of db.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the config.
+     */
+    public SqlStatsConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Returns <code>true</code> if the statistics is enabled.
+     */
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Records an execution of the given sql.
+     *
+     * @param type  the execution type.
+     * @param sql   the executed sql.
+     * @param args  the bound parameters (the first row of batch), may be null.
+     * @param types the bound parameter types, may be null or empty.
+     * @param nanos the execution time in nanoseconds.
+     * @param rows  the rows read or affected, negative if unknown.
+     * @param error <code>true</code> if the execution failed.
+     */
+    public void record(Type type, String sql, Object[] args, int[] types, long nanos, long rows, boolean error) {
+        SqlFingerprint fp     = SqlFingerprint.of(sql);
+        SqlStatsEntry  entry  = getOrCreateEntry(fp, type);
+        String         source = SOURCE.get();
+
+        entry.record(nanos, rows, error, source);
+
+        long threshold = config.getSlowThreshold();
+        if(threshold > 0) {
+            long ms = TimeUnit.NANOSECONDS.toMillis(nanos);
+            if(ms >= threshold) {
+                long skipped = entry.trySlowLog(config.getSlowLogInterval());
+                if(skipped >= 0) {
+                    log.warn("Slow sql found in db '{}' ->\n time    : {}ms\n id      : {}\n sql     : {}\n params  : {}\n source  : {}\n skipped : {} slow execution(s) since last log\n",
+                             name, ms, fp.getId(), sql, getParamTypes(args, types), source, skipped);
+                }
+            }
+        }
+    }
+
+    protected SqlStatsEntry getOrCreateEntry(SqlFingerprint fp, Type type) {
+        SqlStatsEntry entry = entries.get(fp.getText());
+        if(null == entry) {
+            if(entries.size() >= config.getMaxStatements()) {
+                fp = SqlFingerprint.of(OTHERS);
+            }
+            final SqlFingerprint key = fp;
+            entry = entries.computeIfAbsent(key.getText(), (k) -> new SqlStatsEntry(key, type));
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the statistics of the given sql or null if not executed.
+     */
+    public SqlStatsEntry getEntry(String sql) {
+        return entries.get(SqlFingerprint.of(sql).getText());
+    }
+
+    /**
+     * Returns all the statistics entries.
+     */
+    public Collection<SqlStatsEntry> getEntries() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    /**
+     * Returns the top n entries by the given order.
+     */
+    public List<SqlStatsEntry> getTop(int n, Order order) {
+        List<SqlStatsEntry> list = new ArrayList<>(entries.values());
+        list.sort(order.comparator);
+        return list.size() > n ? new ArrayList<>(list.subList(0, n)) : list;
+    }
+
+    /**
+     * Clears all the statistics.
+     */
+    public void reset() {
+        entries.clear();
+    }
+
+    /**
+     * Returns the jmx managed bean of this statistics.
+     */
+    public Object getMBean() {
+        return new SqlStatsMBean();
+    }
+
+    protected String getParamTypes(Object[] args, int[] types) {
+        if(null == args || args.length == 0) {
+            return "[]";
+        }
+
+        StringBuilder sb = new StringBuilder().append('[');
+        for(int i=0;i<args.length;i++) {
+            if(i > 0) {
+                sb.append(',');
+            }
+
+            JdbcType jdbcType = null != types && types.length > i ? JdbcTypes.tryForTypeCode(types[i]) : null;
+            if(null != jdbcType) {
+                sb.append(jdbcType.getName());
+            }else if(null == args[i]) {
+                sb.append("null");
+            }else{
+                sb.append(args[i].getClass().getSimpleName());
+            }
+        }
+        return sb.append(']').toString();
+    }
+
+    @Managed(desc = "The statistics of sql statements")
+    protected class SqlStatsMBean {
+
+        @Managed
+        public int getStatementCount() {
+            return entries.size();
+        }
+
+        @Managed
+        public long getTotalCalls() {
+            long n = 0;
+            for(SqlStatsEntry entry : entries.values()) {
+                n += entry.getCalls();
+            }
+            return n;
+        }
+
+        @Managed
+        public long getTotalErrors() {
+            long n = 0;
+            for(SqlStatsEntry entry : entries.values()) {
+                n += entry.getErrors();
+            }
+            return n;
+        }
+
+        @Managed(desc = "Returns the top n statements as json, order : total_time, avg_time, max_time, calls, errors, rows")
+        public String top(int n, String order) {
+            Order o = Strings.isEmpty(order) ? Order.TOTAL_TIME : Order.valueOf(order.trim().toUpperCase());
+
+            List<Map<String, Object>> list = new ArrayList<>();
+            for(SqlStatsEntry entry : getTop(n, o)) {
+                list.add(entry.toMap());
+            }
+            return JSON.encode(list);
+        }
+
+        @Managed(desc = "Clears all the statistics")
+        public void reset() {
+            SqlStats.this.reset();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.db.stats;
+
+/**
+ * The configuration of {@link SqlStats}.
+ */
+public interface SqlStatsConfig {
+
+    String KEY_PREFIX = "db.stats";
+
+    boolean DEFAULT_ENABLED           = true;
+    long    DEFAULT_SLOW_THRESHOLD    = 1000;
+    long    DEFAULT_SLOW_LOG_INTERVAL = 60000;
+    int     DEFAULT_MAX_STATEMENTS    = 1000;
+    boolean DEFAULT_EXPORT_MBEAN      = true;
+
+    /**
+     * Returns <code>true</code> if the statistics of sql statements is enabled.
+     */
+    boolean isEnabled();
+
+    /**
+     * Returns the threshold in milliseconds of slow statement, zero or negative disables the slow log.
+     */
+    long getSlowThreshold();
+
+    /**
+     * Returns the min interval in milliseconds of two slow logs of the same statement fingerprint.
+     *
+     * <p/>
+     * The slow executions in the interval are counted but not logged.
+     */
+    long getSlowLogInterval();
+
+    /**
+     * Returns the max number of statement fingerprints tracked by a db,
+     * the statements exceed the limit are tracked together as {@link SqlStats#OTHERS}.
+     */
+    int getMaxStatements();
+
+    /**
+     * Returns <code>true</code> if exports the statistics as jmx managed bean.
+     */
+    boolean isExportMBean();
+
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.db.stats;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The statistics of a sql statement fingerprint.
+ */
+public class SqlStatsEntry {
+
+    /**
+     * The upper bounds in milliseconds of the latency histogram buckets, the last bucket holds the greater latencies.
+     */
+    public static final long[] HISTOGRAM_BOUNDS = new long[]{1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000};
+
+    private static final int MAX_SOURCES = 16;
+
+    private final SqlFingerprint         fingerprint;
+    private final SqlStats.Type          type;
+    private final LongAdder              calls       = new LongAdder();
+    private final LongAdder              errors      = new LongAdder();
+    private final LongAdder              rows        = new LongAdder();
+    private final LongAdder              totalNanos  = new LongAdder();
+    private final LongAccumulator        maxNanos    = new LongAccumulator(Long::max, 0);
+    private final LongAdder[]            histogram   = new LongAdder[HISTOGRAM_BOUNDS.length + 1];
+    private final Map<String, LongAdder> sources     = new ConcurrentHashMap<>();
+    private final LongAdder              slowCalls   = new LongAdder();
+    private final AtomicLong             lastSlowLog = new AtomicLong();
+    private final AtomicLong             slowSkipped = new AtomicLong();
+
+    public SqlStatsEntry(SqlFingerprint fingerprint, SqlStats.Type type) {
+        this.fingerprint = fingerprint;
+        this.type        = type;
+        for(int i=0;i<histogram.length;i++) {
+            histogram[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records an execution of the statement.
+     *
+     * @param nanos  the execution time in nanoseconds.
+     * @param rows   the rows read or affected, negative if unknown.
+     * @param error  <code>true</code> if the execution failed.
+     * @param source the calling source, may be null.
+     */
+    public void record(long nanos, long rows, boolean error, String source) {
+        calls.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        histogram[bucket(TimeUnit.NANOSECONDS.toMillis(nanos))].increment();
+
+        if(error) {
+            errors.increment();
+        }
+
+        if(rows > 0) {
+            this.rows.add(rows);
+        }
+
+        if(null != source) {
+            LongAdder counter = sources.get(source);
+            if(null == counter && sources.size() < MAX_SOURCES) {
+                counter = sources.computeIfAbsent(source, (k) -> new LongAdder());
+            }
+            if(null != counter) {
+                counter.increment();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of slow executions skipped since last log if the slow execution should be logged now,
+     * or returns <code>-1</code> if the log should be skipped.
+     */
+    long trySlowLog(long interval) {
+        slowCalls.increment();
+
+        long now  = System.currentTimeMillis();
+        long last = lastSlowLog.get();
+        if((last == 0 || now - last >= interval) && lastSlowLog.compareAndSet(last, now)) {
+            return slowSkipped.getAndSet(0);
+        }
+
+        slowSkipped.incrementAndGet();
+        return -1;
+    }
+
+    private static int bucket(long ms) {
+        for(int i=0;i<HISTOGRAM_BOUNDS.length;i++) {
+            if(ms <= HISTOGRAM_BOUNDS[i]) {
+                return i;
+            }
+        }
+        return HISTOGRAM_BOUNDS.length;
+    }
+
+    /**
+     * Returns the fingerprint.
+     */
+    public SqlFingerprint getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Returns the type of first recorded execution.
+     */
+    public SqlStats.Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the number of executions.
+     */
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    /**
+     * Returns the number of failed executions.
+     */
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * Returns the number of slow executions.
+     */
+    public long getSlowCalls() {
+        return slowCalls.sum();
+    }
+
+    /**
+     * Returns the total rows read (query) or affected (update).
+     */
+    public long getRows() {
+        return rows.sum();
+    }
+
+    /**
+     * Returns the total execution time in milliseconds.
+     */
+    public long getTotalTime() {
+        return TimeUnit.NANOSECONDS.toMillis(totalNanos.sum());
+    }
+
+    /**
+     * Returns the average execution time in milliseconds.
+     */
+    public double getAvgTime() {
+        long n = calls.sum();
+        return n == 0 ? 0 : totalNanos.sum() / (double)n / 1000000d;
+    }
+
+    /**
+     * Returns the max execution time in milliseconds.
+     */
+    public long getMaxTime() {
+        return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+    }
+
+    /**
+     * Returns the counts of the latency histogram buckets, see {@link #HISTOGRAM_BOUNDS}.
+     */
+    public long[] getHistogram() {
+        long[] counts = new long[histogram.length];
+        for(int i=0;i<counts.length;i++) {
+            counts[i] = histogram[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the estimated percentile latency in milliseconds, the upper bound of the histogram bucket.
+     *
+     * @param percentile 0 ~ 100, i.e. 99 for p99.
+     */
+    public long getPercentile(double percentile) {
+        long[] counts = getHistogram();
+        long   total  = 0;
+        for(long c : counts) {
+            total += c;
+        }
+        if(total == 0) {
+            return 0;
+        }
+
+        long rank = (long)Math.ceil(total * percentile / 100d);
+        long sum  = 0;
+        for(int i=0;i<counts.length;i++) {
+            sum += counts[i];
+            if(sum >= rank) {
+                return i < HISTOGRAM_BOUNDS.length ? Math.min(HISTOGRAM_BOUNDS[i], getMaxTime()) : getMaxTime();
+            }
+        }
+        return getMaxTime();
+    }
+
+    /**
+     * Returns the execution counts of calling sources, such as the orm entity and command.
+     */
+    public Map<String, Long> getSources() {
+        Map<String, Long> map = new LinkedHashMap<>();
+        sources.forEach((k, v) -> map.put(k, v.sum()));
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Returns a map contains the statistics values.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id",        fingerprint.getId());
+        map.put("sql",       fingerprint.getText());
+        map.put("type",      type.name());
+        map.put("calls",     getCalls());
+        map.put("errors",    getErrors());
+        map.put("slowCalls", getSlowCalls());
+        map.put("rows",      getRows());
+        map.put("totalTime", getTotalTime());
+        map.put("avgTime",   getAvgTime());
+        map.put("maxTime",   getMaxTime());
+        map.put("p50",       getPercentile(50));
+        map.put("p95",       getPercentile(95));
+        map.put("p99",       getPercentile(99));
+        map.put("histogram", getHistogram());
+        map.put("sources",   getSources());
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return "SqlStatsEntry[" + fingerprint.getId() + ", calls=" + getCalls() + ", totalTime=" + getTotalTime() + "ms]";
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.db.stats;
+
+import leap.junit.TestBase;
+import org.junit.Test;
+
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class SqlStatsTest extends TestBase {
+
+    @Test
+    public void testFingerprint() {
+        assertEquals("select * from t where id=? and name=?",
+                     SqlFingerprint.normalize("SELECT *  FROM t\n WHERE id = 100 AND name = 'it''s'"));
+
+        assertEquals("select * from t1 where id in(?+)",
+                     SqlFingerprint.normalize("select * from t1 where id in (1, 2, 3) -- comment"));
+
+        assertEquals("select \"Name\" from t where a=? and b=:b",
+                     SqlFingerprint.normalize("select /* hint */ \"Name\" from t where a = -1.5 and b = :b"));
+
+        assertSame(SqlFingerprint.of("select 1"), SqlFingerprint.of("select 1"));
+        assertEquals(SqlFingerprint.of("select * from t where id = 1").getId(),
+                     SqlFingerprint.of("select * from t where id = 2").getId());
+    }
+
+    @Test
+    public void testRecordAndTop() {
+        SqlStats stats = new SqlStats("test", new DefaultSqlStatsConfig());
+
+        String prev = SqlStats.enterSource("User.find");
+        try {
+            stats.record(SqlStats.Type.QUERY, "select * from t where id = 1", null, null, ms(3), 1, false);
+            stats.record(SqlStats.Type.QUERY, "select * from t where id = 2", null, null, ms(30), 1, false);
+        }finally {
+            SqlStats.exitSource(prev);
+        }
+        stats.record(SqlStats.Type.UPDATE, "delete from t", null, null, ms(100), 5, true);
+
+        assertNull(SqlStats.currentSource());
+        assertEquals(2, stats.getEntries().size());
+
+        SqlStatsEntry query = stats.getEntry("select * from t where id=3");
+        assertEquals(2, query.getCalls());
+        assertEquals(2, query.getRows());
+        assertEquals(0, query.getErrors());
+        assertEquals(33, query.getTotalTime());
+        assertEquals(30, query.getMaxTime());
+        assertEquals(5,  query.getPercentile(50));
+        assertEquals(30, query.getPercentile(99));
+        assertEquals(Long.valueOf(2), query.getSources().get("User.find"));
+
+        List<SqlStatsEntry> top = stats.getTop(1, SqlStats.Order.TOTAL_TIME);
+        assertEquals(1, top.size());
+        assertEquals("delete from t", top.get(0).getFingerprint().getText());
+        assertEquals(1, top.get(0).getErrors());
+
+        assertEquals(query, stats.getTop(1, SqlStats.Order.CALLS).get(0));
+
+        stats.reset();
+        assertTrue(stats.getEntries().isEmpty());
+    }
+
+    @Test
+    public void testMaxStatementsAndSlowLog() {
+        DefaultSqlStatsConfig config = new DefaultSqlStatsConfig();
+        config.setMaxStatements(2);
+        config.setSlowThreshold(10);
+
+        SqlStats stats = new SqlStats("test", config);
+        stats.record(SqlStats.Type.QUERY, "select a from t", null, null, ms(1), 0, false);
+        stats.record(SqlStats.Type.QUERY, "select b from t", null, null, ms(1), 0, false);
+        stats.record(SqlStats.Type.QUERY, "select c from t", null, null, ms(1), 0, false);
+        stats.record(SqlStats.Type.QUERY, "select d from t", new Object[]{1, "s"}, new int[]{Types.INTEGER, Types.VARCHAR}, ms(20), 0, false);
+        stats.record(SqlStats.Type.QUERY, "select d from t", new Object[]{1, null}, null, ms(20), 0, false);
+
+        assertEquals(3, stats.getEntries().size());
+
+        SqlStatsEntry others = stats.getEntry(SqlStats.OTHERS);
+        assertEquals(3, others.getCalls());
+        assertEquals(2, others.getSlowCalls());
+
+        assertEquals("[integer,varchar]", stats.getParamTypes(new Object[]{1, "s"}, new int[]{Types.INTEGER, Types.VARCHAR}));
+        assertEquals("[Integer,null]", stats.getParamTypes(new Object[]{1, null}, null));
+    }
+
+    private static long ms(long ms) {
+        return TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+}
@@ -27,6 +27,7 @@ import leap.db.Db;
 import leap.db.DbFactory;
 import leap.lang.Assert;
 import leap.lang.Readonly;
+import leap.orm.cache.EntityCache;
 import leap.orm.command.CommandFactory;
 import leap.orm.dao.Dao;
 import leap.orm.dao.DefaultDao;
@@ -67,6 +68,7 @@ public class DefaultOrmContext implements OrmContext,BeanPrimaryAware,PostCreate
     protected @Inject @M OrmConfig          config;
     protected @Inject @M EntityValidator    entityValidator;
     protected @Inject @M EntityEventHandler entityEventHandler;
+    protected @Inject @M EntityCache        entityCache;
 
     protected String name;
     protected Dao    dao;
@@ -202,6 +204,11 @@ public class DefaultOrmContext implements OrmContext,BeanPrimaryAware,PostCreate
         return entityEventHandler;
     }
 
+    @Override
+    public EntityCache getEntityCache() {
+        return entityCache;
+    }
+
     @Override
     public void preInject(BeanFactory factory) {
 		Assert.notNull(db,"The 'db' field must not be null");
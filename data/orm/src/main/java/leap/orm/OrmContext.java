@@ -17,6 +17,7 @@ package leap.orm;
 
 import leap.lang.Named;
 import leap.orm.command.CommandFactory;
+import leap.orm.cache.EntityCache;
 import leap.orm.dao.Dao;
 import leap.orm.dmo.Dmo;
 import leap.orm.event.EntityEventHandler;
@@ -92,4 +93,9 @@ public interface OrmContext extends MetadataContext, Named {
      */
     EntityEventHandler getEntityEventHandler();
 
+    /**
+     * Required.
+     */
+    EntityCache getEntityCache();
+
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package leap.orm.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Enables the second-level cache of entity, the records loaded by primary key will be cached.
+ *
+ * @see leap.orm.cache.EntityCache
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Cacheable {
+
+    /**
+     * Enables or disables the cache.
+     */
+    boolean value() default true;
+
+    /**
+     * The max cached records of the entity, zero or negative means the default value.
+     */
+    int maxSize() default 0;
+
+    /**
+     * The expiration seconds of cached record, zero means the default value, negative means never expires.
+     */
+    int expires() default 0;
+
+    /**
+     * The BIGINT or TIMESTAMP field which records the changed time, such as 'updatedAt'.
+     *
+     * <p/>
+     * If set, the changes made by other nodes will be observed and evicted from cache.
+     */
+    String changeField() default "";
+
+    /**
+     * The seconds between two polls of the changes, zero means the default value.
+     */
+    int changePeriod() default 0;
+}
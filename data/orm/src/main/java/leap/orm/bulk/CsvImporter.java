@@ -0,0 +1,621 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.orm.bulk;
+
+import leap.core.validation.Errors;
+import leap.lang.Args;
+import leap.lang.Out;
+import leap.lang.SimpleThreadFactory;
+import leap.lang.Strings;
+import leap.lang.convert.ConvertException;
+import leap.lang.convert.Converter;
+import leap.lang.convert.Converts;
+import leap.lang.csv.CSV;
+import leap.lang.csv.CsvProcessor;
+import leap.lang.logging.Log;
+import leap.lang.logging.LogFactory;
+import leap.lang.time.StopWatch;
+import leap.orm.dao.Dao;
+import leap.orm.mapping.EntityMapping;
+import leap.orm.mapping.FieldMapping;
+
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Imports the rows of a csv file into an entity.
+ *
+ * <p/>
+ * The first row of csv must be the header, the header names are mapped to the fields (by field name or column name)
+ * and the converters of the columns are resolved once.
+ *
+ * <p/>
+ * The rows are read one by one and grouped into chunks of {@link #setBatchSize(int)} rows, the chunks are converted
+ * and validated by the worker threads, then written by batch insert in the order of csv, the chunks of
+ * {@link #setTransactionSize(int)} rows are written in one new transaction,
+ * which never joins the transaction of caller.
+ * The number of chunks in memory is bounded, so a csv file of any size can be imported.
+ *
+ * <p/>
+ * The invalid rows are reported as {@link ErrorRow} and skipped. If a transaction fails, its rows are
+ * inserted one by one to find out the failed rows.
+ *
+ * <p/>
+ * Not thread-safe, creates a new instance for an import.
+ */
+public class CsvImporter {
+
+    private static final Log log = LogFactory.get(CsvImporter.class);
+
+    private static final int DEFAULT_KEPT_ERRORS = 100;
+
+    protected final Dao           dao;
+    protected final EntityMapping em;
+
+    protected int                 batchSize       = 1000;
+    protected int                 transactionSize = 10000;
+    protected int                 threads         = Runtime.getRuntime().availableProcessors();
+    protected int                 maxErrors       = 100;
+    protected boolean             validate        = true;
+    protected Map<String, String> columnMappings  = new HashMap<>();
+    protected Consumer<ErrorRow>  errorHandler;
+
+    public CsvImporter(Dao dao, Class<?> entityClass) {
+        this(dao, dao.getOrmContext().getMetadata().getEntityMapping(entityClass));
+    }
+
+    public CsvImporter(Dao dao, EntityMapping em) {
+        Args.notNull(dao, "dao");
+        Args.notNull(em, "entity mapping");
+        this.dao = dao;
+        this.em  = em;
+    }
+
+    /**
+     * Sets the max rows of a batch insert, default is 1000.
+     */
+    public CsvImporter setBatchSize(int batchSize) {
+        Args.assertTrue(batchSize > 0, "The batch size must be positive");
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Sets the max rows written in one transaction, default is 10000.
+     *
+     * <p/>
+     * Zero or negative means every batch is written in its own transaction.
+     */
+    public CsvImporter setTransactionSize(int transactionSize) {
+        this.transactionSize = transactionSize;
+        return this;
+    }
+
+    /**
+     * Sets the number of worker threads for converting and validating the rows, default is the number of processors.
+     *
+     * <p/>
+     * Zero or one means all the rows are processed by the calling thread.
+     */
+    public CsvImporter setThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Sets the max error rows, the import will be stopped if the number of error rows exceeds it, default is 100.
+     *
+     * <p/>
+     * Zero or negative means never stopped by the error rows.
+     */
+    public CsvImporter setMaxErrors(int maxErrors) {
+        this.maxErrors = maxErrors;
+        return this;
+    }
+
+    /**
+     * Sets validating the imported fields or not, default is <code>true</code>.
+     */
+    public CsvImporter setValidate(boolean validate) {
+        this.validate = validate;
+        return this;
+    }
+
+    /**
+     * Maps the header name of csv to the field name of entity.
+     *
+     * <p/>
+     * The header names are mapped to the field or column with the same name (ignore case) by default.
+     */
+    public CsvImporter mapColumn(String header, String field) {
+        Args.notEmpty(header, "header");
+        Args.notEmpty(field, "field");
+        columnMappings.put(header.toLowerCase(), field);
+        return this;
+    }
+
+    /**
+     * Sets the handler which will be invoked for every error row.
+     */
+    public CsvImporter setErrorHandler(Consumer<ErrorRow> errorHandler) {
+        this.errorHandler = errorHandler;
+        return this;
+    }
+
+    /**
+     * Imports all the rows of the csv, the reader will be closed after importing.
+     */
+    public Result importFrom(Reader reader) {
+        Args.notNull(reader, "reader");
+
+        Execution execution = new Execution();
+        try {
+            CSV.read(reader, execution);
+            execution.finish();
+            execution.result.completed = true;
+        } catch (AbortedException e) {
+            log.warn("Import of '{}' stopped : {} error rows exceed the max errors {}",
+                     em.getEntityName(), execution.result.failed, maxErrors);
+        } finally {
+            execution.shutdown();
+        }
+
+        Result result = execution.result;
+        result.duration = execution.sw.getElapsedMilliseconds();
+
+        log.info("Import {} of {} rows into '{}' in {}ms ({} rows/s), {} error rows",
+                 result.imported, result.read, result.entityName, result.duration, result.getRowsPerSecond(), result.failed);
+
+        return result;
+    }
+
+    protected Column resolveColumn(int index, String header) {
+        String       name = columnMappings.getOrDefault(header.toLowerCase(), header);
+        FieldMapping fm   = em.tryGetFieldMapping(name);
+        if(null == fm) {
+            fm = em.tryGetFieldMappingByColumn(name);
+        }
+        if(null == fm || !fm.isInsert()) {
+            log.warn("Column {} '{}' of csv is not mapped to any insertable field of '{}', ignored", index + 1, header, em.getEntityName());
+            return null;
+        }
+        return new Column(index, header, fm);
+    }
+
+    protected final class Execution implements CsvProcessor {
+
+        private final Result          result = new Result(em.getEntityName());
+        private final StopWatch       sw     = StopWatch.startNew();
+        private final ExecutorService executor;
+
+        private final Deque<Future<Chunk>> inflight = new ArrayDeque<>();
+        private final List<Chunk>          pending  = new ArrayList<>();
+
+        private Column[]     columns;
+        private List<String> fields;
+        private List<Row>    rows = new ArrayList<>();
+        private int          pendingRows;
+        private long         rownum;
+
+        Execution() {
+            this.executor = threads > 1 ? Executors.newFixedThreadPool(threads, new SimpleThreadFactory("csv-import", true)) : null;
+        }
+
+        @Override
+        public void process(int n, String[] values) {
+            //counts the rows by self, the int row number of csv processor overflows on huge files.
+            rownum++;
+            if(rownum == 1) {
+                resolveColumns(values);
+                return;
+            }
+
+            result.read++;
+            rows.add(new Row(rownum, values));
+            if(rows.size() >= batchSize) {
+                submit();
+            }
+        }
+
+        void finish() {
+            if(null == columns) {
+                return;
+            }
+            if(!rows.isEmpty()) {
+                submit();
+            }
+            while (!inflight.isEmpty()) {
+                complete(await(inflight.poll()));
+            }
+            write();
+        }
+
+        void shutdown() {
+            if(null != executor) {
+                executor.shutdownNow();
+            }
+        }
+
+        private void resolveColumns(String[] headers) {
+            List<Column> list = new ArrayList<>();
+            fields = new ArrayList<>();
+            for(int i=0;i<headers.length;i++) {
+                String header = i == 0 ? Strings.removeStart(headers[i], "\uFEFF") : headers[i];
+                Column column = resolveColumn(i, header.trim());
+                if(null != column) {
+                    list.add(column);
+                    fields.add(column.field.getFieldName());
+                }
+            }
+            if(list.isEmpty()) {
+                throw new IllegalStateException("No column of csv mapped to the fields of '" + em.getEntityName() + "'");
+            }
+            columns = list.toArray(new Column[0]);
+        }
+
+        private void submit() {
+            Chunk chunk = new Chunk(rows);
+            rows = new ArrayList<>(batchSize);
+
+            if(null == executor) {
+                chunk.prepare();
+                complete(chunk);
+                return;
+            }
+
+            inflight.add(executor.submit(() -> {
+                chunk.prepare();
+                return chunk;
+            }));
+
+            //bounds the chunks in memory, the reading waits for the workers.
+            while (inflight.size() > threads * 2) {
+                complete(await(inflight.poll()));
+            }
+        }
+
+        private Chunk await(Future<Chunk> future) {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while importing csv into '" + em.getEntityName() + "'", e);
+            } catch (ExecutionException e) {
+                if(e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException)e.getCause();
+                }
+                throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+            }
+        }
+
+        private void complete(Chunk chunk) {
+            chunk.errors.forEach(this::error);
+
+            if(!chunk.records.isEmpty()) {
+                pending.add(chunk);
+                pendingRows += chunk.records.size();
+            }
+
+            if(pendingRows >= transactionSize) {
+                write();
+            }
+        }
+
+        private void write() {
+            if(pending.isEmpty()) {
+                return;
+            }
+
+            try {
+                dao.doTransaction((s) -> {
+                    for(Chunk chunk : pending) {
+                        dao.batchInsert(em, chunk.records);
+                    }
+                }, true);
+                result.imported += pendingRows;
+            }catch (RuntimeException e) {
+                log.warn("Batch insert of {} rows into '{}' failed, insert the rows one by one : {}",
+                         pendingRows, em.getEntityName(), e.getMessage());
+                for(Chunk chunk : pending) {
+                    insertOneByOne(chunk);
+                }
+            }
+
+            pending.clear();
+            pendingRows = 0;
+
+            log.debug("Imported {} of {} rows into '{}', {} rows/s",
+                      result.imported, result.read, em.getEntityName(), result.getRowsPerSecond(sw.getElapsedMilliseconds()));
+        }
+
+        private void insertOneByOne(Chunk chunk) {
+            for(int i=0;i<chunk.records.size();i++) {
+                Map<String, Object> record = chunk.records.get(i);
+                try {
+                    dao.doTransaction((s) -> { dao.insert(em.getEntityName(), record); }, true);
+                    result.imported++;
+                }catch (RuntimeException e) {
+                    Row row = chunk.inserts.get(i);
+                    error(new ErrorRow(row.rownum, row.values, e.getMessage()));
+                }
+            }
+        }
+
+        private void error(ErrorRow row) {
+            result.failed++;
+
+            int kept = maxErrors > 0 ? maxErrors : DEFAULT_KEPT_ERRORS;
+            if(result.errors.size() < kept) {
+                result.errors.add(row);
+            }
+
+            if(null != errorHandler) {
+                errorHandler.accept(row);
+            }
+
+            if(maxErrors > 0 && result.failed > maxErrors) {
+                throw new AbortedException();
+            }
+        }
+
+        private final class Chunk {
+            private final List<Row>                 rows;
+            private final List<Row>                 inserts;
+            private final List<Map<String, Object>> records;
+            private final List<ErrorRow>            errors = new ArrayList<>();
+
+            Chunk(List<Row> rows) {
+                this.rows    = rows;
+                this.inserts = new ArrayList<>(rows.size());
+                this.records = new ArrayList<>(rows.size());
+            }
+
+            void prepare() {
+                for(Row row : rows) {
+                    Map<String, Object> record = new LinkedHashMap<>(columns.length);
+
+                    String message = null;
+                    for(Column column : columns) {
+                        String value = column.index < row.values.length ? row.values[column.index] : null;
+                        try {
+                            record.put(column.field.getFieldName(), column.convert(value));
+                        }catch (RuntimeException e) {
+                            message = "Invalid value '" + value + "' of column '" + column.header + "' : " + e.getMessage();
+                            break;
+                        }
+                    }
+
+                    if(null == message && validate) {
+                        Errors errors = dao.validate(em, record, 0, fields);
+                        if(!errors.isEmpty()) {
+                            message = errors.getMessage();
+                        }
+                    }
+
+                    if(null == message) {
+                        inserts.add(row);
+                        records.add(record);
+                    }else {
+                        errors.add(new ErrorRow(row.rownum, row.values, message));
+                    }
+                }
+            }
+        }
+    }
+
+    protected static final class Column {
+        private final int          index;
+        private final String       header;
+        private final FieldMapping field;
+        private final Class<?>     type;
+        private final Converter    converter;
+
+        Column(int index, String header, FieldMapping field) {
+            this.index     = index;
+            this.header    = header;
+            this.field     = field;
+            this.type      = field.getJavaType();
+            this.converter = resolveConverter(type);
+        }
+
+        /**
+         * Returns the converter of the type, or <code>null</code> if the value must be converted by {@link Converts}.
+         */
+        private static Converter resolveConverter(Class<?> type) {
+            if(String.class.equals(type) || type.isPrimitive() || type.isEnum()) {
+                return null;
+            }
+            return Converts.getConverter(type);
+        }
+
+        Object convert(String value) {
+            if(String.class.equals(type)) {
+                return value;
+            }
+            if(Strings.isEmpty(value)) {
+                return null;
+            }
+            if(null != converter) {
+                String      s   = value.trim();
+                Out<Object> out = new Out<>();
+                try {
+                    if(!s.isEmpty() && converter.convertFrom(s, type, null, out, null)) {
+                        return out.getValue();
+                    }
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new ConvertException("Error converting '" + value + "' to '" + type.getName() + "'", e);
+                }
+            }
+            return Converts.convert(value, type);
+        }
+    }
+
+    protected static final class Row {
+        private final long     rownum;
+        private final String[] values;
+
+        Row(long rownum, String[] values) {
+            this.rownum = rownum;
+            this.values = values;
+        }
+    }
+
+    protected static final class AbortedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * A row of csv which could not be imported.
+     */
+    public static final class ErrorRow {
+
+        private final long     rownum;
+        private final String[] values;
+        private final String   message;
+
+        ErrorRow(long rownum, String[] values, String message) {
+            this.rownum  = rownum;
+            this.values  = values;
+            this.message = message;
+        }
+
+        /**
+         * Returns the row number in csv, the header is row 1.
+         */
+        public long getRownum() {
+            return rownum;
+        }
+
+        /**
+         * Returns the values of the row.
+         */
+        public String[] getValues() {
+            return values;
+        }
+
+        /**
+         * Returns the error message.
+         */
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "ErrorRow{rownum=" + rownum + ", message=" + message + "}";
+        }
+    }
+
+    /**
+     * The result of an import.
+     */
+    public static final class Result {
+
+        private final String         entityName;
+        private final List<ErrorRow> errors = new ArrayList<>();
+
+        private long    read;
+        private long    imported;
+        private long    failed;
+        private long    duration;
+        private boolean completed;
+
+        Result(String entityName) {
+            this.entityName = entityName;
+        }
+
+        /**
+         * Returns the name of imported entity.
+         */
+        public String getEntityName() {
+            return entityName;
+        }
+
+        /**
+         * Returns the number of rows read from csv, excludes the header.
+         */
+        public long getRead() {
+            return read;
+        }
+
+        /**
+         * Returns the number of imported rows.
+         */
+        public long getImported() {
+            return imported;
+        }
+
+        /**
+         * Returns the number of error rows.
+         */
+        public long getFailed() {
+            return failed;
+        }
+
+        /**
+         * Returns the reported error rows, at most max errors (or 100 if max errors is not limited) are kept.
+         */
+        public List<ErrorRow> getErrors() {
+            return Collections.unmodifiableList(errors);
+        }
+
+        /**
+         * Returns the duration in milliseconds.
+         */
+        public long getDuration() {
+            return duration;
+        }
+
+        /**
+         * Returns <code>true</code> if all the rows of csv was processed,
+         * returns <code>false</code> if the import was stopped by the max errors.
+         */
+        public boolean isCompleted() {
+            return completed;
+        }
+
+        /**
+         * Returns the imported rows per second.
+         */
+        public long getRowsPerSecond() {
+            return getRowsPerSecond(duration);
+        }
+
+        long getRowsPerSecond(long duration) {
+            return duration <= 0 ? imported : imported * 1000L / duration;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{entity=" + entityName + ", read=" + read + ", imported=" + imported + ", failed=" + failed +
+                    ", duration=" + duration + "ms, completed=" + completed + "}";
+        }
+    }
+}
@@ -0,0 +1,582 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package leap.orm.cache;
+
+import leap.core.annotation.ConfigProperty;
+import leap.core.annotation.Configurable;
+import leap.core.annotation.Inject;
+import leap.core.transaction.TransactionManager;
+import leap.core.transaction.TransactionProvider;
+import leap.core.value.Record;
+import leap.core.value.SimpleRecord;
+import leap.lang.Disposable;
+import leap.lang.Strings;
+import leap.lang.Try;
+import leap.lang.accessor.Getter;
+import leap.lang.beans.BeanType;
+import leap.lang.collection.SimpleLRUMap;
+import leap.lang.convert.Converts;
+import leap.lang.logging.Log;
+import leap.lang.logging.LogFactory;
+import leap.lang.params.Params;
+import leap.lang.reflect.Reflection;
+import leap.orm.OrmContext;
+import leap.orm.change.ChangeListener;
+import leap.orm.change.ChangeManager;
+import leap.orm.change.ChangeObserver;
+import leap.orm.dao.Dao;
+import leap.orm.mapping.EntityMapping;
+import leap.orm.mapping.FieldMapping;
+import leap.orm.mapping.Mappings;
+import leap.orm.model.Model;
+import leap.orm.value.Entity;
+import leap.orm.value.EntityBase;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The default {@link EntityCache}, caches the records of each entity in a LRU map with expiration.
+ *
+ * <p/>
+ * The records changed by other nodes are evicted by expiration, or by observing the changes
+ * if {@link EntityCacheSettings#getChangeField()} is configured.
+ *
+ * <p/>
+ * The cache is bypassed in an active transaction, and the records changed in a transaction are evicted again
+ * after the transaction completed, so the uncommitted or stale records will not be cached.
+ */
+@Configurable(prefix = "orm.cache")
+@SuppressWarnings("unchecked")
+public class DefaultEntityCache implements EntityCache, Disposable {
+
+    private static final Log log = LogFactory.get(DefaultEntityCache.class);
+
+    protected @Inject ChangeManager      changeManager;
+    protected @Inject TransactionManager transactionManager;
+
+    protected boolean     enabled        = true;
+    protected int         defaultMaxSize = 1000;
+    protected int         defaultExpires = 300;
+    protected Set<String> entities       = Collections.emptySet();
+
+    private final Map<OrmContext, Map<String, Region>> contexts = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Returns <code>true</code> if the cache is enabled.
+     *
+     * <p/>
+     * Default is <code>true</code>.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @ConfigProperty
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the default max cached records of an entity.
+     *
+     * <p/>
+     * Default is 1000.
+     */
+    public int getDefaultMaxSize() {
+        return defaultMaxSize;
+    }
+
+    @ConfigProperty
+    public void setDefaultMaxSize(int defaultMaxSize) {
+        this.defaultMaxSize = defaultMaxSize;
+    }
+
+    /**
+     * Returns the default expiration seconds of cached record, zero or negative means never expires.
+     *
+     * <p/>
+     * Default is 300 seconds, it limits how long a record changed by other nodes can be stale.
+     */
+    public int getDefaultExpires() {
+        return defaultExpires;
+    }
+
+    @ConfigProperty
+    public void setDefaultExpires(int defaultExpires) {
+        this.defaultExpires = defaultExpires;
+    }
+
+    /**
+     * Returns the names of entities which are cached with the default settings, in addition to the configured entities.
+     */
+    public Set<String> getEntities() {
+        return entities;
+    }
+
+    @ConfigProperty
+    public void setEntities(String[] names) {
+        Set<String> set = new HashSet<>();
+        for(String name : names) {
+            if(!Strings.isEmpty(name)) {
+                set.add(name.trim().toLowerCase());
+            }
+        }
+        this.entities = set;
+    }
+
+    @Override
+    public boolean isCacheable(OrmContext context, EntityMapping em) {
+        if(!enabled || em.getKeyFieldNames().length == 0) {
+            return false;
+        }
+        return null != EntityCacheSettings.of(em) || entities.contains(em.getEntityName().toLowerCase());
+    }
+
+    @Override
+    public long getVersion(OrmContext context, EntityMapping em) {
+        Region region = getRegion(context, em);
+        return null == region ? 0 : region.version;
+    }
+
+    @Override
+    public <T> T get(OrmContext context, EntityMapping em, Class<T> resultClass, Object id) {
+        Region region = getRegion(context, em);
+        if(null == region || isTransactionActive(context)) {
+            return null;
+        }
+
+        Object key = getKey(context, em, id);
+        if(null == key) {
+            return null;
+        }
+
+        Map<String, Object> values = null;
+        synchronized (region) {
+            Item item = region.items.get(key);
+            if(null != item) {
+                if(item.isExpired()) {
+                    region.items.remove(key);
+                }else{
+                    values = item.values.get(resultClass);
+                }
+            }
+        }
+
+        if(null == values) {
+            region.misses.increment();
+            return null;
+        }
+
+        region.hits.increment();
+        return restore(context, em, resultClass, values);
+    }
+
+    @Override
+    public Object put(OrmContext context, EntityMapping em, Class<?> resultClass, Object record, long version) {
+        Region region = getRegion(context, em);
+        if(null == region || null == record || !isRestorable(resultClass)) {
+            return null;
+        }
+
+        Object key = getKey(context, em, getId(em, record));
+        if(null == key) {
+            return null;
+        }
+
+        if(isTransactionActive(context)) {
+            log.trace("Transaction is active, skip caching '{}' of entity '{}'", key, em.getEntityName());
+            return key;
+        }
+
+        Map<String, Object> values = snapshot(record);
+        synchronized (region) {
+            if(region.version != version) {
+                log.trace("Entity '{}' has been changed while loading, skip caching '{}'", em.getEntityName(), key);
+                return key;
+            }
+
+            Item item = region.items.get(key);
+            if(null == item || item.isExpired()) {
+                item = new Item(region.expires);
+                region.items.put(key, item);
+            }
+            item.values.put(resultClass, values);
+        }
+
+        region.puts.increment();
+        return key;
+    }
+
+    @Override
+    public Object getKey(OrmContext context, EntityMapping em, Object id) {
+        FieldMapping[] keys = em.getKeyFieldMappings();
+        if(null == id || keys.length == 0) {
+            return null;
+        }
+
+        try {
+            Params params = context.getParameterStrategy().createIdParameters(context, em, id);
+
+            List<Object> key = new ArrayList<>(keys.length);
+            for(int i=0;i<keys.length;i++) {
+                Object value = params.isIndexed() ? params.get(i) : params.get(keys[i].getFieldName());
+                if(null == value) {
+                    return null;
+                }
+                key.add(null == keys[i].getJavaType() ? value : Converts.convert(value, keys[i].getJavaType()));
+            }
+
+            return keys.length == 1 ? key.get(0) : key;
+        }catch (RuntimeException e) {
+            log.debug("Invalid id '{}' of entity '{}' : {}", id, em.getEntityName(), e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void evict(OrmContext context, EntityMapping em, Object id) {
+        Region region = getRegion(context, em);
+        if(null == region) {
+            return;
+        }
+
+        Object key = getKey(context, em, id);
+        evict(region, key);
+        evictAfterCompletion(context, () -> evict(region, key));
+    }
+
+    @Override
+    public void evictAll(OrmContext context, EntityMapping em) {
+        Region region = getRegion(context, em);
+        if(null == region) {
+            return;
+        }
+
+        log.debug("Evict all the cached records of entity '{}'", em.getEntityName());
+        evict(region, null);
+        evictAfterCompletion(context, () -> evict(region, null));
+    }
+
+    @Override
+    public void clear(OrmContext context) {
+        Map<String, Region> regions = contexts.remove(context);
+        if(null != regions) {
+            regions.values().forEach(Region::close);
+        }
+    }
+
+    @Override
+    public EntityCacheStats getStats(OrmContext context, EntityMapping em) {
+        Region region = getRegion(context, em);
+        return null == region ? null : region.stats();
+    }
+
+    @Override
+    public List<EntityCacheStats> getStats(OrmContext context) {
+        List<EntityCacheStats> list = new ArrayList<>();
+
+        Map<String, Region> regions = contexts.get(context);
+        if(null != regions) {
+            regions.values().forEach(region -> list.add(region.stats()));
+        }
+
+        return list;
+    }
+
+    @Override
+    public void dispose() throws Throwable {
+        List<Map<String, Region>> all;
+        synchronized (contexts) {
+            all = new ArrayList<>(contexts.values());
+            contexts.clear();
+        }
+        all.forEach(regions -> regions.values().forEach(Region::close));
+    }
+
+    protected void evict(Region region, Object key) {
+        synchronized (region) {
+            region.version++;
+            if(null == key) {
+                region.items.clear();
+            }else{
+                region.items.remove(key);
+            }
+        }
+        region.evictions.increment();
+    }
+
+    /**
+     * Evicts again after the active transaction completed, the record may be loaded and cached by other
+     * transactions with the old values before the changes committed.
+     */
+    protected void evictAfterCompletion(OrmContext context, Runnable eviction) {
+        TransactionProvider tp = getTransactionProvider(context);
+        if(null != tp && tp.isTransactionActive()) {
+            tp.registerSynchronization(committed -> eviction.run());
+        }
+    }
+
+    protected boolean isTransactionActive(OrmContext context) {
+        TransactionProvider tp = getTransactionProvider(context);
+        return null != tp && tp.isTransactionActive();
+    }
+
+    protected TransactionProvider getTransactionProvider(OrmContext context) {
+        return null == transactionManager || null == context.getDataSource() ?
+                null : transactionManager.getProvider(context.getDataSource());
+    }
+
+    protected Region getRegion(OrmContext context, EntityMapping em) {
+        if(!isCacheable(context, em)) {
+            return null;
+        }
+
+        Map<String, Region> regions;
+        synchronized (contexts) {
+            regions = contexts.computeIfAbsent(context, c -> new ConcurrentHashMap<>());
+        }
+
+        Region region = regions.get(em.getEntityName());
+        if(null == region) {
+            synchronized (regions) {
+                region = regions.get(em.getEntityName());
+                if(null == region) {
+                    region = createRegion(context, em);
+                    regions.put(em.getEntityName(), region);
+                }
+            }
+        }
+        return region;
+    }
+
+    protected Region createRegion(OrmContext context, EntityMapping em) {
+        EntityCacheSettings settings = EntityCacheSettings.of(em);
+
+        int maxSize = null == settings || settings.getMaxSize() <= 0 ? defaultMaxSize : settings.getMaxSize();
+        int expires = null == settings || settings.getExpires() == 0 ? defaultExpires : settings.getExpires();
+
+        Region region = new Region(em.getEntityName(), maxSize, expires > 0 ? TimeUnit.SECONDS.toMillis(expires) : 0);
+
+        if(null != settings && !Strings.isEmpty(settings.getChangeField())) {
+            region.observer = observeChanges(context, em, settings);
+        }
+
+        log.debug("Create cache of entity '{}', maxSize={}, expires={}s", em.getEntityName(), maxSize, expires);
+        return region;
+    }
+
+    protected ChangeObserver observeChanges(OrmContext context, EntityMapping em, EntityCacheSettings settings) {
+        if(null == em.getEntityClass()) {
+            log.warn("Can't observe the changes of entity '{}' without entity class", em.getEntityName());
+            return null;
+        }
+
+        ChangeObserver observer =
+                changeManager.createEntityChangeObserver(context.getDao(), em.getEntityClass(), settings.getChangeField())
+                             .setListener(new Evictor(em));
+
+        if(settings.getChangePeriod() > 0) {
+            observer.setPeriod(TimeUnit.SECONDS, settings.getChangePeriod());
+        }
+
+        log.info("Observing the changes of entity '{}' by field '{}' for evicting cache", em.getEntityName(), settings.getChangeField());
+        observer.start();
+        return observer;
+    }
+
+    protected Object getId(EntityMapping em, Object record) {
+        if(record instanceof Map) {
+            return Mappings.getId(em, (Map<String, Object>)record);
+        }
+        if(record instanceof Getter) {
+            return Mappings.getId(em, (Getter)record);
+        }
+        return Mappings.getId(em, record);
+    }
+
+    protected boolean isRestorable(Class<?> resultClass) {
+        if(Record.class.equals(resultClass) || Map.class.equals(resultClass) ||
+                Entity.class.equals(resultClass) || EntityBase.class.equals(resultClass)) {
+            return true;
+        }
+        return !resultClass.isInterface() && !Modifier.isAbstract(resultClass.getModifiers());
+    }
+
+    protected Map<String, Object> snapshot(Object record) {
+        if(record instanceof Map) {
+            return copyValues((Map<String, Object>)record);
+        }
+        if(record instanceof Model) {
+            return copyValues(((Model)record).fields());
+        }
+        return copyValues(BeanType.of(record.getClass()).toMap(record));
+    }
+
+    protected Map<String, Object> copyValues(Map<String, Object> values) {
+        Map<String, Object> copy = new LinkedHashMap<>(values.size());
+        values.forEach((name, value) -> copy.put(name, copy(value)));
+        return copy;
+    }
+
+    /**
+     * Returns a deep copy of the mutable value, so the cached values are not shared with the records.
+     */
+    protected Object copy(Object value) {
+        if(null == value) {
+            return null;
+        }
+
+        if(value instanceof Date) {
+            return ((Date)value).clone();
+        }
+
+        if(value instanceof Map) {
+            Map<Object, Object> map = value instanceof Record ? (Map)new SimpleRecord() : new LinkedHashMap<>();
+            ((Map<Object, Object>)value).forEach((k, v) -> map.put(k, copy(v)));
+            return map;
+        }
+
+        if(value instanceof Collection) {
+            Collection<Object> c = value instanceof Set ? new LinkedHashSet<>() : new ArrayList<>();
+            for(Object item : (Collection<Object>)value) {
+                c.add(copy(item));
+            }
+            return c;
+        }
+
+        if(value.getClass().isArray()) {
+            int    length = Array.getLength(value);
+            Object array  = Array.newInstance(value.getClass().getComponentType(), length);
+            for(int i=0;i<length;i++) {
+                Array.set(array, i, copy(Array.get(value, i)));
+            }
+            return array;
+        }
+
+        return value;
+    }
+
+    protected <T> T restore(OrmContext context, EntityMapping em, Class<T> resultClass, Map<String, Object> cached) {
+        Map<String, Object> values = copyValues(cached);
+
+        if(Record.class.equals(resultClass)) {
+            Record record = new SimpleRecord();
+            record.putAll(values);
+            return (T)record;
+        }
+
+        if(Model.class.isAssignableFrom(resultClass)) {
+            Model model = (Model)Reflection.newInstance(resultClass);
+            model.init(context, em);
+            values.forEach((name, value) -> model.set(name, value));
+            return (T)model;
+        }
+
+        if(Map.class.equals(resultClass)) {
+            return (T)values;
+        }
+
+        if(Entity.class.equals(resultClass) || EntityBase.class.equals(resultClass)) {
+            Entity entity = new Entity(em.getEntityName());
+            entity.putAll(values);
+            return (T)entity;
+        }
+
+        BeanType bt   = BeanType.of(resultClass);
+        T        bean = bt.newInstance();
+        values.forEach((name, value) -> bt.trySetProperty(bean, name, value));
+        return bean;
+    }
+
+    protected final class Evictor implements ChangeListener<Object> {
+        private final EntityMapping em;
+
+        Evictor(EntityMapping em) {
+            this.em = em;
+        }
+
+        @Override
+        public void onEntityChanged(Dao dao, Object entity) {
+            OrmContext context = dao.getOrmContext();
+            Object     id      = getId(em, entity);
+
+            log.debug("Entity '{}' changed by other node, evict '{}'", em.getEntityName(), id);
+            evict(context, em, id);
+        }
+    }
+
+    protected static final class Region {
+        private final String                     entityName;
+        private final int                        maxSize;
+        private final long                       expires;
+        private final SimpleLRUMap<Object, Item> items;
+        private final LongAdder                  hits      = new LongAdder();
+        private final LongAdder                  misses    = new LongAdder();
+        private final LongAdder                  puts      = new LongAdder();
+        private final LongAdder                  evictions = new LongAdder();
+
+        private volatile long  version;
+        private ChangeObserver observer;
+
+        Region(String entityName, int maxSize, long expires) {
+            this.entityName = entityName;
+            this.maxSize    = maxSize;
+            this.expires    = expires;
+            this.items      = new SimpleLRUMap<>(maxSize, 16, 0.75f, true);
+        }
+
+        synchronized EntityCacheStats stats() {
+            return new EntityCacheStats(entityName, items.size(), maxSize,
+                                        hits.sum(), misses.sum(), puts.sum(), evictions.sum());
+        }
+
+        void close() {
+            if(null != observer) {
+                Try.catchAll(observer::stop);
+                observer = null;
+            }
+        }
+    }
+
+    protected static final class Item {
+        private final long                               expiresAt;
+        private final Map<Class<?>, Map<String, Object>> values = new ConcurrentHashMap<>(2);
+
+        Item(long expires) {
+            this.expiresAt = expires > 0 ? System.currentTimeMillis() + expires : 0;
+        }
+
+        boolean isExpired() {
+            return expiresAt > 0 && System.currentTimeMillis() > expiresAt;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package leap.orm.cache;
+
+import leap.orm.OrmContext;
+import leap.orm.mapping.EntityMapping;
+
+import java.util.List;
+
+/**
+ * The second-level cache of the entities loaded by primary key.
+ *
+ * <p/>
+ * Only the entities configured by {@link EntityCacheSettings} are cached, the records of different
+ * {@link OrmContext} are cached separately.
+ *
+ * <p/>
+ * The cached records are deep copied when put and get, so changing a returned record or its values does not affect the cache.
+ */
+public interface EntityCache {
+
+    /**
+     * Returns <code>true</code> if the records of the entity are cached in the context.
+     */
+    boolean isCacheable(OrmContext context, EntityMapping em);
+
+    /**
+     * Returns the current version of the entity's cache, the version changes after each eviction.
+     *
+     * <p/>
+     * The version must be taken before loading the records and passed to {@link #put(OrmContext, EntityMapping, Class, Object, long)}.
+     */
+    long getVersion(OrmContext context, EntityMapping em);
+
+    /**
+     * Returns a copy of the cached record of the given id as the given result class.
+     *
+     * <p/>
+     * Returns <code>null</code> if not cached or a transaction is active.
+     */
+    <T> T get(OrmContext context, EntityMapping em, Class<T> resultClass, Object id);
+
+    /**
+     * Puts a copy of the record loaded as the given result class to the cache.
+     *
+     * <p/>
+     * The record will not be cached if the entity's cache has been evicted after the given version or a transaction is active.
+     *
+     * @return the id of the record, or <code>null</code> if the record cannot be cached.
+     */
+    Object put(OrmContext context, EntityMapping em, Class<?> resultClass, Object record, long version);
+
+    /**
+     * Returns the key of the id used by the cache, the ids with the same key are the same record.
+     *
+     * <p/>
+     * Returns <code>null</code> if the id is not valid for the entity.
+     */
+    Object getKey(OrmContext context, EntityMapping em, Object id);
+
+    /**
+     * Evicts the cached record of the given id.
+     *
+     * <p/>
+     * If a transaction is active, the record will be evicted again after the transaction completed.
+     */
+    void evict(OrmContext context, EntityMapping em, Object id);
+
+    /**
+     * Evicts all the cached records of the entity, and again after the active transaction completed.
+     */
+    void evictAll(OrmContext context, EntityMapping em);
+
+    /**
+     * Evicts all the cached records of the context and stops observing the changes, should be invoked
+     * when the context will not be used any more.
+     */
+    void clear(OrmContext context);
+
+    /**
+     * Returns the metrics of the entity or <code>null</code> if the entity is not cached.
+     */
+    EntityCacheStats getStats(OrmContext context, EntityMapping em);
+
+    /**
+     * Returns the metrics of all the cached entities in the context.
+     */
+    List<EntityCacheStats> getStats(OrmContext context);
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package leap.orm.cache;
+
+import leap.orm.annotation.Cacheable;
+import leap.orm.mapping.EntityMapping;
+
+/**
+ * The cache settings of an entity, stored as an extension of {@link EntityMapping}.
+ *
+ * <p/>
+ * Configured by the {@link Cacheable} annotation or by setting the extension to the entity mapping builder.
+ */
+public class EntityCacheSettings {
+
+    /**
+     * Returns the cache settings of the entity or <code>null</code> if the entity is not cacheable.
+     */
+    public static EntityCacheSettings of(EntityMapping em) {
+        return em.getExtension(EntityCacheSettings.class);
+    }
+
+    protected final int    maxSize;
+    protected final int    expires;
+    protected final String changeField;
+    protected final int    changePeriod;
+
+    public EntityCacheSettings(Cacheable a) {
+        this(a.maxSize(), a.expires(), a.changeField(), a.changePeriod());
+    }
+
+    public EntityCacheSettings(int maxSize, int expires) {
+        this(maxSize, expires, null, 0);
+    }
+
+    public EntityCacheSettings(int maxSize, int expires, String changeField, int changePeriod) {
+        this.maxSize      = maxSize;
+        this.expires      = expires;
+        this.changeField  = changeField;
+        this.changePeriod = changePeriod;
+    }
+
+    /**
+     * Returns the max cached records, zero or negative means the default value.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the expiration seconds, zero means the default value, negative means never expires.
+     */
+    public int getExpires() {
+        return expires;
+    }
+
+    /**
+     * Returns the field for observing the changes of other nodes, may be <code>null</code> or empty.
+     */
+    public String getChangeField() {
+        return changeField;
+    }
+
+    /**
+     * Returns the seconds between two polls of the changes, zero means the default value.
+     */
+    public int getChangePeriod() {
+        return changePeriod;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package leap.orm.cache;
+
+/**
+ * A snapshot of the metrics of an entity in {@link EntityCache}.
+ */
+public class EntityCacheStats {
+
+    private final String entityName;
+    private final int    size;
+    private final int    maxSize;
+    private final long   hits;
+    private final long   misses;
+    private final long   puts;
+    private final long   evictions;
+
+    public EntityCacheStats(String entityName, int size, int maxSize, long hits, long misses, long puts, long evictions) {
+        this.entityName = entityName;
+        this.size = size;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.puts = puts;
+        this.evictions = evictions;
+    }
+
+    /**
+     * Returns the name of entity.
+     */
+    public String getEntityName() {
+        return entityName;
+    }
+
+    /**
+     * Returns the number of cached records.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the max number of cached records.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the number of finds served by the cache.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of finds loaded from database.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of records put to the cache.
+     */
+    public long getPuts() {
+        return puts;
+    }
+
+    /**
+     * Returns the number of invalidations caused by the changes.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the ratio of hits in all the finds, zero if no finds.
+     */
+    public double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0d : (double)hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "EntityCacheStats{entity=" + entityName + ", size=" + size + ", maxSize=" + maxSize +
+                ", hits=" + hits + ", misses=" + misses + ", puts=" + puts + ", evictions=" + evictions + "}";
+    }
+}
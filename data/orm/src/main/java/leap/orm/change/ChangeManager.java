@@ -17,6 +17,8 @@ package leap.orm.change;
 
 import leap.orm.dao.Dao;
 
+import java.util.List;
+
 public interface ChangeManager {
 
     /**
@@ -27,4 +29,9 @@ public interface ChangeManager {
      */
     <T> ChangeObserver createEntityChangeObserver(Dao dao, Class<T> entityClass, String field);
 
+    /**
+     * Returns the polling metrics of all the started observers.
+     */
+    List<ChangeObserverStats> getStats();
+
 }
\ No newline at end of file
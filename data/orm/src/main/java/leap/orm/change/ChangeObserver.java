@@ -32,7 +32,18 @@ public interface ChangeObserver {
     ChangeObserver setPeriod(TimeUnit timeUnit, int period);
 
     /**
-     * Limits the max changes loaded by observer.  The default is 100.
+     * The max period of backing off when no changes found, the default is the max idle period of {@link ChangeManager}.
+     *
+     * <p/>
+     * Sets to the same value of {@link #setPeriod(TimeUnit, int)} disables backing off.
+     */
+    ChangeObserver setMaxPeriod(TimeUnit timeUnit, int maxPeriod);
+
+    /**
+     * Limits the max changes loaded by one query.  The default is 100.
+     *
+     * <p/>
+     * The next page of changes will be loaded immediately if a query returns the max changes.
      */
     ChangeObserver limit(int maxChanges);
 
@@ -48,4 +59,9 @@ public interface ChangeObserver {
      */
     void stop();
 
+    /**
+     * Returns the polling metrics.
+     */
+    ChangeObserverStats getStats();
+
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.orm.change;
+
+/**
+ * A snapshot of the polling metrics of a {@link ChangeObserver}.
+ */
+public class ChangeObserverStats {
+
+    private final String entityName;
+    private final String field;
+    private final long   period;
+    private final long   currentPeriod;
+    private final long   polls;
+    private final long   emptyPolls;
+    private final long   changes;
+    private final long   pending;
+    private final long   lastPollAt;
+    private final long   lastChangeAt;
+    private final long   lag;
+
+    public ChangeObserverStats(String entityName, String field, long period, long currentPeriod,
+                               long polls, long emptyPolls, long changes, long pending,
+                               long lastPollAt, long lastChangeAt, long lag) {
+        this.entityName = entityName;
+        this.field = field;
+        this.period = period;
+        this.currentPeriod = currentPeriod;
+        this.polls = polls;
+        this.emptyPolls = emptyPolls;
+        this.changes = changes;
+        this.pending = pending;
+        this.lastPollAt = lastPollAt;
+        this.lastChangeAt = lastChangeAt;
+        this.lag = lag;
+    }
+
+    /**
+     * Returns the name of observed entity.
+     */
+    public String getEntityName() {
+        return entityName;
+    }
+
+    /**
+     * Returns the name of observed field.
+     */
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * Returns the configured period in milliseconds.
+     */
+    public long getPeriod() {
+        return period;
+    }
+
+    /**
+     * Returns the current period in milliseconds, greater than the configured period if backing off when idle.
+     */
+    public long getCurrentPeriod() {
+        return currentPeriod;
+    }
+
+    /**
+     * Returns the number of executed change queries.
+     */
+    public long getPolls() {
+        return polls;
+    }
+
+    /**
+     * Returns the number of polls which no changes found, include the polls skipped by the batched check.
+     */
+    public long getEmptyPolls() {
+        return emptyPolls;
+    }
+
+    /**
+     * Returns the number of notified changes.
+     */
+    public long getChanges() {
+        return changes;
+    }
+
+    /**
+     * Returns the number of changes not notified yet found by the last batched check, -1 if unknown.
+     */
+    public long getPending() {
+        return pending;
+    }
+
+    /**
+     * Returns the time in milliseconds of the last poll, zero if never polled.
+     */
+    public long getLastPollAt() {
+        return lastPollAt;
+    }
+
+    /**
+     * Returns the time in milliseconds of the last notified change, zero if no changes.
+     */
+    public long getLastChangeAt() {
+        return lastChangeAt;
+    }
+
+    /**
+     * Returns the milliseconds between the last change was made and notified, -1 if unknown.
+     *
+     * <p/>
+     * Only available for the TIMESTAMP field.
+     */
+    public long getLag() {
+        return lag;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeObserverStats{entity=" + entityName + ", field=" + field + ", currentPeriod=" + currentPeriod +
+                "ms, polls=" + polls + ", emptyPolls=" + emptyPolls + ", changes=" + changes +
+                ", pending=" + pending + ", lag=" + lag + "ms}";
+    }
+}
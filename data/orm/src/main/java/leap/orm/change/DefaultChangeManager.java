@@ -16,15 +16,23 @@
 package leap.orm.change;
 
 import leap.core.BeanFactory;
+import leap.core.annotation.ConfigProperty;
+import leap.core.annotation.Configurable;
 import leap.core.ioc.PostCreateBean;
 import leap.core.schedule.Scheduler;
 import leap.core.schedule.SchedulerManager;
+import leap.core.value.Record;
+import leap.db.DbDialect;
 import leap.lang.Disposable;
+import leap.lang.Strings;
 import leap.lang.Try;
+import leap.lang.collection.WrappedCaseInsensitiveMap;
+import leap.lang.convert.Converts;
 import leap.lang.logging.Log;
 import leap.lang.logging.LogContext;
 import leap.lang.logging.LogFactory;
 import leap.lang.logging.LogLevel;
+import leap.orm.OrmContext;
 import leap.orm.dao.Dao;
 import leap.orm.mapping.EntityMapping;
 import leap.orm.mapping.FieldMapping;
@@ -33,22 +41,117 @@ import leap.orm.value.EntityWrapper;
 
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * The default {@link ChangeManager}, polls the changes of all the observers of a datasource by one scheduled task.
+ *
+ * <p/>
+ * Each observer is polled at it's own period, the period backs off when no changes found and the next page
+ * is loaded immediately when a query returns the max changes. The observers due at the same time are checked
+ * by one batched count query first, only the observers with changes execute the changes query.
+ */
+@Configurable(prefix = "orm.change")
 public class DefaultChangeManager implements ChangeManager, PostCreateBean, Disposable {
 
     private static final Log log = LogFactory.get(DefaultChangeManager.class);
 
+    protected int     tick            = 100;
+    protected int     maxIdlePeriod   = 10 * 1000;
+    protected int     maxPagesPerPoll = 10;
+    protected boolean batchCheck      = true;
+    protected int     threads         = 1;
+
     protected Scheduler scheduler;
-    protected final Set<ChangeObserver> startedObservers = new CopyOnWriteArraySet<>();
+    protected final Set<ChangeObserver>        startedObservers = new CopyOnWriteArraySet<>();
+    protected final Map<OrmContext, PollGroup> groups           = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the interval in milliseconds of checking the due observers.
+     *
+     * <p/>
+     * Default is 100ms.
+     */
+    public int getTick() {
+        return tick;
+    }
+
+    @ConfigProperty
+    public void setTick(int tick) {
+        this.tick = tick;
+    }
+
+    /**
+     * Returns the default max period in milliseconds of backing off when no changes found.
+     *
+     * <p/>
+     * Default is 10 seconds.
+     */
+    public int getMaxIdlePeriod() {
+        return maxIdlePeriod;
+    }
+
+    @ConfigProperty
+    public void setMaxIdlePeriod(int maxIdlePeriod) {
+        this.maxIdlePeriod = maxIdlePeriod;
+    }
+
+    /**
+     * Returns the max pages of changes loaded continuously by an observer in one poll.
+     *
+     * <p/>
+     * Default is 10.
+     */
+    public int getMaxPagesPerPoll() {
+        return maxPagesPerPoll;
+    }
+
+    @ConfigProperty
+    public void setMaxPagesPerPoll(int maxPagesPerPoll) {
+        this.maxPagesPerPoll = maxPagesPerPoll;
+    }
+
+    /**
+     * Returns <code>true</code> if the observers due at the same time are checked by one batched query.
+     *
+     * <p/>
+     * Default is <code>true</code>.
+     */
+    public boolean isBatchCheck() {
+        return batchCheck;
+    }
+
+    @ConfigProperty
+    public void setBatchCheck(boolean batchCheck) {
+        this.batchCheck = batchCheck;
+    }
+
+    /**
+     * Returns the number of polling threads.
+     *
+     * <p/>
+     * Default is 1.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    @ConfigProperty
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
 
     @Override
     public void postCreate(BeanFactory factory) throws Throwable {
-        scheduler = factory.getBean(SchedulerManager.class).newFixedThreadPoolScheduler("change-manager");
+        scheduler = factory.getBean(SchedulerManager.class).newFixedThreadPoolScheduler("change-manager", threads);
     }
 
     @Override
@@ -65,30 +168,188 @@ public class DefaultChangeManager implements ChangeManager, PostCreateBean, Disp
 
     }
 
+    @Override
+    public List<ChangeObserverStats> getStats() {
+        List<ChangeObserverStats> list = new ArrayList<>();
+        startedObservers.forEach(o -> list.add(o.getStats()));
+        return list;
+    }
+
     @Override
     public void dispose() throws Throwable {
         startedObservers.forEach(ChangeObserver::stop);
     }
 
-    protected class ChangeObserverImpl implements ChangeObserver, Runnable {
+    protected void addObserver(ChangeObserverImpl observer) {
+        synchronized (groups) {
+            PollGroup group = groups.get(observer.context);
+            if(null == group) {
+                group = createPollGroup(observer.context);
+                group.observers.add(observer);
+                group.scheduled = scheduler.scheduleAtFixedRate(group, tick, TimeUnit.MILLISECONDS);
+                groups.put(observer.context, group);
+            }else{
+                group.observers.add(observer);
+            }
+        }
+        startedObservers.add(observer);
+    }
+
+    protected void removeObserver(ChangeObserverImpl observer) {
+        startedObservers.remove(observer);
+        synchronized (groups) {
+            PollGroup group = groups.get(observer.context);
+            if(null != group && group.observers.remove(observer) && group.observers.isEmpty()) {
+                groups.remove(observer.context);
+                Try.catchAll(() -> group.scheduled.cancel(false));
+            }
+        }
+    }
+
+    protected PollGroup createPollGroup(OrmContext context) {
+        return new PollGroup(context);
+    }
+
+    /**
+     * The observers of a datasource, polled by one scheduled task.
+     */
+    protected class PollGroup implements Runnable {
+
+        protected final OrmContext                   context;
+        protected final Set<ChangeObserverImpl> observers = new CopyOnWriteArraySet<>();
+
+        protected ScheduledFuture scheduled;
+        protected boolean         batchCheckSupported = true;
+
+        public PollGroup(OrmContext context) {
+            this.context = context;
+        }
+
+        @Override
+        public void run() {
+            try {
+                long now = System.currentTimeMillis();
+
+                List<ChangeObserverImpl> due = new ArrayList<>();
+                for(ChangeObserverImpl observer : observers) {
+                    if(observer.nextPollAt <= now) {
+                        due.add(observer);
+                    }
+                }
+
+                if(due.isEmpty()) {
+                    return;
+                }
+
+                Map<ChangeObserverImpl, Long> counts = batchCheck ? check(due) : null;
+
+                for(ChangeObserverImpl observer : due) {
+                    Long count = null == counts ? null : counts.get(observer);
+                    if(null != count && count == 0) {
+                        observer.idle(now);
+                    }else{
+                        observer.poll(count);
+                    }
+                }
+            }catch (Throwable e) {
+                //the task will be cancelled if throws exception.
+                log.error("Error polling changes of datasource '{}' : {}", context.getName(), e.getMessage(), e);
+            }
+        }
+
+        /*
+
+         select 0 ix, count(*) cnt from t1 where f1 > :v0 union all select 1 ix, count(*) cnt from t2 where f2 > :v1 ...
+
+         */
+        protected Map<ChangeObserverImpl, Long> check(List<ChangeObserverImpl> due) {
+            if(!batchCheckSupported) {
+                return null;
+            }
+
+            List<ChangeObserverImpl> checks = new ArrayList<>();
+            for(ChangeObserverImpl observer : due) {
+                if(observer.isBatchCheckable()) {
+                    checks.add(observer);
+                }
+            }
+
+            if(checks.size() < 2) {
+                return null;
+            }
+
+            DbDialect           dialect = context.getDb().getDialect();
+            StringBuilder       sql     = new StringBuilder();
+            Map<String, Object> params  = new HashMap<>();
+
+            for(int i=0;i<checks.size();i++) {
+                ChangeObserverImpl observer = checks.get(i);
+                if(i > 0) {
+                    sql.append(" union all ");
+                }
+                sql.append("select ").append(i).append(" ix, count(*) cnt from ")
+                   .append(dialect.qualifySchemaObjectName(observer.em.getTable()))
+                   .append(" where ")
+                   .append(dialect.quoteIdentifier(observer.fm.getColumnName()))
+                   .append(" > :v").append(i);
+
+                params.put("v" + i, observer.maxValue);
+            }
+
+            List<Record> records;
+            try {
+                records = queryCounts(checks.get(0).dao, sql.toString(), params);
+            }catch (Exception e) {
+                log.warn("Batched check of changes not supported by datasource '{}', check each observer : {}",
+                         context.getName(), e.getMessage());
+                batchCheckSupported = false;
+                return null;
+            }
+
+            Map<ChangeObserverImpl, Long> counts = new HashMap<>();
+            for(Record record : records) {
+                Map<String, Object> row = WrappedCaseInsensitiveMap.create(record);
+                counts.put(checks.get(Converts.toInt(row.get("ix"))), Converts.toLong(row.get("cnt")));
+            }
+            return counts;
+        }
+
+        protected List<Record> queryCounts(Dao dao, String sql, Map<String, Object> params) {
+            return LogContext.execWithResult(LogLevel.INFO, () -> dao.createSqlQuery(sql).params(params).list());
+        }
+    }
+
+    protected class ChangeObserverImpl implements ChangeObserver {
 
         protected final Dao           dao;
+        protected final OrmContext    context;
         protected final EntityMapping em;
         protected final Class<?>      resultClass;
         protected final FieldMapping  fm;
 
         protected ChangeListener listener;
         protected boolean         started;
-        protected boolean         inited;
         protected TimeUnit        timeUnit;
         protected int             period;
+        protected long            periodMillis;
+        protected long            maxPeriodMillis = -1;
         protected int             limit = 100;
-        protected ScheduledFuture scheduled;
         protected Object          maxValue;
         protected CriteriaQuery   changesQuery;
 
+        protected volatile long currentPeriod;
+        protected volatile long nextPollAt;
+        protected volatile long polls;
+        protected volatile long emptyPolls;
+        protected volatile long changes;
+        protected volatile long pending = -1;
+        protected volatile long lastPollAt;
+        protected volatile long lastChangeAt;
+        protected volatile long lag = -1;
+
         public ChangeObserverImpl(Dao dao, EntityMapping em, Class<?> resultClass, FieldMapping fm) {
             this.dao = dao;
+            this.context = dao.getOrmContext();
             this.em = em;
             this.resultClass = resultClass;
             this.fm = fm;
@@ -116,6 +377,13 @@ public class DefaultChangeManager implements ChangeManager, PostCreateBean, Disp
             return this;
         }
 
+        @Override
+        public ChangeObserver setMaxPeriod(TimeUnit timeUnit, int maxPeriod) {
+            checkStarted();
+            this.maxPeriodMillis = timeUnit.toMillis(maxPeriod);
+            return this;
+        }
+
         @Override
         public ChangeObserver limit(int maxChanges) {
             checkStarted();
@@ -133,16 +401,19 @@ public class DefaultChangeManager implements ChangeManager, PostCreateBean, Disp
 
             init();
 
-            scheduled = scheduler.scheduleAtFixedRate(this, period, timeUnit);
             started = true;
+            addObserver(this);
         }
 
         @Override
         public void stop() {
-            if(null != scheduled) {
-                Try.catchAll(() -> scheduled.cancel(true));
-                scheduled = null;
-            }
+            removeObserver(this);
+        }
+
+        @Override
+        public ChangeObserverStats getStats() {
+            return new ChangeObserverStats(em.getEntityName(), fm.getFieldName(), periodMillis, currentPeriod,
+                                           polls, emptyPolls, changes, pending, lastPollAt, lastChangeAt, lag);
         }
 
         protected void init() {
@@ -164,34 +435,108 @@ public class DefaultChangeManager implements ChangeManager, PostCreateBean, Disp
                     .where(fm.getFieldName() + " > :maxValue")
                     .limit(limit)
                     .orderBy(fm.getFieldName() + " asc");
+
+            periodMillis = Math.max(1, timeUnit.toMillis(period));
+            if(maxPeriodMillis < 0) {
+                maxPeriodMillis = Math.max(periodMillis, maxIdlePeriod);
+            }
+            currentPeriod = periodMillis;
+            nextPollAt    = System.currentTimeMillis() + periodMillis;
         }
 
-        @Override
-        public void run() {
-            List changes = LogContext.execWithResult(LogLevel.INFO, () -> changesQuery.param("maxValue", maxValue).list());
-            if (!changes.isEmpty()) {
+        protected boolean isBatchCheckable() {
+            return !fm.isSecondary() && Strings.isEmpty(em.getDynamicTableName());
+        }
 
-                log.debug("Found {} changes", changes.size());
+        /**
+         * Loads and notifies the changes, the next page will be loaded immediately if the page is full.
+         */
+        protected void poll(Long count) {
+            pending = null == count ? -1 : count;
 
-                Object lastNotified = null;
-                try {
-                    for (int i = 0; i < changes.size(); i++) {
-                        Object entity = changes.get(i);
-                        listener.onEntityChanged(dao, entity);
-                        lastNotified = entity;
-                    }
-                } catch (Throwable e) {
-                    log.error("Error notify listener '{}': {}", listener.getClass(), e.getMessage(), e);
+            for(int page=1;;page++) {
+                long now = System.currentTimeMillis();
+
+                List changes = LogContext.execWithResult(LogLevel.INFO, () -> changesQuery.param("maxValue", maxValue).list());
+
+                polls++;
+                lastPollAt = now;
+
+                if(changes.isEmpty()) {
+                    idle(now);
+                    return;
+                }
+
+                log.debug("Found {} changes of entity '{}'", changes.size(), em.getEntityName());
+
+                int notified = notify(changes);
+                if(pending > 0) {
+                    pending = Math.max(0, pending - notified);
+                }
+
+                if(notified < changes.size() || changes.size() < limit) {
+                    active(System.currentTimeMillis());
+                    return;
+                }
+
+                if(page >= maxPagesPerPoll) {
+                    //continue at next tick.
+                    nextPollAt = System.currentTimeMillis();
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Returns the number of notified changes.
+         */
+        protected int notify(List changes) {
+            Object lastNotified = null;
+            int    notified     = 0;
+            try {
+                for (int i = 0; i < changes.size(); i++) {
+                    Object entity = changes.get(i);
+                    listener.onEntityChanged(dao, entity);
+                    lastNotified = entity;
+                    notified++;
                 }
+            } catch (Throwable e) {
+                log.error("Error notify listener '{}': {}", listener.getClass(), e.getMessage(), e);
+            }
+
+            if (null != lastNotified) {
+                Object newMaxValue = EntityWrapper.wrap(dao.getOrmContext(), em, lastNotified).get(fm.getFieldName());
+                if (null != newMaxValue) {
+                    log.debug("Set maxValue from {} to {}", maxValue, newMaxValue);
+                    this.maxValue = newMaxValue;
 
-                if (null != lastNotified) {
-                    Object newMaxValue = EntityWrapper.wrap(dao.getOrmContext(), em, lastNotified).get(fm.getFieldName());
-                    if (null != newMaxValue) {
-                        log.debug("Set maxValue from {} to {}", maxValue, newMaxValue);
-                        this.maxValue = newMaxValue;
+                    if(newMaxValue instanceof java.util.Date) {
+                        lag = Math.max(0, System.currentTimeMillis() - ((java.util.Date)newMaxValue).getTime());
                     }
                 }
+                this.changes += notified;
+                this.lastChangeAt = System.currentTimeMillis();
             }
+
+            return notified;
+        }
+
+        /**
+         * Resets the period after changes found.
+         */
+        protected void active(long now) {
+            currentPeriod = periodMillis;
+            nextPollAt    = now + currentPeriod;
+        }
+
+        /**
+         * Doubles the period until the max period when no changes found.
+         */
+        protected void idle(long now) {
+            emptyPolls++;
+            pending       = 0;
+            currentPeriod = Math.min(currentPeriod * 2, maxPeriodMillis);
+            nextPollAt    = now + currentPeriod;
         }
 
         protected void checkStarted() {
@@ -16,6 +16,7 @@
 package leap.orm.command;
 
 import leap.lang.params.Params;
+import leap.orm.cache.EntityCache;
 import leap.orm.dao.Dao;
 import leap.orm.mapping.EntityMapping;
 import leap.orm.mapping.FieldMapping;
@@ -36,6 +37,20 @@ public abstract class AbstractEntityDaoCommand extends AbstractDaoCommand {
 	    return em;
     }
 
+    /**
+     * Evicts the record of the given id from the entity cache, evicts all the records of entity if the id is null.
+     */
+    protected void evictCache(Object id) {
+        EntityCache cache = context.getEntityCache();
+        if(null != cache && cache.isCacheable(context, em)) {
+            if(null == id) {
+                cache.evictAll(context, em);
+            }else{
+                cache.evict(context, em, id);
+            }
+        }
+    }
+
     protected void prepareIdAndSerialization(Object id, Map<String,Object> fields) {
         if(null != id) {
             String[] keyNames = em.getKeyFieldNames();
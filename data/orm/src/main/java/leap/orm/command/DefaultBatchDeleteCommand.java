@@ -37,6 +37,16 @@ public class DefaultBatchDeleteCommand extends AbstractEntityDaoCommand implemen
 
 	@Override
 	public int[] execute() {
+        try {
+            return doExecute();
+        }finally {
+            for(Object id : idObjectArray) {
+                evictCache(id);
+            }
+        }
+    }
+
+    protected int[] doExecute() {
         final SqlCommand primaryCommand = metadata.getSqlCommand(em.getEntityName(), SqlCommand.DELETE_COMMAND_NAME);
         final SqlCommand secondaryCommand =
                 em.hasSecondaryTable() ? context.getSqlFactory().createDeleteCommand(context, em, true) : null;
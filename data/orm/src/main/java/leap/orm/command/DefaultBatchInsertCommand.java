@@ -23,6 +23,7 @@ import leap.lang.value.SimpleEntry;
 import leap.orm.dao.Dao;
 import leap.orm.mapping.EntityMapping;
 import leap.orm.mapping.FieldMapping;
+import leap.orm.mapping.Mappings;
 import leap.orm.sql.SqlCommand;
 import leap.orm.value.EntityWrapper;
 
@@ -45,6 +46,20 @@ public class DefaultBatchInsertCommand extends AbstractEntityDaoCommand implemen
 
 	@Override
 	public int[] execute() {
+        try {
+            return doExecute();
+        }finally {
+            //the missing records are not cached, evicts the records with given id only.
+            for(Map.Entry<EntityWrapper, Map<String, Object>> entry : entities) {
+                Object id = Mappings.getId(em, entry.getKey());
+                if(null != id) {
+                    evictCache(id);
+                }
+            }
+        }
+    }
+
+    protected int[] doExecute() {
         if(entities.isEmpty()) {
             return new int[0];
         }
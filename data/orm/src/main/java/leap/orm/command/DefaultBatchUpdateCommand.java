@@ -20,6 +20,7 @@ import leap.lang.expression.Expression;
 import leap.orm.dao.Dao;
 import leap.orm.mapping.EntityMapping;
 import leap.orm.mapping.FieldMapping;
+import leap.orm.mapping.Mappings;
 import leap.orm.sql.SqlCommand;
 import leap.orm.value.EntityWrapper;
 
@@ -40,6 +41,16 @@ public class DefaultBatchUpdateCommand extends AbstractEntityDaoCommand implemen
 
     @Override
     public int[] execute() {
+        try {
+            return doExecute();
+        }finally {
+            for(EntityWrapper entity : entities) {
+                evictCache(Mappings.getId(em, entity));
+            }
+        }
+    }
+
+    protected int[] doExecute() {
         if(entities.isEmpty()) {
             return new int[0];
         }
@@ -30,10 +30,14 @@ public class DefaultDeleteAllCommand extends AbstractEntityDaoCommand implements
 
 	@Override
 	public int execute() {
-        if(em.hasSecondaryTable()) {
-            context.getSqlFactory().createDeleteAllCommand(context, em, true).executeUpdate(this, null);
+        try {
+            if(em.hasSecondaryTable()) {
+                context.getSqlFactory().createDeleteAllCommand(context, em, true).executeUpdate(this, null);
+            }
+            return primaryCommand.executeUpdate(this,null);
+        }finally {
+            evictCache(null);
         }
-		return primaryCommand.executeUpdate(this,null);
 	}
 
 }
\ No newline at end of file
@@ -21,6 +21,7 @@ import leap.core.jdbc.ResultSetReader;
 import leap.lang.New;
 import leap.lang.params.Params;
 import leap.lang.value.Limit;
+import leap.orm.cache.EntityCache;
 import leap.orm.dao.Dao;
 import leap.orm.event.EntityEventHandler;
 import leap.orm.event.LoadEntityEventImpl;
@@ -37,6 +38,7 @@ public class DefaultFindCommand<T> extends AbstractEntityDaoCommand implements F
     protected final Params             idParameters;
     protected final boolean            checkNotFound;
     protected final EntityEventHandler eventHandler;
+    protected final EntityCache        entityCache;
 
     public DefaultFindCommand(Dao dao, EntityMapping em, Object id, Class<T> resultClass, boolean checkNotFound) {
         super(dao, em);
@@ -47,6 +49,7 @@ public class DefaultFindCommand<T> extends AbstractEntityDaoCommand implements F
         this.idParameters = context.getParameterStrategy().createIdParameters(context, em, id);
         this.checkNotFound = checkNotFound;
         this.eventHandler = context.getEntityEventHandler();
+        this.entityCache = context.getEntityCache();
     }
 
     @Override
@@ -66,9 +69,20 @@ public class DefaultFindCommand<T> extends AbstractEntityDaoCommand implements F
 
     @Override
     public T execute() throws TooManyRecordsException {
-        ResultSetReader<T> reader = ResultSetReaders.forSingleEntity(context, this, em, resultClass);
+        T result;
 
-        T result = sqlCommand.executeQuery(this, idParameters, reader);
+        if(null != entityCache && entityCache.isCacheable(context, em)) {
+            result = entityCache.get(context, em, resultClass, id);
+            if(null == result) {
+                long version = entityCache.getVersion(context, em);
+                result = executeQuery();
+                if(null != result) {
+                    entityCache.put(context, em, resultClass, result, version);
+                }
+            }
+        }else{
+            result = executeQuery();
+        }
 
         if (null == result && checkNotFound) {
             throw new RecordNotFoundException("Record not found for the id '" + id + "'");
@@ -81,4 +95,9 @@ public class DefaultFindCommand<T> extends AbstractEntityDaoCommand implements F
 
         return result;
     }
+
+    protected T executeQuery() {
+        ResultSetReader<T> reader = ResultSetReaders.forSingleEntity(context, this, em, resultClass);
+        return sqlCommand.executeQuery(this, idParameters, reader);
+    }
 }
\ No newline at end of file
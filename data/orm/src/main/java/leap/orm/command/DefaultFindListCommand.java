@@ -16,7 +16,9 @@
 package leap.orm.command;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import leap.core.exception.RecordNotFoundException;
 import leap.core.exception.TooManyRecordsException;
@@ -26,6 +28,7 @@ import leap.db.model.DbTable;
 import leap.lang.params.MapParams;
 import leap.lang.params.Params;
 import leap.lang.value.Limit;
+import leap.orm.cache.EntityCache;
 import leap.orm.dao.Dao;
 import leap.orm.mapping.EntityMapping;
 import leap.orm.mapping.FieldMapping;
@@ -71,8 +74,9 @@ public class DefaultFindListCommand<T> extends AbstractEntityDaoCommand implemen
 
 	@Override
     public List<T> execute() throws TooManyRecordsException,RecordNotFoundException {
-		ResultSetReader<List<T>> reader = ResultSetReaders.forListEntity(context, this, em, elementType, resultClass);
-	    List<T> list = sqlCommand.executeQuery(this, idParameters, reader);
+		EntityCache cache = context.getEntityCache();
+
+	    List<T> list = null != cache && cache.isCacheable(context, em) ? executeWithCache(cache) : executeQuery();
 	    
 	    if(list.size() > ids.length) {
 	        throw new TooManyRecordsException("Returns " + list.size() + " records, exceeds the given id array's size " + ids.length);
@@ -84,6 +88,67 @@ public class DefaultFindListCommand<T> extends AbstractEntityDaoCommand implemen
 	    
 	    return list;
     }
+
+	protected List<T> executeQuery() {
+		ResultSetReader<List<T>> reader = ResultSetReaders.forListEntity(context, this, em, elementType, resultClass);
+		return sqlCommand.executeQuery(this, idParameters, reader);
+	}
+
+	/*
+
+	 Returns the cached records and loads the missing records only, the records are ordered by the given ids.
+
+	 */
+	protected List<T> executeWithCache(EntityCache cache) {
+		List<T>      cached  = new ArrayList<>(ids.length);
+		List<Object> missing = new ArrayList<>();
+
+		for(Object id : ids) {
+			T record = cache.get(context, em, resultClass, id);
+			if(null == record) {
+				missing.add(id);
+			}
+			cached.add(record);
+		}
+
+		if(missing.isEmpty()) {
+			return cached;
+		}
+
+		long version = cache.getVersion(context, em);
+
+		List<T> loaded =
+				new DefaultFindListCommand<T>(dao, em, missing.toArray(), elementType, resultClass, false).executeQuery();
+
+		Map<Object, T> loadedByKey = new HashMap<>(loaded.size());
+		for(T record : loaded) {
+			Object key = cache.put(context, em, resultClass, record, version);
+			if(null == key) {
+				//can not match the records to ids, returns the loaded records without ordering as the query does.
+				List<T> list = new ArrayList<>(ids.length);
+				for(T c : cached) {
+					if(null != c) {
+						list.add(c);
+					}
+				}
+				list.addAll(loaded);
+				return list;
+			}
+			loadedByKey.put(key, record);
+		}
+
+		List<T> list = new ArrayList<>(ids.length);
+		for(int i=0;i<ids.length;i++) {
+			T record = cached.get(i);
+			if(null == record) {
+				record = loadedByKey.get(cache.getKey(context, em, ids[i]));
+			}
+			if(null != record) {
+				list.add(record);
+			}
+		}
+		return list;
+	}
 	
 	/*
 	 
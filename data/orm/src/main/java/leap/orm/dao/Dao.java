@@ -964,6 +964,11 @@ public abstract class Dao implements JdbcExecutor {
 	 */
 	public abstract <T> T doTransaction(TransactionCallbackWithResult<T> callback, boolean requiresNew);
 
+	/**
+	 * Executes the given callback transactional.
+	 */
+	public abstract <T> T doTransaction(TransactionCallbackWithResult<T> callback, TransactionDefinition definition);
+
 	//------------------ events --------------------
 
 	/**
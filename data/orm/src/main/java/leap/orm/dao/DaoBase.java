@@ -164,6 +164,11 @@ public abstract class DaoBase extends Dao implements PostCreateBean, PostInjectB
         return transactionProvider.doTransaction(callback, requiresNew);
     }
 
+    @Override
+    public <T> T doTransaction(TransactionCallbackWithResult<T> callback, TransactionDefinition definition) {
+        return transactionProvider.doTransaction(callback, definition);
+    }
+
     @Override
     public void withEvents(Runnable func) {
         WITH_EVENTS.set(true);
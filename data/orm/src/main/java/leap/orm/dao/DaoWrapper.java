@@ -634,6 +634,11 @@ public abstract class DaoWrapper extends Dao {
         return dao().doTransaction(callback, requiresNew);
     }
 
+    @Override
+    public <T> T doTransaction(TransactionCallbackWithResult<T> callback, TransactionDefinition definition) {
+        return dao().doTransaction(callback, definition);
+    }
+
     @Override
     public void withDataSource(DataSource dataSource, Runnable runnable) {
         dao().withDataSource(dataSource, runnable);
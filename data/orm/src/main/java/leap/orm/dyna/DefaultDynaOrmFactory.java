@@ -27,6 +27,7 @@ import leap.orm.OrmConfig;
 import leap.orm.OrmContext;
 import leap.orm.OrmMetadata;
 import leap.orm.OrmRegistry;
+import leap.orm.cache.EntityCache;
 import leap.orm.command.CommandFactory;
 import leap.orm.dao.Dao;
 import leap.orm.dao.DefaultDao;
@@ -63,6 +64,7 @@ public class DefaultDynaOrmFactory implements DynaOrmFactory {
     protected @Inject RowReader          rowReader;
     protected @Inject EntityValidator    entityValidator;
     protected @Inject EntityEventHandler eventHandler;
+    protected @Inject EntityCache        entityCache;
 
     @Override
     public DynaOrmContext createDynaContext(DataSource ds) {
@@ -79,13 +81,17 @@ public class DefaultDynaOrmFactory implements DynaOrmFactory {
         return createDynaContext(null, db);
     }
 
+    @Override
     public DynaOrmContext createDynaContext(String name, Db db) {
+        return createDynaContext(name, db, omm.createMetadata());
+    }
+
+    @Override
+    public DynaOrmContext createDynaContext(String name, Db db, OrmMetadata md) {
         if(Strings.isEmpty(name)) {
             name = UNNAMED;
         }
 
-        final OrmMetadata md = omm.createMetadata();
-
         DefaultOrmDynaContext context = new DefaultOrmDynaContext(name, db, md);
 
         context.setAppContext(appContext);
@@ -101,6 +107,7 @@ public class DefaultDynaOrmFactory implements DynaOrmFactory {
         context.setRowReader(rowReader);
         context.setEntityValidator(entityValidator);
         context.setEventHandler(eventHandler);
+        context.setEntityCache(entityCache);
 
         Dao dao = bf.inject(new DefaultDao(context));
         context.setDao(dao);
@@ -135,6 +142,7 @@ public class DefaultDynaOrmFactory implements DynaOrmFactory {
         if(registered == context) {
             registry.removeContext(context.getName());
         }
+        entityCache.clear(context);
     }
 
 	@Override
@@ -143,4 +151,4 @@ public class DefaultDynaOrmFactory implements DynaOrmFactory {
 		 return registered;
 	}
 
-}
\ No newline at end of file
+}
\ No newline at end of file
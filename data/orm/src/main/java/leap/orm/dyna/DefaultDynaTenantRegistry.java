@@ -0,0 +1,602 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package leap.orm.dyna;
+
+import leap.core.annotation.ConfigProperty;
+import leap.core.annotation.Configurable;
+import leap.core.annotation.Inject;
+import leap.db.Db;
+import leap.db.DbFactory;
+import leap.lang.Args;
+import leap.lang.Disposable;
+import leap.lang.Strings;
+import leap.lang.exception.ObjectExistsException;
+import leap.lang.exception.ObjectNotFoundException;
+import leap.lang.logging.Log;
+import leap.lang.logging.LogFactory;
+import leap.lang.time.StopWatch;
+import leap.orm.OrmMetadata;
+import leap.orm.OrmRegistry;
+import leap.orm.metadata.OrmMetadataManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * The default implementation of {@link DynaTenantRegistry}.
+ *
+ * <p/>
+ * The memory of a context is estimated by {@link #getContextFootprint()} plus the shared metadata
+ * ({@link #getEntityFootprint()} per entity, {@link #getSqlFootprint()} per sql command) divided by the sharing tenants.
+ *
+ * <p/>
+ * The {@link Db} is created once per data source and shared by the tenants using the same data source,
+ * the shared metadata and db are removed after the last tenant using them evicted.
+ */
+@Configurable(prefix = "orm.dyna.tenants")
+public class DefaultDynaTenantRegistry implements DynaTenantRegistry, Disposable {
+
+    private static final Log log = LogFactory.get(DefaultDynaTenantRegistry.class);
+
+    protected @Inject DynaOrmFactory     factory;
+    protected @Inject OrmRegistry        registry;
+    protected @Inject OrmMetadataManager omm;
+
+    protected int     maxActiveContexts = 0;
+    protected long    memoryBudget      = 0;
+    protected long    idleTimeout       = 30 * 60 * 1000;
+    protected long    contextFootprint  = 256 * 1024;
+    protected long    entityFootprint   = 16 * 1024;
+    protected long    sqlFootprint      = 2 * 1024;
+    protected boolean registerContexts  = true;
+
+    private final Map<String, Tenant>                   tenants      = new ConcurrentHashMap<>();
+    private final Map<String, SharedMetadata>           schemas      = new ConcurrentHashMap<>();
+    private final Map<String, Consumer<DynaOrmContext>> initializers = new ConcurrentHashMap<>();
+    private final Map<DataSource, SharedDb>             dbs          = new HashMap<>();
+
+    private volatile long lastIdleCheck = System.currentTimeMillis();
+
+    public int getMaxActiveContexts() {
+        return maxActiveContexts;
+    }
+
+    /**
+     * Sets the max number of created contexts, zero or negative means unlimited.
+     */
+    @ConfigProperty
+    public void setMaxActiveContexts(int maxActiveContexts) {
+        this.maxActiveContexts = maxActiveContexts;
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Sets the max estimated memory in bytes of all the created contexts, zero or negative means unlimited.
+     */
+    @ConfigProperty
+    public void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Sets the milliseconds of a context can be idle before evicted, zero or negative means never.
+     *
+     * <p/>
+     * Default is 30 minutes.
+     */
+    @ConfigProperty
+    public void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public long getContextFootprint() {
+        return contextFootprint;
+    }
+
+    /**
+     * Sets the estimated bytes of a context excludes the shared metadata.
+     */
+    @ConfigProperty
+    public void setContextFootprint(long contextFootprint) {
+        this.contextFootprint = contextFootprint;
+    }
+
+    public long getEntityFootprint() {
+        return entityFootprint;
+    }
+
+    /**
+     * Sets the estimated bytes of an entity mapping.
+     */
+    @ConfigProperty
+    public void setEntityFootprint(long entityFootprint) {
+        this.entityFootprint = entityFootprint;
+    }
+
+    public long getSqlFootprint() {
+        return sqlFootprint;
+    }
+
+    /**
+     * Sets the estimated bytes of a sql command.
+     */
+    @ConfigProperty
+    public void setSqlFootprint(long sqlFootprint) {
+        this.sqlFootprint = sqlFootprint;
+    }
+
+    public boolean isRegisterContexts() {
+        return registerContexts;
+    }
+
+    /**
+     * Sets whether registers the created contexts to {@link OrmRegistry}, default is <code>true</code>.
+     */
+    @ConfigProperty
+    public void setRegisterContexts(boolean registerContexts) {
+        this.registerContexts = registerContexts;
+    }
+
+    @Override
+    public void register(String tenant, String schema, Supplier<DataSource> dataSource, Consumer<DataSource> releaser) throws ObjectExistsException {
+        Args.notEmpty(tenant, "tenant");
+        Args.notNull(dataSource, "dataSource");
+
+        if(null != tenants.putIfAbsent(tenant, new Tenant(tenant, schema, dataSource, releaser))) {
+            throw new ObjectExistsException("Tenant '" + tenant + "' already registered");
+        }
+    }
+
+    @Override
+    public void setSchemaInitializer(String schema, Consumer<DynaOrmContext> initializer) {
+        Args.notEmpty(schema, "schema");
+        if(null == initializer) {
+            initializers.remove(schema);
+        }else {
+            initializers.put(schema, initializer);
+        }
+    }
+
+    @Override
+    public boolean isRegistered(String tenant) {
+        return tenants.containsKey(tenant);
+    }
+
+    @Override
+    public DynaOrmContext getContext(String tenant) throws ObjectNotFoundException {
+        return getContext(getTenant(tenant));
+    }
+
+    @Override
+    public DynaOrmContext acquire(String tenant) throws ObjectNotFoundException {
+        Tenant t = getTenant(tenant);
+        synchronized (t) {
+            t.leases++;
+        }
+        try {
+            return getContext(t);
+        }catch (RuntimeException | Error e) {
+            release(t);
+            throw e;
+        }
+    }
+
+    @Override
+    public void release(String tenant) {
+        Tenant t = tenants.get(tenant);
+        if(null != t) {
+            release(t);
+        }
+    }
+
+    protected Tenant getTenant(String tenant) throws ObjectNotFoundException {
+        Tenant t = tenants.get(tenant);
+        if(null == t) {
+            throw new ObjectNotFoundException("Tenant '" + tenant + "' not registered");
+        }
+        return t;
+    }
+
+    protected DynaOrmContext getContext(Tenant t) {
+        DynaOrmContext context = t.context;
+        if(null == context) {
+            boolean created = false;
+            synchronized (t) {
+                context = t.context;
+                if(null == context) {
+                    context = create(t);
+                    created = true;
+                }
+            }
+            if(created) {
+                evictOverLimits(t);
+            }
+        }
+
+        t.lastAccessedAt = System.currentTimeMillis();
+        t.accesses.incrementAndGet();
+
+        checkIdle(t.lastAccessedAt);
+
+        return context;
+    }
+
+    protected void release(Tenant t) {
+        synchronized (t) {
+            if(t.leases > 0) {
+                t.leases--;
+            }
+        }
+        t.lastAccessedAt = System.currentTimeMillis();
+    }
+
+    @Override
+    public DynaOrmContext tryGetActiveContext(String tenant) {
+        Tenant t = tenants.get(tenant);
+        return null == t ? null : t.context;
+    }
+
+    @Override
+    public boolean evict(String tenant) {
+        Tenant t = tenants.get(tenant);
+        return null != t && evict(t);
+    }
+
+    @Override
+    public int evictIdle() {
+        if(idleTimeout <= 0) {
+            return 0;
+        }
+
+        long now     = System.currentTimeMillis();
+        int  evicted = 0;
+        for(Tenant t : tenants.values()) {
+            if(null != t.context && now - t.lastAccessedAt > idleTimeout && evict(t, false)) {
+                evicted++;
+            }
+        }
+
+        if(evicted > 0) {
+            log.info("Evicted {} idle tenant contexts, {} active", evicted, getActiveCount());
+        }
+        return evicted;
+    }
+
+    @Override
+    public boolean unregister(String tenant) {
+        Tenant t = tenants.remove(tenant);
+        if(null == t) {
+            return false;
+        }
+        evict(t);
+        return true;
+    }
+
+    @Override
+    public int getActiveCount() {
+        int count = 0;
+        for(Tenant t : tenants.values()) {
+            if(null != t.context) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long getEstimatedMemory() {
+        long bytes = 0;
+        for(Tenant t : tenants.values()) {
+            bytes += estimate(t);
+        }
+        return bytes;
+    }
+
+    @Override
+    public DynaTenantFootprint getFootprint(String tenant) {
+        Tenant t = tenants.get(tenant);
+        return null == t ? null : footprint(t);
+    }
+
+    @Override
+    public List<DynaTenantFootprint> getFootprints() {
+        List<DynaTenantFootprint> list = new ArrayList<>(tenants.size());
+        for(Tenant t : tenants.values()) {
+            list.add(footprint(t));
+        }
+        return list;
+    }
+
+    @Override
+    public void dispose() throws Throwable {
+        for(Tenant t : tenants.values()) {
+            evict(t);
+        }
+    }
+
+    protected DynaOrmContext create(Tenant t) {
+        StopWatch sw = StopWatch.startNew();
+
+        DataSource ds = t.dataSource.get();
+        if(null == ds) {
+            throw new IllegalStateException("No data source created for tenant '" + t.name + "'");
+        }
+
+        Db             db      = null;
+        SharedMetadata shared  = null;
+        DynaOrmContext context = null;
+        try {
+            db      = acquireDb(t, ds);
+            shared  = acquireMetadata(metadataKey(t, db));
+            context = factory.createDynaContext(t.name, db, shared.metadata);
+
+            synchronized (shared) {
+                if(!shared.initialized) {
+                    Consumer<DynaOrmContext> initializer = null == t.schema ? null : initializers.get(t.schema);
+                    if(null != initializer) {
+                        initializer.accept(context);
+                    }
+                    shared.initialized = true;
+                }
+            }
+
+            if(registerContexts) {
+                registry.registerContext(context);
+            }
+        }catch (RuntimeException | Error e) {
+            log.error("Error creating context of tenant '{}', {}", t.name, e.getMessage());
+            if(null != context) {
+                factory.destroyDynaContext(context);
+            }
+            if(null != shared) {
+                releaseMetadata(shared);
+            }
+            if(null != db) {
+                releaseDb(ds);
+            }
+            releaseDataSource(t, ds);
+            throw e;
+        }
+
+        t.ds             = ds;
+        t.shared         = shared;
+        t.createdAt      = System.currentTimeMillis();
+        t.creationMillis = sw.getElapsedMilliseconds();
+        t.context        = context;
+
+        log.info("Created context of tenant '{}' in {}ms, metadata '{}' shared by {} tenants",
+                 t.name, t.creationMillis, shared.key, shared.tenants.get());
+
+        return context;
+    }
+
+    protected boolean evict(Tenant t) {
+        return evict(t, true);
+    }
+
+    /**
+     * Evicts the context of tenant, the acquired context is evicted only if force.
+     */
+    protected boolean evict(Tenant t, boolean force) {
+        DynaOrmContext context;
+        DataSource     ds;
+        synchronized (t) {
+            context = t.context;
+            if(null == context || (!force && t.leases > 0)) {
+                return false;
+            }
+            ds = t.ds;
+
+            t.context = null;
+            t.ds      = null;
+        }
+
+        log.debug("Evict context of tenant '{}'", t.name);
+
+        factory.destroyDynaContext(context);
+        releaseMetadata(t.shared);
+        releaseDb(ds);
+        releaseDataSource(t, ds);
+        return true;
+    }
+
+    protected Db acquireDb(Tenant t, DataSource ds) {
+        synchronized (dbs) {
+            SharedDb shared = dbs.get(ds);
+            if(null != shared) {
+                shared.tenants++;
+                return shared.db;
+            }
+        }
+
+        //creates outside the lock, it fetches a connection.
+        Db db = DbFactory.createInstance(t.name, ds);
+
+        synchronized (dbs) {
+            SharedDb shared = dbs.computeIfAbsent(ds, k -> new SharedDb(db));
+            shared.tenants++;
+            return shared.db;
+        }
+    }
+
+    protected void releaseDb(DataSource ds) {
+        synchronized (dbs) {
+            SharedDb shared = dbs.get(ds);
+            if(null != shared && --shared.tenants <= 0) {
+                dbs.remove(ds);
+            }
+        }
+    }
+
+    protected SharedMetadata acquireMetadata(String key) {
+        synchronized (schemas) {
+            SharedMetadata shared = schemas.computeIfAbsent(key, k -> new SharedMetadata(k, omm.createMetadata()));
+            shared.tenants.incrementAndGet();
+            return shared;
+        }
+    }
+
+    protected void releaseMetadata(SharedMetadata shared) {
+        synchronized (schemas) {
+            if(shared.tenants.decrementAndGet() <= 0) {
+                schemas.remove(shared.key, shared);
+            }
+        }
+    }
+
+    protected void releaseDataSource(Tenant t, DataSource ds) {
+        if(null != t.releaser && null != ds) {
+            try {
+                t.releaser.accept(ds);
+            }catch (Exception e) {
+                log.warn("Error releasing data source of tenant '{}', {}", t.name, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Evicts the least recently accessed contexts which are not acquired until the limits satisfied.
+     */
+    protected void evictOverLimits(Tenant current) {
+        Set<Tenant> skipped = new HashSet<>();
+        for(;;) {
+            boolean overCount  = maxActiveContexts > 0 && getActiveCount() > maxActiveContexts;
+            boolean overMemory = memoryBudget > 0 && getEstimatedMemory() > memoryBudget;
+            if(!overCount && !overMemory) {
+                return;
+            }
+
+            Tenant lru = null;
+            for(Tenant t : tenants.values()) {
+                if(t == current || null == t.context || t.leases > 0 || skipped.contains(t)) {
+                    continue;
+                }
+                if(null == lru || t.lastAccessedAt < lru.lastAccessedAt) {
+                    lru = t;
+                }
+            }
+
+            if(null == lru) {
+                log.warn("Tenant contexts exceed the limits (max {}, budget {} bytes), no context can be evicted",
+                         maxActiveContexts, memoryBudget);
+                return;
+            }
+
+            if(!evict(lru, false)) {
+                skipped.add(lru);
+            }
+        }
+    }
+
+    protected void checkIdle(long now) {
+        if(idleTimeout > 0 && now - lastIdleCheck > Math.min(idleTimeout, 60 * 1000)) {
+            lastIdleCheck = now;
+            evictIdle();
+        }
+    }
+
+    protected String metadataKey(Tenant t, Db db) {
+        return (Strings.isEmpty(t.schema) ? "tenant:" + t.name : t.schema) + "@" + db.getType();
+    }
+
+    protected long estimate(Tenant t) {
+        SharedMetadata shared = t.shared;
+        if(null == t.context || null == shared) {
+            return 0;
+        }
+
+        OrmMetadata md      = shared.metadata;
+        long        mdBytes = md.getEntityMappingSize() * entityFootprint + md.getSqlCommandSize() * sqlFootprint;
+
+        return contextFootprint + mdBytes / Math.max(1, shared.tenants.get());
+    }
+
+    protected DynaTenantFootprint footprint(Tenant t) {
+        SharedMetadata shared = t.shared;
+        boolean        active = null != t.context;
+
+        return new DynaTenantFootprint(t.name, t.schema, active,
+                                       t.createdAt, t.lastAccessedAt, t.accesses.get(), t.creationMillis,
+                                       null == shared ? 0 : shared.tenants.get(),
+                                       null == shared ? 0 : shared.metadata.getEntityMappingSize(),
+                                       null == shared ? 0 : shared.metadata.getSqlCommandSize(),
+                                       estimate(t));
+    }
+
+    protected static final class Tenant {
+        private final String               name;
+        private final String               schema;
+        private final Supplier<DataSource> dataSource;
+        private final Consumer<DataSource> releaser;
+        private final AtomicLong           accesses = new AtomicLong();
+
+        private volatile DynaOrmContext context;
+        private volatile DataSource     ds;
+        private volatile SharedMetadata shared;
+        private volatile long           createdAt;
+        private volatile long           lastAccessedAt;
+        private volatile long           creationMillis;
+        private volatile int            leases;
+
+        Tenant(String name, String schema, Supplier<DataSource> dataSource, Consumer<DataSource> releaser) {
+            this.name       = name;
+            this.schema     = schema;
+            this.dataSource = dataSource;
+            this.releaser   = releaser;
+        }
+    }
+
+    protected static final class SharedMetadata {
+        private final String        key;
+        private final OrmMetadata   metadata;
+        private final AtomicInteger tenants = new AtomicInteger();
+
+        private boolean initialized;
+
+        SharedMetadata(String key, OrmMetadata metadata) {
+            this.key      = key;
+            this.metadata = metadata;
+        }
+    }
+
+    protected static final class SharedDb {
+        private final Db db;
+
+        private int tenants;
+
+        SharedDb(Db db) {
+            this.db = db;
+        }
+    }
+}
@@ -20,6 +20,7 @@ import leap.core.AppContext;
 import leap.db.Db;
 import leap.orm.OrmConfig;
 import leap.orm.OrmMetadata;
+import leap.orm.cache.EntityCache;
 import leap.orm.command.CommandFactory;
 import leap.orm.dao.Dao;
 import leap.orm.dmo.Dmo;
@@ -57,6 +58,7 @@ public class DefaultOrmDynaContext implements DynaOrmContext {
     protected RowReader          rowReader;
     protected EntityValidator    entityValidator;
     protected EntityEventHandler eventHandler;
+    protected EntityCache        entityCache;
 
     public DefaultOrmDynaContext(String name, Db db, OrmMetadata md) {
         this.name     = name;
@@ -159,6 +161,11 @@ public class DefaultOrmDynaContext implements DynaOrmContext {
         return eventHandler;
     }
 
+    @Override
+    public EntityCache getEntityCache() {
+        return entityCache;
+    }
+
     public void setAppContext(AppContext appContext) {
         this.appContext = appContext;
     }
@@ -219,4 +226,8 @@ public class DefaultOrmDynaContext implements DynaOrmContext {
     public void setEventHandler(EntityEventHandler eventHandler) {
         this.eventHandler = eventHandler;
     }
+
+    public void setEntityCache(EntityCache entityCache) {
+        this.entityCache = entityCache;
+    }
 }
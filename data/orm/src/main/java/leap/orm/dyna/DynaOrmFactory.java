@@ -18,6 +18,7 @@ package leap.orm.dyna;
 
 import leap.db.Db;
 import leap.lang.exception.ObjectExistsException;
+import leap.orm.OrmMetadata;
 
 import javax.sql.DataSource;
 
@@ -51,6 +52,14 @@ public interface DynaOrmFactory {
      */
     DynaOrmContext createDynaContext(String name, Db db);
 
+    /**
+     * Creates a new named {@link DynaOrmContext} using the given {@link OrmMetadata}.
+     *
+     * <p/>
+     * The metadata can be shared by the contexts of databases which have the same schema and the same db type.
+     */
+    DynaOrmContext createDynaContext(String name, Db db, OrmMetadata md);
+
     /**
      * Creates a new named {@link DynaOrmContext} and register it to {@link leap.orm.OrmRegistry}.
      *
@@ -73,4 +82,4 @@ public interface DynaOrmFactory {
      */
     DynaOrmContext existDynaContext(String name);
 
-}
\ No newline at end of file
+}
\ No newline at end of file
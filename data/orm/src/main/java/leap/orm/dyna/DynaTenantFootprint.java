@@ -0,0 +1,138 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package leap.orm.dyna;
+
+/**
+ * A snapshot of the resource usage of a tenant in {@link DynaTenantRegistry}.
+ */
+public class DynaTenantFootprint {
+
+    private final String  tenant;
+    private final String  schema;
+    private final boolean active;
+    private final long    createdAt;
+    private final long    lastAccessedAt;
+    private final long    accesses;
+    private final long    creationMillis;
+    private final int     sharedTenants;
+    private final int     entities;
+    private final int     sqlCommands;
+    private final long    estimatedBytes;
+
+    public DynaTenantFootprint(String tenant, String schema, boolean active,
+                               long createdAt, long lastAccessedAt, long accesses, long creationMillis,
+                               int sharedTenants, int entities, int sqlCommands, long estimatedBytes) {
+        this.tenant = tenant;
+        this.schema = schema;
+        this.active = active;
+        this.createdAt = createdAt;
+        this.lastAccessedAt = lastAccessedAt;
+        this.accesses = accesses;
+        this.creationMillis = creationMillis;
+        this.sharedTenants = sharedTenants;
+        this.entities = entities;
+        this.sqlCommands = sqlCommands;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    /**
+     * Returns the name of tenant.
+     */
+    public String getTenant() {
+        return tenant;
+    }
+
+    /**
+     * Returns the schema of tenant, may be null.
+     */
+    public String getSchema() {
+        return schema;
+    }
+
+    /**
+     * Returns <code>true</code> if the context of tenant is created and not evicted.
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Returns the time in milliseconds of the last creation of context, zero if never created.
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Returns the time in milliseconds of the last accessing, zero if never accessed.
+     */
+    public long getLastAccessedAt() {
+        return lastAccessedAt;
+    }
+
+    /**
+     * Returns the total number of accessing the context.
+     */
+    public long getAccesses() {
+        return accesses;
+    }
+
+    /**
+     * Returns the milliseconds used by the last creation of context.
+     */
+    public long getCreationMillis() {
+        return creationMillis;
+    }
+
+    /**
+     * Returns the number of active tenants sharing the metadata with this tenant (include itself).
+     */
+    public int getSharedTenants() {
+        return sharedTenants;
+    }
+
+    /**
+     * Returns the number of entities in the metadata.
+     */
+    public int getEntities() {
+        return entities;
+    }
+
+    /**
+     * Returns the number of sql commands in the metadata.
+     */
+    public int getSqlCommands() {
+        return sqlCommands;
+    }
+
+    /**
+     * Returns the estimated memory in bytes used by this tenant, the shared metadata is divided by the sharing tenants.
+     *
+     * <p/>
+     * Returns zero if not active.
+     */
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "DynaTenantFootprint{tenant=" + tenant + ", schema=" + schema + ", active=" + active +
+                ", accesses=" + accesses + ", sharedTenants=" + sharedTenants + ", entities=" + entities +
+                ", estimatedBytes=" + estimatedBytes + "}";
+    }
+}
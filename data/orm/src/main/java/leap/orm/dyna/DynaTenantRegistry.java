@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package leap.orm.dyna;
+
+import leap.lang.exception.ObjectExistsException;
+import leap.lang.exception.ObjectNotFoundException;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A registry of tenants, which creates the {@link DynaOrmContext} of tenant lazily at the first time accessing it.
+ *
+ * <p/>
+ * The tenants registered with the same schema (and the same db type) share the orm metadata,
+ * so the entity mappings and the sql commands are created only once.
+ *
+ * <p/>
+ * The idle contexts will be evicted if exceeds the limits, and will be created again at next accessing.
+ * The contexts acquired by {@link #acquire(String)} and not released yet will not be evicted by the limits.
+ */
+public interface DynaTenantRegistry {
+
+    /**
+     * Registers a tenant, the {@link DataSource} and the {@link DynaOrmContext} will be created at first accessing.
+     *
+     * @param tenant the name of tenant, also be the name of the created context.
+     * @param schema the schema name for sharing metadata, null means no sharing.
+     * @param dataSource creates the data source of tenant.
+     *
+     * @throws ObjectExistsException if the tenant already registered.
+     */
+    default void register(String tenant, String schema, Supplier<DataSource> dataSource) throws ObjectExistsException {
+        register(tenant, schema, dataSource, null);
+    }
+
+    /**
+     * Registers a tenant, the {@link DataSource} and the {@link DynaOrmContext} will be created at first accessing.
+     *
+     * @param releaser releases the data source after the context evicted, may be null.
+     *
+     * @throws ObjectExistsException if the tenant already registered.
+     */
+    void register(String tenant, String schema, Supplier<DataSource> dataSource, Consumer<DataSource> releaser) throws ObjectExistsException;
+
+    /**
+     * Sets the initializer of the schema.
+     *
+     * <p/>
+     * The initializer will be invoked only once by the first created context of the schema,
+     * it creates the entities in the shared metadata, i.e. by the {@link leap.orm.dmo.Dmo} of the context.
+     */
+    void setSchemaInitializer(String schema, Consumer<DynaOrmContext> initializer);
+
+    /**
+     * Returns <code>true</code> if the tenant is registered.
+     */
+    boolean isRegistered(String tenant);
+
+    /**
+     * Returns the context of tenant, creates it if not created or evicted.
+     *
+     * @throws ObjectNotFoundException if the tenant not registered.
+     */
+    DynaOrmContext getContext(String tenant) throws ObjectNotFoundException;
+
+    /**
+     * Acquires the context of tenant, the context will not be evicted by the limits or the idle timeout
+     * until released by {@link #release(String)}.
+     *
+     * @throws ObjectNotFoundException if the tenant not registered.
+     */
+    DynaOrmContext acquire(String tenant) throws ObjectNotFoundException;
+
+    /**
+     * Releases the context acquired by {@link #acquire(String)}.
+     */
+    void release(String tenant);
+
+    /**
+     * Returns the context of tenant if it is created and not evicted yet, or else returns null.
+     */
+    DynaOrmContext tryGetActiveContext(String tenant);
+
+    /**
+     * Evicts the context of tenant, returns <code>false</code> if the context not created.
+     */
+    boolean evict(String tenant);
+
+    /**
+     * Evicts the contexts idle for more than the idle timeout, returns the number of evicted contexts.
+     */
+    int evictIdle();
+
+    /**
+     * Unregisters the tenant and evicts the context if created.
+     */
+    boolean unregister(String tenant);
+
+    /**
+     * Returns the number of created (not evicted) contexts.
+     */
+    int getActiveCount();
+
+    /**
+     * Returns the estimated memory in bytes of all the created contexts.
+     */
+    long getEstimatedMemory();
+
+    /**
+     * Returns the footprint of tenant or null if the tenant not registered.
+     */
+    DynaTenantFootprint getFootprint(String tenant);
+
+    /**
+     * Returns the footprints of all the registered tenants.
+     */
+    List<DynaTenantFootprint> getFootprints();
+
+}
@@ -18,7 +18,9 @@ package leap.orm.event;
 
 import leap.lang.Collections2;
 import leap.orm.OrmContext;
+import leap.orm.cache.EntityCache;
 import leap.orm.mapping.EntityMapping;
+import leap.orm.mapping.Mappings;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -29,7 +31,7 @@ public class DefaultEntityEventHandler implements EntityEventHandler {
 
     @Override
     public boolean isHandleCreateEvent(OrmContext context, EntityMapping em) {
-        return getListeners(context, em).hasCreateListeners();
+        return getListeners(context, em).hasCreateListeners() || isCacheable(context, em);
     }
 
     @Override
@@ -39,7 +41,7 @@ public class DefaultEntityEventHandler implements EntityEventHandler {
 
     @Override
     public boolean isHandleUpdateEvent(OrmContext context, EntityMapping em) {
-        return getListeners(context, em).hasUpdateListeners();
+        return getListeners(context, em).hasUpdateListeners() || isCacheable(context, em);
     }
 
     @Override
@@ -49,7 +51,7 @@ public class DefaultEntityEventHandler implements EntityEventHandler {
 
     @Override
     public boolean isHandleDeleteEvent(OrmContext context, EntityMapping em) {
-        return getListeners(context, em).hasDeleteListeners();
+        return getListeners(context, em).hasDeleteListeners() || isCacheable(context, em);
     }
 
     @Override
@@ -85,6 +87,10 @@ public class DefaultEntityEventHandler implements EntityEventHandler {
 
     @Override
     public void postCreateEntityNoTrans(OrmContext context, EntityMapping em, CreateEntityEvent e) {
+        Object id = Mappings.getId(em, e.getEntity());
+        if(null != id) {
+            evictCache(context, em, id);
+        }
         for (PostCreateListener listener : getListeners(context, em).getNoTransPostCreateListeners()) {
             listener.postCreateEntity(e);
         }
@@ -113,6 +119,7 @@ public class DefaultEntityEventHandler implements EntityEventHandler {
 
     @Override
     public void postUpdateEntityNoTrans(OrmContext context, EntityMapping em, UpdateEntityEvent e) {
+        evictCache(context, em, e.getId());
         for (PostUpdateListener listener : getListeners(context, em).getNoTransPostUpdateListeners()) {
             listener.postUpdateEntity(e);
         }
@@ -141,6 +148,7 @@ public class DefaultEntityEventHandler implements EntityEventHandler {
 
     @Override
     public void postDeleteEntityNoTrans(OrmContext context, EntityMapping em, DeleteEntityEvent e) {
+        evictCache(context, em, e.getId());
         for (PostDeleteListener listener : getListeners(context, em).getNoTransPostDeleteListeners()) {
             listener.postDeleteEntity(e);
         }
@@ -153,6 +161,28 @@ public class DefaultEntityEventHandler implements EntityEventHandler {
         }
     }
 
+    protected boolean isCacheable(OrmContext context, EntityMapping em) {
+        EntityCache cache = context.getEntityCache();
+        return null != cache && cache.isCacheable(context, em);
+    }
+
+    /**
+     * Evicts the changed record from cache, evicts all the records of entity if the id is unknown.
+     *
+     * <p/>
+     * The cache evicts again after the active transaction completed, see {@link EntityCache#evict(OrmContext, EntityMapping, Object)}.
+     */
+    protected void evictCache(OrmContext context, EntityMapping em, Object id) {
+        EntityCache cache = context.getEntityCache();
+        if(null != cache) {
+            if(null == id) {
+                cache.evictAll(context, em);
+            }else{
+                cache.evict(context, em, id);
+            }
+        }
+    }
+
     protected EntityListeners getListeners(OrmContext context, EntityMapping em) {
         boolean withEvents = context.getDao().isWithEvents();
         if (!withEvents) {
@@ -38,6 +38,7 @@ import leap.lang.reflect.ReflectMethod;
 import leap.orm.annotation.*;
 import leap.orm.annotation.event.*;
 import leap.orm.annotation.meta.MetaName;
+import leap.orm.cache.EntityCacheSettings;
 import leap.orm.config.OrmModelClassConfig;
 import leap.orm.config.OrmModelsConfig;
 import leap.orm.config.OrmModelsConfigs;
@@ -74,6 +75,7 @@ public class ClassMappingProcessor extends MappingProcessorAdapter implements Ma
 			mappingEntityByAnnotation(context, emb, sourceClass.getAnnotation(Table.class));
             mappingEntityByAnnotation(context, emb, sourceClass.getAnnotation(AutoCreateTable.class));
             mappingEntityByAnnotation(context, emb, sourceClass.getAnnotation(AutoGenerateColumns.class));
+            mappingEntityByAnnotation(context, emb, sourceClass.getAnnotation(Cacheable.class));
             mappingListenerByAnnotations(context, emb, sourceClass.getDeclaredAnnotationsByType(Entity.Listener.class));
 			mappingManyToOneByClassAnnotation(context, emb, sourceClass.getDeclaredAnnotationsByType(ManyToOne.class));
 			mappingManyToManyByClassAnnotation(context, emb, sourceClass.getDeclaredAnnotationsByType(ManyToMany.class));
@@ -288,6 +290,12 @@ public class ClassMappingProcessor extends MappingProcessorAdapter implements Ma
         }
     }
 
+    protected void mappingEntityByAnnotation(MetadataContext context, EntityMappingBuilder emb, Cacheable a){
+        if(null != a && a.value()){
+            emb.setExtension(EntityCacheSettings.class, new EntityCacheSettings(a));
+        }
+    }
+
 	protected boolean mappingFieldColumnByAnnotation(MetadataContext context,EntityMappingBuilder emb,FieldMappingBuilder f,Column a) {
         if (null != a) {
             DbColumnBuilder c = f.getColumn();
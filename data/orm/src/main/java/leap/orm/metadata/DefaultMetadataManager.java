@@ -19,6 +19,8 @@ import leap.core.AppContext;
 import leap.core.BeanFactory;
 import leap.core.annotation.Inject;
 import leap.core.annotation.M;
+import leap.core.startup.StartupProfiler;
+import leap.core.startup.StartupStep;
 import leap.db.Db;
 import leap.db.model.DbSchemaBuilder;
 import leap.lang.Args;
@@ -100,6 +102,12 @@ public class DefaultMetadataManager implements OrmMetadataManager {
     }
 
     protected void doLoad(OrmContext context, Consumer<LoadingContext> preMapping) throws MetadataException {
+        try (StartupStep step = StartupProfiler.start("orm-metadata:" + context.getName())) {
+            doLoadMetadata(context, preMapping);
+        }
+    }
+
+    protected void doLoadMetadata(OrmContext context, Consumer<LoadingContext> preMapping) throws MetadataException {
         log.debug("Loading metadata for orm context '{}'...", context.getName());
 
         LoadingContext loadingContext = new LoadingContext(context);
@@ -78,6 +78,16 @@ public class ModelInstrumentation extends AsmInstrumentProcessor implements AppI
         return false;
     }
 
+    @Override
+    public String getVersion() {
+        //the result depends on the class and the transformers.
+        StringBuilder s = new StringBuilder("1");
+        for(ModelTransformer transformer : transformers) {
+            s.append(',').append(transformer.getClass().getName());
+        }
+        return s.toString();
+    }
+
     @Override
     protected void processClass(AppInstrumentContext context, AppInstrumentClass ic, ClassInfo ci, boolean methodBodyOnly) {
         if(ASM.isAnnotationPresent(ci.cn, NonEntity.class)){
@@ -111,7 +121,7 @@ public class ModelInstrumentation extends AsmInstrumentProcessor implements AppI
     }
 
 	protected void instrument(AppInstrumentContext context, AppInstrumentClass ic, ClassReader cr, ClassWriter cw) {
-		ClassNode cn = ASM.getClassNode(cr);
+		ClassNode cn = context.getClassNode(cr);
 		
 		transformClass(cr,cw, cn);
 		instrumentDelegates(cr,cw);
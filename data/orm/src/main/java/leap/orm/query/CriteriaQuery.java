@@ -458,6 +458,23 @@ public interface CriteriaQuery<T> extends Query<T> {
         return lastUpdated().limit(limit);
     }
 
+    /**
+     * Executes the query and passes each row to the consumer while reading the forward-only result set.
+     *
+     * <p/>
+     * The rows are not held in memory, use it for reading large results. Returns the number of rows.
+     *
+     * @param fetchSize the hint of rows fetched from database per round-trip, zero or negative means the driver's default.
+     */
+    int forEach(int fetchSize, Consumer<? super T> consumer);
+
+    /**
+     * Same as {@link #forEach(int, Consumer)} with the driver's default fetch size.
+     */
+    default int forEach(Consumer<? super T> consumer) {
+        return forEach(0, consumer);
+    }
+
     /**
      * Executes a delete operation on this CriteriaQuery.
      */
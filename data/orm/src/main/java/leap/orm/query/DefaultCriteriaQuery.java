@@ -19,6 +19,8 @@ import leap.core.exception.TooManyRecordsException;
 import leap.core.jdbc.ResultSetReader;
 import leap.core.jdbc.SimpleScalarReader;
 import leap.core.jdbc.SimpleScalarsReader;
+import leap.core.transaction.SimpleTransactionDefinition;
+import leap.core.transaction.TransactionCallbackWithResult;
 import leap.core.value.Scalar;
 import leap.core.value.Scalars;
 import leap.db.DbDialect;
@@ -29,7 +31,9 @@ import leap.lang.params.MapArrayParams;
 import leap.lang.params.Params;
 import leap.lang.value.Limit;
 import leap.orm.OrmContext;
+import leap.orm.cache.EntityCache;
 import leap.orm.dao.Dao;
+import leap.orm.event.LoadEntityEventImpl;
 import leap.orm.mapping.*;
 import leap.orm.reader.ResultSetReaders;
 import leap.orm.sql.SqlClause;
@@ -41,6 +45,7 @@ import leap.orm.sql.parser.SqlParser;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -686,8 +691,51 @@ public class DefaultCriteriaQuery<T> extends AbstractQuery<T> implements Criteri
         return statement.executeQuery(ResultSetReaders.forScalarValue(Long.class, false));
     }
 
+    @Override
+    public int forEach(int fetchSize, Consumer<? super T> consumer) {
+        QueryContext qc        = null == limit ? this : new LimitQueryContext(limit);
+        String       sql       = builder.buildSelectSql();
+        SqlStatement statement = createQueryStatement(qc, sql);
+
+        Consumer<? super T> handler = consumer;
+        if (null != em && eventHandler.isHandleLoadEvent(context, em)) {
+            handler = row -> {
+                LoadEntityEventImpl event = new LoadEntityEventImpl(qc, em, Collections.singletonList(row), false);
+                eventHandler.postLoadEntityNoTrans(context, em, event);
+                consumer.accept(row);
+            };
+        }
+
+        ResultSetReader<Integer> reader = ResultSetReaders.forEachEntity(dao.getOrmContext(), qc, em, targetType, fetchSize, handler);
+        if(fetchSize <= 0) {
+            return statement.executeQuery(reader);
+        }
+
+        //the drivers stream the rows in a transaction only (i.e. PostgreSQL).
+        SimpleTransactionDefinition td = new SimpleTransactionDefinition();
+        td.setReadOnly(true);
+        return dao.doTransaction((TransactionCallbackWithResult<Integer>) s -> statement.executeQuery(reader), td);
+    }
+
     @Override
     public int delete() {
+        try {
+            return doDelete();
+        } finally {
+            evictCache();
+        }
+    }
+
+    @Override
+    public int update(Map<String, Object> fields) {
+        try {
+            return doUpdate(fields);
+        } finally {
+            evictCache();
+        }
+    }
+
+    protected int doDelete() {
         if (em.hasSecondaryTable()) {
             String secondarySql = builder.buildSecondaryDeleteSql(true);
             String primarySql   = builder.buildSecondaryDeleteSql(false);
@@ -701,8 +749,7 @@ public class DefaultCriteriaQuery<T> extends AbstractQuery<T> implements Criteri
         }
     }
 
-    @Override
-    public int update(Map<String, Object> fields) {
+    protected int doUpdate(Map<String, Object> fields) {
         Args.notEmpty(fields, "update fields");
 
         if (em.hasSecondaryTable()) {
@@ -741,6 +788,16 @@ public class DefaultCriteriaQuery<T> extends AbstractQuery<T> implements Criteri
         }
     }
 
+    /**
+     * Evicts all the cached records of entity, the changed records are unknown.
+     */
+    protected void evictCache() {
+        EntityCache cache = context.getEntityCache();
+        if (null != cache && cache.isCacheable(context, em)) {
+            cache.evictAll(context, em);
+        }
+    }
+
     @Override
     protected QueryResult<T> executeQuery(QueryContext qc) {
         String       sql       = builder.buildSelectSql();
@@ -43,6 +43,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 public class DefaultEntityReader implements EntityReader {
 	
@@ -94,6 +95,25 @@ public class DefaultEntityReader implements EntityReader {
 		return list;
     }
 	
+	@Override
+	public <T> int readEach(OrmContext context, SqlContext sqlContext, ResultSet rs, EntityMapping em, Class<T> resultClass, Consumer<? super T> consumer) throws SQLException {
+		int count = 0;
+		
+		if(rs.next()){
+			ResultSetMapping rsm = createResultSetMapping(context, sqlContext, rs, em);
+			do{
+				consumer.accept(readCurrentRow(context, rs, rsm, resultClass));
+				count++;
+			}while(rs.next());
+		}
+		
+		if(log.isDebugEnabled()){
+			log.debug("Read {} rows of '{}' from result set one by one",count,em.getEntityName());	
+		}
+		
+		return count;
+	}
+	
 	@SuppressWarnings("unchecked")
     protected <T> T readCurrentRow(OrmContext context, ResultSet rs,ResultSetMapping rsm,Class<T> resultClass) throws SQLException {
         if(Record.class.equals(resultClass)) {
@@ -18,6 +18,7 @@ package leap.orm.reader;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.function.Consumer;
 
 import leap.core.exception.TooManyRecordsException;
 import leap.orm.OrmContext;
@@ -33,4 +34,9 @@ public interface EntityReader {
 	
 	<T> List<T> readList(OrmContext context, SqlContext sqlContext, ResultSet rs,EntityMapping em,Class<T> elementType, Class<? extends T> resultClass) throws SQLException;
 	
+	/**
+	 * Reads the rows one by one and passes each row to the consumer without holding all the rows, returns the number of rows.
+	 */
+	<T> int readEach(OrmContext context, SqlContext sqlContext, ResultSet rs, EntityMapping em, Class<T> resultClass, Consumer<? super T> consumer) throws SQLException;
+	
 }
\ No newline at end of file
@@ -25,7 +25,10 @@ import leap.orm.sql.SqlCommand;
 import leap.orm.sql.SqlContext;
 import leap.orm.sql.SqlResultSetReader;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class ResultSetReaders {
 	
@@ -55,6 +58,24 @@ public class ResultSetReaders {
 		return rs -> context.getEntityReader().readList(context,sqlContext, rs, em, elementType, resultClass);
 	}
 	
+	/**
+	 * Returns a reader passing each entity to the consumer, the fetch size is set to the statement before executing.
+	 */
+	public static <T> ResultSetReader<Integer> forEachEntity(final OrmContext context, final SqlContext sqlContext, final EntityMapping em, final Class<T> resultClass,
+															 final int fetchSize, final Consumer<? super T> consumer) {
+		return new ResultSetReader<Integer>() {
+			@Override
+			public Integer read(ResultSet rs) throws SQLException {
+				return context.getEntityReader().readEach(context, sqlContext, rs, em, resultClass, consumer);
+			}
+
+			@Override
+			public int getFetchSize() {
+				return fetchSize;
+			}
+		};
+	}
+	
 	public static <T> SqlResultSetReader<T> forFirstRow(final OrmContext context, final Class<T> resultClass, final SqlCommand command){
 		return (c, rs) -> context.getRowReader().readFirst(c, rs, resultClass,command);
 	}
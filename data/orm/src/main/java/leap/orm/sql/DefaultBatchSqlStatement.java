@@ -19,6 +19,7 @@ package leap.orm.sql;
 
 import leap.core.jdbc.BatchPreparedStatementHandler;
 import leap.db.Db;
+import leap.db.stats.SqlStats;
 import leap.lang.Arrays2;
 import leap.lang.exception.NestedSQLException;
 
@@ -50,7 +51,13 @@ public class DefaultBatchSqlStatement implements BatchSqlStatement {
 
                 Object[][] params = sqlParamMap.get(sqlString);
 
-                int[] result = context.getJdbcExecutor().executeBatchUpdate(sqlString, params, null, psHandler);
+                int[] result;
+                String prev = SqlStats.enterSource(DefaultSqlStatement.statsSource(context));
+                try {
+                    result = context.getJdbcExecutor().executeBatchUpdate(sqlString, params, null, psHandler);
+                }finally {
+                    SqlStats.exitSource(prev);
+                }
 
                 results.addAll(Arrays.stream(result).boxed().collect(Collectors.toList()));
             }
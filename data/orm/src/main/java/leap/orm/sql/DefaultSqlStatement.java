@@ -20,13 +20,20 @@ import leap.core.jdbc.JdbcExecutor;
 import leap.core.jdbc.PreparedStatementHandler;
 import leap.core.jdbc.ResultSetReader;
 import leap.db.Db;
+import leap.db.stats.SqlStats;
 import leap.lang.annotation.Nullable;
 import leap.lang.exception.NestedSQLException;
 import leap.orm.OrmContext;
 import leap.orm.mapping.EntityMapping;
+import leap.orm.query.QueryContext;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DefaultSqlStatement implements SqlStatement,BatchSqlStatement,SqlExecutionContext {
-	
+
+    private static final Map<Class<?>, String> commandNames = new ConcurrentHashMap<>();
+
 	protected final SqlContext context;
     protected final Sql        sql;
 	protected final String     sqlString;
@@ -84,28 +91,45 @@ public class DefaultSqlStatement implements SqlStatement,BatchSqlStatement,SqlEx
 
     @Override
     public int executeUpdate() throws NestedSQLException {
-		return context.getJdbcExecutor().executeUpdate(sqlString, args, argTypes);
+        return executeUpdate(null);
     }
 	
 	@Override
     public int executeUpdate(@Nullable PreparedStatementHandler<Db> psHandler) throws NestedSQLException {
-	    return context.getJdbcExecutor().executeUpdate(sqlString, args, argTypes, psHandler);
+        String prev = SqlStats.enterSource(statsSource(context));
+        try {
+            return null == psHandler ? context.getJdbcExecutor().executeUpdate(sqlString, args, argTypes) :
+                                       context.getJdbcExecutor().executeUpdate(sqlString, args, argTypes, psHandler);
+        }finally {
+            SqlStats.exitSource(prev);
+        }
     }
 
 	@Override
     public int[] executeBatchUpdate() throws NestedSQLException {
-	    return context.getJdbcExecutor().executeBatchUpdate(sqlString, batchArgs, argTypes);
+        return executeBatchUpdate(null);
     }
 
 	@Override
     public int[] executeBatchUpdate(BatchPreparedStatementHandler<Db> psHandler) throws NestedSQLException {
-	    return context.getJdbcExecutor().executeBatchUpdate(sqlString, batchArgs, argTypes, psHandler);
+        String prev = SqlStats.enterSource(statsSource(context));
+        try {
+            return null == psHandler ? context.getJdbcExecutor().executeBatchUpdate(sqlString, batchArgs, argTypes) :
+                                       context.getJdbcExecutor().executeBatchUpdate(sqlString, batchArgs, argTypes, psHandler);
+        }finally {
+            SqlStats.exitSource(prev);
+        }
     }
 
 	@Override
     public <T> T executeQuery(ResultSetReader<T> reader) throws NestedSQLException {
         context.setQuerySql(sql);
-		return context.getJdbcExecutor().executeQuery(sqlString, args, argTypes, wrap(reader));
+        String prev = SqlStats.enterSource(statsSource(context));
+        try {
+            return context.getJdbcExecutor().executeQuery(sqlString, args, argTypes, wrap(reader));
+        }finally {
+            SqlStats.exitSource(prev);
+        }
     }
 
     private <T> ResultSetReader<T> wrap(ResultSetReader<T> reader) {
@@ -119,4 +143,27 @@ public class DefaultSqlStatement implements SqlStatement,BatchSqlStatement,SqlEx
     public String getSqlString() {
 	    return this.sqlString;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the calling source of sql stats, i.e. <code>User.find</code>, <code>User.criteriaQuery</code>.
+     */
+    static String statsSource(SqlContext context) {
+        EntityMapping em = context.getPrimaryEntityMapping();
+
+        String command = commandNames.computeIfAbsent(context.getClass(), (c) -> {
+            if(c.isAnonymousClass() || null != c.getEnclosingClass()) {
+                return context instanceof QueryContext ? "query" : "sql";
+            }
+            String name = c.getSimpleName();
+            if(name.startsWith("Default")) {
+                name = name.substring("Default".length());
+            }
+            if(name.endsWith("Command")) {
+                name = name.substring(0, name.length() - "Command".length());
+            }
+            return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+        });
+
+        return null == em ? command : em.getEntityName() + "." + command;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.orm.bulk;
+
+import leap.orm.OrmTestCase;
+import leap.orm.tested.model.Person;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CsvImporterTest extends OrmTestCase {
+
+    @Override
+    protected void setUp() throws Exception {
+        deleteAll(Person.class);
+    }
+
+    @Test
+    public void testImport() {
+        StringBuilder csv = new StringBuilder("name,email,age,unknown\n");
+        for(int i=0;i<25;i++) {
+            csv.append("p").append(i).append(",p").append(i).append("@example.com,").append(i).append(",x\n");
+        }
+
+        CsvImporter.Result result =
+                new CsvImporter(dao, Person.class)
+                        .setBatchSize(4)
+                        .setTransactionSize(10)
+                        .setThreads(2)
+                        .importFrom(new StringReader(csv.toString()));
+
+        assertTrue(result.isCompleted());
+        assertEquals(25, result.getRead());
+        assertEquals(25, result.getImported());
+        assertEquals(0, result.getFailed());
+        assertEquals(25, dao.count(Person.class));
+        assertEquals(24, Person.<Person>where("name = ?", "p24").first().getAge());
+    }
+
+    @Test
+    public void testErrorRows() {
+        String csv = "full_name,email,age\n" +
+                     "a,a@example.com,1\n" +
+                     "b,b@example.com,x\n" +
+                     ",c@example.com,3\n" +
+                     "d,not-an-email,4\n" +
+                     "e,e@example.com,5\n";
+
+        List<CsvImporter.ErrorRow> errors = new ArrayList<>();
+
+        CsvImporter.Result result =
+                new CsvImporter(dao, Person.class)
+                        .mapColumn("full_name", "name")
+                        .setThreads(0)
+                        .setErrorHandler(errors::add)
+                        .importFrom(new StringReader(csv));
+
+        assertTrue(result.isCompleted());
+        assertEquals(5, result.getRead());
+        assertEquals(2, result.getImported());
+        assertEquals(3, result.getFailed());
+        assertEquals(3, errors.size());
+        assertEquals(3, errors.get(0).getRownum());
+        assertEquals(4, errors.get(1).getRownum());
+        assertEquals(5, errors.get(2).getRownum());
+        assertEquals(2, dao.count(Person.class));
+    }
+
+    @Test
+    public void testMaxErrors() {
+        String csv = "name,age\n" +
+                     "a,x\n" +
+                     "b,y\n" +
+                     "c,3\n";
+
+        CsvImporter.Result result =
+                new CsvImporter(dao, Person.class)
+                        .setMaxErrors(1)
+                        .setThreads(0)
+                        .importFrom(new StringReader(csv));
+
+        assertFalse(result.isCompleted());
+        assertEquals(2, result.getFailed());
+        assertEquals(0, result.getImported());
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package leap.orm.cache;
+
+import leap.core.value.Record;
+import leap.lang.New;
+import leap.orm.OrmTestCase;
+import leap.orm.mapping.EntityMapping;
+import leap.orm.tested.CacheableEntity;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+public class EntityCacheTest extends OrmTestCase {
+
+    private EntityCache   cache;
+    private EntityMapping em;
+
+    @Override
+    protected void setUp() throws Exception {
+        cache = context.getEntityCache();
+        em    = metadata.getEntityMapping(CacheableEntity.class);
+
+        deleteAll(CacheableEntity.class);
+    }
+
+    @Test
+    public void testFindFromCache() {
+        dao.insert(new CacheableEntity("1", "a"));
+
+        long hits   = stats().getHits();
+        long misses = stats().getMisses();
+
+        CacheableEntity e1 = dao.find(CacheableEntity.class, "1");
+        assertEquals(misses + 1, stats().getMisses());
+
+        CacheableEntity e2 = dao.find(CacheableEntity.class, "1");
+        assertEquals(hits + 1, stats().getHits());
+        assertEquals("a", e2.getName());
+        assertNotSame(e1, e2);
+
+        e2.setName("b");
+        assertEquals("a", dao.find(CacheableEntity.class, "1").getName());
+    }
+
+    @Test
+    public void testFindRecordFromCache() {
+        dao.insert(new CacheableEntity("1", "a"));
+
+        Record r1 = dao.find(em, "1");
+        long hits = stats().getHits();
+
+        Record r2 = dao.find(em, "1");
+        assertEquals(hits + 1, stats().getHits());
+        assertEquals(r1.get("name"), r2.get("name"));
+        assertNull(dao.findOrNull(CacheableEntity.class, "2"));
+    }
+
+    @Test
+    public void testEvictByUpdateAndDelete() {
+        dao.insert(new CacheableEntity("1", "a"));
+        assertEquals("a", dao.find(CacheableEntity.class, "1").getName());
+
+        dao.update(CacheableEntity.class, "1", New.hashMap("name", "b"));
+        assertEquals("b", dao.find(CacheableEntity.class, "1").getName());
+
+        dao.update(new CacheableEntity("1", "c"));
+        assertEquals("c", dao.find(CacheableEntity.class, "1").getName());
+
+        dao.delete(CacheableEntity.class, "1");
+        assertNull(dao.findOrNull(CacheableEntity.class, "1"));
+    }
+
+    @Test
+    public void testEvictByBatchAndQuery() {
+        dao.insert(new CacheableEntity("1", "a"));
+        dao.insert(new CacheableEntity("2", "a"));
+        dao.findList(CacheableEntity.class, new Object[]{"1", "2"});
+
+        dao.batchUpdate(new CacheableEntity[]{new CacheableEntity("1", "b"), new CacheableEntity("2", "b")});
+        assertEquals("b", dao.find(CacheableEntity.class, "1").getName());
+        assertEquals("b", dao.find(CacheableEntity.class, "2").getName());
+
+        dao.createCriteriaQuery(CacheableEntity.class).where("id = ?", "1").update(New.hashMap("name", "c"));
+        assertEquals("c", dao.find(CacheableEntity.class, "1").getName());
+
+        dao.batchDelete(CacheableEntity.class, new Object[]{"1"});
+        assertNull(dao.findOrNull(CacheableEntity.class, "1"));
+
+        dao.deleteAll(CacheableEntity.class);
+        assertNull(dao.findOrNull(CacheableEntity.class, "2"));
+    }
+
+    @Test
+    public void testFindListWithCache() {
+        dao.insert(new CacheableEntity("1", "a"));
+        dao.insert(new CacheableEntity("2", "b"));
+        dao.insert(new CacheableEntity("3", "c"));
+
+        dao.find(CacheableEntity.class, "2");
+
+        long hits = stats().getHits();
+        List<CacheableEntity> list = dao.findList(CacheableEntity.class, new Object[]{"3", "2", "1"});
+        assertEquals(hits + 1, stats().getHits());
+        assertEquals(3, list.size());
+        assertEquals("c", list.get(0).getName());
+        assertEquals("b", list.get(1).getName());
+        assertEquals("a", list.get(2).getName());
+
+        hits = stats().getHits();
+        assertEquals(3, dao.findList(CacheableEntity.class, new Object[]{"1", "2", "3"}).size());
+        assertEquals(hits + 3, stats().getHits());
+
+        assertEquals(2, dao.findListIfExists(CacheableEntity.class, new Object[]{"1", "2", "4"}).size());
+    }
+
+    @Test
+    public void testNotCachedWhileChanging() {
+        dao.insert(new CacheableEntity("1", "a"));
+
+        long version = cache.getVersion(context, em);
+        CacheableEntity loaded = dao.createCriteriaQuery(CacheableEntity.class).where("id = ?", "1").first();
+
+        cache.evict(context, em, "1");
+        cache.put(context, em, CacheableEntity.class, loaded, version);
+        assertNull(cache.get(context, em, CacheableEntity.class, "1"));
+    }
+
+    @Test
+    public void testEvictAfterCommit() throws Exception {
+        dao.insert(new CacheableEntity("1", "a"));
+        dao.find(CacheableEntity.class, "1");
+
+        dao.doTransaction(s -> {
+            dao.update(CacheableEntity.class, "1", New.hashMap("name", "b"));
+
+            //bypass the cache in transaction.
+            long puts = stats().getPuts();
+            assertEquals("b", dao.find(CacheableEntity.class, "1").getName());
+            assertEquals(puts, stats().getPuts());
+
+            //the old record loaded by other transaction before committing.
+            Thread other = new Thread(() ->
+                    cache.put(context, em, CacheableEntity.class, new CacheableEntity("1", "a"), cache.getVersion(context, em)));
+            other.start();
+            other.join();
+        });
+
+        assertNull(cache.get(context, em, CacheableEntity.class, "1"));
+        assertEquals("b", dao.find(CacheableEntity.class, "1").getName());
+    }
+
+    @Test
+    public void testDeepCopy() {
+        List<String> tags = new ArrayList<>();
+        tags.add("x");
+        Date created = new Date(1000);
+
+        Map<String, Object> record = New.hashMap("id", "1", "name", "a");
+        record.put("tags", tags);
+        record.put("created", created);
+        cache.put(context, em, Map.class, record, cache.getVersion(context, em));
+
+        tags.add("y");
+        created.setTime(2000);
+
+        Map<String, Object> cached = cache.get(context, em, Map.class, "1");
+        assertEquals(1, ((List)cached.get("tags")).size());
+        assertEquals(1000, ((Date)cached.get("created")).getTime());
+
+        ((List)cached.get("tags")).add("z");
+        ((Date)cached.get("created")).setTime(3000);
+
+        cached = cache.get(context, em, Map.class, "1");
+        assertEquals(1, ((List)cached.get("tags")).size());
+        assertEquals(1000, ((Date)cached.get("created")).getTime());
+    }
+
+    private EntityCacheStats stats() {
+        EntityCacheStats stats = cache.getStats(context, em);
+        assertNotNull(stats);
+        return stats;
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.orm.change;
+
+import leap.core.schedule.SchedulerManager;
+import leap.core.value.Record;
+import leap.orm.OrmContext;
+import leap.orm.OrmTestCase;
+import leap.orm.dao.Dao;
+import leap.orm.tested.ChangeEntity;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class ChangeManagerTest extends OrmTestCase {
+
+    private TestChangeManager    manager;
+    private List<ChangeObserver> observers = new ArrayList<>();
+
+    @Override
+    protected void setUp() throws Exception {
+        deleteAll(ChangeEntity.class);
+
+        manager = new TestChangeManager();
+        manager.scheduler = beanFactory.getBean(SchedulerManager.class).newFixedThreadPoolScheduler("change-manager-test", 1);
+    }
+
+    @After
+    public void stopObservers() throws Throwable {
+        observers.forEach(ChangeObserver::stop);
+        manager.dispose();
+    }
+
+    @Test
+    public void testBackOffAndReset() {
+        List<Object> changes = new ArrayList<>();
+        ChangeObserver observer = observe(changes, 100, 800);
+
+        for(long expected : new long[]{200, 400, 800, 800}) {
+            poll();
+            assertEquals(expected, observer.getStats().getCurrentPeriod());
+        }
+        assertEquals(4, observer.getStats().getEmptyPolls());
+        assertTrue(changes.isEmpty());
+
+        dao.insert(new ChangeEntity("1", "a", 1L));
+        poll();
+        assertEquals(1, changes.size());
+        assertEquals(100, observer.getStats().getCurrentPeriod());
+        assertEquals(1, observer.getStats().getChanges());
+    }
+
+    @Test
+    public void testObserversShareGroup() {
+        List<Object> changes1 = new ArrayList<>();
+        List<Object> changes2 = new ArrayList<>();
+        ChangeObserver o1 = observe(changes1, 100, 800);
+        ChangeObserver o2 = observe(changes2, 100, 800);
+
+        assertEquals(1, manager.groups.size());
+        assertEquals(2, group().observers.size());
+
+        //checked by the batched count query, the changes query not executed.
+        poll();
+        assertEquals(0, o1.getStats().getPolls());
+        assertEquals(0, o2.getStats().getPolls());
+        assertEquals(1, o1.getStats().getEmptyPolls());
+        assertEquals(1, o2.getStats().getEmptyPolls());
+        assertEquals(1, manager.countQueries);
+
+        dao.insert(new ChangeEntity("1", "a", 1L));
+        poll();
+        assertEquals(1, changes1.size());
+        assertEquals(1, changes2.size());
+        assertEquals(0, o1.getStats().getPending());
+        assertEquals(2, manager.countQueries);
+
+        o1.stop();
+        assertEquals(1, group().observers.size());
+        o2.stop();
+        assertTrue(manager.groups.isEmpty());
+    }
+
+    @Test
+    public void testFallbackWhenBatchCheckFails() {
+        manager.failCountQuery = true;
+
+        List<Object> changes1 = new ArrayList<>();
+        List<Object> changes2 = new ArrayList<>();
+        ChangeObserver o1 = observe(changes1, 100, 800);
+        ChangeObserver o2 = observe(changes2, 100, 800);
+
+        dao.insert(new ChangeEntity("1", "a", 1L));
+        poll();
+        assertFalse(group().batchCheckSupported);
+        assertEquals(1, changes1.size());
+        assertEquals(1, changes2.size());
+        assertEquals(1, o1.getStats().getPolls());
+        assertEquals(1, o2.getStats().getPolls());
+
+        //not batched any more.
+        poll();
+        assertEquals(1, manager.countQueries);
+        assertEquals(2, o1.getStats().getPolls());
+        assertEquals(200, o1.getStats().getCurrentPeriod());
+    }
+
+    private ChangeObserver observe(List<Object> changes, int period, int maxPeriod) {
+        ChangeObserver observer =
+                manager.createEntityChangeObserver(dao, ChangeEntity.class, "changedAt")
+                       .setListener(new ChangeListener<Object>() {
+                           @Override
+                           public void onEntityChanged(Dao dao, Object entity) {
+                               changes.add(entity);
+                           }
+                       })
+                       .setPeriod(TimeUnit.MILLISECONDS, period)
+                       .setMaxPeriod(TimeUnit.MILLISECONDS, maxPeriod);
+        observer.start();
+        observers.add(observer);
+        return observer;
+    }
+
+    private TestPollGroup group() {
+        return (TestPollGroup)manager.groups.get(dao.getOrmContext());
+    }
+
+    /**
+     * Makes all the observers due and polls once.
+     */
+    private void poll() {
+        TestPollGroup group = group();
+        group.observers.forEach(o -> o.nextPollAt = 0);
+        group.poll();
+    }
+
+    private static final class TestChangeManager extends DefaultChangeManager {
+        private boolean failCountQuery;
+        private int     countQueries;
+
+        @Override
+        protected PollGroup createPollGroup(OrmContext context) {
+            return new TestPollGroup(this, context);
+        }
+    }
+
+    private static final class TestPollGroup extends DefaultChangeManager.PollGroup {
+        private final TestChangeManager manager;
+
+        TestPollGroup(TestChangeManager manager, OrmContext context) {
+            manager.super(context);
+            this.manager = manager;
+        }
+
+        @Override
+        public void run() {
+            //polled by the test.
+        }
+
+        void poll() {
+            super.run();
+        }
+
+        @Override
+        protected List<Record> queryCounts(Dao dao, String sql, Map<String, Object> params) {
+            manager.countQueries++;
+            if(manager.failCountQuery) {
+                throw new IllegalStateException("union all not supported");
+            }
+            return super.queryCounts(dao, sql, params);
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package leap.orm.dao.query;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import leap.junit.contexual.Contextual;
@@ -121,6 +122,27 @@ public class CriteriaQueryTest extends OrmTestCase {
 		assertNull(o);
 	}
 	
+	@Test
+	public void testForEach() {
+		deleteAll(Owner.class);
+
+		new Owner().setFullName("a", "0").save();
+		new Owner().setFullName("b", "0").save();
+		new Owner().setFullName("c", "1").save();
+
+		List<String> names = new ArrayList<>();
+		int count = Owner.<Owner>query().where("lastName = ?", "0").orderBy("firstName asc")
+				.forEach(1, o -> names.add(o.getFullName()));
+		assertEquals(2, count);
+		assertEquals("a 0", names.get(0));
+		assertEquals("b 0", names.get(1));
+
+		names.clear();
+		count = Owner.<Owner>query().orderBy("firstName asc").limit(1).forEach(o -> names.add(o.getFullName()));
+		assertEquals(1, count);
+		assertEquals("a 0", names.get(0));
+	}
+
 	@Test
 	public void testSelectByFilter() {
 		deleteAll(Owner.class);
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package leap.orm.tested;
+
+import leap.orm.annotation.Column;
+import leap.orm.annotation.Entity;
+import leap.orm.annotation.Id;
+
+@Entity
+public class ChangeEntity {
+
+    @Id
+    @Column(length = 50)
+    private String id;
+    private String name;
+    private Long   changedAt;
+
+    public ChangeEntity() {
+
+    }
+
+    public ChangeEntity(String id, String name, Long changedAt) {
+        this.id = id;
+        this.name = name;
+        this.changedAt = changedAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(Long changedAt) {
+        this.changedAt = changedAt;
+    }
+}
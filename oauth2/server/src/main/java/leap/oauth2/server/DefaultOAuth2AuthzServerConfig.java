@@ -32,6 +32,7 @@ import leap.lang.security.RSA;
 import leap.oauth2.server.client.AuthzClientStore;
 import leap.oauth2.server.code.AuthzCodeStore;
 import leap.oauth2.server.sso.AuthzSSOStore;
+import leap.oauth2.server.store.AbstractJdbcAuthzStore;
 import leap.oauth2.server.store.AuthzInMemoryStore;
 import leap.oauth2.server.token.AuthzTokenStore;
 import leap.web.App;
@@ -63,6 +64,9 @@ public class DefaultOAuth2AuthzServerConfig implements OAuth2AuthzServerConfig,
     protected boolean    httpsOnly                       = true;
     protected boolean    cleanupEnabled                  = true;
     protected int        cleanupInterval                 = DEFAULT_CLEANUP_INTERVAL;
+    protected int        cleanupBatchSize                = DEFAULT_CLEANUP_BATCH_SIZE;
+    protected int        cleanupBatchPause               = DEFAULT_CLEANUP_BATCH_PAUSE;
+    protected int        cleanupTimeBudget               = DEFAULT_CLEANUP_TIME_BUDGET;
     protected boolean    singleLoginEnabled              = true;
     protected boolean    singleLogoutEnabled             = true;
     protected boolean    passwordCredentialsEnabled      = true;
@@ -154,6 +158,24 @@ public class DefaultOAuth2AuthzServerConfig implements OAuth2AuthzServerConfig,
         return this;
     }
 
+    @ConfigProperty
+    public OAuth2AuthzServerConfigurator setCleanupBatchSize(int size) {
+        this.cleanupBatchSize = size;
+        return this;
+    }
+
+    @ConfigProperty
+    public OAuth2AuthzServerConfigurator setCleanupBatchPause(int millis) {
+        this.cleanupBatchPause = millis;
+        return this;
+    }
+
+    @ConfigProperty
+    public OAuth2AuthzServerConfigurator setCleanupTimeBudget(int seconds) {
+        this.cleanupTimeBudget = seconds;
+        return this;
+    }
+
     @Override
     public boolean isCleanupEnabled() {
         return cleanupEnabled;
@@ -164,6 +186,21 @@ public class DefaultOAuth2AuthzServerConfig implements OAuth2AuthzServerConfig,
         return cleanupInterval;
     }
 
+    @Override
+    public int getCleanupBatchSize() {
+        return cleanupBatchSize;
+    }
+
+    @Override
+    public int getCleanupBatchPause() {
+        return cleanupBatchPause;
+    }
+
+    @Override
+    public int getCleanupTimeBudget() {
+        return cleanupTimeBudget;
+    }
+
     @Override
     public boolean isHttpsOnly() {
         return httpsOnly;
@@ -615,6 +652,10 @@ public class DefaultOAuth2AuthzServerConfig implements OAuth2AuthzServerConfig,
             }
 
             if(isCleanupEnabled()) {
+                configureCleanup(getCodeStore());
+                configureCleanup(getTokenStore());
+                configureCleanup(getSSOStore());
+
                 schedulerManager
                     .newFixedThreadPoolScheduler("auth-cleanup")
                     .scheduleAtFixedRate(() -> cleanup(), getCleanupInterval() * 1000l);
@@ -627,6 +668,12 @@ public class DefaultOAuth2AuthzServerConfig implements OAuth2AuthzServerConfig,
         }
     }
 
+    protected void configureCleanup(Object store) {
+        if(store instanceof AbstractJdbcAuthzStore) {
+            ((AbstractJdbcAuthzStore) store).setCleanupOptions(cleanupBatchSize, cleanupBatchPause, cleanupTimeBudget * 1000L);
+        }
+    }
+
     protected void cleanup() {
         Try.catchAll(() -> getCodeStore().cleanupAuthorizationCodes());
         Try.catchAll(() -> getTokenStore().cleanupTokens());
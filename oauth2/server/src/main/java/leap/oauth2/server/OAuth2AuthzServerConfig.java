@@ -53,6 +53,30 @@ public interface OAuth2AuthzServerConfig {
      * Default is {@link OAuth2AuthzServerConfigurator#DEFAULT_CLEANUP_INTERVAL}.
 	 */
 	int getCleanupInterval();
+
+    /**
+     * Returns the max number of expired rows deleted by one cleanup batch.
+     *
+     * <p/>
+     * Default is {@link OAuth2AuthzServerConfigurator#DEFAULT_CLEANUP_BATCH_SIZE}.
+     */
+    int getCleanupBatchSize();
+
+    /**
+     * Returns the pause in milliseconds between two cleanup batches.
+     *
+     * <p/>
+     * Default is {@link OAuth2AuthzServerConfigurator#DEFAULT_CLEANUP_BATCH_PAUSE}.
+     */
+    int getCleanupBatchPause();
+
+    /**
+     * Returns the max time in seconds spent by one cleanup run.
+     *
+     * <p/>
+     * Default is {@link OAuth2AuthzServerConfigurator#DEFAULT_CLEANUP_TIME_BUDGET}.
+     */
+    int getCleanupTimeBudget();
 	
 	/**
 	 * Returns <code>true</code> if the auth server accepts https request only. 
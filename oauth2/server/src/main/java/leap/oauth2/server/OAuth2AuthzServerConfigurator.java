@@ -38,6 +38,9 @@ public interface OAuth2AuthzServerConfigurator {
     String DEFAULT_LOGOUT_VIEW = "/oauth2/logout";
 
     int DEFAULT_CLEANUP_INTERVAL           = 60 * 5;         //5 minutes.
+    int DEFAULT_CLEANUP_BATCH_SIZE         = 1000;
+    int DEFAULT_CLEANUP_BATCH_PAUSE        = 100;            //100 milliseconds.
+    int DEFAULT_CLEANUP_TIME_BUDGET        = 60;             //1 minute.
     int DEFAULT_ACCESS_TOKEN_EXPIRES       = 3600;           //1 hour.
     int DEFAULT_REFRESH_TOKEN_EXPIRES      = 3600 * 24 * 30; //30 days
     int DEFAULT_LOGIN_TOKEN_EXPIRES        = 60 * 5;         //5 minutes
@@ -96,6 +99,30 @@ public interface OAuth2AuthzServerConfigurator {
      */
 	OAuth2AuthzServerConfigurator setCleanupInterval(int seconds);
 
+    /**
+     * Sets the max number of expired rows deleted by one cleanup batch.
+     *
+     * <p/>
+     * Default is {@link #DEFAULT_CLEANUP_BATCH_SIZE}.
+     */
+    OAuth2AuthzServerConfigurator setCleanupBatchSize(int size);
+
+    /**
+     * Sets the pause in milliseconds between two cleanup batches.
+     *
+     * <p/>
+     * Default is {@link #DEFAULT_CLEANUP_BATCH_PAUSE}.
+     */
+    OAuth2AuthzServerConfigurator setCleanupBatchPause(int millis);
+
+    /**
+     * Sets the max time in seconds spent by one cleanup run, the remaining expired rows will be deleted in next run.
+     *
+     * <p/>
+     * Default is {@link #DEFAULT_CLEANUP_TIME_BUDGET}.
+     */
+    OAuth2AuthzServerConfigurator setCleanupTimeBudget(int seconds);
+
     /**
      * Sets allow https request only in authorization server.
      *
@@ -18,6 +18,7 @@ package leap.oauth2.server.store;
 import leap.core.AppConfig;
 import leap.core.annotation.Inject;
 import leap.core.store.JdbcStore;
+import leap.oauth2.server.OAuth2AuthzServerConfigurator;
 import leap.orm.Orm;
 import leap.orm.dao.Dao;
 import leap.orm.dmo.Dmo;
@@ -30,6 +31,11 @@ public abstract class AbstractJdbcAuthzStore implements JdbcStore {
     
     protected Dao dao;
     protected Dmo dmo;
+    protected JdbcExpiredDataCleaner cleaner;
+
+    protected int  cleanupBatchSize  = OAuth2AuthzServerConfigurator.DEFAULT_CLEANUP_BATCH_SIZE;
+    protected int  cleanupBatchPause = OAuth2AuthzServerConfigurator.DEFAULT_CLEANUP_BATCH_PAUSE;
+    protected long cleanupTimeBudget = OAuth2AuthzServerConfigurator.DEFAULT_CLEANUP_TIME_BUDGET * 1000L;
     
     @Override
     public void setDataSourceName(String name) {
@@ -41,4 +47,28 @@ public abstract class AbstractJdbcAuthzStore implements JdbcStore {
 
     protected abstract void init(AppConfig config);
 
+    /**
+     * Sets the options of expired data cleanup, invoked by the authorization server config.
+     *
+     * @param batchSize  the max rows deleted by one batch.
+     * @param batchPause the pause in milliseconds between two batches.
+     * @param timeBudget the max milliseconds of one cleanup run.
+     */
+    public void setCleanupOptions(int batchSize, int batchPause, long timeBudget) {
+        this.cleanupBatchSize  = batchSize;
+        this.cleanupBatchPause = batchPause;
+        this.cleanupTimeBudget = timeBudget;
+        this.cleaner           = null;
+    }
+
+    /**
+     * Returns the {@link JdbcExpiredDataCleaner} of the cleanup options.
+     */
+    protected JdbcExpiredDataCleaner cleaner() {
+        if(null == cleaner) {
+            cleaner = new JdbcExpiredDataCleaner(dao, cleanupBatchSize, cleanupBatchPause, cleanupTimeBudget);
+        }
+        return cleaner;
+    }
+
 }
\ No newline at end of file
@@ -82,7 +82,7 @@ public class DefaultJdbcAuthzCodeStore extends AbstractJdbcAuthzStore implements
         if(null != cleanupAuthorizationCodesCommand) {
             result = dao.executeUpdate(cleanupAuthorizationCodesCommand, New.hashMap("now", new Date()));
         }else{
-            result = dao.createCriteriaQuery(AuthzCodeEntity.class).where("expiration <= :now", new Date()).delete();
+            result = cleaner().cleanup(AuthzCodeEntity.class, "expiration", new Date()).getDeleted();
         }
         log.info("Cleanup {} expired authorization codes", result);
     }
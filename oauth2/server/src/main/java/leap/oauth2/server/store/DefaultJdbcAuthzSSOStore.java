@@ -181,7 +181,7 @@ public class DefaultJdbcAuthzSSOStore extends AbstractJdbcAuthzStore implements
         if(null != cleanupLoginsCommand) {
             result = dao.executeUpdate(cleanupLoginsCommand, New.hashMap("now",now));
         }else{
-            result = dao.createCriteriaQuery(AuthzSSOLoginEntity.class).where("expiration <= :now",now).delete();
+            result = cleaner().cleanup(AuthzSSOLoginEntity.class, "expiration", now).getDeleted();
         }
         log.info("Cleanup {} expired sso logins", result);
     }
@@ -191,7 +191,7 @@ public class DefaultJdbcAuthzSSOStore extends AbstractJdbcAuthzStore implements
         if(null != cleanupSessionsCommand) {
             result = dao.executeUpdate(cleanupSessionsCommand, New.hashMap("now",now));
         }else{
-            result = dao.createCriteriaQuery(AuthzSSOSessionEntity.class).where("expiration <= :now",now).delete();
+            result = cleaner().cleanup(AuthzSSOSessionEntity.class, "expiration", now).getDeleted();
         }
         log.info("Cleanup {} expired sso sessions", result);
     }
@@ -89,7 +89,7 @@ public class DefaultJdbcAuthzTokenStore extends AbstractJdbcAuthzStore implement
         if(null != cleanupAccessTokensCommand) {
             result = dao.executeUpdate(cleanupAccessTokensCommand, New.hashMap("now",now));
         }else{
-            result = dao.createCriteriaQuery(AuthzAccessTokenEntity.class).where("expiration <= :now",now).delete();
+            result = cleaner().cleanup(AuthzAccessTokenEntity.class, "expiration", now).getDeleted();
         }
         log.info("Cleanup {} expired access tokens", result);
     }
@@ -99,7 +99,7 @@ public class DefaultJdbcAuthzTokenStore extends AbstractJdbcAuthzStore implement
         if(null != cleanupRefreshTokensCommand) {
             result = dao.executeUpdate(cleanupRefreshTokensCommand, New.hashMap("now",now));
         }else{
-            result = dao.createCriteriaQuery(AuthzRefreshTokenEntity.class).where("expiration <= :now",now).delete();
+            result = cleaner().cleanup(AuthzRefreshTokenEntity.class, "expiration", now).getDeleted();
         }
         log.info("Cleanup {} expired refresh tokens", result);
     }
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.oauth2.server.store;
+
+import leap.lang.Args;
+import leap.lang.logging.Log;
+import leap.lang.logging.LogFactory;
+import leap.lang.time.StopWatch;
+import leap.orm.dao.Dao;
+import leap.orm.mapping.EntityMapping;
+
+import java.util.Date;
+
+/**
+ * Deletes the expired rows of an entity in bounded primary key batches.
+ *
+ * <p/>
+ * Each batch selects at most <code>batchSize</code> expired keys and deletes them by key,
+ * so a single statement never locks more than one batch of rows.
+ *
+ * The run stops when no more expired rows found or the time budget is exhausted,
+ * the remaining rows will be deleted by the next run.
+ */
+public class JdbcExpiredDataCleaner {
+
+    private static final Log log = LogFactory.get(JdbcExpiredDataCleaner.class);
+
+    protected final Dao  dao;
+    protected final int  batchSize;
+    protected final long batchPause;
+    protected final long timeBudget;
+
+    /**
+     * @param batchSize  the max rows deleted by one batch.
+     * @param batchPause the pause in milliseconds between two batches.
+     * @param timeBudget the max milliseconds of one run, zero or negative means unlimited.
+     */
+    public JdbcExpiredDataCleaner(Dao dao, int batchSize, long batchPause, long timeBudget) {
+        Args.notNull(dao, "dao");
+        Args.assertTrue(batchSize > 0, "The batch size must be positive");
+        this.dao        = dao;
+        this.batchSize  = batchSize;
+        this.batchPause = batchPause;
+        this.timeBudget = timeBudget;
+    }
+
+    /**
+     * Deletes the rows which the expiration field is less or equals to the given time.
+     *
+     * @param entityClass     the entity class, must has single primary key.
+     * @param expirationField the name of expiration field.
+     * @param now             the current time.
+     */
+    public Result cleanup(Class<?> entityClass, String expirationField, Date now) {
+        EntityMapping em  = dao.getOrmContext().getMetadata().getEntityMapping(entityClass);
+        String[]      ids = em.getKeyFieldNames();
+        if(ids.length != 1) {
+            throw new IllegalStateException("Entity '" + em.getEntityName() + "' must has single primary key for batch cleanup");
+        }
+
+        String id     = ids[0];
+        String where  = expirationField + " <= :now";
+        Result result = new Result(em.getEntityName());
+
+        StopWatch sw = StopWatch.startNew();
+        for(;;) {
+            Object[] keys = dao.createCriteriaQuery(entityClass)
+                               .select(id)
+                               .where(where).param("now", now)
+                               .limit(batchSize)
+                               .scalars()
+                               .array();
+
+            if(keys.length > 0) {
+                int deleted = dao.createCriteriaQuery(entityClass)
+                                 .where(id + " in :ids and " + where)
+                                 .param("ids", keys)
+                                 .param("now", now)
+                                 .delete();
+
+                result.batches++;
+                result.deleted += deleted;
+
+                log.debug("Cleanup batch {} of '{}' : {} rows deleted, {} rows total",
+                          result.batches, result.entityName, deleted, result.deleted);
+            }
+
+            if(keys.length < batchSize) {
+                result.completed = true;
+                break;
+            }
+
+            if(timeBudget > 0 && sw.getElapsedMilliseconds() >= timeBudget) {
+                break;
+            }
+
+            if(batchPause > 0) {
+                try {
+                    Thread.sleep(batchPause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    result.interrupted = true;
+                    break;
+                }
+            }
+        }
+
+        result.duration = sw.getElapsedMilliseconds();
+
+        if(result.completed) {
+            log.info("Cleanup {} expired rows of '{}' in {} batches, {}ms ({} rows/s)",
+                     result.deleted, result.entityName, result.batches, result.duration, result.getRowsPerSecond());
+        }else if(result.interrupted) {
+            log.info("Cleanup {} expired rows of '{}' in {} batches, {}ms ({} rows/s), interrupted, remaining rows will be deleted in next run",
+                     result.deleted, result.entityName, result.batches, result.duration, result.getRowsPerSecond());
+        }else {
+            log.info("Cleanup {} expired rows of '{}' in {} batches, {}ms ({} rows/s), stopped by time budget, remaining rows will be deleted in next run",
+                     result.deleted, result.entityName, result.batches, result.duration, result.getRowsPerSecond());
+        }
+
+        return result;
+    }
+
+    /**
+     * The result of a cleanup run.
+     */
+    public static final class Result {
+
+        private final String entityName;
+
+        private int     batches;
+        private int     deleted;
+        private long    duration;
+        private boolean completed;
+        private boolean interrupted;
+
+        Result(String entityName) {
+            this.entityName = entityName;
+        }
+
+        /**
+         * Returns the name of cleaned entity.
+         */
+        public String getEntityName() {
+            return entityName;
+        }
+
+        /**
+         * Returns the number of executed batches.
+         */
+        public int getBatches() {
+            return batches;
+        }
+
+        /**
+         * Returns the total number of deleted rows.
+         */
+        public int getDeleted() {
+            return deleted;
+        }
+
+        /**
+         * Returns the duration in milliseconds.
+         */
+        public long getDuration() {
+            return duration;
+        }
+
+        /**
+         * Returns <code>true</code> if all the expired rows was deleted,
+         * returns <code>false</code> if the run was stopped by time budget or interrupted.
+         */
+        public boolean isCompleted() {
+            return completed;
+        }
+
+        /**
+         * Returns <code>true</code> if the run was stopped because the cleanup thread was interrupted.
+         */
+        public boolean isInterrupted() {
+            return interrupted;
+        }
+
+        /**
+         * Returns the deleted rows per second.
+         */
+        public long getRowsPerSecond() {
+            return duration <= 0 ? deleted : deleted * 1000L / duration;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{entity=" + entityName + ", batches=" + batches + ", deleted=" + deleted +
+                    ", duration=" + duration + "ms, completed=" + completed + ", interrupted=" + interrupted + "}";
+        }
+    }
+}
@@ -38,6 +38,7 @@ import leap.oauth2.webapp.Oauth2InvalidTokenException;
 
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 public class DefaultTokenInfoLookup implements TokenInfoLookup {
 
@@ -48,6 +49,21 @@ public class DefaultTokenInfoLookup implements TokenInfoLookup {
 
     @Override
     public TokenInfo lookupByAccessToken(String at) {
+        HttpRequest request = createRequest(at);
+
+        StopWatch sw = StopWatch.startNew();
+        return readTokenInfo(request.send(), sw);
+    }
+
+    @Override
+    public CompletableFuture<TokenInfo> lookupByAccessTokenAsync(String at) {
+        HttpRequest request = createRequest(at);
+
+        StopWatch sw = StopWatch.startNew();
+        return request.sendAsync().thenApply(response -> readTokenInfo(response, sw));
+    }
+
+    protected HttpRequest createRequest(String at) {
         if(null == config.getTokenInfoUrl()) {
             throw new IllegalStateException("The tokenInfoUrl must be configured");
         }
@@ -61,9 +77,10 @@ public class DefaultTokenInfoLookup implements TokenInfoLookup {
                     Base64.encode(config.getClientId()+":"+config.getClientSecret()));
         }
 
-        StopWatch sw = StopWatch.startNew();
-        HttpResponse response = request.send();
-        
+        return request;
+    }
+
+    protected TokenInfo readTokenInfo(HttpResponse response, StopWatch sw) {
         if(ContentTypes.APPLICATION_JSON_TYPE.isCompatible(response.getContentType())){
             String content = response.getString();
 
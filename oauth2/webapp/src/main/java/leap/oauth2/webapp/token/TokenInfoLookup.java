@@ -16,8 +16,26 @@
 
 package leap.oauth2.webapp.token;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface TokenInfoLookup {
 
     TokenInfo lookupByAccessToken(String at);
 
+    /**
+     * Looks up the token info asynchronously.
+     *
+     * <p/>
+     * The default implementation looks up in the calling thread.
+     */
+    default CompletableFuture<TokenInfo> lookupByAccessTokenAsync(String at) {
+        CompletableFuture<TokenInfo> future = new CompletableFuture<>();
+        try {
+            future.complete(lookupByAccessToken(at));
+        }catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
 }
\ No newline at end of file
@@ -23,6 +23,7 @@ import leap.lang.New;
 import leap.lang.Strings;
 import leap.lang.codec.Base64;
 import leap.lang.http.ContentTypes;
+import leap.lang.http.HTTP;
 import leap.lang.http.Headers;
 import leap.lang.http.client.HttpClient;
 import leap.lang.http.client.HttpRequest;
@@ -37,6 +38,7 @@ import leap.oauth2.webapp.OAuth2Config;
 import leap.web.security.user.SimpleUserDetails;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class DefaultUserInfoLookup implements UserInfoLookup {
 
@@ -50,7 +52,16 @@ public class DefaultUserInfoLookup implements UserInfoLookup {
         return requestUserInfo(New.hashMap("access_token", at));
     }
 
+    @Override
+    public CompletableFuture<UserPrincipal> lookupUserInfoAsync(String at, String userId) {
+        return createRequest(New.hashMap("access_token", at)).sendAsync(HTTP.Method.GET).thenApply(this::readUserInfo);
+    }
+
     protected UserPrincipal requestUserInfo(Map<String,String> params) {
+        return readUserInfo(createRequest(params).get());
+    }
+
+    protected HttpRequest createRequest(Map<String,String> params) {
         if(Strings.isEmpty(config.getUserInfoUrl())) {
             throw new IllegalStateException("The userInfoEndpointUrl must be configured when use remote authz server");
         }
@@ -65,8 +76,10 @@ public class DefaultUserInfoLookup implements UserInfoLookup {
                     Base64.encode(config.getClientId()+":"+config.getClientSecret()));
         }
 
-        HttpResponse response = request.get();
+        return request;
+    }
 
+    protected UserPrincipal readUserInfo(HttpResponse response) {
         if(ContentTypes.APPLICATION_JSON_TYPE.isCompatible(response.getContentType())){
             String content = response.getString();
 
@@ -19,6 +19,8 @@ package leap.oauth2.webapp.user;
 import leap.core.security.UserPrincipal;
 import leap.oauth2.webapp.token.Token;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface UserInfoLookup {
 
     /**
@@ -26,4 +28,20 @@ public interface UserInfoLookup {
      */
     UserPrincipal lookupUserInfo(String at, String userId);
 
+    /**
+     * By access token asynchronously.
+     *
+     * <p/>
+     * The default implementation looks up in the calling thread.
+     */
+    default CompletableFuture<UserPrincipal> lookupUserInfoAsync(String at, String userId) {
+        CompletableFuture<UserPrincipal> future = new CompletableFuture<>();
+        try {
+            future.complete(lookupUserInfo(at, userId));
+        }catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
 }
\ No newline at end of file
@@ -21,6 +21,8 @@ import leap.lang.Try;
 import org.springframework.jdbc.datasource.DataSourceUtils;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
@@ -54,6 +56,25 @@ public class LeapTransactionProvider extends AbstractTransactionProvider impleme
         return new LeapTransaction(txm, ts).begin();
     }
 
+    @Override
+    public boolean isTransactionActive() {
+        return TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    @Override
+    public void registerSynchronization(TransactionSynchronization synchronization) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            synchronization.afterCompletion(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                synchronization.afterCompletion(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
     protected Connection getConnection() {
         return DataSourceUtils.getConnection(dataSource);
     }
@@ -81,10 +102,11 @@ public class LeapTransactionProvider extends AbstractTransactionProvider impleme
 
     private DefaultTransactionDefinition convert(TransactionDefinition td) {
         DefaultTransactionDefinition std;
-        if(null == td) {
+        if(null != td) {
             std = new DefaultTransactionDefinition();
             std.setPropagationBehavior(td.getPropagation().getValue());
             std.setIsolationLevel(td.getIsolation().getValue());
+            std.setReadOnly(td.isReadOnly());
         }else {
             std = new DefaultTransactionDefinition();
         }
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package tests.as;
+
+import leap.oauth2.server.entity.AuthzCodeEntity;
+import leap.oauth2.server.store.JdbcExpiredDataCleaner;
+import leap.orm.dao.Dao;
+import leap.orm.dmo.Dmo;
+import org.junit.Test;
+import tests.OAuth2TestBase;
+
+import java.util.Date;
+
+public class ExpiredDataCleanerTest extends OAuth2TestBase {
+
+    private static final long NOW = System.currentTimeMillis();
+
+    private Dao dao;
+
+    @Override
+    protected void doSetUp() throws Exception {
+        beanFactory.getBean(Dmo.class).createTableIfNotExists(AuthzCodeEntity.class);
+        dao = beanFactory.getBean(Dao.class);
+        dao.deleteAll(AuthzCodeEntity.class);
+    }
+
+    @Test
+    public void testCleanupInBatches() {
+        createCodes(25, NOW - 1000);
+        createCodes(2,  NOW + 60000);
+
+        JdbcExpiredDataCleaner.Result result =
+                new JdbcExpiredDataCleaner(dao, 10, 0, 0).cleanup(AuthzCodeEntity.class, "expiration", new Date(NOW));
+
+        assertTrue(result.isCompleted());
+        assertFalse(result.isInterrupted());
+        assertEquals(25, result.getDeleted());
+        assertEquals(3,  result.getBatches());
+        assertEquals(2,  dao.count(AuthzCodeEntity.class));
+    }
+
+    @Test
+    public void testStoppedByTimeBudget() {
+        createCodes(20, NOW - 1000);
+
+        JdbcExpiredDataCleaner.Result result =
+                new JdbcExpiredDataCleaner(dao, 5, 50, 1).cleanup(AuthzCodeEntity.class, "expiration", new Date(NOW));
+
+        assertFalse(result.isCompleted());
+        assertFalse(result.isInterrupted());
+        assertTrue(result.getDeleted() < 20);
+
+        int remaining = 20 - result.getDeleted();
+        assertEquals(remaining, dao.count(AuthzCodeEntity.class));
+
+        //the remaining rows are deleted by next run.
+        result = new JdbcExpiredDataCleaner(dao, 5, 0, 0).cleanup(AuthzCodeEntity.class, "expiration", new Date(NOW));
+        assertTrue(result.isCompleted());
+        assertEquals(remaining, result.getDeleted());
+    }
+
+    @Test
+    public void testStoppedByInterrupt() {
+        createCodes(20, NOW - 1000);
+
+        //interrupts the cleanup while it pauses after the first batch.
+        Thread current = Thread.currentThread();
+        Thread interrupter = new Thread(() -> {
+            try {
+                Thread.sleep(500);
+                current.interrupt();
+            } catch (InterruptedException e) {
+                //do nothing.
+            }
+        });
+        interrupter.start();
+
+        JdbcExpiredDataCleaner.Result result;
+        try {
+            result = new JdbcExpiredDataCleaner(dao, 5, 10000, 0).cleanup(AuthzCodeEntity.class, "expiration", new Date(NOW));
+        }finally {
+            Thread.interrupted();
+        }
+
+        assertFalse(result.isCompleted());
+        assertTrue(result.isInterrupted());
+        assertEquals(5, result.getDeleted());
+    }
+
+    private void createCodes(int count, long expiration) {
+        for(int i=0;i<count;i++) {
+            AuthzCodeEntity code = new AuthzCodeEntity();
+            code.setCode("code-" + expiration + "-" + i);
+            code.setClientId("test");
+            code.setUserId("admin");
+            code.setCreatedMs(NOW);
+            code.setExpirationMs(expiration);
+            dao.insert(code);
+        }
+    }
+}
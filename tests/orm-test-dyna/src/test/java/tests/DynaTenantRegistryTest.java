@@ -0,0 +1,138 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package tests;
+
+import app.models.Entity2;
+import leap.core.annotation.Inject;
+import leap.core.junit.AppTestBase;
+import leap.orm.dyna.DefaultDynaTenantRegistry;
+import leap.orm.dyna.DynaOrmContext;
+import leap.orm.dyna.DynaTenantFootprint;
+import leap.orm.dyna.DynaTenantRegistry;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+
+public class DynaTenantRegistryTest extends AppTestBase {
+
+    private static @Inject(name = "db1") DataSource db1;
+    private static @Inject(name = "db2") DataSource db2;
+
+    private static @Inject DynaTenantRegistry tenants;
+
+    @Test
+    public void testLazySharedAndEvictable() {
+        tenants.setSchemaInitializer("s1", c -> c.getMetadataManager().loadClasses(c, Entity2.class));
+        tenants.register("tenant1", "s1", () -> db1);
+        tenants.register("tenant2", "s1", () -> db2);
+        try {
+            //lazy
+            assertNull(tenants.tryGetActiveContext("tenant1"));
+            assertEquals(0, tenants.getActiveCount());
+
+            DynaOrmContext c1 = tenants.getContext("tenant1");
+            DynaOrmContext c2 = tenants.getContext("tenant2");
+            assertSame(c1, tenants.getContext("tenant1"));
+            assertNotSame(c1, c2);
+            assertEquals(2, tenants.getActiveCount());
+
+            //shared metadata
+            assertSame(c1.getMetadata(), c2.getMetadata());
+            assertTrue(c1.getDao().count(Entity2.class) >= 0);
+            assertTrue(c2.getDao().count(Entity2.class) >= 0);
+
+            DynaTenantFootprint fp = tenants.getFootprint("tenant1");
+            assertTrue(fp.isActive());
+            assertEquals(2, fp.getSharedTenants());
+            assertEquals(1, fp.getEntities());
+            assertTrue(fp.getEstimatedBytes() > 0);
+
+            //evict
+            assertTrue(tenants.evict("tenant1"));
+            assertNull(tenants.tryGetActiveContext("tenant1"));
+            assertEquals(0, tenants.getFootprint("tenant1").getEstimatedBytes());
+            assertEquals(1, tenants.getActiveCount());
+
+            DynaOrmContext c3 = tenants.getContext("tenant1");
+            assertNotSame(c1, c3);
+            assertSame(c2.getMetadata(), c3.getMetadata());
+        }finally {
+            tenants.unregister("tenant1");
+            tenants.unregister("tenant2");
+        }
+        assertEquals(0, tenants.getActiveCount());
+    }
+
+    @Test
+    public void testAcquiredNotEvictedAndSharedDb() throws Exception {
+        DefaultDynaTenantRegistry registry = (DefaultDynaTenantRegistry)tenants;
+        long idleTimeout = registry.getIdleTimeout();
+
+        tenants.register("tenant3", "s3", () -> db1);
+        tenants.register("tenant4", "s3", () -> db1);
+        try {
+            DynaOrmContext c3 = tenants.acquire("tenant3");
+            DynaOrmContext c4 = tenants.getContext("tenant4");
+            assertSame(c3.getDb(), c4.getDb());
+
+            registry.setIdleTimeout(1);
+            Thread.sleep(10);
+
+            //only the tenant not acquired is evicted.
+            assertEquals(1, tenants.evictIdle());
+            assertSame(c3, tenants.tryGetActiveContext("tenant3"));
+            assertNull(tenants.tryGetActiveContext("tenant4"));
+
+            tenants.release("tenant3");
+            Thread.sleep(10);
+            assertEquals(1, tenants.evictIdle());
+            assertEquals(0, tenants.getActiveCount());
+        }finally {
+            registry.setIdleTimeout(idleTimeout);
+            tenants.unregister("tenant3");
+            tenants.unregister("tenant4");
+        }
+    }
+
+    @Test
+    public void testInitializerFailure() {
+        boolean[] fail = new boolean[]{true};
+        tenants.setSchemaInitializer("s5", c -> {
+            if(fail[0]) {
+                throw new IllegalStateException("init failed");
+            }
+            c.getMetadataManager().loadClasses(c, Entity2.class);
+        });
+        tenants.register("tenant5", "s5", () -> db2);
+        try {
+            try {
+                tenants.getContext("tenant5");
+                fail("Should throw IllegalStateException");
+            }catch (IllegalStateException e) {
+                assertEquals("init failed", e.getMessage());
+            }
+            assertEquals(0, tenants.getActiveCount());
+
+            //the failed metadata is not reused.
+            fail[0] = false;
+            DynaOrmContext c5 = tenants.getContext("tenant5");
+            assertNotNull(c5.getMetadata().tryGetEntityMapping(Entity2.class));
+        }finally {
+            tenants.unregister("tenant5");
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tests.restd;
+
+import app.models.restd.Model2;
+import leap.lang.Strings;
+import leap.lang.http.Headers;
+import leap.lang.json.JSON;
+import leap.lang.net.Urls;
+import leap.web.api.restd.crud.ExportOperation;
+import leap.webunit.client.THttpResponse;
+import org.junit.Test;
+import tests.ApiTestCase;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+public class ExportTest extends ApiTestCase {
+
+    private static final String EXPORT_PATH = "/restd/model2/export";
+
+    @Override
+    protected void doSetUp() throws Exception {
+        Model2.deleteAll();
+        create("1", "a", 1);
+        create("2", "b", 2);
+        create("3", "b", 3);
+    }
+
+    @Test
+    public void testExportNdjson() {
+        THttpResponse response = get(EXPORT_PATH).assertSuccess();
+        assertEquals(ExportOperation.NDJSON_CONTENT_TYPE, response.getContentType().getMediaType());
+
+        List<String> lines = lines(response.getContent());
+        assertEquals(3, lines.size());
+        for(String line : lines) {
+            Map<String, Object> record = JSON.decodeMap(line);
+            assertNotNull(record.get("id"));
+            assertNotNull(record.get("name"));
+        }
+    }
+
+    @Test
+    public void testExportCsv() {
+        THttpResponse response = useGet(EXPORT_PATH).header(Headers.ACCEPT, ExportOperation.CSV_CONTENT_TYPE).send().assertSuccess();
+        assertEquals(ExportOperation.CSV_CONTENT_TYPE, response.getContentType().getMediaType());
+
+        List<String> lines = lines(response.getContent());
+        assertEquals(4, lines.size());
+
+        List<String> header = cells(lines.get(0));
+        assertTrue(header.contains("id"));
+        assertTrue(header.contains("name"));
+        assertTrue(header.contains("col2"));
+
+        //the dates are formatted as same as the NDJSON export.
+        Map<String, Object> json = JSON.decodeMap(lines(get(EXPORT_PATH + "?filters=" + Urls.encode("id eq 1")).getContent()).get(0));
+        for(String line : lines.subList(1, lines.size())) {
+            List<String> values = cells(line);
+            if(values.get(header.indexOf("id")).equals("1")) {
+                assertEquals(String.valueOf(json.get("col2")), values.get(header.indexOf("col2")));
+            }
+        }
+    }
+
+    @Test
+    public void testExportWithFilters() {
+        List<String> lines = lines(get(EXPORT_PATH + "?filters=" + Urls.encode("name eq b")).assertSuccess().getContent());
+        assertEquals(2, lines.size());
+        for(String line : lines) {
+            assertEquals("b", JSON.decodeMap(line).get("name"));
+        }
+
+        lines = lines(useGet(EXPORT_PATH + "?filters=" + Urls.encode("name eq a"))
+                .header(Headers.ACCEPT, ExportOperation.CSV_CONTENT_TYPE).send().assertSuccess().getContent());
+        assertEquals(2, lines.size());
+    }
+
+    private static void create(String id, String name, int col1) {
+        Model2 m = new Model2();
+        m.setId(id);
+        m.setName(name);
+        m.setCol1(col1);
+        m.setCol2(new Date());
+        m.create();
+    }
+
+    private static List<String> lines(String content) {
+        return Arrays.asList(Strings.splitMultiLines(content));
+    }
+
+    private static List<String> cells(String line) {
+        return Arrays.asList(Strings.split(line, ",", true, false));
+    }
+}
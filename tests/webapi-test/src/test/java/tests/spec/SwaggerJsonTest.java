@@ -19,6 +19,9 @@
 package tests.spec;
 
 import leap.core.annotation.Inject;
+import leap.lang.Strings;
+import leap.lang.http.HTTP;
+import leap.lang.http.Headers;
 import leap.lang.json.JSON;
 import leap.lang.meta.MComplexType;
 import leap.lang.meta.MProperty;
@@ -33,6 +36,7 @@ import leap.web.api.spec.swagger.SwaggerConstants;
 import leap.web.api.spec.swagger.SwaggerJsonWriter;
 import leap.web.api.spec.swagger.SwaggerSpecReader;
 import leap.webunit.WebTestBase;
+import leap.webunit.client.THttpResponse;
 import org.junit.Test;
 
 import java.io.IOException;
@@ -93,6 +97,22 @@ public class SwaggerJsonTest extends WebTestBase {
         assertEquals(Boolean.TRUE, allowClientOnly);
     }
 
+    @Test
+    public void testCachedSpecWithETag() {
+        THttpResponse response = get("/api/swagger.json");
+        String        etag     = response.getHeader(Headers.ETAG);
+        String        content  = response.getContent();
+        assertFalse(Strings.isEmpty(etag));
+
+        response = get("/api/swagger.json");
+        assertEquals(etag, response.getHeader(Headers.ETAG));
+        assertEquals(content, response.getContent());
+
+        useGet("/api/swagger.json").header(Headers.IF_NONE_MATCH, etag).send().assertStatusEquals(HTTP.SC_NOT_MODIFIED);
+
+        assertNotEquals(etag, get("/api/swagger.json?profile=mobile").getHeader(Headers.ETAG));
+    }
+
     @Test
     public void testSecurityDef() throws IOException {
         String swagger = get("/basepackage/swagger.json").getContent();
@@ -48,6 +48,7 @@ import leap.web.api.mvc.params.CountOptions;
 import leap.web.api.mvc.params.QueryOptions;
 import leap.web.api.mvc.params.QueryOptionsBase;
 import leap.web.api.query.*;
+import leap.web.api.remote.RestFilters;
 import leap.web.api.remote.RestQueryListResult;
 import leap.web.api.remote.RestResource;
 import leap.web.exception.BadRequestException;
@@ -60,6 +61,8 @@ public class DefaultModelQueryExecutor extends ModelExecutorBase implements Mode
 
     private static final Log log = LogFactory.get(DefaultModelQueryExecutor.class);
 
+    private static final int STREAMING_CHUNK_SIZE = 100;
+
     protected final ModelAndMapping     modelAndMapping;
     protected final ModelQueryExtension ex;
 
@@ -220,6 +223,121 @@ public class DefaultModelQueryExecutor extends ModelExecutorBase implements Mode
                                                 Map<String, Object> filters,
                                                 Consumer<CriteriaQuery> callback, boolean filterByParams) {
         ModelExecutionContext context = new DefaultModelExecutionContext(this.context);
+
+        final QueryOptions finalOptions = prepareQueryList(context, query, joinModels, options, filters, callback, filterByParams);
+        return em.withContextListeners(listeners, () -> {
+            long         count = -1;
+            List<Record> list;
+
+            ex.preQueryList(context, query);
+            if (null != ex.handler) {
+                ex.handler.preQueryList(context, query);
+            }
+
+            PageResult page = query.pageResult(finalOptions.getPage(ac.getDefaultPageSize()));
+            list = ex.executeQueryList(context, finalOptions, query);
+            if (null == list) {
+                list = dao.withEvents(() -> page.list());
+            }
+
+            if (null != ex.handler) {
+                ex.handler.postQueryList(context, list);
+            }
+
+            List<ExpandError> expandErrors = new ArrayList<>();
+            if (!list.isEmpty()) {
+                Expand[] expands = ExpandParser.parse(finalOptions.getExpand());
+                if (expands.length > 0) {
+                    ResolvedExpand[] resolvedExpands = resolveExpands(expands);
+
+                    int maxPageSize = ac.getMaxPageSizeWithExpandOne();
+                    for (ResolvedExpand expand : resolvedExpands) {
+                        if (expand.isEmbedded()) {
+                            continue;
+                        }
+                        if (expand.rm.isOneToMany() || expand.rm.isOneToMany()) {
+                            maxPageSize = ac.getMaxPageSizeWithExpandMany();
+                            break;
+                        }
+                    }
+
+                    if (list.size() > maxPageSize) {
+                        throw new BadRequestException("The result size " + list.size() + " exceed max expand " + maxPageSize + ", please decrease your page_size");
+                    }
+
+                    for (ResolvedExpand expand : resolvedExpands) {
+                        try {
+                            expand(expand, list);
+                        } catch (ExpandException e) {
+                            expandErrors.add(new ExpandError(expand.getName(), e.getMessage(), e.getCause()));
+                        }
+                    }
+                }
+            }
+
+            if (finalOptions.isTotal()) {
+                count = query.count();
+            }
+
+            Object entity = ex.processQueryListResult(context, page, count, list);
+
+            return new QueryListResult(list, count, entity, expandErrors);
+        });
+    }
+
+    @Override
+    public int queryEach(QueryOptions options, Map<String, Object> filters, int fetchSize, Consumer<Record> consumer) {
+        if (remoteRest) {
+            throw new IllegalStateException("Streaming query is not supported by the remote model '" + am.getName() + "'");
+        }
+
+        ModelExecutionContext context = new DefaultModelExecutionContext(this.context);
+        CriteriaQuery<Record> query   = createCriteriaQuery();
+
+        final QueryOptions finalOptions = prepareQueryList(context, query, new JoinModels(), options, filters, null, filterByParams);
+        if (!Strings.isEmpty(finalOptions.getExpand())) {
+            throw new BadRequestException("Expand is not supported by streaming query");
+        }
+
+        return em.withContextListeners(listeners, () -> {
+            ex.preQueryList(context, query);
+            if (null != ex.handler) {
+                ex.handler.preQueryList(context, query);
+            }
+
+            //the rows are passed to the handler in small chunks, so the memory usage is bounded by the chunk size.
+            final int          chunkSize = fetchSize > 0 ? fetchSize : STREAMING_CHUNK_SIZE;
+            final List<Record> chunk     = new ArrayList<>(chunkSize);
+
+            int total = dao.withEvents(() -> query.forEach(fetchSize, record -> {
+                chunk.add(record);
+                if (chunk.size() >= chunkSize) {
+                    flushChunk(context, chunk, consumer);
+                }
+            }));
+            flushChunk(context, chunk, consumer);
+
+            return total;
+        });
+    }
+
+    protected void flushChunk(ModelExecutionContext context, List<Record> chunk, Consumer<Record> consumer) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        if (null != ex.handler) {
+            ex.handler.postQueryList(context, chunk);
+        }
+        chunk.forEach(consumer);
+        chunk.clear();
+    }
+
+    protected QueryOptions prepareQueryList(ModelExecutionContext context,
+                                            CriteriaQuery<Record> query,
+                                            JoinModels joinModels,
+                                            QueryOptions options,
+                                            Map<String, Object> filters,
+                                            Consumer<CriteriaQuery> callback, boolean filterByParams) {
         if (null == options) {
             options = new QueryOptions();
         }
@@ -290,65 +408,7 @@ public class DefaultModelQueryExecutor extends ModelExecutorBase implements Mode
             callback.accept(query);
         }
 
-        final QueryOptions finalOptions = options;
-        return em.withContextListeners(listeners, () -> {
-            long         count = -1;
-            List<Record> list;
-
-            ex.preQueryList(context, query);
-            if (null != ex.handler) {
-                ex.handler.preQueryList(context, query);
-            }
-
-            PageResult page = query.pageResult(finalOptions.getPage(ac.getDefaultPageSize()));
-            list = ex.executeQueryList(context, finalOptions, query);
-            if (null == list) {
-                list = dao.withEvents(() -> page.list());
-            }
-
-            if (null != ex.handler) {
-                ex.handler.postQueryList(context, list);
-            }
-
-            List<ExpandError> expandErrors = new ArrayList<>();
-            if (!list.isEmpty()) {
-                Expand[] expands = ExpandParser.parse(finalOptions.getExpand());
-                if (expands.length > 0) {
-                    ResolvedExpand[] resolvedExpands = resolveExpands(expands);
-
-                    int maxPageSize = ac.getMaxPageSizeWithExpandOne();
-                    for (ResolvedExpand expand : resolvedExpands) {
-                        if (expand.isEmbedded()) {
-                            continue;
-                        }
-                        if (expand.rm.isOneToMany() || expand.rm.isOneToMany()) {
-                            maxPageSize = ac.getMaxPageSizeWithExpandMany();
-                            break;
-                        }
-                    }
-
-                    if (list.size() > maxPageSize) {
-                        throw new BadRequestException("The result size " + list.size() + " exceed max expand " + maxPageSize + ", please decrease your page_size");
-                    }
-
-                    for (ResolvedExpand expand : resolvedExpands) {
-                        try {
-                            expand(expand, list);
-                        } catch (ExpandException e) {
-                            expandErrors.add(new ExpandError(expand.getName(), e.getMessage(), e.getCause()));
-                        }
-                    }
-                }
-            }
-
-            if (finalOptions.isTotal()) {
-                count = query.count();
-            }
-
-            Object entity = ex.processQueryListResult(context, page, count, list);
-
-            return new QueryListResult(list, count, entity, expandErrors);
-        });
+        return options;
     }
 
     @Override
@@ -432,16 +492,7 @@ public class DefaultModelQueryExecutor extends ModelExecutorBase implements Mode
             fks.add(fk);
         }
 
-        StringBuilder filters = new StringBuilder();
-        int           i       = 0;
-        for (Object fk : fks) {
-            if (i > 0) {
-                filters.append(',');
-            }
-            filters.append(fk.toString());
-            i++;
-        }
-        opts.setFilters(Strings.format("{0} in ({1})", referredFieldName, filters.toString()));
+        opts.setFilters(RestFilters.in(referredFieldName, fks));
 
         //构造expand时，要返回引用记录的字段
         if (Strings.isNotEmpty(expand.getSelect())) {
@@ -638,9 +689,8 @@ public class DefaultModelQueryExecutor extends ModelExecutorBase implements Mode
 
         List<Map> totalExpanded = new ArrayList<>();
         for (List<Object> partOfIds : split(ids, 50)) {
-            String       filter  = idFieldName + " in (" + joinInIds(partOfIds) + ")";
             QueryOptions options = new QueryOptions();
-            options.setFilters(filter);
+            options.setFilters(RestFilters.in(idFieldName, partOfIds));
 
             RestQueryListResult<Map> listResult;
             try {
@@ -16,6 +16,7 @@
 
 package leap.web.api.orm;
 
+import leap.core.value.Record;
 import leap.orm.event.EntityListeners;
 import leap.orm.query.CriteriaQuery;
 import leap.web.api.mvc.params.CountOptions;
@@ -96,6 +97,16 @@ public interface ModelQueryExecutor {
      */
     QueryListResult queryList(QueryOptions options, Map<String, Object> filters, Consumer<CriteriaQuery> callback, boolean filterByParams);
 
+    /**
+     * Query all the records matched the options by a forward-only cursor, no paging and expanding.
+     *
+     * <p/>
+     * The records are passed to the consumer one by one while reading, returns the number of records.
+     *
+     * @param fetchSize the jdbc fetch size, zero or negative means using the driver's default.
+     */
+    int queryEach(QueryOptions options, Map<String, Object> filters, int fetchSize, Consumer<Record> consumer);
+
     /**
      * Query the total count of records.
      */
@@ -3,6 +3,7 @@ package leap.web.api.remote;
 import leap.core.annotation.Inject;
 import leap.lang.Out;
 import leap.lang.Strings;
+import leap.lang.codec.Digests;
 import leap.lang.expirable.TimeExpirableSeconds;
 import leap.lang.http.ContentTypes;
 import leap.lang.http.HTTP;
@@ -28,6 +29,7 @@ import java.lang.reflect.Type;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -139,38 +141,68 @@ public abstract class AbstractRestResource implements RestResource {
      * @param targetType 返回值类型，
      *                   如果是List<T>类型，需要构造对应的{@link TypeReference}，如：new TypeReference<List<GatewayRuntime>>(){}.getType()
      */
-    @SuppressWarnings("unchecked")
     protected <T> T send(Type targetType, HttpRequest request, AccessToken at) {
         final Out<T> out = new Out<>();
 
-        send(request, at, (response) -> {
-            String content = response.getString();
-            log.debug("status:{},Received response : {}", response.getStatus(), content);
-            if (response.is2xx()) {
-                if (Boolean.class.equals(targetType)) {
-                    out.set((T) Boolean.TRUE);
-                    return;
-                }
+        send(request, at, (response) -> out.set(readResponse(targetType, response)));
 
-                if (Strings.isEmpty(content)) {
-                    return;
-                }
-                if (targetType != null && ContentTypes.APPLICATION_JSON_TYPE.isCompatible(response.getContentType())) {
-                    out.accept((T) decode(targetType, content));
+        return out.get();
+    }
+
+    /**
+     * 异步发送请求，与 {@link #send(Type, HttpRequest, AccessToken)} 相同，但不阻塞调用线程
+     */
+    protected <T> CompletableFuture<T> sendAsync(Type targetType, HttpRequest request, AccessToken at) {
+        if (at != null) {
+            request.setHeader(Headers.AUTHORIZATION, OAuth2Constants.BEARER + " " + at.getToken());
+        }
+        if(this.preSendHandler!=null){
+            preSendHandler.accept(request);
+        }
+
+        return request.sendAsync().thenCompose(response -> {
+            if (response.getStatus() == HTTP.SC_UNAUTHORIZED && at != null) {
+                AccessToken refreshed = tokenFetcher.refreshAccessToken(at);
+                if(null == refreshed) {
+                    throw new RestResourceInvokeException(response);
                 }
-                return;
+                request.setHeader(Headers.AUTHORIZATION, OAuth2Constants.BEARER + " " + refreshed.getToken());
+                return request.sendAsync();
             }
-            if (response.isNotFound()) {
-                return;
+            return CompletableFuture.completedFuture(response);
+        }).thenApply(response -> {
+            T result = readResponse(targetType, response);
+            if(this.postSendHandler!=null){
+                postSendHandler.accept(response);
             }
-            throw new RestResourceInvokeException(response);
+            return result;
         });
+    }
 
-        if (out.isEmpty()) {
+    /**
+     * 读取响应结果，404 或者没有内容时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> T readResponse(Type targetType, HttpResponse response) {
+        String content = response.getString();
+        log.debug("status:{},Received response : {}", response.getStatus(), content);
+        if (response.is2xx()) {
+            if (Boolean.class.equals(targetType)) {
+                return (T) Boolean.TRUE;
+            }
+
+            if (Strings.isEmpty(content)) {
+                return null;
+            }
+            if (targetType != null && ContentTypes.APPLICATION_JSON_TYPE.isCompatible(response.getContentType())) {
+                return (T) decode(targetType, content);
+            }
             return null;
         }
-
-        return out.get();
+        if (response.isNotFound()) {
+            return null;
+        }
+        throw new RestResourceInvokeException(response);
     }
 
     @SuppressWarnings("unchecked")
@@ -211,6 +243,33 @@ public abstract class AbstractRestResource implements RestResource {
         }
     }
 
+    /**
+     * Returns the key identifying a read call, which contains the url, options and the digest of access token.
+     */
+    protected String buildReadKey(String url, QueryOptionsBase queryOptions, AccessToken at) {
+        StringBuilder key = new StringBuilder(url);
+        if (null != queryOptions) {
+            key.append("?select=").append(queryOptions.getSelect())
+               .append("&expand=").append(queryOptions.getExpand());
+
+            if (queryOptions instanceof QueryOptions) {
+                QueryOptions qo = (QueryOptions) queryOptions;
+                key.append("&page_size=").append(qo.getPageSize())
+                   .append("&page=").append(qo.getPageIndex())
+                   .append("&limit=").append(qo.getLimit())
+                   .append("&offset=").append(qo.getOffset())
+                   .append("&total=").append(qo.isTotal())
+                   .append("&orderBy=").append(qo.getOrderBy())
+                   .append("&filters=").append(qo.getFilters())
+                   .append("&joins=").append(qo.getJoins());
+            }
+        }
+        if (null != at) {
+            key.append("#").append(Digests.sha256Hex(at.getToken()));
+        }
+        return key.toString();
+    }
+
     protected HttpRequest buildQueryOption(HttpRequest request, QueryOptionsBase queryOptions) {
         if (queryOptions == null) {
             return request;
@@ -22,16 +22,19 @@ import leap.web.api.restd.CrudUtils;
 
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class DefaultRestResource extends AbstractRestResource {
     private final Log log = LogFactory.get(DefaultRestResource.class);
 
     protected final EntityMapping em;
 
-    protected String      endpoint;
-    protected AccessToken at;
+    protected String               endpoint;
+    protected AccessToken          at;
+    protected RestRequestCoalescer coalescer;
 
     public DefaultRestResource(EntityMapping em) {
         this.em = em;
@@ -57,6 +60,17 @@ public class DefaultRestResource extends AbstractRestResource {
         this.at=token;
     }
 
+    public RestRequestCoalescer getCoalescer() {
+        return coalescer;
+    }
+
+    /**
+     * Sets the {@link RestRequestCoalescer} for batching, de-duplicating and caching the read calls.
+     */
+    public void setCoalescer(RestRequestCoalescer coalescer) {
+        this.coalescer = coalescer;
+    }
+
     @Override
     public <T> T insert(Class<T> resultClass, Object obj) {
         String op = "";
@@ -65,6 +79,7 @@ public class DefaultRestResource extends AbstractRestResource {
                 .setJson(JSON.encode(obj, JsonSettings.MIN))
                 .setMethod(Method.POST);
         T val = send(resultClass, request, getAccessToken());
+        clearRequestCache();
         return val;
     }
 
@@ -85,7 +100,9 @@ public class DefaultRestResource extends AbstractRestResource {
             request.addQueryParam("cascade_delete", "true");
         }
 
-        return Boolean.TRUE == send(Boolean.class, request, getAccessToken());
+        boolean deleted = Boolean.TRUE == send(Boolean.class, request, getAccessToken());
+        clearRequestCache();
+        return deleted;
     }
 
     @Override
@@ -97,16 +114,37 @@ public class DefaultRestResource extends AbstractRestResource {
                 .setJson(JSON.encode(partial, JsonSettings.MIN))
                 .setMethod(Method.PATCH);
 
-        return Boolean.TRUE == send(Boolean.class, request, getAccessToken());
+        boolean updated = Boolean.TRUE == send(Boolean.class, request, getAccessToken());
+        clearRequestCache();
+        return updated;
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <T> T find(Class<T> entityClass, Object id, QueryOptionsBase options) {
+        if(isBatchFind(entityClass, options)) {
+            final AccessToken at       = getAccessToken();
+            final String      batchKey = buildReadKey(buildOperationPath(""), options, at);
+
+            return (T)coalescer.find(batchKey, id, ids -> batchFind(ids, options, at));
+        }
+
         String op = idPath(id);
 
         return doFind(entityClass, buildOperationPath(op), options);
     }
 
+    @Override
+    public <T> CompletableFuture<T> findAsync(Class<T> entityClass, Object id, QueryOptionsBase options) {
+        HttpRequest request = httpClient.request(buildOperationPath(idPath(id)))
+                                        .ajax()
+                                        .setMethod(Method.GET);
+
+        buildQueryOption(request, options);
+
+        return sendAsync(entityClass, request, getAccessToken());
+    }
+
     @Override
     public <T> T findRelationOne(Class<T> resultClass, String relationPath, Object id, QueryOptionsBase options) {
         String op = idPath(id) + "/" + relationPath;
@@ -115,13 +153,57 @@ public class DefaultRestResource extends AbstractRestResource {
     }
 
     protected <T> T doFind(Class<T> resultClass, String url, QueryOptionsBase options) {
+        final AccessToken at = getAccessToken();
+        if(null != coalescer) {
+            return coalescer.read(resultClass.getName() + ":" + buildReadKey(url, options, at),
+                                  () -> doFind(resultClass, url, options, at));
+        }
+        return doFind(resultClass, url, options, at);
+    }
+
+    protected <T> T doFind(Class<T> resultClass, String url, QueryOptionsBase options, AccessToken at) {
         HttpRequest request = httpClient.request(url)
                                         .ajax()
                                         .setMethod(Method.GET);
 
         buildQueryOption(request, options);
 
-        return send(resultClass, request, getAccessToken());
+        return send(resultClass, request, at);
+    }
+
+    /**
+     * Returns <code>true</code> if the find by id can be merged into a batched <code>in</code> query.
+     */
+    protected boolean isBatchFind(Class<?> resultClass, QueryOptionsBase options) {
+        if(null == coalescer || coalescer.getBatchWindow() <= 0 || null == em ||
+                !Map.class.equals(resultClass) || em.getKeyFieldNames().length != 1) {
+            return false;
+        }
+        return null == options || Strings.isEmpty(options.getExpand());
+    }
+
+    /**
+     * Finds the records of the given ids by one query, returns the records keyed by id.
+     */
+    protected Map<String, Map> batchFind(List<Object> ids, QueryOptionsBase options, AccessToken at) {
+        final String idName = em.getKeyFieldNames()[0];
+
+        QueryOptions qo = new QueryOptions();
+        qo.setFilters(RestFilters.in(idName, ids));
+        qo.setLimit(ids.size());
+        if(null != options && Strings.isNotEmpty(options.getSelect())) {
+            qo.setSelect(options.getSelect().contains(idName) ? options.getSelect() : options.getSelect() + "," + idName);
+        }
+
+        RestQueryListResult<Map> result = doQueryList(Map.class, buildOperationPath(""), qo, at);
+
+        Map<String, Map> records = new HashMap<>();
+        if(null != result) {
+            for(Map record : result.getList()) {
+                records.put(coalescer.idKey(record.get(idName)), record);
+            }
+        }
+        return records;
     }
 
     @SuppressWarnings("unchecked")
@@ -139,6 +221,15 @@ public class DefaultRestResource extends AbstractRestResource {
     }
 
     protected <T> RestQueryListResult<T> doQueryList(Class<T> resultElementClass, String url, QueryOptions options) {
+        final AccessToken at = getAccessToken();
+        if(null != coalescer) {
+            return coalescer.read("list:" + resultElementClass.getName() + ":" + buildReadKey(url, options, at),
+                                  () -> doQueryList(resultElementClass, url, options, at));
+        }
+        return doQueryList(resultElementClass, url, options, at);
+    }
+
+    protected <T> RestQueryListResult<T> doQueryList(Class<T> resultElementClass, String url, QueryOptions options, AccessToken at) {
         HttpRequest request = httpClient.request(url)
                                         .ajax()
                                         .setMethod(Method.GET);
@@ -149,7 +240,7 @@ public class DefaultRestResource extends AbstractRestResource {
         final Type targetType = new TypeReference<List<T>>(resultElementClass) {
         }.getType();
 
-        send(request, getAccessToken(), (response) -> {
+        send(request, at, (response) -> {
             String content = response.getString();
             log.debug("status:{},Received response : {}", response.getStatus(), content);
             if (response.is2xx()) {
@@ -175,9 +266,21 @@ public class DefaultRestResource extends AbstractRestResource {
 
     @Override
     public int count(CountOptions options) {
-        String op = "/count";
+        final AccessToken at  = getAccessToken();
+        final String      url = buildOperationPath("/count");
+
+        Integer val;
+        if(null != coalescer) {
+            String key = "count:" + buildReadKey(url, null, at) + "?filters=" + (null == options ? null : options.getFilters());
+            val = coalescer.read(key, () -> doCount(url, options, at));
+        }else {
+            val = doCount(url, options, at);
+        }
+        return val == null ? 0 : val.intValue();
+    }
 
-        HttpRequest request = httpClient.request(buildOperationPath(op))
+    protected Integer doCount(String url, CountOptions options, AccessToken at) {
+        HttpRequest request = httpClient.request(url)
                 .ajax()
                 .setMethod(Method.GET);
 
@@ -185,8 +288,13 @@ public class DefaultRestResource extends AbstractRestResource {
             request.addQueryParam("filters", options.getFilters());
         }
 
-        Integer val = send(Integer.class, request, getAccessToken());
-        return val == null ? 0 : val.intValue();
+        return send(Integer.class, request, at);
+    }
+
+    protected void clearRequestCache() {
+        if(null != coalescer) {
+            coalescer.clearRequestCache();
+        }
     }
 
     protected String idPath(Object id) {
@@ -30,6 +30,7 @@ public class DefaultRestResourceFactory implements RestResourceFactory {
     protected @Inject HttpClient            httpClient;
     protected @Inject TokenFetcher          tokenFetcher;
     protected @Inject RestDatasourceManager dsm;
+    protected @Inject RestRequestCoalescer  coalescer;
 
     @Override
     public RestResource createResource(OrmContext context, EntityMapping em) {
@@ -66,6 +67,7 @@ public class DefaultRestResourceFactory implements RestResourceFactory {
         restResource.setHttpClient(httpClient);
         restResource.setTokenFetcher(tokenFetcher);
         restResource.setEndpoint(info.getEndpoint());
+        restResource.setCoalescer(coalescer);
         return restResource;
     }
 
@@ -0,0 +1,52 @@
+package leap.web.api.remote;
+
+import leap.lang.Strings;
+
+import java.util.Collection;
+
+/**
+ * Utils for building the filters expression of remote rest resources.
+ */
+public class RestFilters {
+
+    /**
+     * Returns the expression <code>field in (v1,v2,...)</code>, the non-numeric values are quoted and escaped.
+     */
+    public static String in(String field, Collection<?> values) {
+        StringBuilder s = new StringBuilder(field.length() + values.size() * 16);
+        s.append(field).append(" in (");
+        int i = 0;
+        for(Object value : values) {
+            if(i++ > 0) {
+                s.append(',');
+            }
+            literal(s, value);
+        }
+        return s.append(')').toString();
+    }
+
+    /**
+     * Appends the value as a literal of filters expression.
+     */
+    public static void literal(StringBuilder s, Object value) {
+        if(value instanceof Number || value instanceof Boolean) {
+            s.append(value);
+            return;
+        }
+
+        String str = null == value ? Strings.EMPTY : value.toString();
+        s.append('\'');
+        for(int i=0;i<str.length();i++) {
+            char c = str.charAt(i);
+            if(c == '\'' || c == '\\') {
+                s.append('\\');
+            }
+            s.append(c);
+        }
+        s.append('\'');
+    }
+
+    protected RestFilters() {
+
+    }
+}
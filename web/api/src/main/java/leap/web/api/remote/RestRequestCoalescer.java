@@ -0,0 +1,338 @@
+package leap.web.api.remote;
+
+import leap.core.RequestContext;
+import leap.core.annotation.ConfigProperty;
+import leap.core.annotation.Configurable;
+import leap.core.value.SimpleRecord;
+import leap.lang.beans.BeanProperty;
+import leap.lang.beans.BeanType;
+import leap.lang.logging.Log;
+import leap.lang.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces the read calls of remote rest resources.
+ *
+ * <p/>
+ * Concurrent finds by id of the same remote resource within {@link #getBatchWindow()} are merged into one
+ * batched query, identical in-flight reads are executed once and shared by all the callers,
+ * and the results of reads are cached in the scope of current request.
+ *
+ * <p/>
+ * The shared results are copied by {@link #copy(Object)} for each caller, so the modifications of a caller
+ * are not visible to the others.
+ *
+ * <p/>
+ * The keys passed to the coalescer must contain everything affecting the result (url, options, access token).
+ */
+@Configurable(prefix = "webapi.remote")
+public class RestRequestCoalescer {
+
+    private static final Log log = LogFactory.get(RestRequestCoalescer.class);
+
+    private static final String CACHE_ATTRIBUTE = RestRequestCoalescer.class.getName() + ".CACHE";
+    private static final Object NULL            = new Object();
+
+    protected int     batchWindow  = 5;
+    protected int     maxBatchSize = 100;
+    protected long    waitTimeout  = 60 * 1000;
+    protected boolean requestCache = true;
+
+    private final Map<String, CompletableFuture<Object>> inflight = new ConcurrentHashMap<>();
+    private final Map<String, Batch>                     batches  = new HashMap<>();
+    private final Map<String, Integer>                   pending  = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the milliseconds to wait for merging concurrent finds into one batch, zero disables batching.
+     *
+     * <p/>
+     * The batch waits only if there are other pending finds of the same remote resource,
+     * a find without concurrent finds is executed immediately.
+     *
+     * <p/>
+     * Default is 5ms.
+     */
+    public int getBatchWindow() {
+        return batchWindow;
+    }
+
+    @ConfigProperty
+    public void setBatchWindow(int batchWindow) {
+        this.batchWindow = batchWindow;
+    }
+
+    /**
+     * Returns the max number of ids in a batch.
+     *
+     * <p/>
+     * Default is 100.
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    @ConfigProperty
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Returns the max milliseconds waiting for the result of a call executed by another caller.
+     */
+    public long getWaitTimeout() {
+        return waitTimeout;
+    }
+
+    @ConfigProperty
+    public void setWaitTimeout(long waitTimeout) {
+        this.waitTimeout = waitTimeout;
+    }
+
+    /**
+     * Returns <code>true</code> if the reads are cached in the scope of current request.
+     *
+     * <p/>
+     * Default is <code>true</code>.
+     */
+    public boolean isRequestCache() {
+        return requestCache;
+    }
+
+    @ConfigProperty
+    public void setRequestCache(boolean requestCache) {
+        this.requestCache = requestCache;
+    }
+
+    /**
+     * Executes the read call, returns the cached result of current request or joins the identical in-flight call if exists.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T read(String key, Supplier<T> call) {
+        Map<String, Object> cache = getRequestCache();
+        if(null != cache) {
+            Object cached = cache.get(key);
+            if(null != cached) {
+                log.trace("Read '{}' from request cache", key);
+                return cached == NULL ? null : (T)copy(cached);
+            }
+        }
+
+        T result = dedupe(key, call);
+
+        if(null != cache) {
+            cache.put(key, null == result ? NULL : copy(result));
+        }
+        return result;
+    }
+
+    /**
+     * Finds a record by id, the concurrent finds of the same batch key are merged to one call of the batch loader.
+     *
+     * <p/>
+     * The batch loader accepts the ids and returns the found records keyed by {@link #idKey(Object)} of the ids.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T find(String batchKey, Object id, Function<List<Object>, Map<String, T>> loader) {
+        return read(batchKey + "#" + idKey(id), () -> {
+            if(batchWindow <= 0) {
+                return loader.apply(Collections.singletonList(id)).get(idKey(id));
+            }
+
+            pending.merge(batchKey, 1, Integer::sum);
+            try {
+                Batch                     batch;
+                CompletableFuture<Object> future;
+                boolean                   leader = false;
+
+                synchronized (batches) {
+                    batch = batches.get(batchKey);
+                    if(null == batch || batch.futures.size() >= maxBatchSize) {
+                        batch  = new Batch();
+                        leader = true;
+                        batches.put(batchKey, batch);
+                    }
+                    future = batch.futures.computeIfAbsent(idKey(id), k -> new CompletableFuture<>());
+                    batch.ids.putIfAbsent(idKey(id), id);
+                }
+
+                if(leader) {
+                    executeBatch(batchKey, batch, (Function)loader);
+                }
+
+                return (T)await(batchKey, future);
+            }finally {
+                pending.computeIfPresent(batchKey, (k, n) -> n <= 1 ? null : n - 1);
+            }
+        });
+    }
+
+    /**
+     * Returns the key of id for matching the batched results.
+     */
+    public String idKey(Object id) {
+        return String.valueOf(id);
+    }
+
+    /**
+     * Clears the request cache, should be invoked after a write call.
+     */
+    public void clearRequestCache() {
+        Map<String, Object> cache = getRequestCache();
+        if(null != cache) {
+            cache.clear();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected <T> T dedupe(String key, Supplier<T> call) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> exists = inflight.putIfAbsent(key, future);
+        if(null != exists) {
+            log.trace("Join in-flight call '{}'", key);
+            return (T)copy(await(key, exists));
+        }
+
+        try {
+            T result = call.get();
+            future.complete(result);
+            return result;
+        }catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        }finally {
+            inflight.remove(key, future);
+        }
+    }
+
+    protected void executeBatch(String batchKey, Batch batch, Function<List<Object>, Map<String, Object>> loader) {
+        //waits for merging only if other finds of the resource are pending (executing or waiting).
+        Integer n = pending.get(batchKey);
+        if(null != n && n > 1) {
+            try {
+                Thread.sleep(batchWindow);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        List<Object> ids;
+        synchronized (batches) {
+            batches.remove(batchKey, batch);
+            ids = new ArrayList<>(batch.ids.values());
+        }
+
+        log.debug("Execute batch '{}' with {} ids", batchKey, ids.size());
+
+        try {
+            Map<String, Object> results = loader.apply(ids);
+            batch.futures.forEach((k, f) -> f.complete(null == results ? null : results.get(k)));
+        }catch (RuntimeException | Error e) {
+            batch.futures.values().forEach(f -> f.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Returns a deep copy of the shared result.
+     *
+     * <p/>
+     * The maps, collections, {@link RestQueryListResult} and beans are copied, the immutable values are returned directly.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    protected Object copy(Object value) {
+        if(null == value || value == NULL || value instanceof CharSequence || value instanceof Number ||
+           value instanceof Boolean || value instanceof Character || value instanceof Enum) {
+            return value;
+        }
+
+        if(value instanceof Map) {
+            Map map = value instanceof SimpleRecord ? new SimpleRecord() : new LinkedHashMap<>();
+            ((Map<Object, Object>)value).forEach((k, v) -> map.put(k, copy(v)));
+            return map;
+        }
+
+        if(value instanceof Collection) {
+            Collection c = value instanceof Set ? new LinkedHashSet<>() : new ArrayList<>(((Collection)value).size());
+            ((Collection<Object>)value).forEach(v -> c.add(copy(v)));
+            return c;
+        }
+
+        if(value instanceof RestQueryListResult) {
+            RestQueryListResult result = (RestQueryListResult)value;
+            return new RestQueryListResult((List)copy(result.getList()), result.getCount());
+        }
+
+        if(value instanceof Date) {
+            return ((Date)value).clone();
+        }
+
+        BeanType bt = BeanType.of(value.getClass());
+        if(value.getClass().isArray() || !bt.getReflectClass().hasDefaultConstructor()) {
+            return value;
+        }
+
+        Object bean = bt.newInstance();
+        for(BeanProperty bp : bt.getProperties()) {
+            if(bp.isReadable() && bp.isWritable()) {
+                bp.setValue(bean, copy(bp.getValue(value)));
+            }
+        }
+        return bean;
+    }
+
+    protected Object await(String key, CompletableFuture<Object> future) {
+        try {
+            return future.get(waitTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting the result of '" + key + "'", e);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timeout waiting the result of '" + key + "'", e);
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException)e.getCause();
+            }
+            throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected Map<String, Object> getRequestCache() {
+        if(!requestCache) {
+            return null;
+        }
+
+        RequestContext context = RequestContext.tryGetCurrent();
+        if(null == context) {
+            return null;
+        }
+
+        Map<String, Object> cache = (Map<String, Object>)context.getAttribute(CACHE_ATTRIBUTE);
+        if(null == cache) {
+            cache = new ConcurrentHashMap<>();
+            context.setAttribute(CACHE_ATTRIBUTE, cache);
+        }
+        return cache;
+    }
+
+    protected static final class Batch {
+        private final Map<String, Object>                    ids     = new LinkedHashMap<>();
+        private final Map<String, CompletableFuture<Object>> futures = new LinkedHashMap<>();
+    }
+}
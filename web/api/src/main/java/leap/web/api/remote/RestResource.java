@@ -9,6 +9,7 @@ import leap.web.api.mvc.params.QueryOptionsBase;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 public interface RestResource {
@@ -63,6 +64,14 @@ public interface RestResource {
      */
     <T> T find(Class<T> entityClass, Object id, QueryOptionsBase options);
 
+    /**
+     * Finds the record by the given id asynchronously, the calling thread is not blocked by the remote invocation.
+     *
+     * <p/>
+     * The asynchronous find is not batched or cached.
+     */
+    <T> CompletableFuture<T> findAsync(Class<T> entityClass, Object id, QueryOptionsBase options);
+
     /**
      * Finds the record of many-to-one relation by the given id.
      */
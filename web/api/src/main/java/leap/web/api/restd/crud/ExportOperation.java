@@ -0,0 +1,339 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package leap.web.api.restd.crud;
+
+import leap.core.annotation.ConfigProperty;
+import leap.core.annotation.Configurable;
+import leap.core.annotation.Inject;
+import leap.core.value.Record;
+import leap.lang.Strings;
+import leap.lang.csv.CsvWriter;
+import leap.lang.http.Headers;
+import leap.lang.json.JSON;
+import leap.lang.json.JsonSettings;
+import leap.lang.logging.Log;
+import leap.lang.logging.LogFactory;
+import leap.lang.naming.NamingStyle;
+import leap.orm.dao.Dao;
+import leap.web.Renderable;
+import leap.web.Request;
+import leap.web.Response;
+import leap.web.action.ActionParams;
+import leap.web.action.FuncActionBuilder;
+import leap.web.api.Api;
+import leap.web.api.config.ApiConfigurator;
+import leap.web.api.meta.model.MApiModel;
+import leap.web.api.mvc.params.QueryOptions;
+import leap.web.api.orm.ModelExecutorContext;
+import leap.web.api.orm.ModelQueryExecutor;
+import leap.web.api.orm.SimpleModelExecutorContext;
+import leap.web.api.restd.CrudOperation;
+import leap.web.api.restd.CrudOperationBase;
+import leap.web.api.restd.RestdContext;
+import leap.web.api.restd.RestdModel;
+import leap.web.json.JsonConfig;
+import leap.web.route.RouteBuilder;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.sql.Time;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Export records operation.
+ *
+ * <p/>
+ * Streams all the records matched the query options to the response as NDJSON (default)
+ * or CSV (if the request accepts <code>text/csv</code>), the rows are read by a forward-only cursor
+ * and written directly, so the memory usage is constant whatever the number of exported records.
+ */
+@Configurable(prefix = "webapi.restd.export")
+public class ExportOperation extends CrudOperationBase implements CrudOperation {
+
+    private static final Log log = LogFactory.get(ExportOperation.class);
+
+    protected static final String NAME = "export";
+
+    public static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+    public static final String CSV_CONTENT_TYPE    = "text/csv";
+
+    protected @Inject JsonConfig jsonConfig;
+
+    protected int fetchSize  = 500;
+    protected int flushCount = 1000;
+
+    private JsonSettings jsonSettings;
+
+    /**
+     * Returns the jdbc fetch size of the export query.
+     *
+     * <p/>
+     * Default is 500.
+     */
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    @ConfigProperty
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Returns the number of rows written between two flushes of the response.
+     *
+     * <p/>
+     * Default is 1000.
+     */
+    public int getFlushCount() {
+        return flushCount;
+    }
+
+    @ConfigProperty
+    public void setFlushCount(int flushCount) {
+        this.flushCount = flushCount;
+    }
+
+    @Override
+    public void createCrudOperation(ApiConfigurator c, RestdContext context, RestdModel model) {
+        if(!context.getConfig().allowQueryModel(model.getName())) {
+            return;
+        }
+
+        String path = fullModelPath(c, model) + "/export";
+        String name = Strings.lowerCamel(NAME, model.getName());
+
+        createCrudOperation(c, context, model, path, name, null);
+    }
+
+    public void createCrudOperation(ApiConfigurator c, RestdContext context, RestdModel model,
+                                    String path, String name, Callback callback) {
+
+        FuncActionBuilder action = new FuncActionBuilder(name);
+        RouteBuilder      route  = rm.createRoute("GET", path);
+
+        if (null != callback) {
+            callback.preAddArguments(action);
+        }
+
+        action.setFunction(createFunction(context, model, action.getArguments().size()));
+
+        addArgument(context, action, QueryOptions.class, "options");
+
+        if (null != callback) {
+            callback.postAddArguments(action);
+        }
+
+        preConfigure(context, model, action);
+        route.setAction(action.build());
+        setCrudOperation(route, NAME);
+        postConfigure(context, model, route);
+
+        if(isOperationExists(context, route)) {
+            return;
+        }
+
+        c.addDynamicRoute(rm.loadRoute(context.getRoutes(), route));
+    }
+
+    protected Function<ActionParams, Object> createFunction(RestdContext context, RestdModel model, int start) {
+        return new ExportFunction(context.getApi(), context.getDao(), model, start);
+    }
+
+    protected JsonSettings getJsonSettings() {
+        if(null == jsonSettings) {
+            jsonSettings =
+                    new JsonSettings.Builder()
+                            .setKeyQuoted(jsonConfig.isDefaultSerializationKeyQuoted())
+                            .setIgnoreNull(jsonConfig.isDefaultSerializationIgnoreNull())
+                            .setIgnoreEmpty(jsonConfig.isDefaultSerializationIgnoreEmpty())
+                            .setNamingStyle(jsonConfig.getDefaultNamingStyle())
+                            .setDateTimeFormatter(jsonConfig.getDefaultDateFormat())
+                            .build();
+        }
+        return jsonSettings;
+    }
+
+    protected static boolean isCsvAccepted(Request request) {
+        String accept = request.getHeader(Headers.ACCEPT);
+        return null != accept && accept.toLowerCase().contains(CSV_CONTENT_TYPE);
+    }
+
+    protected class ExportFunction extends CrudFunction {
+        public ExportFunction(Api api, Dao dao, RestdModel model, int start) {
+            super(api, dao, model, start);
+        }
+
+        @Override
+        public Object apply(ActionParams params) {
+            MApiModel am = am();
+
+            ModelExecutorContext context  = new SimpleModelExecutorContext(api, dao, am, em, params);
+            ModelQueryExecutor   executor = newQueryExecutor(context);
+
+            QueryOptions options = getWithoutId(params, 0);
+
+            return (Renderable) (request, response) -> export(executor, options, request, response);
+        }
+
+        protected void export(ModelQueryExecutor executor, QueryOptions options, Request request, Response response) throws IOException {
+            boolean csv = isCsvAccepted(request);
+
+            response.setContentType((csv ? CSV_CONTENT_TYPE : NDJSON_CONTENT_TYPE) + ";charset=UTF-8");
+            response.setHeader(Headers.CONTENT_DISPOSITION,
+                               "attachment; filename=\"" + model.getName() + (csv ? ".csv" : ".ndjson") + "\"");
+
+            PrintWriter  out    = response.getWriter();
+            RecordWriter writer = csv ? new CsvRecordWriter(out) : new NdjsonRecordWriter(out);
+
+            int total;
+            try {
+                total = executor.queryEach(options, null, fetchSize, record -> {
+                    try {
+                        writer.write(record);
+                        if(flushCount > 0 && writer.count % flushCount == 0) {
+                            flush(out, writer);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            flush(out, writer);
+
+            log.debug("Exported {} records of model '{}'", total, model.getName());
+        }
+
+        /**
+         * Flushes the writer by {@link PrintWriter#checkError()} and aborts the export if the client has gone.
+         *
+         * <p/>
+         * The {@link PrintWriter} of response never throws {@link IOException}, the error must be checked.
+         */
+        protected void flush(PrintWriter out, RecordWriter writer) throws IOException {
+            if(out.checkError()) {
+                throw new IOException("Error writing the response, the export of model '" + model.getName() +
+                                      "' aborted after " + writer.count + " records");
+            }
+        }
+
+        protected ModelQueryExecutor newQueryExecutor(ModelExecutorContext context) {
+            return mef.newQueryExecutor(context);
+        }
+
+        @Override
+        public String toString() {
+            return "Function:" + "Export " + model.getName() + "";
+        }
+    }
+
+    protected static abstract class RecordWriter {
+        protected int count;
+
+        protected void write(Record record) throws IOException {
+            doWrite(record);
+            count++;
+        }
+
+        protected abstract void doWrite(Record record) throws IOException;
+    }
+
+    protected class NdjsonRecordWriter extends RecordWriter {
+        private final PrintWriter  out;
+        private final JsonSettings settings = getJsonSettings();
+
+        protected NdjsonRecordWriter(PrintWriter out) {
+            this.out = out;
+        }
+
+        @Override
+        protected void doWrite(Record record) {
+            JSON.encode(record, settings, out);
+            out.write('\n');
+        }
+    }
+
+    protected class CsvRecordWriter extends RecordWriter {
+        private final CsvWriter    csv;
+        private final JsonSettings settings = getJsonSettings();
+
+        private List<String> fields;
+        private List<Object> values;
+
+        protected CsvRecordWriter(PrintWriter out) {
+            this.csv = new CsvWriter(out);
+        }
+
+        @Override
+        protected void doWrite(Record record) throws IOException {
+            if(null == fields) {
+                //the header is the fields of first record, all the records of a query have the same fields.
+                fields = new ArrayList<>(record.keySet());
+                values = new ArrayList<>(fields.size());
+
+                NamingStyle ns = settings.getNamingStyle();
+                for(String field : fields) {
+                    values.add(null == ns ? field : ns.of(field));
+                }
+                csv.writeRow(values);
+            }
+
+            values.clear();
+            for(String field : fields) {
+                values.add(toCsvValue(record.get(field)));
+            }
+            csv.writeRow(values);
+        }
+
+        protected Object toCsvValue(Object value) {
+            if(value instanceof Map || value instanceof Iterable || (null != value && value.getClass().isArray())) {
+                return JSON.encode(value, settings);
+            }
+            if(value instanceof Date) {
+                return toCsvDate((Date)value);
+            }
+            return value;
+        }
+
+        /**
+         * Formats the date with the same rules as the json writer.
+         */
+        protected String toCsvDate(Date date) {
+            if(date instanceof Time) {
+                return ((Time) date).toLocalTime().toString();
+            }
+            if(date instanceof java.sql.Date) {
+                return ((java.sql.Date) date).toLocalDate().toString();
+            }
+            if(null != settings.getDateTimeFormatter()) {
+                return settings.getDateTimeFormatter().format(Instant.ofEpochMilli(date.getTime()));
+            }
+            if(null != settings.getDateFormat()) {
+                return settings.getDateFormat().format(date);
+            }
+            return String.valueOf(date.getTime());
+        }
+    }
+}
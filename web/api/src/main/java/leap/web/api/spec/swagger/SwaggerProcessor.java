@@ -20,6 +20,10 @@ import leap.lang.New;
 import leap.lang.Strings;
 import leap.lang.http.HTTP;
 import leap.lang.http.Headers;
+import leap.lang.io.IO;
+import leap.lang.logging.Log;
+import leap.lang.logging.LogFactory;
+import leap.lang.time.StopWatch;
 import leap.web.Handler;
 import leap.web.Request;
 import leap.web.Response;
@@ -36,13 +40,24 @@ import leap.web.assets.AssetStrategy;
 import leap.web.route.Route;
 import leap.web.route.Routes;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 public class SwaggerProcessor implements ApiConfigProcessor,ApiMetadataProcessor {
 	
+	private static final Log log = LogFactory.get(SwaggerProcessor.class);
+
 	private static final String SWAGGER_JSON_FILE = "swagger.json";
+	private static final int    MAX_CACHED_SPECS  = 64;
 
 	protected @Inject Apis          apis;
 	protected @Inject AssetStrategy assetStrategy;
@@ -76,12 +91,14 @@ public class SwaggerProcessor implements ApiConfigProcessor,ApiMetadataProcessor
         context.getApi().getConfigurator().addDynamicRoute(route, false);
     }
 
-    void handleJsonSpecRequest(Api api, Request req, Response resp) throws Throwable {
-		SwaggerJsonWriter w = new SwaggerJsonWriter();
-		w.setPropertyNamingStyle(api.getConfig().getPropertyNamingStyle());
-
-		resp.setContentType(w.getContentType());
+    /**
+     * Clears the cached json specs of the given api.
+     */
+    public void clearCache(Api api) {
+        api.removeExtension(SpecCache.class);
+    }
 
+    void handleJsonSpecRequest(Api api, Request req, Response resp) throws Throwable {
         String[] parts = req.getParameterValues("parts");
         if(null != parts && parts.length == 1) {
             parts = Strings.split(parts[0], ',');
@@ -89,19 +106,83 @@ public class SwaggerProcessor implements ApiConfigProcessor,ApiMetadataProcessor
         Set<String> partsSet = null == parts ? Collections.emptySet() : New.hashSet(parts);
 
         ApiSpecContext context = new ApiSpecContextImpl(req, partsSet);
-        String json = toSwaggerJson(w, context, api.getMetadata());
-        String fingerprint = assetStrategy.getFingerprint(json.getBytes());
+        JsonSpec       spec    = getJsonSpec(api, req, context);
 
-        resp.setHeader(Headers.ETAG, "\"" + fingerprint + "\"");
+        resp.setContentType(spec.contentType);
+        resp.setHeader(Headers.ETAG, spec.etag);
+        resp.setHeader(Headers.VARY, Headers.ACCEPT_ENCODING);
 
         String ifNoneMatch = req.getHeader(Headers.IF_NONE_MATCH);
-        if(!Strings.isEmpty(ifNoneMatch) && ifNoneMatch.equals("\"" + fingerprint + "\"")) {
+        if(!Strings.isEmpty(ifNoneMatch) && ifNoneMatch.equals(spec.etag)) {
             resp.setStatus(HTTP.SC_NOT_MODIFIED);
+        }else if(req.isGzipSupport()) {
+            resp.setHeader(Headers.CONTENT_ENCODING, "gzip");
+            resp.setContentLength(spec.gzipped.length);
+            resp.getOutputStream().write(spec.gzipped);
         }else {
-            resp.getWriter().write(json);
+            resp.setContentLength(spec.length);
+            try(InputStream in = new GZIPInputStream(new ByteArrayInputStream(spec.gzipped))) {
+                IO.copy(in, resp.getOutputStream());
+            }
         }
 	}
 
+    /**
+     * Returns the cached json spec, the cache will be discarded if the {@link ApiMetadata} of api changed.
+     */
+    protected JsonSpec getJsonSpec(Api api, Request req, ApiSpecContext context) throws IOException {
+        ApiMetadata md = api.getMetadata();
+
+        SpecCache cache = api.getExtension(SpecCache.class);
+        if(null == cache || cache.metadata != md) {
+            cache = new SpecCache(md);
+            api.setExtension(SpecCache.class, cache);
+        }
+
+        String   key  = getCacheKey(req, context);
+        JsonSpec spec = cache.specs.get(key);
+        if(null == spec) {
+            spec = createJsonSpec(api, context, md);
+            if(cache.specs.size() < MAX_CACHED_SPECS) {
+                cache.specs.putIfAbsent(key, spec);
+            }
+        }
+        return spec;
+    }
+
+    /**
+     * Returns the key of all the request values affecting the generated spec.
+     */
+    protected String getCacheKey(Request req, ApiSpecContext context) {
+        StringBuilder key = new StringBuilder();
+        key.append(context.getHost()).append(':').append(context.getPort()).append(context.getContextPath());
+        key.append("|profile=").append(req.getParameter("profile"));
+        new TreeSet<>(context.getParts()).forEach(part -> key.append('|').append(part));
+        return key.toString();
+    }
+
+    protected JsonSpec createJsonSpec(Api api, ApiSpecContext context, ApiMetadata md) throws IOException {
+        SwaggerJsonWriter w = new SwaggerJsonWriter();
+        w.setPropertyNamingStyle(api.getConfig().getPropertyNamingStyle());
+
+        StopWatch sw = StopWatch.startNew();
+
+        byte[] json = Strings.getBytesUtf8(toSwaggerJson(w, context, md));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try(GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        }
+
+        JsonSpec spec = new JsonSpec(w.getContentType(), "\"" + assetStrategy.getFingerprint(json) + "\"",
+                                     json.length, out.toByteArray());
+
+        log.info("Generated swagger spec of api '{}' : {} bytes ({} gzipped), {}ms",
+                 api.getName(), json.length, spec.gzipped.length, sw.getElapsedMilliseconds());
+
+        return spec;
+    }
+
     protected String toSwaggerJson(SwaggerJsonWriter w, ApiSpecContext context, ApiMetadata md) throws IOException {
         StringBuilder out = new StringBuilder();
         w.write(context, md, out);
@@ -116,6 +197,29 @@ public class SwaggerProcessor implements ApiConfigProcessor,ApiMetadataProcessor
         }
 	}
 
+    protected static final class SpecCache {
+        private final ApiMetadata           metadata;
+        private final Map<String, JsonSpec> specs = new ConcurrentHashMap<>();
+
+        SpecCache(ApiMetadata metadata) {
+            this.metadata = metadata;
+        }
+    }
+
+    protected static final class JsonSpec {
+        private final String contentType;
+        private final String etag;
+        private final int    length;
+        private final byte[] gzipped;
+
+        JsonSpec(String contentType, String etag, int length, byte[] gzipped) {
+            this.contentType = contentType;
+            this.etag        = etag;
+            this.length      = length;
+            this.gzipped     = gzipped;
+        }
+    }
+
     protected static class ApiSpecContextImpl implements ApiSpecContext {
         private final Request     request;
         private final Set<String> parts;
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package leap.web.api.remote;
+
+import leap.junit.TestBase;
+import leap.lang.New;
+import leap.lang.text.scel.ScelExpr;
+import leap.lang.text.scel.ScelParser;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RestRequestCoalescerTest extends TestBase {
+
+    @Test
+    public void testBatchConcurrentFinds() throws Exception {
+        RestRequestCoalescer coalescer = new RestRequestCoalescer();
+        coalescer.setBatchWindow(50);
+
+        List<List<Object>> batches = new CopyOnWriteArrayList<>();
+        ExecutorService    pool    = Executors.newFixedThreadPool(5);
+        CountDownLatch     start   = new CountDownLatch(1);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for(int i=0;i<5;i++) {
+                final int id = i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return coalescer.find("users", id, ids -> {
+                        batches.add(ids);
+                        sleep(20);
+                        Map<String, String> results = new HashMap<>();
+                        ids.forEach(v -> results.put(coalescer.idKey(v), "user" + v));
+                        return results;
+                    });
+                }));
+            }
+            start.countDown();
+
+            for(int i=0;i<5;i++) {
+                assertEquals("user" + i, futures.get(i).get(10, TimeUnit.SECONDS));
+            }
+            assertTrue(batches.size() < 5);
+        }finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSingleFindNotDelayed() {
+        RestRequestCoalescer coalescer = new RestRequestCoalescer();
+        coalescer.setBatchWindow(1000);
+
+        long start = System.currentTimeMillis();
+        assertEquals("user1", coalescer.find("users", 1, ids -> New.hashMap("1", "user1")));
+        assertTrue(System.currentTimeMillis() - start < 500);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCopySharedResult() {
+        RestRequestCoalescer coalescer = new RestRequestCoalescer();
+
+        Map<String, Object> nested = New.hashMap("name", "a");
+        Map<String, Object> result = New.hashMap("id", 1, "nested", nested, "tags", New.arrayList("x"));
+
+        Map<String, Object> copy = (Map<String, Object>)coalescer.copy(result);
+        assertNotSame(result, copy);
+        assertEquals(result, copy);
+
+        ((Map<String, Object>)copy.get("nested")).put("name", "b");
+        ((List<Object>)copy.get("tags")).add("y");
+        assertEquals("a", nested.get("name"));
+        assertEquals(1, ((List<Object>)result.get("tags")).size());
+
+        RestQueryListResult<Map<String, Object>> list = new RestQueryListResult<>(New.arrayList(result), 10);
+        RestQueryListResult<Map<String, Object>> listCopy = (RestQueryListResult<Map<String, Object>>)coalescer.copy(list);
+        assertEquals(10, listCopy.getCount());
+        assertNotSame(result, listCopy.getList().get(0));
+    }
+
+    @Test
+    public void testDedupeInflightReads() throws Exception {
+        RestRequestCoalescer coalescer = new RestRequestCoalescer();
+
+        AtomicInteger  calls   = new AtomicInteger();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> f1 = pool.submit(() -> coalescer.read("key", () -> {
+                calls.incrementAndGet();
+                running.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return "result";
+            }));
+            running.await();
+
+            Future<String> f2 = pool.submit(() -> coalescer.read("key", () -> {
+                calls.incrementAndGet();
+                return "other";
+            }));
+            Thread.sleep(50);
+            release.countDown();
+
+            assertEquals("result", f1.get(10, TimeUnit.SECONDS));
+            assertEquals("result", f2.get(10, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+        }finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testInFilters() {
+        String expr = RestFilters.in("id", New.arrayList(1, "a'b", "c\\d"));
+        assertEquals("id in (1,'a\\'b','c\\\\d')", expr);
+
+        ScelExpr scel = ScelParser.parse(expr);
+        assertNotNull(scel);
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
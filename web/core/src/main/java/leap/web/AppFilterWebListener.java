@@ -72,6 +72,7 @@ public class AppFilterWebListener extends XmlConfigReaderBase implements Servlet
         boolean autoLoadFilter = config.getBooleanProperty(AUTO_LOAD_FILTER_PROPERTY,DEFAULT_AUTO_LOAD_FILTER);
         if(autoLoadFilter){
             FilterRegistration.Dynamic dynamic = sc.addFilter(DEFAULT_APP_FILTER_NAME, DEFAULT_APP_FILTER_CLASS);
+            dynamic.setAsyncSupported(true);
             dynamic.addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST),DEFAULT_APP_FILTER_MATCH_AFTER,DEFAULT_APP_FILTER_URL_PATTERNS);
         }
     }
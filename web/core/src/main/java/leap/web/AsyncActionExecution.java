@@ -0,0 +1,130 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.web;
+
+import leap.core.validation.Validation;
+import leap.web.action.ActionContext;
+
+import javax.servlet.AsyncContext;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The state of an action which returns a {@link java.util.concurrent.CompletionStage} and executing in servlet async mode.
+ *
+ * <p/>
+ * The result is rendered after both the request thread returned and the completion stage completed,
+ * so the rendering never runs concurrently with the request thread.
+ */
+public class AsyncActionExecution {
+
+    public static final String ATTRIBUTE_NAME = AsyncActionExecution.class.getName();
+
+    /**
+     * Returns the {@link AsyncActionExecution} of the request or <code>null</code> if the request is not executing in async mode.
+     */
+    public static AsyncActionExecution tryGet(Request request) {
+        return (AsyncActionExecution)request.getAttribute(ATTRIBUTE_NAME);
+    }
+
+    private final Request                 request;
+    private final Response                response;
+    private final ActionContext           actionContext;
+    private final Validation              validation;
+    private final Result                  result;
+    private final DefaultRequestExecution requestExecution;
+    private final AsyncContext            asyncContext;
+    private final AtomicBoolean           completed = new AtomicBoolean();
+    private final AtomicInteger           arrivals  = new AtomicInteger(2);
+
+    private volatile Object    value;
+    private volatile Throwable error;
+
+    public AsyncActionExecution(Request request, Response response, ActionContext actionContext, Validation validation,
+                                Result result, DefaultRequestExecution requestExecution, AsyncContext asyncContext) {
+        this.request          = request;
+        this.response         = response;
+        this.actionContext    = actionContext;
+        this.validation       = validation;
+        this.result           = result;
+        this.requestExecution = requestExecution;
+        this.asyncContext     = asyncContext;
+    }
+
+    public Request getRequest() {
+        return request;
+    }
+
+    public Response getResponse() {
+        return response;
+    }
+
+    public ActionContext getActionContext() {
+        return actionContext;
+    }
+
+    public Validation getValidation() {
+        return validation;
+    }
+
+    public Result getResult() {
+        return result;
+    }
+
+    public DefaultRequestExecution getRequestExecution() {
+        return requestExecution;
+    }
+
+    public AsyncContext getAsyncContext() {
+        return asyncContext;
+    }
+
+    /**
+     * Returns the completed value of the action.
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the error of the action or <code>null</code> if completed normally.
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * Sets the outcome of the action, returns <code>true</code> if the result should be rendered by the caller now.
+     *
+     * <p/>
+     * Only the first outcome is accepted, the later ones (such as timeout after completed) are ignored.
+     */
+    public boolean complete(Object value, Throwable error) {
+        if(!completed.compareAndSet(false, true)) {
+            return false;
+        }
+        this.value = value;
+        this.error = error;
+        return arrive();
+    }
+
+    /**
+     * Notifies the request thread returned, returns <code>true</code> if the result should be rendered by the caller now.
+     */
+    public boolean arrive() {
+        return arrivals.decrementAndGet() == 0;
+    }
+}
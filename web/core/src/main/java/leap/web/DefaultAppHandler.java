@@ -15,7 +15,9 @@
  */
 package leap.web;
 
+import leap.core.AppContext;
 import leap.core.AppException;
+import leap.core.RequestContext;
 import leap.core.annotation.Inject;
 import leap.core.annotation.M;
 import leap.core.validation.SimpleErrors;
@@ -49,18 +51,29 @@ import leap.web.view.View;
 import leap.web.view.ViewSource;
 import leap.web.view.WrappedViewData;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.Enumeration;
 import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static leap.web.cors.CorsHandler.REQUEST_HEADER_ACCESS_CONTROL_REQUEST_METHOD;
 
 public class DefaultAppHandler extends AppHandlerBase implements AppHandler {
 
+    protected static final String REQUEST_EXECUTION_ATTRIBUTE = DefaultRequestExecution.class.getName();
+
     protected @Inject @M RequestHandlerMapping[] handlerMappings;
     protected @Inject @M RequestInterceptors interceptors;
     protected @Inject @M ActionManager actionManager;
@@ -188,6 +201,8 @@ public class DefaultAppHandler extends AppHandlerBase implements AppHandler {
 
         StopWatch sw = StopWatch.startNew();
         DefaultRequestExecution execution = new DefaultRequestExecution();
+        AsyncActionExecution    async     = null;
+        request.setAttribute(REQUEST_EXECUTION_ATTRIBUTE, execution);
         try {
             boolean handled;
             try {
@@ -268,6 +283,11 @@ public class DefaultAppHandler extends AppHandlerBase implements AppHandler {
                 renderResponseException(request, response, e);
             }
 
+            //the result of async action will be rendered on completion.
+            if (null != (async = AsyncActionExecution.tryGet(request))) {
+                return true;
+            }
+
             if (handled) {
                 execution.success();
                 interceptors.postHandleRequest(request, response, execution);
@@ -303,13 +323,19 @@ public class DefaultAppHandler extends AppHandlerBase implements AppHandler {
             if (_debug) {
                 log.debug("Request '" + request.getPath() + "' executed {}ms", sw.getElapsedMilliseconds());
             }
-            try {
-                interceptors.completeHandleRequest(request, response, execution);
-            } catch (Throwable e) {
-                if (_debug) {
-                    log.error("Error executing 'completeHandle' in interceptors, {}", e.getMessage(), e);
+            if (null != async) {
+                if (async.arrive()) {
+                    renderAsyncAction(async);
+                }
+            } else {
+                try {
+                    interceptors.completeHandleRequest(request, response, execution);
+                } catch (Throwable e) {
+                    if (_debug) {
+                        log.error("Error executing 'completeHandle' in interceptors, {}", e.getMessage(), e);
+                    }
+                    throwException(e);
                 }
-                throwException(e);
             }
         }
     }
@@ -656,6 +682,14 @@ public class DefaultAppHandler extends AppHandlerBase implements AppHandler {
         //execute action
         Object returnValue = executeAction(ac, validation);
 
+        //async action
+        if (returnValue instanceof CompletionStage && !response.isHandled() && !response.isCommitted()) {
+            if (startAsyncAction(request, response, ac, validation, result, (CompletionStage<?>) returnValue)) {
+                return;
+            }
+            returnValue = awaitAsyncAction((CompletionStage<?>) returnValue);
+        }
+
         //raw response
         if (response.isHandled() || response.isCommitted()) {
             log.debug("Response was rendered or committed, do not render the result of action");
@@ -680,6 +714,171 @@ public class DefaultAppHandler extends AppHandlerBase implements AppHandler {
         actionManager.processResult(ac, validation, returnValue, result);
     }
 
+    /**
+     * Starts servlet async mode for the action returning a {@link CompletionStage}.
+     *
+     * <p/>
+     * Returns <code>false</code> if the async mode is disabled or not supported.
+     */
+    protected boolean startAsyncAction(Request request, Response response, ActionContext ac, Validation validation,
+                                       Result result, CompletionStage<?> stage) {
+        ServletRequest servletRequest = request.getServletRequest();
+
+        DefaultRequestExecution execution = (DefaultRequestExecution) request.getAttribute(REQUEST_EXECUTION_ATTRIBUTE);
+        if (null == execution || !webConfig.isAsyncEnabled() ||
+                !servletRequest.isAsyncSupported() || servletRequest.isAsyncStarted()) {
+            return false;
+        }
+
+        if (_debug) {
+            log.debug("Action '{}' returns a completion stage, start async mode", ac.getAction());
+        }
+
+        AsyncContext asyncContext = servletRequest.startAsync(servletRequest, response.getServletResponse());
+        if (webConfig.getAsyncTimeout() > 0) {
+            asyncContext.setTimeout(webConfig.getAsyncTimeout());
+        }
+
+        final AsyncActionExecution async =
+                new AsyncActionExecution(request, response, ac, validation, result, execution, asyncContext);
+        request.setAttribute(AsyncActionExecution.ATTRIBUTE_NAME, async);
+
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                ResponseException e = new ResponseException(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                        "Action '" + ac.getAction() + "' not completed in " + webConfig.getAsyncTimeout() + "ms");
+                if (async.complete(null, e)) {
+                    renderAsyncAction(async);
+                }
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {}
+
+            @Override
+            public void onError(AsyncEvent event) {}
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {}
+        });
+
+        stage.whenComplete((value, e) -> {
+            if (async.complete(value, unwrapAsyncError(e))) {
+                renderAsyncAction(async);
+            }
+        });
+
+        return true;
+    }
+
+    /**
+     * Waits the completion of the {@link CompletionStage} in current thread if the async mode can not be started.
+     */
+    protected Object awaitAsyncAction(CompletionStage<?> stage) throws Throwable {
+        try {
+            if (webConfig.getAsyncTimeout() > 0) {
+                return stage.toCompletableFuture().get(webConfig.getAsyncTimeout(), TimeUnit.MILLISECONDS);
+            } else {
+                return stage.toCompletableFuture().get();
+            }
+        } catch (ExecutionException e) {
+            throw unwrapAsyncError(e);
+        } catch (TimeoutException e) {
+            throw new ResponseException(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                    "Action not completed in " + webConfig.getAsyncTimeout() + "ms", e);
+        }
+    }
+
+    /**
+     * Renders the completed async action in the completion thread, the request and app context are bound to the thread
+     * during rendering.
+     */
+    protected void renderAsyncAction(AsyncActionExecution async) {
+        Request                 request   = async.getRequest();
+        Response                response  = async.getResponse();
+        ActionContext           ac        = async.getActionContext();
+        Result                  result    = async.getResult();
+        DefaultRequestExecution execution = async.getRequestExecution();
+
+        AppContext     prevAppContext     = AppContext.tryGetCurrent();
+        RequestContext prevRequestContext = RequestContext.tryGetCurrent();
+
+        AppContext.setCurrent(app.context());
+        RequestContext.setCurrent(request);
+        try {
+            try {
+                if (null != async.getError()) {
+                    throw async.getError();
+                }
+
+                if (response.isHandled() || response.isCommitted()) {
+                    log.debug("Response was rendered or committed, do not render the result of async action");
+                } else {
+                    if (null == result.getRenderable()) {
+                        processResult(ac, async.getValidation(), async.getValue(), result);
+                    }
+                    renderResult(request, response, ac, result);
+                }
+            } catch (RequestIntercepted e) {
+                log.debug("Caught a RequestIntercepted Exception, finish handling async request.", e);
+            } catch (ResponseException e) {
+                renderResponseException(request, response, e);
+            }
+
+            execution.success();
+            interceptors.postHandleRequest(request, response, execution);
+        } catch (Throwable e) {
+            renderAsyncError(request, response, execution, e);
+        } finally {
+            try {
+                interceptors.completeHandleRequest(request, response, execution);
+            } catch (Throwable e) {
+                log.error("Error executing 'completeHandle' in interceptors, {}", e.getMessage(), e);
+            }
+
+            try {
+                async.getAsyncContext().complete();
+            } catch (IllegalStateException e) {
+                log.debug("Async context already completed, {}", e.getMessage());
+            }
+
+            if (null == prevRequestContext) {
+                RequestContext.removeCurrent();
+            } else {
+                RequestContext.setCurrent(prevRequestContext);
+            }
+            if (null == prevAppContext) {
+                AppContext.removeCurrent();
+            } else {
+                AppContext.setCurrent(prevAppContext);
+            }
+        }
+    }
+
+    protected void renderAsyncError(Request request, Response response, DefaultRequestExecution execution, Throwable e) {
+        log.error("Error handling async request '{}', {}", request.getPath(), e.getMessage(), e);
+        try {
+            execution.failure(e);
+            if (State.isIntercepted(interceptors.onRequestFailure(request, response, execution))) {
+                return;
+            }
+
+            if (!handleError(request, response, e) && !response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
+            }
+        } catch (Throwable e1) {
+            log.error("Error handling the error of async request '{}', {}", request.getPath(), e1.getMessage(), e1);
+        }
+    }
+
+    protected Throwable unwrapAsyncError(Throwable e) {
+        while ((e instanceof CompletionException || e instanceof ExecutionException) && null != e.getCause()) {
+            e = e.getCause();
+        }
+        return e;
+    }
+
     public void renderResponseException(Request request, Response response, ResponseException e) throws Throwable {
         Content content = e.getContent();
         if (null == content) {
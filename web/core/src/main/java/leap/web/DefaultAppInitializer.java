@@ -19,6 +19,8 @@ import leap.core.AppConfig;
 import leap.core.AppConfigException;
 import leap.core.annotation.Inject;
 import leap.core.annotation.M;
+import leap.core.startup.StartupProfiler;
+import leap.core.startup.StartupStep;
 import leap.lang.Strings;
 import leap.lang.logging.Log;
 import leap.lang.logging.LogFactory;
@@ -39,8 +41,11 @@ public class DefaultAppInitializer implements AppInitializer {
 	@Override
 	public void initialize(App app) throws AppConfigException {
 		this.loadConfig(app);
-		this.loadRoutesFromConfigs(app);
-		this.loadRoutesFromClasses(app);
+
+		try(StartupStep step = StartupProfiler.start("routes")) {
+			this.loadRoutesFromConfigs(app);
+			this.loadRoutesFromClasses(app);
+		}
 	}
 	
 	protected void loadConfig(App app) {
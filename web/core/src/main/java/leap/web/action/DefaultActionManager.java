@@ -30,6 +30,7 @@ import leap.web.*;
 import leap.web.Result;
 import leap.web.action.Argument.Location;
 import leap.web.annotation.*;
+import leap.web.body.RequestBodies;
 import leap.web.config.WebInterceptors;
 import leap.web.exception.BadRequestException;
 import leap.web.exception.ResponseException;
@@ -293,6 +294,14 @@ public class DefaultActionManager implements ActionManager {
                 count++;
                 continue;
             }
+
+            //streaming request body, such as InputStream.
+            if(RequestBodies.isStreaming(a.getType())) {
+                rbaf.argument   = a;
+                rbaf.declared   = true;
+                count++;
+                continue;
+            }
         }
         if(count > 1){
             throw new AppConfigException("Only one request body argument allowed, check the action : " + route.getAction());
@@ -17,11 +17,15 @@ package leap.web.body;
 
 import java.lang.reflect.Type;
 
+import leap.core.annotation.Inject;
 import leap.lang.Arrays2;
 import leap.lang.io.IO;
 import leap.web.Request;
 
 public class BytesRequestBodyReader implements RequestBodyReader {
+	
+	protected @Inject UploadMetrics metrics;
+	
 	@Override
 	public boolean canReadRequestBody(Class<?> type, Type genericType) {
 		return Arrays2.EMPTY_BYTE_ARRAY.getClass().equals(type);
@@ -29,7 +33,7 @@ public class BytesRequestBodyReader implements RequestBodyReader {
 
 	@Override
 	public Object readRequestBody(Request request, Class<?> type, Type genericType) throws Throwable {
-		return IO.readByteArray(request.getInputStream());
+		return IO.readByteArray(metrics.monitor(request.getInputStream()));
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.web.body;
+
+import java.io.Reader;
+import java.util.function.Consumer;
+
+import leap.lang.json.JSON;
+
+/**
+ * A json array request body consumed element by element.
+ * 
+ * <p>
+ * The elements are parsed and passed to the handler incrementally, the whole array is never held in memory.
+ * 
+ * <pre>
+ * public void importItems(JsonArrayBody&lt;Item&gt; items) {
+ *     items.forEach(item -> dao.insert(item));
+ * }
+ * </pre>
+ */
+public class JsonArrayBody<T> {
+	
+	private final Reader   reader;
+	private final Class<T> elementType;
+	
+	private boolean consumed;
+	
+	public JsonArrayBody(Reader reader, Class<T> elementType) {
+		this.reader      = reader;
+		this.elementType = elementType;
+	}
+
+	/**
+	 * Returns the element type, <code>null</code> means the raw json values.
+	 */
+	public Class<T> getElementType() {
+		return elementType;
+	}
+
+	/**
+	 * Parses the elements and passes them to the handler, returns the number of elements.
+	 * 
+	 * @throws IllegalStateException if the body already consumed.
+	 */
+	@SuppressWarnings("unchecked")
+	public int forEach(Consumer<? super T> handler) throws IllegalStateException {
+		if(consumed) {
+			throw new IllegalStateException("The request body already consumed");
+		}
+		consumed = true;
+		
+		if(null == elementType || Object.class.equals(elementType)) {
+			return JSON.decodeArray(reader, e -> handler.accept((T)e));
+		}else{
+			return JSON.decodeArray(reader, elementType, handler);
+		}
+	}
+}
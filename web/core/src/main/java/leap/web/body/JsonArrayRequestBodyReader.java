@@ -0,0 +1,53 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.web.body;
+
+import java.io.InputStreamReader;
+import java.lang.reflect.Type;
+
+import leap.core.annotation.Inject;
+import leap.lang.Charsets;
+import leap.lang.Strings;
+import leap.lang.Types;
+import leap.web.Request;
+
+/**
+ * Reads the json array request body as {@link JsonArrayBody}.
+ */
+public class JsonArrayRequestBodyReader implements RequestBodyReader {
+	
+	protected @Inject UploadMetrics metrics;
+
+	@Override
+	public boolean canReadRequestBody(Class<?> type, Type genericType) {
+		return JsonArrayBody.class.equals(type);
+	}
+
+	@Override
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public Object readRequestBody(Request request, Class<?> type, Type genericType) throws Throwable {
+		String charset = request.getCharacterEncoding();
+		
+		InputStreamReader reader = 
+				new InputStreamReader(metrics.monitor(request.getInputStream()), 
+									  Strings.isEmpty(charset) ? Charsets.UTF_8 : Charsets.forName(charset));
+		
+		Class<?> elementType = null == genericType ? Object.class : Types.getActualTypeArgument(genericType);
+		
+		return new JsonArrayBody(reader, elementType);
+	}
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.web.body;
+
+import java.io.InputStream;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Utils for streaming request bodies.
+ */
+public class RequestBodies {
+	
+	/**
+	 * Returns <code>true</code> if the request body of the given type is read by streaming.
+	 * 
+	 * <p>
+	 * The streaming request body is not buffered and must be consumed in the action.
+	 */
+	public static boolean isStreaming(Class<?> type) {
+		return InputStream.class.equals(type) || 
+			   ReadableByteChannel.class.equals(type) || 
+			   JsonArrayBody.class.equals(type);
+	}
+	
+	protected RequestBodies() {
+		
+	}
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.web.body;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import leap.lang.logging.Log;
+import leap.lang.logging.LogFactory;
+
+/**
+ * The size and throughput metrics of the uploaded request bodies.
+ */
+public class UploadMetrics {
+	
+	private static final Log log = LogFactory.get(UploadMetrics.class);
+	
+	private final LongAdder        uploads  = new LongAdder();
+	private final LongAdder        bytes    = new LongAdder();
+	private final LongAdder        nanos    = new LongAdder();
+	private final LongAccumulator  maxBytes = new LongAccumulator(Math::max, 0);
+	
+	/**
+	 * Returns a wrapped input stream which records the read bytes and duration on end of stream or close.
+	 */
+	public InputStream monitor(InputStream in) {
+		return new MonitoredInputStream(in);
+	}
+	
+	/**
+	 * Records an upload.
+	 */
+	public void record(long size, long durationNanos) {
+		uploads.increment();
+		bytes.add(size);
+		nanos.add(durationNanos);
+		maxBytes.accumulate(size);
+		
+		if(log.isDebugEnabled()) {
+			log.debug("Uploaded {} bytes in {}ms", size, durationNanos / 1000000L);
+		}
+	}
+	
+	/**
+	 * Returns the number of uploads.
+	 */
+	public long getUploads() {
+		return uploads.sum();
+	}
+
+	/**
+	 * Returns the total bytes of uploads.
+	 */
+	public long getBytes() {
+		return bytes.sum();
+	}
+	
+	/**
+	 * Returns the bytes of the largest upload.
+	 */
+	public long getMaxBytes() {
+		return maxBytes.get();
+	}
+	
+	/**
+	 * Returns the average bytes of uploads.
+	 */
+	public long getAverageBytes() {
+		long count = uploads.sum();
+		return count == 0 ? 0 : bytes.sum() / count;
+	}
+	
+	/**
+	 * Returns the average throughput in bytes per second.
+	 */
+	public long getBytesPerSecond() {
+		long duration = nanos.sum();
+		return duration <= 0 ? 0 : (long)(bytes.sum() * 1000000000d / duration);
+	}
+	
+	protected class MonitoredInputStream extends FilterInputStream {
+		
+		private final long start = System.nanoTime();
+		
+		private long    count;
+		private boolean recorded;
+		
+		protected MonitoredInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if(b < 0) {
+				end();
+			}else{
+				count++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = super.read(b, off, len);
+			if(n < 0) {
+				end();
+			}else{
+				count += n;
+			}
+			return n;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(n);
+			count += skipped;
+			return skipped;
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				super.close();
+			}finally {
+				end();
+			}
+		}
+		
+		private void end() {
+			if(!recorded) {
+				recorded = true;
+				record(count, System.nanoTime() - start);
+			}
+		}
+	}
+}
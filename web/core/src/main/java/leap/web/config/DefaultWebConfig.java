@@ -58,6 +58,8 @@ public class DefaultWebConfig implements WebConfig, WebConfigurator, PostCreateB
     protected @R boolean formatExtensionEnabled       = true;
     protected @R boolean formatParameterEnabled       = true;
     protected @R boolean handleExternalResponseErrors = true;
+    protected @R boolean asyncEnabled                 = true;
+    protected @R long    asyncTimeout                 = 30000;
     protected @R boolean actionExtensionEnabled       = true;
     protected @R boolean corsEnabled                  = false;
     protected @R boolean allowViewAction              = true;
@@ -173,6 +175,16 @@ public class DefaultWebConfig implements WebConfig, WebConfigurator, PostCreateB
         return handleExternalResponseErrors;
     }
 
+    @Override
+    public boolean isAsyncEnabled() {
+        return asyncEnabled;
+    }
+
+    @Override
+    public long getAsyncTimeout() {
+        return asyncTimeout;
+    }
+
     public boolean isActionExtensionEnabled() {
         return actionExtensionEnabled;
     }
@@ -300,6 +312,18 @@ public class DefaultWebConfig implements WebConfig, WebConfigurator, PostCreateB
         return this;
     }
 
+    @ConfigProperty
+    public WebConfigurator setAsyncEnabled(boolean asyncEnabled) {
+        this.asyncEnabled = asyncEnabled;
+        return this;
+    }
+
+    @ConfigProperty
+    public WebConfigurator setAsyncTimeout(long asyncTimeout) {
+        this.asyncTimeout = asyncTimeout;
+        return this;
+    }
+
     @ConfigProperty
     public WebConfigurator setActionExtensionEnabled(boolean enabled) {
         this.actionExtensionEnabled = enabled;
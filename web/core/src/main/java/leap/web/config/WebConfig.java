@@ -154,6 +154,24 @@ public interface WebConfig {
      */
     boolean isHandleExternalResponseErrors();
 
+    /**
+     * Returns <code>true</code> if the actions returning {@link java.util.concurrent.CompletionStage} are
+     * executed in servlet async mode.
+     *
+     * <p/>
+     * Default is <code>true</code>, the completion will be waited in the request thread if disabled or
+     * the servlet container does not support async mode.
+     */
+    boolean isAsyncEnabled();
+
+    /**
+     * Returns the timeout in milliseconds of async actions, zero or negative means the container's default timeout.
+     *
+     * <p/>
+     * Default is 30 seconds.
+     */
+    long getAsyncTimeout();
+
     /**
      * Required.
      *
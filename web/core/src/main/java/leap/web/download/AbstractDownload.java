@@ -15,15 +15,23 @@
  */
 package leap.web.download;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
 import java.util.zip.GZIPOutputStream;
 
 import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
 
 import leap.lang.Strings;
 import leap.lang.exception.NestedIOException;
@@ -40,12 +48,21 @@ import leap.web.Response;
 public abstract class AbstractDownload implements Download {
 	private static final Log log = LogFactory.get(AbstractDownload.class);
 	
+	private static final String SENDFILE_SUPPORT  = "org.apache.tomcat.sendfile.support";
+	private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+	private static final String SENDFILE_START    = "org.apache.tomcat.sendfile.start";
+	private static final String SENDFILE_END      = "org.apache.tomcat.sendfile.end";
+	
+	private static final int BUFFER_SIZE = 8192;
+	
 	protected String   filename;
 	protected String   contentType;
 	protected long 	   contentLength = -1;
 	protected String   etag;
 	protected boolean  gzip;
 	protected boolean  gzipped;
+	protected boolean  acceptRanges = true;
+	protected int      maxRanges    = 16;
 	
 	@Override
     public String getFilename() {
@@ -76,6 +93,9 @@ public abstract class AbstractDownload implements Download {
 	 * Returns <code>true</code> if the content will be gzipped on response.
 	 * 
 	 * <p>
+	 * The content is gzipped only if the client accepts gzip encoding and the content type is compressible.
+	 * 
+	 * <p>
 	 * Default is <code>false</code>.
 	 */
     public boolean isGzip() {
@@ -104,6 +124,34 @@ public abstract class AbstractDownload implements Download {
 	public void setContentLength(long contentLength) {
 		this.contentLength = contentLength;
 	}
+	
+	/**
+	 * Returns <code>true</code> if the <code>Range</code> requests are supported.
+	 * 
+	 * <p>
+	 * Default is <code>true</code>.
+	 */
+	public boolean isAcceptRanges() {
+		return acceptRanges;
+	}
+
+	public void setAcceptRanges(boolean acceptRanges) {
+		this.acceptRanges = acceptRanges;
+	}
+
+	/**
+	 * Returns the max number of ranges in a request, the <code>Range</code> header will be ignored if exceeds.
+	 * 
+	 * <p>
+	 * Default is 16.
+	 */
+	public int getMaxRanges() {
+		return maxRanges;
+	}
+
+	public void setMaxRanges(int maxRanges) {
+		this.maxRanges = maxRanges;
+	}
 
     @Override
 	public String getContentType(Request request) throws Throwable {
@@ -129,6 +177,11 @@ public abstract class AbstractDownload implements Download {
 			return;
 		}
 		
+		//Etag of file
+		if(null == etag) {
+			etag = createFileEtag(resource);
+		}
+		
 		//Not Modified
 		if(checkNotModified(request, response, resource)) {
 			handleNotModified(request, response, resource);
@@ -147,19 +200,34 @@ public abstract class AbstractDownload implements Download {
 		
 		//Check Length
 		long length = this.contentLength == -1 ? resource.contentLength() : contentLength;
-		if(length > Integer.MAX_VALUE) {
-			throw new IOException("Resource content too long(beyond Integer.MAX_VALUE): " + filename);
-		}
 
 		//Set headers
 		setHeaders(request, response, resource);
 		
 		//Write content
-		if(gzip) {
-			writeGzipContent(request, response, resource, length);
-		}else{
-			writeRawContent(request, response, resource, length);			
+		if(gzip && !gzipped && isCompressible(request)) {
+			response.addHeader(Headers.VARY, Headers.ACCEPT_ENCODING);
+			if(request.isGzipSupport()) {
+				writeGzipContent(request, response, resource, length);
+				return;
+			}
 		}
+		
+		if(acceptRanges && length >= 0) {
+			response.setHeader(Headers.ACCEPT_RANGES, "bytes");
+			
+			List<ByteRange> ranges = resolveRanges(request, resource, length);
+			if(null != ranges) {
+				if(ranges.isEmpty()) {
+					handleRangeNotSatisfiable(request, response, length);
+				}else{
+					writeRangeContent(request, response, resource, length, ranges);	
+				}
+				return;
+			}
+		}
+		
+		writeRawContent(request, response, resource, length);
 	}
 	
 	protected void handleNotFound(Request request,Response response) throws ServletException,IOException {
@@ -177,6 +245,12 @@ public abstract class AbstractDownload implements Download {
 		setCacheHeaders(request, response, resource);
 	}
 	
+	protected void handleRangeNotSatisfiable(Request request, Response response, long length) throws Throwable {
+		log.trace("Range '{}' not satisfiable, returning 416", request.getHeader(Headers.RANGE));
+		response.setHeader(Headers.CONTENT_RANGE, "bytes */" + length);
+		response.sendError(HTTP.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+	}
+	
 	//Returns <code>true</code> if not modified
 	protected boolean checkNotModified(Request  request,
 									   Response response, 
@@ -199,6 +273,49 @@ public abstract class AbstractDownload implements Download {
 		return false;
 	}
 	
+	/**
+	 * Returns the requested ranges or <code>null</code> if the full content should be returned.
+	 */
+	protected List<ByteRange> resolveRanges(Request request, Resource resource, long length) throws Throwable {
+		if(!request.isGet()) {
+			return null;
+		}
+		
+		String range = request.getHeader(Headers.RANGE);
+		if(Strings.isEmpty(range)) {
+			return null;
+		}
+		
+		if(!checkIfRange(request, resource)) {
+			log.trace("If-Range not matched, returning full content");
+			return null;
+		}
+		
+		return ByteRange.parse(range, length, maxRanges);
+	}
+	
+	//Returns <code>true</code> if the ranges can be applied
+	protected boolean checkIfRange(Request request, Resource resource) {
+		String ifRange = request.getHeader(Headers.IF_RANGE);
+		if(Strings.isEmpty(ifRange)) {
+			return true;
+		}
+		
+		//entity-tag, weak tag never matches
+		if(ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+			return null != etag && ifRange.equals("\"" + etag + "\"");
+		}
+		
+		//http-date
+		try {
+			long date         = request.getDateHeader(Headers.IF_RANGE);
+			long lastModified = resource.lastModified();
+			return date > 0 && lastModified > 0 && date / 1000 == lastModified / 1000;
+		} catch (Exception e) {
+			return false;
+		}
+	}
+	
 	protected void setHeaders(Request  request,
 							  Response response,
 							  Resource resource) throws Throwable {
@@ -227,25 +344,16 @@ public abstract class AbstractDownload implements Download {
 	}
 	
 	protected void writeGzipContent(Request request, Response response, Resource resource,long contentLength) throws Throwable {
+		//Set headers, the compressed length is unknown before writing.
+		response.setHeader(Headers.CONTENT_ENCODING, "gzip");
+		
 		try(InputStream is = resource.getInputStream()) {
 			try {
+				GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream(), BUFFER_SIZE);
+				IO.copy(is, out);
+				out.finish();
 				
-				//Compress
-	            byte[] compressed = gzip(is,contentLength);
-	            
-	            if(log.isDebugEnabled()) {
-	            	log.debug("Gzip resource '{}' : {} -> {}",resource.getURLString(), contentLength, compressed.length);
-	            }
-				
-	            //Set headers
-	            response.setHeader(Headers.CONTENT_ENCODING, "gzip");
-	            response.setContentLength(compressed.length);
-	            
-	            //Response
-	            try(ByteArrayInputStream gzipInputStream = new ByteArrayInputStream(compressed)) {
-	            	IO.copy(gzipInputStream, response.getOutputStream());
-	            }
-				
+	            log.debug("Gzip resource '{}' : {} bytes", resource.getURLString(), contentLength);
             } catch (NestedIOException e) {
             	log.error("Error writting resource content,{}", e.getMessage(), e);
             	throw e;
@@ -258,37 +366,234 @@ public abstract class AbstractDownload implements Download {
             response.setHeader(Headers.CONTENT_ENCODING, "gzip");
 		}
 		
-		try(InputStream is = getResource(request, response).getInputStream()) {
-			try {
-				//Set content-length
-				response.setContentLength((int) contentLength);
-				
-				//Response
-	            IO.copy(is, response.getOutputStream());
-            } catch (NestedIOException e) {
-            	log.error("Error writting resource content,{}", e.getMessage(), e);
-            	throw e;
-            }
-		}		
+		//Set content-length
+		if(contentLength >= 0) {
+			setContentLength(response, contentLength);
+		}
+		
+		if(contentLength >= 0 && sendFile(request, resource, 0, contentLength)) {
+			return;
+		}
+		
+		try(ContentReader reader = openReader(resource)) {
+			reader.copy(0, contentLength, response.getOutputStream());
+		} catch (IOException e) {
+			log.error("Error writting resource content,{}", e.getMessage(), e);
+			throw e;
+		}
+	}
+	
+	protected void writeRangeContent(Request request, Response response, Resource resource, long contentLength, List<ByteRange> ranges) throws Throwable {
+		if(gzipped) {
+            response.setHeader(Headers.CONTENT_ENCODING, "gzip");
+		}
+		
+		response.setStatus(HTTP.SC_PARTIAL_CONTENT);
+		
+		//Single part
+		if(ranges.size() == 1) {
+			ByteRange range = ranges.get(0);
+			
+			log.debug("Write range {} of resource '{}'", range, resource.getURLString());
+			
+			response.setHeader(Headers.CONTENT_RANGE, range.toContentRange(contentLength));
+			setContentLength(response, range.getLength());
+			
+			if(sendFile(request, resource, range.getStart(), range.getEnd() + 1)) {
+				return;
+			}
+			
+			try(ContentReader reader = openReader(resource)) {
+				reader.copy(range.getStart(), range.getLength(), response.getOutputStream());
+			}
+			return;
+		}
+		
+		//Multiple parts
+		log.debug("Write {} ranges of resource '{}'", ranges.size(), resource.getURLString());
+		
+		String       boundary    = UUID.randomUUID().toString().replace("-", "");
+		String       partType    = getContentType(request);
+		List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+		byte[]       end         = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.ISO_8859_1);
+		
+		long length = end.length;
+		for(ByteRange range : ranges) {
+			StringBuilder header = new StringBuilder();
+			header.append("\r\n--").append(boundary).append("\r\n");
+			if(!Strings.isEmpty(partType)) {
+				header.append(Headers.CONTENT_TYPE).append(": ").append(partType).append("\r\n");
+			}
+			header.append(Headers.CONTENT_RANGE).append(": ").append(range.toContentRange(contentLength)).append("\r\n\r\n");
+			
+			byte[] bytes = header.toString().getBytes(StandardCharsets.ISO_8859_1);
+			partHeaders.add(bytes);
+			length += bytes.length + range.getLength();
+		}
+		
+		response.setContentType("multipart/byteranges; boundary=" + boundary);
+		setContentLength(response, length);
+		
+		OutputStream out = response.getOutputStream();
+		try(ContentReader reader = openReader(resource)) {
+			for(int i=0;i<ranges.size();i++) {
+				ByteRange range = ranges.get(i);
+				out.write(partHeaders.get(i));
+				reader.copy(range.getStart(), range.getLength(), out);
+			}
+		}
+		out.write(end);
+	}
+	
+	/**
+	 * Returns <code>true</code> if the content type is compressible.
+	 */
+	protected boolean isCompressible(Request request) throws Throwable {
+		String type = getContentType(request);
+		if(Strings.isEmpty(type)) {
+			return false;
+		}
+		
+		type = type.toLowerCase();
+		return type.startsWith("text/")    ||
+			   type.contains("json")       ||
+			   type.contains("xml")        ||
+			   type.contains("javascript") ||
+			   type.contains("csv")        ||
+			   type.contains("svg");
+	}
+	
+	/**
+	 * Returns a strong etag of the file resource, returns <code>null</code> if not a file.
+	 */
+	protected String createFileEtag(Resource resource) {
+		try {
+			if(resource.isFile()) {
+				return Long.toHexString(resource.lastModified()) + "-" + Long.toHexString(resource.contentLength());
+			}
+		} catch (Exception e) {
+			log.debug("Unable to create etag of resource '{}' : {}", resource, e.getMessage());
+		}
+		return null;
+	}
+	
+	/**
+	 * Lets the container sends the file content by zero-copy if supported.
+	 * 
+	 * <p>
+	 * Returns <code>true</code> if the content will be sent by container.
+	 */
+	protected boolean sendFile(Request request, Resource resource, long start, long end) {
+		HttpServletRequest req = request.getServletRequest();
+		if(!resource.isFile() || !Boolean.TRUE.equals(req.getAttribute(SENDFILE_SUPPORT))) {
+			return false;
+		}
+		
+		req.setAttribute(SENDFILE_FILENAME, resource.getFile().getAbsolutePath());
+		req.setAttribute(SENDFILE_START, start);
+		req.setAttribute(SENDFILE_END, end);
+		return true;
+	}
+	
+	protected void setContentLength(Response response, long length) {
+		response.getServletResponse().setContentLengthLong(length);
+	}
+	
+	protected ContentReader openReader(Resource resource) throws IOException {
+		if(resource.isFile()) {
+			return new FileContentReader(FileChannel.open(resource.getFile().toPath(), StandardOpenOption.READ));
+		}else{
+			return new StreamContentReader(resource.getInputStream());
+		}
 	}
 	
 	protected abstract Resource getResource(Request request, Response response) throws Throwable;
 	
-	private final static byte[] gzip(InputStream is, long length) throws IOException {
-
-		final ByteArrayOutputStream compressedOutputStream = new ByteArrayOutputStream((int) (length * 0.75));
-
-		final OutputStream gzipOutputStream = new GZIPOutputStream(compressedOutputStream);
+	/**
+	 * Reads the content by ascending positions.
+	 */
+	protected interface ContentReader extends Closeable {
+		
+		/**
+		 * Copies the bytes from the start position to the output, negative count means to the end.
+		 */
+		void copy(long start, long count, OutputStream out) throws IOException;
+		
+	}
+	
+	protected static class FileContentReader implements ContentReader {
+		
+		private final FileChannel channel;
+		
+		public FileContentReader(FileChannel channel) {
+			this.channel = channel;
+		}
 
-		final byte[] buf = new byte[5000];
-		int len;
+		@Override
+		public void copy(long start, long count, OutputStream out) throws IOException {
+			long remaining = count < 0 ? channel.size() - start : count;
+			long position  = start;
+			
+			//transferTo uses zero-copy if the target is a file or socket channel.
+			WritableByteChannel target = Channels.newChannel(out);
+			while(remaining > 0) {
+				long transferred = channel.transferTo(position, remaining, target);
+				if(transferred <= 0) {
+					break;
+				}
+				position  += transferred;
+				remaining -= transferred;
+			}
+		}
 
-		while ((len = is.read(buf)) > 0) {
-			gzipOutputStream.write(buf, 0, len);
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+	}
+	
+	protected static class StreamContentReader implements ContentReader {
+		
+		private final InputStream in;
+		private final byte[]      buf = new byte[BUFFER_SIZE];
+		private long              position;
+		
+		public StreamContentReader(InputStream in) {
+			this.in = in;
 		}
 
-		gzipOutputStream.close();
+		@Override
+		public void copy(long start, long count, OutputStream out) throws IOException {
+			if(start < position) {
+				throw new IOException("Cannot read backward from " + position + " to " + start);
+			}
+			
+			while(position < start) {
+				long skipped = in.skip(start - position);
+				if(skipped <= 0) {
+					if(in.read() < 0) {
+						return;
+					}
+					skipped = 1;
+				}
+				position += skipped;
+			}
+			
+			long remaining = count < 0 ? Long.MAX_VALUE : count;
+			while(remaining > 0) {
+				int len = in.read(buf, 0, (int)Math.min(buf.length, remaining));
+				if(len < 0) {
+					break;
+				}
+				out.write(buf, 0, len);
+				position  += len;
+				remaining -= len;
+			}
+		}
 
-		return compressedOutputStream.toByteArray();
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
 	}
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.web.download;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import leap.lang.Strings;
+
+/**
+ * A byte range of the content, see <a href="http://tools.ietf.org/html/rfc7233">RFC-7233</a>.
+ */
+public class ByteRange {
+	
+	private static final String BYTES_UNIT = "bytes=";
+	
+	/**
+	 * Parses the value of <code>Range</code> header.
+	 * 
+	 * <p>
+	 * Returns <code>null</code> if the header is invalid or contains more than the max ranges, the range should be ignored.
+	 * 
+	 * <p>
+	 * Returns an empty list if none of the ranges is satisfiable.
+	 */
+	public static List<ByteRange> parse(String header, long length, int maxRanges) {
+		if(Strings.isEmpty(header) || !header.startsWith(BYTES_UNIT)) {
+			return null;
+		}
+		
+		String[] specs = Strings.split(header.substring(BYTES_UNIT.length()), ',');
+		if(specs.length == 0 || specs.length > maxRanges) {
+			return null;
+		}
+		
+		List<ByteRange> ranges = new ArrayList<>(specs.length);
+		
+		for(String spec : specs) {
+			int index = spec.indexOf('-');
+			if(index < 0) {
+				return null;
+			}
+			
+			String first = spec.substring(0, index).trim();
+			String last  = spec.substring(index + 1).trim();
+
+			long start;
+			long end;
+			try {
+				if(first.isEmpty()) {
+					//suffix range : -500
+					if(last.isEmpty()) {
+						return null;
+					}
+					long suffix = Long.parseLong(last);
+					if(suffix <= 0) {
+						continue;
+					}
+					start = Math.max(0, length - suffix);
+					end   = length - 1;
+				}else{
+					start = Long.parseLong(first);
+					end   = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+					if(start < 0 || (!last.isEmpty() && Long.parseLong(last) < start)) {
+						return null;
+					}
+				}
+			}catch (NumberFormatException e) {
+				return null;
+			}
+			
+			if(start < length && start <= end) {
+				ranges.add(new ByteRange(start, end));
+			}
+		}
+		
+		return merge(ranges);
+	}
+	
+	/**
+	 * Merges the overlapping or adjacent ranges.
+	 */
+	protected static List<ByteRange> merge(List<ByteRange> ranges) {
+		if(ranges.size() <= 1) {
+			return ranges;
+		}
+		
+		List<ByteRange> sorted = new ArrayList<>(ranges);
+		Collections.sort(sorted, (r1, r2) -> Long.compare(r1.start, r2.start));
+		
+		List<ByteRange> merged = new ArrayList<>(sorted.size());
+		ByteRange current = sorted.get(0);
+		for(int i=1;i<sorted.size();i++) {
+			ByteRange range = sorted.get(i);
+			if(range.start <= current.end + 1) {
+				current = new ByteRange(current.start, Math.max(current.end, range.end));
+			}else{
+				merged.add(current);
+				current = range;
+			}
+		}
+		merged.add(current);
+		
+		return merged;
+	}
+	
+	private final long start;
+	private final long end;
+	
+	public ByteRange(long start, long end) {
+		this.start = start;
+		this.end   = end;
+	}
+
+	/**
+	 * Returns the position of first byte, inclusive.
+	 */
+	public long getStart() {
+		return start;
+	}
+
+	/**
+	 * Returns the position of last byte, inclusive.
+	 */
+	public long getEnd() {
+		return end;
+	}
+	
+	/**
+	 * Returns the number of bytes in this range.
+	 */
+	public long getLength() {
+		return end - start + 1;
+	}
+	
+	/**
+	 * Returns the value of <code>Content-Range</code> header.
+	 */
+	public String toContentRange(long total) {
+		return "bytes " + start + "-" + end + "/" + total;
+	}
+
+	@Override
+	public String toString() {
+		return start + "-" + end;
+	}
+}
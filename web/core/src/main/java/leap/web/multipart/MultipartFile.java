@@ -18,6 +18,7 @@ package leap.web.multipart;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 
 import leap.lang.io.InputStreamSource;
 
@@ -71,6 +72,10 @@ public interface MultipartFile extends InputStreamSource{
 
 	/**
 	 * Return the contents of the file as an array of bytes.
+	 * 
+	 * <p>
+	 * The whole file is loaded into memory, use {@link #getInputStream()} or {@link #transferTo(OutputStream)} for large file.
+	 * 
 	 * @return the contents of the file as bytes, or an empty byte array if empty
 	 * @throws IOException in case of access errors (if the temporary store fails)
 	 */
@@ -103,4 +108,24 @@ public interface MultipartFile extends InputStreamSource{
 	 */
 	void write(File dest) throws IOException, IllegalStateException;
 	
+	/**
+	 * Copies the contents of the file to the given output stream without loading the whole file into memory.
+	 * 
+	 * <p>The output stream will not be closed.
+	 * 
+	 * @return the number of copied bytes.
+	 */
+	default long transferTo(OutputStream out) throws IOException {
+		try(InputStream in = getInputStream()) {
+			byte[] buf   = new byte[8192];
+			long   count = 0;
+			int    n;
+			while((n = in.read(buf)) != -1) {
+				out.write(buf, 0, n);
+				count += n;
+			}
+			return count;
+		}
+	}
+	
 }
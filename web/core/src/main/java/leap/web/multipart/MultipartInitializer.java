@@ -15,7 +15,10 @@
  */
 package leap.web.multipart;
 
+import leap.core.annotation.ConfigProperty;
+import leap.core.annotation.Configurable;
 import leap.lang.Patterns;
+import leap.lang.Strings;
 import leap.lang.logging.Log;
 import leap.lang.logging.LogFactory;
 import leap.lang.path.Paths;
@@ -34,10 +37,67 @@ import java.util.List;
 import java.util.Set;
 import java.util.regex.Pattern;
 
+@Configurable(prefix="webmvc.multipart")
 public class MultipartInitializer implements AppBootable {
 
 	private static final Log log = LogFactory.get(MultipartInitializer.class);
 	
+	protected String location;
+	protected long   maxFileSize       = -1;
+	protected long   maxRequestSize    = -1;
+	protected int    fileSizeThreshold = 64 * 1024;
+	
+	/**
+	 * Returns the directory location where the parts are stored, default is the <code>java.io.tmpdir</code>.
+	 */
+	public String getLocation() {
+		return location;
+	}
+
+	@ConfigProperty
+	public void setLocation(String location) {
+		this.location = location;
+	}
+
+	/**
+	 * Returns the max size in bytes of an uploaded file, -1 means unlimited.
+	 */
+	public long getMaxFileSize() {
+		return maxFileSize;
+	}
+
+	@ConfigProperty
+	public void setMaxFileSize(long maxFileSize) {
+		this.maxFileSize = maxFileSize;
+	}
+
+	/**
+	 * Returns the max size in bytes of a multipart request, -1 means unlimited.
+	 */
+	public long getMaxRequestSize() {
+		return maxRequestSize;
+	}
+
+	@ConfigProperty
+	public void setMaxRequestSize(long maxRequestSize) {
+		this.maxRequestSize = maxRequestSize;
+	}
+
+	/**
+	 * Returns the size in bytes after which a part will be written to disk, the smaller parts are kept in memory.
+	 * 
+	 * <p>
+	 * Default is 64KB.
+	 */
+	public int getFileSizeThreshold() {
+		return fileSizeThreshold;
+	}
+
+	@ConfigProperty
+	public void setFileSizeThreshold(int fileSizeThreshold) {
+		this.fileSizeThreshold = fileSizeThreshold;
+	}
+
 	@Override
     public void onAppBooting(App app, ServletContext sc) throws ServletException {
 		List<Route> multipartRoutes = resolveMultipartRoutes(app);
@@ -58,13 +118,20 @@ public class MultipartInitializer implements AppBootable {
 	protected ServletRegistration addMultipartServlet(ServletContext sc) {
 		Dynamic dynamic = sc.addServlet("multipart-servlet", MultipartServlet.class);
 
-		//TODO : config multipart
-		dynamic.setMultipartConfig(new MultipartConfigElement(System.getProperty("java.io.tmpdir")));
+		dynamic.setMultipartConfig(createMultipartConfig());
 		dynamic.setLoadOnStartup(1);
 		
 		return dynamic; 
 	}
 	
+	protected MultipartConfigElement createMultipartConfig() {
+		String dir = Strings.isEmpty(location) ? System.getProperty("java.io.tmpdir") : location;
+		
+		log.debug("Multipart location '{}', file size threshold {} bytes", dir, fileSizeThreshold);
+		
+		return new MultipartConfigElement(dir, maxFileSize, maxRequestSize, fileSizeThreshold);
+	}
+	
 	protected void registerMultipartMappings(ServletRegistration r,List<Route> routes) {
 		Set<String> mappings = new HashSet<String>();
 		
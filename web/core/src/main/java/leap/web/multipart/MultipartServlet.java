@@ -28,18 +28,21 @@ import leap.web.AppBootstrap;
 import leap.web.AppHandler;
 import leap.web.Request;
 import leap.web.action.ActionContext;
+import leap.web.body.UploadMetrics;
 
 public class MultipartServlet extends HttpServlet {
 
 	private static final long serialVersionUID = -55301710141460056L;
 
-	private App		   app;
-	private AppHandler appHandler;
+	private App		      app;
+	private AppHandler    appHandler;
+	private UploadMetrics metrics;
 	
 	@Override
     public void init(ServletConfig config) throws ServletException {
 		app        = AppBootstrap.getApp(config.getServletContext());
 		appHandler = app.factory().getBean(AppHandler.class);
+		metrics    = app.factory().tryGetBean(UploadMetrics.class);
     }
 
 	@Override
@@ -47,6 +50,7 @@ public class MultipartServlet extends HttpServlet {
 		if(null == app) {
 			app 	   = Request.current().app();
 			appHandler = app.factory().getBean(AppHandler.class);
+			metrics    = app.factory().tryGetBean(UploadMetrics.class);
 		}
 		
 		ActionContext ac = MultipartContext.getMultipartAction(req);
@@ -57,6 +61,13 @@ public class MultipartServlet extends HttpServlet {
 		
 		Request request = Request.current();
 		
+		//Parses the parts and records the upload.
+		if(null != metrics && request.isMultipart()) {
+			long start = System.nanoTime();
+			req.getParts();
+			metrics.record(Math.max(0, req.getContentLengthLong()), System.nanoTime() - start);
+		}
+		
 		try {
 	        appHandler.executeAction(request, request.response(), ac);
         } catch (Throwable e) {
@@ -17,6 +17,9 @@ package leap.web.multipart;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
 
 import javax.servlet.http.Part;
 
@@ -36,21 +39,41 @@ public class Multiparts {
 		
 		try {
 	        try(InputStream in = part.getInputStream()) {
-	        	if(!Strings.isEmpty(part.getContentType())) {
-	        		MimeType mimeType = MimeTypes.parse(part.getContentType());
-	        		
-	        		if(!Strings.isEmpty(mimeType.getCharset())) {
-	        			return IO.readString(in, Charsets.forName(mimeType.getCharset()));
-	        		}
-	        	}
-	        	
-	        	return IO.readString(in, Charsets.UTF_8);
+	        	return IO.readString(in, getCharset(part));
 	        }
         } catch (IOException e) {
         	throw new NestedIOException("Error reading string from part '" + part.getName() + "', " + e.getMessage(), e);
         }
 	}
 	
+	/**
+	 * Opens a reader of the text part, the caller must close the reader.
+	 * 
+	 * <p>
+	 * Use it instead of {@link #readString(Part)} for the large text part.
+	 */
+	public static Reader openReader(Part part) {
+		try {
+			return new InputStreamReader(part.getInputStream(), getCharset(part));
+		} catch (IOException e) {
+			throw new NestedIOException("Error opening reader of part '" + part.getName() + "', " + e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * Returns the charset of the part, default is UTF-8.
+	 */
+	public static Charset getCharset(Part part) {
+		if(!Strings.isEmpty(part.getContentType())) {
+			MimeType mimeType = MimeTypes.parse(part.getContentType());
+			
+			if(!Strings.isEmpty(mimeType.getCharset())) {
+				return Charsets.forName(mimeType.getCharset());
+			}
+		}
+		return Charsets.UTF_8;
+	}
+	
 	protected Multiparts() {
 		
 	}
@@ -68,6 +68,9 @@ public class StandardMultipartFile implements MultipartFile {
 
 	@Override
 	public byte[] getBytes() throws IOException {
+		if(part.getSize() > Integer.MAX_VALUE) {
+			throw new IOException("The file '" + filename + "' is too large to be read as bytes, size " + part.getSize());
+		}
 		try(InputStream in = part.getInputStream()) {
 			return IO.readByteArray(in);	
 		}
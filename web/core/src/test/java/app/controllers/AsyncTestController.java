@@ -0,0 +1,48 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.controllers;
+
+import app.models.products.Product;
+import leap.web.action.ControllerBase;
+import leap.web.exception.NotFoundException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+public class AsyncTestController extends ControllerBase {
+
+    public CompletionStage<Product> getProduct() {
+        return CompletableFuture.supplyAsync(() -> {
+            Product product = new Product();
+            product.setId(100);
+            product.setTitle("Iphone6");
+            return product;
+        });
+    }
+
+    public CompletableFuture<Product> getCompletedProduct() {
+        Product product = new Product();
+        product.setId(101);
+        return CompletableFuture.completedFuture(product);
+    }
+
+    public CompletableFuture<Product> getNotFound() {
+        return CompletableFuture.supplyAsync(() -> {
+            throw new NotFoundException("Product not found");
+        });
+    }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.controllers;
+
+import app.models.products.Product;
+import leap.lang.json.JSON;
+import leap.web.WebTestCase;
+import org.junit.Test;
+
+public class AsyncTestControllerTest extends WebTestCase {
+
+    @Test
+    public void testGetProduct() {
+        String json = get("/async_test/get_product").assertOk().getContent();
+
+        Product product = JSON.decode(json, Product.class);
+        assertEquals(new Integer(100), product.getId());
+        assertEquals("Iphone6", product.getTitle());
+    }
+
+    @Test
+    public void testGetCompletedProduct() {
+        String json = get("/async_test/get_completed_product").assertOk().getContent();
+
+        Product product = JSON.decode(json, Product.class);
+        assertEquals(new Integer(101), product.getId());
+    }
+
+    @Test
+    public void testGetNotFound() {
+        get("/async_test/get_not_found").assert404();
+    }
+
+}
@@ -17,6 +17,7 @@ package app.controllers;
 
 import java.net.URLEncoder;
 
+import leap.lang.http.HTTP;
 import leap.lang.http.Headers;
 import leap.web.WebTestCase;
 import leap.webunit.client.THttpResponse;
@@ -69,6 +70,39 @@ public class DownloadControllerTest extends WebTestCase {
         assertTrue(header.contains("filename=\"stream.txt\""));
 	}
 
+	@Test
+	public void testDownloadRange() {
+		THttpResponse response = forGet("/download/test").setHeader(Headers.RANGE, "bytes=3-5").send();
+		
+		response.assertStatusEquals(HTTP.SC_PARTIAL_CONTENT);
+		response.assertContentEquals("文");
+		assertEquals("bytes 3-5/6", response.getHeader(Headers.CONTENT_RANGE));
+		assertEquals("bytes", response.getHeader(Headers.ACCEPT_RANGES));
+		
+		response = forGet("/download/test3").setHeader(Headers.RANGE, "bytes=-6").send();
+		response.assertStatusEquals(HTTP.SC_PARTIAL_CONTENT);
+		response.assertContentEquals("文流");
+	}
+	
+	@Test
+	public void testDownloadRangeNotSatisfiable() {
+		THttpResponse response = forGet("/download/test").setHeader(Headers.RANGE, "bytes=10-").send();
+		
+		response.assertStatusEquals(HTTP.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+		assertEquals("bytes */6", response.getHeader(Headers.CONTENT_RANGE));
+	}
+	
+	@Test
+	public void testDownloadIfRangeNotMatched() {
+		THttpResponse response = forGet("/download/test")
+									.setHeader(Headers.RANGE, "bytes=3-5")
+									.setHeader(Headers.IF_RANGE, "\"not-matched\"")
+									.send();
+		
+		response.assertStatusEquals(HTTP.SC_OK);
+		response.assertContentEquals("中文");
+	}
+
 	@Test
 	public void testDownloadAny() throws Exception {
 		THttpResponse response = get("/download/any/test.txt");
@@ -23,9 +23,12 @@ import leap.lang.json.JSON;
 import leap.web.Request;
 import leap.web.action.ControllerBase;
 import leap.web.annotation.RequestBody;
+import leap.web.body.JsonArrayBody;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 
 public class RequestBodyController extends ControllerBase {
 	
@@ -53,6 +56,27 @@ public class RequestBodyController extends ControllerBase {
 		return JSON.encode(product);
 	}
 
+	public String streamBody(InputStream in) throws IOException {
+		return IO.readString(in, Charsets.UTF_8);
+	}
+
+	public String channelBody(ReadableByteChannel channel) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(4);
+		long size = 0;
+		int  n;
+		while((n = channel.read(buf)) != -1) {
+			size += n;
+			buf.clear();
+		}
+		return String.valueOf(size);
+	}
+
+	public String jsonArrayBody(JsonArrayBody<Product> products) {
+		StringBuilder s = new StringBuilder();
+		int count = products.forEach(p -> s.append(p.getTitle()).append(','));
+		return count + ":" + s;
+	}
+
 	public String peekInputStream(Request request) throws IOException{
         StringBuilder s = new StringBuilder();
         try(InputStream in = request.peekInputStream()){
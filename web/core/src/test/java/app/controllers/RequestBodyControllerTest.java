@@ -70,6 +70,29 @@ public class RequestBodyControllerTest extends WebTestCase {
 		resp.assertContentEquals(json);
 	}
 
+	@Test
+	public void testStreamBody() {
+		usePost("/request_body/stream_body").setBody("hello").send().assertContentEquals("hello");
+		usePost("/request_body/channel_body").setBody("hello stream").send().assertContentEquals("12");
+	}
+
+	@Test
+	public void testJsonArrayBody() {
+		Product p1 = new Product();
+		p1.setId(1);
+		p1.setTitle("a");
+
+		Product p2 = new Product();
+		p2.setId(2);
+		p2.setTitle("b");
+
+		THttpResponse resp = usePost("/request_body/json_array_body")
+							.setContentType(MimeTypes.APPLICATION_JSON_TYPE)
+							.setBody(JSON.encode(new Product[]{p1, p2})).send();
+
+		resp.assertContentEquals("2:a,b,");
+	}
+
     @Test
 	public void testPeekInputStream() {
         Product product = new Product();
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.htpl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import leap.lang.exception.NestedIOException;
+
+/**
+ * A {@link HtplWriter} writes UTF-8 bytes to an {@link OutputStream}.
+ *
+ * <p/>
+ * The pre-encoded static text will be written directly, only the dynamic content will be encoded while rendering.
+ *
+ * <p/>
+ * The content is buffered, {@link #flush()} must be called after rendering.
+ */
+public class ByteStreamHtplWriter extends AbstractHtplWriter {
+
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+	protected final OutputStream out;
+	protected final byte[]       buf;
+
+	protected int  pos;
+	protected char highSurrogate;
+
+	public ByteStreamHtplWriter(OutputStream out) {
+		this(out, DEFAULT_BUFFER_SIZE);
+	}
+
+	public ByteStreamHtplWriter(OutputStream out, int bufferSize) {
+		this.out = out;
+		this.buf = new byte[Math.max(bufferSize, 16)];
+	}
+
+	@Override
+    public Appendable append(CharSequence csq) throws IOException {
+		if(null != csq){
+			encode(csq, 0, csq.length());
+		}
+	    return this;
+    }
+
+	@Override
+    public Appendable append(CharSequence csq, int start, int end) throws IOException {
+		if(null != csq){
+			encode(csq, start, end);
+		}
+	    return this;
+    }
+
+	@Override
+    public Appendable append(char c) throws IOException {
+		encode(c);
+	    return this;
+    }
+
+	@Override
+    public HtplWriter write(CharSequence s, byte[] utf8) throws NestedIOException {
+		if(null == utf8) {
+			return write(s);
+		}
+		try {
+			writeBytes(utf8, 0, utf8.length);
+		} catch (IOException e) {
+			throw new NestedIOException("Error writing string '" + s + "' : " + e.getMessage(),e);
+		}
+		return this;
+	}
+
+	/**
+	 * Writes the buffered bytes to the underlying stream and flushes it.
+	 */
+	public void flush() throws NestedIOException {
+		try {
+			if(highSurrogate != 0) {
+				highSurrogate = 0;
+				put((byte)'?');
+			}
+			flushBuffer();
+			out.flush();
+		} catch (IOException e) {
+			throw new NestedIOException("Error flushing the output stream : " + e.getMessage(), e);
+		}
+	}
+
+	protected void writeBytes(byte[] b, int off, int len) throws IOException {
+		if(highSurrogate != 0) {
+			highSurrogate = 0;
+			put((byte)'?');
+		}
+		if(len > buf.length) {
+			flushBuffer();
+			out.write(b, off, len);
+			return;
+		}
+		if(len > buf.length - pos) {
+			flushBuffer();
+		}
+		System.arraycopy(b, off, buf, pos, len);
+		pos += len;
+	}
+
+	protected void flushBuffer() throws IOException {
+		if(pos > 0) {
+			out.write(buf, 0, pos);
+			pos = 0;
+		}
+	}
+
+	protected void encode(CharSequence s, int start, int end) throws IOException {
+		for(int i=start;i<end;i++) {
+			char c = s.charAt(i);
+			if(c < 0x80 && highSurrogate == 0) {
+				if(pos == buf.length) {
+					flushBuffer();
+				}
+				buf[pos++] = (byte)c;
+			}else{
+				encode(c);
+			}
+		}
+	}
+
+	protected void encode(char c) throws IOException {
+		if(highSurrogate != 0) {
+			char high = highSurrogate;
+			highSurrogate = 0;
+			if(Character.isLowSurrogate(c)) {
+				int cp = Character.toCodePoint(high, c);
+				put((byte)(0xF0 | (cp >> 18)));
+				put((byte)(0x80 | ((cp >> 12) & 0x3F)));
+				put((byte)(0x80 | ((cp >> 6) & 0x3F)));
+				put((byte)(0x80 | (cp & 0x3F)));
+				return;
+			}
+			//malformed surrogate pair.
+			put((byte)'?');
+		}
+
+		if(c < 0x80) {
+			put((byte)c);
+		}else if(c < 0x800) {
+			put((byte)(0xC0 | (c >> 6)));
+			put((byte)(0x80 | (c & 0x3F)));
+		}else if(Character.isHighSurrogate(c)) {
+			highSurrogate = c;
+		}else if(Character.isLowSurrogate(c)) {
+			put((byte)'?');
+		}else{
+			put((byte)(0xE0 | (c >> 12)));
+			put((byte)(0x80 | ((c >> 6) & 0x3F)));
+			put((byte)(0x80 | (c & 0x3F)));
+		}
+	}
+
+	private void put(byte b) throws IOException {
+		if(pos == buf.length) {
+			flushBuffer();
+		}
+		buf[pos++] = b;
+	}
+}
@@ -26,6 +26,7 @@ import leap.htpl.escaping.EscapableExpression;
 import leap.htpl.escaping.EscapeType;
 import leap.htpl.escaping.HtplEscaper;
 import leap.lang.Args;
+import leap.lang.Charsets;
 import leap.lang.Strings;
 import leap.lang.expression.AbstractExpression;
 import leap.lang.expression.Expression;
@@ -223,6 +224,11 @@ public class DefaultHtplCompiler implements HtplCompiler {
 
 	@Override
     public HtplRenderable compile() {
+		for(HtplRenderable node : nodes) {
+			if(node instanceof RenderableText) {
+				((RenderableText) node).encode();
+			}
+		}
 	    return new HtplRenderableContainer(nodes);
     }
 
@@ -293,6 +299,9 @@ public class DefaultHtplCompiler implements HtplCompiler {
 	
 	protected static final class RenderableText implements HtplRenderable {
 		private final StringBuilder buf = new StringBuilder();
+
+		private String text;
+		private byte[] utf8;
 		
 		public RenderableText(CharSequence text) {
 			buf.append(text);
@@ -300,17 +309,35 @@ public class DefaultHtplCompiler implements HtplCompiler {
 		
 		public RenderableText append(CharSequence text){
 			buf.append(text);
+			this.text = null;
+			this.utf8 = null;
 			return this;
 		}
 		
 		public RenderableText append(RenderableText node){
-			buf.append(node.buf);
-			return this;
+			return append(node.buf);
+		}
+
+		/**
+		 * Merges the appended text into a single string and pre-encodes it as UTF-8 bytes.
+		 */
+		public void encode() {
+			if(null == utf8) {
+				String s = buf.toString();
+				this.utf8 = s.getBytes(Charsets.UTF_8);
+				this.text = s;
+			}
 		}
 		
 		@Override
         public void render(HtplTemplate tpl, HtplContext context, HtplWriter writer) throws IOException {
-			writer.write(buf);
+			String s = text;
+			byte[] b = utf8;
+			if(null != s && null != b) {
+				writer.write(s, b);
+			}else{
+				writer.write(buf);
+			}
         }
 
 		@Override
@@ -30,6 +30,7 @@ public class DefaultHtplConfig implements HtplConfig,PostCreateBean {
 	protected String  prefix;
     protected Boolean reloadEnabled;
     protected int     reloadInterval = HtplConstants.DEFAULT_RELOAD_INTERVAL;
+    protected boolean byteStreamEnabled = HtplConstants.DEFAULT_BYTE_STREAM_ENABLED;
 	
 	@Override
 	public String getPrefix() {
@@ -61,6 +62,16 @@ public class DefaultHtplConfig implements HtplConfig,PostCreateBean {
         this.reloadInterval = reloadInterval;
     }
 
+    @Override
+    public boolean isByteStreamEnabled() {
+        return byteStreamEnabled;
+    }
+
+    @ConfigProperty
+    public void setByteStreamEnabled(boolean byteStreamEnabled) {
+        this.byteStreamEnabled = byteStreamEnabled;
+    }
+
     @Override
     public void postCreate(BeanFactory factory) throws Throwable {
         if(null == this.reloadEnabled) {
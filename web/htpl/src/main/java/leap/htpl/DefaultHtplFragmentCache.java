@@ -0,0 +1,96 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.htpl;
+
+import leap.core.annotation.Inject;
+import leap.core.annotation.M;
+import leap.core.cache.Cache;
+import leap.lang.logging.Log;
+import leap.lang.logging.LogFactory;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the fragment content in the cache bean named <code>htplFragments</code>.
+ *
+ * <p/>
+ * The keys rendered by each template are tracked, only the cached content of the reloaded template
+ * will be invalidated if a reloadable template was reloaded.
+ */
+public class DefaultHtplFragmentCache implements HtplFragmentCache, HtplListener {
+
+    private static final Log log = LogFactory.get(DefaultHtplFragmentCache.class);
+
+    @Inject(name = "htplFragments")
+    protected @M Cache<Object, HtplCachedContent> cache;
+
+    protected final Map<HtplTemplate, Set<Object>> templateKeys = Collections.synchronizedMap(new WeakHashMap<>());
+
+    protected final HtplTemplateListener reloadListener = template -> {
+        log.debug("Template '{}' reloaded, invalidate cached fragments", template.getSource());
+        invalidate(template);
+    };
+
+    @Override
+    public HtplCachedContent get(HtplTemplate template, Object key) {
+        HtplCachedContent content = cache.get(key);
+        if(null != content && content.isExpired()) {
+            cache.remove(key);
+            content = null;
+        }
+        if(null == content) {
+            //the content may be evicted by the underlying cache, stops tracking the key.
+            Set<Object> keys = templateKeys.get(template);
+            if(null != keys) {
+                keys.remove(key);
+            }
+        }
+        return content;
+    }
+
+    @Override
+    public void put(HtplTemplate template, Object key, HtplCachedContent content) {
+        templateKeys.computeIfAbsent(template, t -> ConcurrentHashMap.newKeySet()).add(key);
+        cache.put(key, content);
+    }
+
+    @Override
+    public void invalidate(HtplTemplate template) {
+        Set<Object> keys = templateKeys.remove(template);
+        if(null != keys) {
+            for(Object key : keys) {
+                cache.remove(key);
+            }
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        templateKeys.clear();
+        cache.clear();
+    }
+
+    @Override
+    public void onTemplateCreated(HtplEngine engine, HtplTemplate template) throws Throwable {
+        if(template.reloadable() && !template.containsListener(reloadListener)) {
+            template.addListener(reloadListener);
+        }
+    }
+}
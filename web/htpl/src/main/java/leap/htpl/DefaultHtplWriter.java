@@ -18,15 +18,7 @@ package leap.htpl;
 import java.io.IOException;
 import java.io.Writer;
 
-import leap.lang.Exceptions;
-import leap.lang.Strings;
-import leap.lang.exception.NestedIOException;
-import leap.lang.html.HTML;
-
-public class DefaultHtplWriter implements HtplWriter {
-	
-	private static final String ATTR_EQQUOTE = "=\"";
-	private static final char   ATTR_QUOTE   = '"';
+public class DefaultHtplWriter extends AbstractHtplWriter {
 	
 	protected final Writer out;
 
@@ -51,65 +43,4 @@ public class DefaultHtplWriter implements HtplWriter {
 		out.append(c);
 	    return this;
     }
-
-	@Override
-    public HtplWriter attribute(String localName, String value) {
-		write(localName).write(ATTR_EQQUOTE);
-		
-		try {
-	        HTML.escapeAndAppend(value, out);
-        } catch (IOException e) {
-        	Exceptions.wrap(e);
-        }
-		
-		write(ATTR_QUOTE);
-		return this;
-    }
-	
-	public HtplWriter write(CharSequence s) throws NestedIOException {
-		if(null != s){
-			try {
-	            out.append(s);
-            } catch (IOException e) {
-            	throw new NestedIOException("Error writing string '" + s + "' : " + e.getMessage(),e);
-            }
-		}
-		return this;
-	}
-	
-	@Override
-    public HtplWriter write(char c) throws NestedIOException {
-		try {
-            out.append(c);
-        } catch (IOException e) {
-        	throw new NestedIOException("Error writing char '" + c + "' : " + e.getMessage(),e);
-        }
-	    return this;
-    }
-	
-	@Override
-    public HtplWriter startElement(String prefix, String localName) {
-		write('<');
-		if(!Strings.isEmpty(prefix)){
-			write(prefix).write(':');
-		}
-		write(localName);
-	    return this;
-    }
-
-	@Override
-    public HtplWriter closeElement() {
-		write("/>");
-	    return this;
-    }
-
-	@Override
-    public HtplWriter closeElement(String prefix, String localName) {
-		write("</");
-		if(!Strings.isEmpty(prefix)){
-			write(prefix).write(':');
-		}
-		write(localName).write('>');
-	    return this;
-    }
-}
\ No newline at end of file
+}
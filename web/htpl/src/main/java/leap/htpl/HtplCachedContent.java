@@ -0,0 +1,68 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.htpl;
+
+import leap.lang.Charsets;
+
+/**
+ * The rendered content of a cached fragment.
+ *
+ * <p/>
+ * The content is pre-encoded as UTF-8 bytes, so it can be written to a byte stream directly.
+ */
+public final class HtplCachedContent {
+
+    private final String text;
+    private final byte[] utf8;
+    private final long   expiresAt;
+
+    /**
+     * @param ttl the time to live in seconds, zero or negative means never expires.
+     */
+    public HtplCachedContent(String text, int ttl) {
+        this.text      = text;
+        this.utf8      = text.getBytes(Charsets.UTF_8);
+        this.expiresAt = ttl > 0 ? System.currentTimeMillis() + ttl * 1000L : Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns the rendered text.
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Returns the UTF-8 bytes of rendered text.
+     */
+    public byte[] getBytes() {
+        return utf8;
+    }
+
+    /**
+     * Returns <code>true</code> if the content expired.
+     */
+    public boolean isExpired() {
+        return System.currentTimeMillis() >= expiresAt;
+    }
+
+    /**
+     * Writes the content to the writer.
+     */
+    public void writeTo(HtplWriter writer) {
+        writer.write(text, utf8);
+    }
+}
@@ -39,4 +39,15 @@ public interface HtplConfig {
      * Default is {@link HtplConstants#DEFAULT_RELOAD_INTERVAL}.
      */
     int getReloadInterval();
+
+    /**
+     * Returns true if the web view writes the UTF-8 content to the output stream of response directly.
+     *
+     * <p/>
+     * Only works if the character encoding of response is UTF-8.
+     *
+     * <p/>
+     * Default is {@link HtplConstants#DEFAULT_BYTE_STREAM_ENABLED}.
+     */
+    boolean isByteStreamEnabled();
 }
\ No newline at end of file
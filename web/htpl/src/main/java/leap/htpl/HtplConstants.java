@@ -19,6 +19,8 @@ public final class HtplConstants {
 
 	//Default values
 	public static final int DEFAULT_RELOAD_INTERVAL = 1000;//1 second 
+	public static final boolean DEFAULT_BYTE_STREAM_ENABLED = true;
+	public static final int DEFAULT_FRAGMENT_CACHE_TTL = 300;//5 minutes
 	
 	public static final String HTML5_DATA_PREFIX  = "data-";
 	
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.htpl;
+
+/**
+ * The cache of rendered fragment content.
+ *
+ * @see leap.htpl.ast.CachedFragment
+ */
+public interface HtplFragmentCache {
+
+    /**
+     * Returns the cached content of the given key rendered by the template, or <code>null</code> if not cached or expired.
+     */
+    HtplCachedContent get(HtplTemplate template, Object key);
+
+    /**
+     * Caches the content of the given key rendered by the template.
+     */
+    void put(HtplTemplate template, Object key, HtplCachedContent content);
+
+    /**
+     * Removes the cached content rendered by the given template.
+     */
+    void invalidate(HtplTemplate template);
+
+    /**
+     * Removes all the cached content.
+     */
+    void invalidate();
+
+}
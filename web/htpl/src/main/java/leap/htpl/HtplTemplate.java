@@ -17,6 +17,7 @@ package leap.htpl;
 
 import leap.lang.Sourced;
 
+import java.io.OutputStream;
 import java.io.Writer;
 import java.util.Locale;
 
@@ -66,6 +67,18 @@ public interface HtplTemplate extends Sourced {
 	 * Renders this template and writes the content to the given writer.
 	 */
 	void render(HtplContext context,HtplWriter writer);
+
+	/**
+	 * Renders this template and writes the content as UTF-8 bytes to the given stream.
+	 *
+	 * <p/>
+	 * The static content of template is pre-encoded, so it will be written without encoding.
+	 */
+	default void render(HtplContext context,OutputStream out) {
+		ByteStreamHtplWriter writer = new ByteStreamHtplWriter(out);
+		render(context, writer);
+		writer.flush();
+	}
 	
 	/**
 	 * Renders this template as a child included by the parent template.
@@ -20,6 +20,16 @@ public interface HtplWriter extends Appendable{
 	HtplWriter write(CharSequence s);
 	
 	HtplWriter write(char c);
+
+	/**
+	 * Writes the static text, the bytes is the pre-encoded UTF-8 content of the text.
+	 *
+	 * <p/>
+	 * A byte oriented writer writes the bytes directly, others writes the text.
+	 */
+	default HtplWriter write(CharSequence s, byte[] utf8) {
+		return write(s);
+	}
 	
 	HtplWriter startElement(String prefix,String localName);
 	
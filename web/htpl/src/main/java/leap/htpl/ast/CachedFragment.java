@@ -0,0 +1,118 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.htpl.ast;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import leap.htpl.DefaultHtplWriter;
+import leap.htpl.HtplCachedContent;
+import leap.htpl.HtplCompiler;
+import leap.htpl.HtplContext;
+import leap.htpl.HtplDocument;
+import leap.htpl.HtplEngine;
+import leap.htpl.HtplFragmentCache;
+import leap.htpl.HtplRenderable;
+import leap.htpl.HtplTemplate;
+import leap.htpl.HtplWriter;
+import leap.lang.Args;
+import leap.lang.expression.Expression;
+
+/**
+ * Renders the child nodes once per cache key and writes the cached content until it expired.
+ *
+ * <p/>
+ * The content will not be cached if the key evaluates to <code>null</code>.
+ */
+public class CachedFragment extends NodeContainer implements HtplRenderable {
+
+	private static final AtomicInteger counter = new AtomicInteger();
+
+	protected final String             id;
+	protected final String             keyText;
+	protected final Expression         key;
+	protected final int                ttl;
+	protected final HtplFragmentCache  cache;
+
+	private HtplRenderable compiledChildNodes;
+
+	/**
+	 * @param ttl the time to live in seconds, zero or negative means never expires.
+	 */
+	public CachedFragment(String keyText, Expression key, int ttl, HtplFragmentCache cache, Node body) {
+		Args.notNull(key, "key");
+		Args.notNull(cache, "cache");
+		this.id      = "fragment" + counter.incrementAndGet();
+		this.keyText = keyText;
+		this.key     = key;
+		this.ttl     = ttl;
+		this.cache   = cache;
+
+		if(null != body) {
+			this.addChildNode(body);
+		}
+	}
+
+	public Expression getKey() {
+		return key;
+	}
+
+	public int getTtl() {
+		return ttl;
+	}
+
+	@Override
+	public void compile(HtplEngine engine, HtplDocument doc, HtplCompiler compiler) {
+		HtplCompiler childNodesCompiler = compiler.newCompiler();
+		compileChildNodes(engine, doc, childNodesCompiler);
+		this.compiledChildNodes = childNodesCompiler.compile();
+
+		compiler.renderable(this);
+		this.compiled = this;
+	}
+
+	@Override
+	public void render(HtplTemplate tpl, HtplContext context, HtplWriter writer) throws IOException {
+		Object k = context.eval(key);
+		if(null == k) {
+			compiledChildNodes.render(tpl, context, writer);
+			return;
+		}
+
+		String cacheKey = id + ":" + k;
+
+		HtplCachedContent content = cache.get(tpl, cacheKey);
+		if(null == content) {
+			StringWriter out = new StringWriter();
+			compiledChildNodes.render(tpl, context, new DefaultHtplWriter(tpl.getEngine(), out));
+
+			content = new HtplCachedContent(out.toString(), ttl);
+			cache.put(tpl, cacheKey, content);
+		}
+
+		content.writeTo(writer);
+	}
+
+	@Override
+	protected Node doDeepClone(Node parent) {
+		CachedFragment clone = new CachedFragment(keyText, key, ttl, cache, null);
+
+		clone.addChildNodes(super.deepCloneChildNodes());
+
+		return clone;
+	}
+}
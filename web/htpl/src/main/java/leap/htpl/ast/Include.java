@@ -16,8 +16,11 @@
 package leap.htpl.ast;
 
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
 import java.util.Enumeration;
 
+import leap.htpl.ByteStreamHtplWriter;
 import leap.htpl.HtplCompiler;
 import leap.htpl.HtplContext;
 import leap.htpl.HtplDocument;
@@ -29,6 +32,7 @@ import leap.htpl.HtplWriter;
 import leap.htpl.exception.HtplCompileException;
 import leap.htpl.exception.HtplParseException;
 import leap.htpl.exception.HtplRenderException;
+import leap.lang.Charsets;
 import leap.lang.Strings;
 import leap.lang.expression.Expression;
 import leap.lang.resource.Resource;
@@ -231,10 +235,21 @@ public class Include extends Node implements HtplRenderable {
 
 		javax.servlet.http.HttpServletRequest  req  = r.getServletRequest();
 		javax.servlet.http.HttpServletResponse resp = r.response().getServletResponse();
-		
+
+		//the output stream of response is used by the writer, the included resource must write to the same stream.
+		ByteStreamIncludeResponse bsr = null;
+		if(writer instanceof ByteStreamHtplWriter) {
+			((ByteStreamHtplWriter) writer).flush();
+			resp = bsr = new ByteStreamIncludeResponse(resp);
+		}
+
 		try {
 	        req.getRequestDispatcher(sr.getPath()).include(req, resp);
 
+	        if(null != bsr) {
+	        	bsr.flushWriter();
+	        }
+
 	        //TODO : optimize
 	        Enumeration<String> vars = req.getAttributeNames();
 	        while(vars.hasMoreElements()) {
@@ -245,4 +260,30 @@ public class Include extends Node implements HtplRenderable {
         	throw new HtplRenderException("Error including resource '" + resource.getPath() + "', " + e.getMessage(), e);
         }
 	}
+
+	/**
+	 * Writes the chars of included resource to the output stream used by {@link ByteStreamHtplWriter}.
+	 */
+	protected static class ByteStreamIncludeResponse extends javax.servlet.http.HttpServletResponseWrapper {
+
+		private PrintWriter writer;
+
+		public ByteStreamIncludeResponse(javax.servlet.http.HttpServletResponse response) {
+			super(response);
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			if(null == writer) {
+				writer = new PrintWriter(new OutputStreamWriter(getResponse().getOutputStream(), Charsets.UTF_8));
+			}
+			return writer;
+		}
+
+		protected void flushWriter() {
+			if(null != writer) {
+				writer.flush();
+			}
+		}
+	}
 }
\ No newline at end of file
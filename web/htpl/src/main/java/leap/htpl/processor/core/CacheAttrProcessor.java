@@ -0,0 +1,89 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.htpl.processor.core;
+
+import leap.core.annotation.Inject;
+import leap.core.annotation.M;
+import leap.core.el.EL;
+import leap.htpl.HtplConstants;
+import leap.htpl.HtplDocument;
+import leap.htpl.HtplEngine;
+import leap.htpl.HtplFragmentCache;
+import leap.htpl.ast.Attr;
+import leap.htpl.ast.CachedFragment;
+import leap.htpl.ast.Element;
+import leap.htpl.ast.Node;
+import leap.htpl.exception.HtplDefinitionException;
+import leap.htpl.processor.AbstractNamedAttrProcessor;
+import leap.lang.Strings;
+import leap.lang.expression.Expression;
+
+/**
+ * Caches the rendered content of element.
+ *
+ * <pre>
+ * cache="key expression"
+ * cache="key expression" cache-ttl="ttl seconds"
+ * </pre>
+ */
+public class CacheAttrProcessor extends AbstractNamedAttrProcessor {
+
+	public static final String ATTR_NAME     = "cache";
+	public static final String TTL_ATTR_NAME = "cache-ttl";
+
+	protected @Inject @M HtplFragmentCache cache;
+
+	public CacheAttrProcessor() {
+		super(ATTR_NAME);
+	}
+
+	@Override
+	public Node processStartElement(HtplEngine engine, HtplDocument doc, Element e, Attr attr) {
+		String content = Strings.trim(attr.getString());
+		if(Strings.isEmpty(content)) {
+			throw new HtplDefinitionException("The cache key of element '" + e.getQualifiedName() + "' must not be empty");
+		}
+
+		int ttl = HtplConstants.DEFAULT_FRAGMENT_CACHE_TTL;
+
+		Attr ttlAttr = getTtlAttribute(e, attr);
+		if(null != ttlAttr) {
+			String value = Strings.trim(ttlAttr.getString());
+			if(!Strings.isDigits(value)) {
+				throw new HtplDefinitionException("The cache ttl '" + value + "' of element '" + e.getQualifiedName() + "' must be seconds");
+			}
+			ttl = Integer.parseInt(value);
+			e.removeAttribute(ttlAttr);
+		}
+
+		Expression key = engine.getExpressionManager().getExpressionLanguage().createExpression(EL.removePrefixAndSuffix(content));
+
+		e.removeAttribute(attr);
+
+		return new CachedFragment(content, key, ttl, cache, e);
+	}
+
+	protected Attr getTtlAttribute(Element e, Attr attr) {
+		//ht:cache-ttl
+		Attr a = e.getAttribute(attr.getPrefix(), TTL_ATTR_NAME);
+		if(null == a && !Strings.isEmpty(attr.getPrefix())) {
+			//ht-cache-ttl
+			a = e.getAttribute(null, attr.getPrefix() + "-" + TTL_ATTR_NAME);
+		}
+		return a;
+	}
+
+}
@@ -15,9 +15,15 @@
  */
 package leap.htpl.web;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 import leap.htpl.HtplTemplate;
 import leap.htpl.HtplTemplateLazyCreator;
 import leap.lang.Args;
+import leap.lang.Charsets;
+import leap.lang.Strings;
+import leap.lang.exception.NestedIOException;
 import leap.lang.logging.Log;
 import leap.lang.logging.LogFactory;
 import leap.web.App;
@@ -63,8 +69,36 @@ public class WebHtplView extends AbstractView {
 			context.setRenderLayout(false);
 		}
 		
-		template.render(context, response.getWriter());
+		OutputStream out = byteStream(response);
+		if(null != out) {
+			template.render(context, out);
+		}else{
+			template.render(context, response.getWriter());
+		}
     }
+
+	/**
+	 * Returns the output stream of response if the pre-encoded UTF-8 content can be written to it directly.
+	 */
+	protected OutputStream byteStream(Response response) {
+		if(!template.getEngine().getConfig().isByteStreamEnabled()) {
+			return null;
+		}
+
+		String encoding = response.getServletResponse().getCharacterEncoding();
+		if(!Strings.equalsIgnoreCase(Charsets.UTF_8_NAME, encoding)) {
+			return null;
+		}
+
+		try {
+			return response.getServletResponse().getOutputStream();
+		} catch (IllegalStateException e) {
+			//the writer of response has been obtained.
+			return null;
+		} catch (IOException e) {
+			throw new NestedIOException(e);
+		}
+	}
 	
 	/*
 	protected void includeJsp(Request request,Response response, ServletResource jsp) throws Exception {
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import leap.htpl.ByteStreamHtplWriter;
+import leap.htpl.HtplTemplate;
+import leap.lang.Charsets;
+import leap.lang.New;
+import leap.lang.exception.NestedIOException;
+import leap.lang.time.StopWatch;
+import org.junit.Test;
+
+public class ByteStreamRenderTest extends HtplTestCase {
+
+	@Test
+	public void testWriteChars() throws Exception {
+		String s = "aé中😀b";
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ByteStreamHtplWriter writer = new ByteStreamHtplWriter(out, 16);
+		for(int i=0;i<10;i++) {
+			writer.write(s);
+			writer.write(s.charAt(3)).write(s.charAt(4));
+			writer.write("<p>", "<p>".getBytes(Charsets.UTF_8));
+		}
+		writer.flush();
+
+		StringBuilder expected = new StringBuilder();
+		for(int i=0;i<10;i++) {
+			expected.append(s).append(s.charAt(3)).append(s.charAt(4)).append("<p>");
+		}
+		assertEquals(expected.toString(), new String(out.toByteArray(), Charsets.UTF_8));
+	}
+
+	@Test
+	public void testRenderToStream() {
+		context.setLocalVariable("name", "中文<b>");
+		context.setLocalVariable("items", New.arrayList(1, 2, 3));
+
+		String html = "<div title=\"${name}\"><h1>标题 ${name}</h1>" +
+					  "<ul><!--#for i : items--><li class=\"item\">${i}</li><!--#endfor--></ul></div>";
+
+		HtplTemplate tpl = parseTemplate(html);
+		assertEquals(renderToWriter(tpl), renderToStream(tpl));
+	}
+
+	@Test
+	public void testRenderPerformance() {
+		List<Object> rows = new ArrayList<>();
+		for(int i=0;i<50;i++) {
+			rows.add(New.hashMap("id", i, "name", "name" + i, "desc", "描述 " + i));
+		}
+		context.setLocalVariable("rows", rows);
+
+		StringBuilder html = new StringBuilder();
+		html.append("<html><head><title>Page</title>");
+		for(int i=0;i<10;i++) {
+			html.append("<link rel=\"stylesheet\" href=\"/static/css/style").append(i).append(".css\"/>");
+		}
+		html.append("</head><body><div class=\"container\"><div class=\"header\"><h1>用户列表</h1></div>");
+		html.append("<table class=\"table table-striped\"><thead><tr><th>ID</th><th>Name</th><th>Description</th></tr></thead><tbody>");
+		html.append("<!--#for row : rows--><tr class=\"row\"><td class=\"id\">${row.id}</td><td class=\"name\">${row.name}</td>");
+		html.append("<td class=\"desc\"><span class=\"label label-default\">${row.desc}</span></td></tr><!--#endfor-->");
+		html.append("</tbody></table><div class=\"footer\"><p>Copyright © leap framework, all rights reserved.</p></div></div></body></html>");
+
+		HtplTemplate tpl = parseTemplate(html.toString());
+		assertEquals(renderToWriter(tpl), renderToStream(tpl));
+
+		for(int i=0;i<1000;i++) {
+			renderToWriter(tpl);
+			renderToStream(tpl);
+		}
+
+		int n = 10000;
+		StopWatch sw = StopWatch.startNew();
+		for(int i=0;i<n;i++) {
+			renderToWriter(tpl);
+		}
+		long t1 = sw.getElapsedMilliseconds();
+
+		sw.restart();
+		for(int i=0;i<n;i++) {
+			renderToStream(tpl);
+		}
+		long t2 = sw.getElapsedMilliseconds();
+
+		System.out.println("Render " + n + " pages, writer : " + t1 + "ms, byte stream : " + t2 + "ms");
+	}
+
+	protected String renderToWriter(HtplTemplate tpl) {
+		//encodes the content as the writer of servlet response.
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Writer writer = new OutputStreamWriter(out, Charsets.UTF_8);
+		tpl.render(context, writer);
+		try {
+			writer.flush();
+		} catch (IOException e) {
+			throw new NestedIOException(e);
+		}
+		return new String(out.toByteArray(), Charsets.UTF_8);
+	}
+
+	protected String renderToStream(HtplTemplate tpl) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		tpl.render(context, out);
+		return new String(out.toByteArray(), Charsets.UTF_8);
+	}
+}
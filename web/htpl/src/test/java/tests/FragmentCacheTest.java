@@ -0,0 +1,116 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tests;
+
+import leap.core.AppContext;
+import leap.htpl.HtplFragmentCache;
+import leap.htpl.HtplTemplate;
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+public class FragmentCacheTest extends HtplTestCase {
+
+	private static final HtplFragmentCache cache = AppContext.factory().getBean(HtplFragmentCache.class);
+
+	@Test
+	public void testCacheByKey() {
+		HtplTemplate tpl = parseTemplate("<div ht:cache=\"'nav-' + role\">${v}</div>");
+
+		context.setLocalVariable("role", "admin");
+		context.setLocalVariable("v", "1");
+		assertEquals("<div>1</div>", render(tpl));
+
+		context.setLocalVariable("v", "2");
+		assertEquals("<div>1</div>", render(tpl));
+
+		context.setLocalVariable("role", "user");
+		assertEquals("<div>2</div>", render(tpl));
+
+		cache.invalidate();
+		context.setLocalVariable("role", "admin");
+		assertEquals("<div>2</div>", render(tpl));
+	}
+
+	@Test
+	public void testNullKey() {
+		HtplTemplate tpl = parseTemplate("<span ht-cache=\"${key}\">${v}</span>");
+
+		context.setLocalVariable("v", "1");
+		assertEquals("<span>1</span>", render(tpl));
+
+		context.setLocalVariable("v", "2");
+		assertEquals("<span>2</span>", render(tpl));
+	}
+
+	@Test
+	public void testTtl() throws Exception {
+		HtplTemplate tpl = parseTemplate("<p ht:cache=\"'ttl'\" ht:cache-ttl=\"1\">${v}</p>");
+
+		context.setLocalVariable("v", "1");
+		assertEquals("<p>1</p>", render(tpl));
+
+		context.setLocalVariable("v", "2");
+		assertEquals("<p>1</p>", render(tpl));
+
+		Thread.sleep(1100);
+		assertEquals("<p>2</p>", render(tpl));
+	}
+
+	@Test
+	public void testConditionalKey() {
+		HtplTemplate tpl = parseTemplate("<p ht-cache=\"${admin ? 'a' : 5}\" ht-cache-ttl=\"60\">${v}</p>");
+
+		context.setLocalVariable("admin", true);
+		context.setLocalVariable("v", "1");
+		assertEquals("<p>1</p>", render(tpl));
+
+		context.setLocalVariable("admin", false);
+		context.setLocalVariable("v", "2");
+		assertEquals("<p>2</p>", render(tpl));
+
+		context.setLocalVariable("admin", true);
+		assertEquals("<p>1</p>", render(tpl));
+	}
+
+	@Test
+	public void testInvalidateTemplate() {
+		HtplTemplate tpl1 = parseTemplate("<b ht:cache=\"'t'\">${v}</b>");
+		HtplTemplate tpl2 = parseTemplate("<i ht:cache=\"'t'\">${v}</i>");
+
+		context.setLocalVariable("v", "1");
+		assertEquals("<b>1</b>", render(tpl1));
+		assertEquals("<i>1</i>", render(tpl2));
+
+		cache.invalidate(tpl1);
+		context.setLocalVariable("v", "2");
+		assertEquals("<b>2</b>", render(tpl1));
+		assertEquals("<i>1</i>", render(tpl2));
+	}
+
+	@Test
+	public void testSameKeyInDifferentFragments() {
+		context.setLocalVariable("v", "1");
+		assertEquals("<b>1</b>", render(parseTemplate("<b ht:cache=\"'same'\">${v}</b>")));
+		assertEquals("<i>1</i>", render(parseTemplate("<i ht:cache=\"'same'\">${v}</i>")));
+	}
+
+	protected String render(HtplTemplate tpl) {
+		StringWriter writer = new StringWriter();
+		tpl.render(context, writer);
+		return writer.toString();
+	}
+}
@@ -16,8 +16,6 @@
 package leap.web.security.path;
 
 import leap.core.annotation.Inject;
-import leap.core.cache.Cache;
-import leap.core.cache.SimpleLRUCache;
 import leap.lang.Strings;
 import leap.lang.logging.Log;
 import leap.lang.logging.LogFactory;
@@ -49,13 +47,12 @@ public class DefaultSecuredPathSource implements SecuredPathSource {
     };
 	
 	private static final SecuredPath ANY  = new DefaultSecuredPathBuilder().setPattern(ANY_PATTERN).build();
-	private static final SecuredPath NULL = new DefaultSecuredPathBuilder().setPattern(ANY_PATTERN).build();
 
     protected @Inject SecuredPathResolver[] resolvers;
     protected @Inject SecurityConfig        config;
 
-	protected Cache<String, SecuredPath> cachedPaths = new SimpleLRUCache<>(2048);
-	
+    private volatile Compiled compiled;
+
 	@Override
 	public SecuredPath getSecuredPath(SecurityContextHolder context, Request request) {
         SecuredPath securedPath;
@@ -65,32 +62,60 @@ public class DefaultSecuredPathSource implements SecuredPathSource {
             }
         }
 
-		String cacheKey = genCacheKey(request);
-	    securedPath = cachedPaths.get(cacheKey);
-	    if(null != securedPath) {
-	        return securedPath == NULL ? null : securedPath;
-	    }
-
         log.debug("Matching request {} ...", request.getPath());
-	    
-		for(SecuredPath p : config.getSecuredPaths()){
-			if(matches(p,request)) {
-                log.debug("Matches -> {} {}", p.getRoute()==null?"*":p.getRoute().getMethod(), p.getPattern());
-			    cachedPaths.put(cacheKey, p);
-				return p;
-			}
-            log.debug("Not matches -> {}", p.getPattern());
-		}
-		
+
+        SecuredPaths paths = config.getSecuredPaths();
+        SecuredPathTrie trie = getTrie(paths);
+        if(null != trie) {
+            securedPath = trie.match(request.getMethod(), request.getPath(), p -> p.matches(request));
+        }else{
+            securedPath = null;
+            for(SecuredPath p : paths) {
+                if(matches(p,request)) {
+                    securedPath = p;
+                    break;
+                }
+            }
+        }
+
+        if(null != securedPath) {
+            log.debug("Matches -> {} {}", securedPath.getRoute()==null?"*":securedPath.getRoute().getMethod(), securedPath.getPattern());
+            return securedPath;
+        }
+
 		if(config.isAuthenticateAnyRequests()) {
-		    cachedPaths.put(request.getPath(), ANY);
 		    return ANY;
 		}
-		
-		cachedPaths.put(request.getPath(), NULL);
+
 		return null;
 	}
 
+    /**
+     * Returns the compiled {@link SecuredPathTrie}, recompiles it if the paths was modified.
+     *
+     * <p/>
+     * Returns <code>null</code> if the paths does not support modification count.
+     */
+    protected SecuredPathTrie getTrie(SecuredPaths paths) {
+        int modCount = paths.getModCount();
+        if(modCount < 0) {
+            return null;
+        }
+
+        Compiled c = compiled;
+        if(null == c || c.paths != paths || c.modCount != modCount) {
+            synchronized (this) {
+                c = compiled;
+                if(null == c || c.paths != paths || c.modCount != modCount) {
+                    c = new Compiled(paths, modCount, new SecuredPathTrie(paths));
+                    compiled = c;
+                    log.debug("Compiled {} secured paths", c.trie.size());
+                }
+            }
+        }
+        return c.trie;
+    }
+
 	private boolean matches(SecuredPath p,Request request){
 		return p.matches(request) &&
 					(p.getRoute() == null ||
@@ -98,7 +123,15 @@ public class DefaultSecuredPathSource implements SecuredPathSource {
 						Strings.equalsIgnoreCase(p.getRoute().getMethod(),request.getMethod()));
 	}
 
-	private String genCacheKey(Request request){
-		return request.getMethod()+"$"+request.getPath();
-	}
-}
\ No newline at end of file
+    private static final class Compiled {
+        private final SecuredPaths    paths;
+        private final int             modCount;
+        private final SecuredPathTrie trie;
+
+        Compiled(SecuredPaths paths, int modCount, SecuredPathTrie trie) {
+            this.paths    = paths;
+            this.modCount = modCount;
+            this.trie     = trie;
+        }
+    }
+}
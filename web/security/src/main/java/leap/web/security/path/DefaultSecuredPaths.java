@@ -57,11 +57,18 @@ public class DefaultSecuredPaths implements SecuredPaths {
 
     protected final TreeMap<PathPattern, PathEntry> paths = new TreeMap<>(COMPARATOR);
 
+    protected volatile int modCount;
+
     @Override
     public boolean isEmpty() {
         return paths.isEmpty();
     }
 
+    @Override
+    public int getModCount() {
+        return modCount;
+    }
+
     @Override
     public Iterator<SecuredPath> iterator() {
         Iterator it = paths.values().iterator();
@@ -130,6 +137,7 @@ public class DefaultSecuredPaths implements SecuredPaths {
     public SecuredPaths apply(SecuredPath p) {
         Args.notNull(p);
         paths.put(p.getPattern(), new PathEntry(p));
+        modCount++;
         return this;
     }
 
@@ -142,16 +150,19 @@ public class DefaultSecuredPaths implements SecuredPaths {
     @Override
     public SecuredPath remove(String path) {
         Args.notEmpty(path, "path");
+        modCount++;
         return paths.remove(new AntPathPattern(path));
     }
 
     @Override
     public boolean remove(SecuredPath path) {
+        modCount++;
         return null != paths.remove(path.getPattern());
     }
 
     public void apply(SecuredPathConfigurator c, SecuredPath p) {
         paths.put(p.getPattern(), new PathEntry(p, c));
+        modCount++;
     }
 
     protected static final class PathEntry implements SecuredPath {
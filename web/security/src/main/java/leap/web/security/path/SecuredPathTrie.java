@@ -0,0 +1,173 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.web.security.path;
+
+import leap.lang.Strings;
+import leap.lang.path.AntPathPattern;
+import leap.lang.path.PathPattern;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * A compiled, read only index of {@link SecuredPath} for resolving the matched path of a request in one walk.
+ *
+ * <p/>
+ * The paths are indexed in a segment trie by the leading literal segments of their patterns,
+ * only the paths at the nodes along the request path will be tested.
+ *
+ * <p/>
+ * The resolved path is the same as testing all the paths one by one in the given order,
+ * so the first (most specific) matched path wins.
+ */
+public class SecuredPathTrie {
+
+    private final Node root = new Node();
+    private final int  size;
+
+    public SecuredPathTrie(Iterable<SecuredPath> paths) {
+        int index = 0;
+        for(SecuredPath p : paths) {
+            Node node = root;
+            for(String segment : literalSegments(p.getPattern())) {
+                node = node.child(segment);
+            }
+            node.entries.add(new Entry(index++, p));
+        }
+        this.size = index;
+    }
+
+    /**
+     * Returns the number of indexed paths.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the first {@link SecuredPath} matches the given method and path, or <code>null</code>.
+     */
+    public SecuredPath match(String method, String path) {
+        return match(method, path, p -> p.matches(path));
+    }
+
+    /**
+     * Returns the first {@link SecuredPath} matches the given method and passed by the matcher, or <code>null</code>.
+     *
+     * @param method  the http method of request.
+     * @param path    the path of request.
+     * @param matcher tests the path pattern of the candidate.
+     */
+    public SecuredPath match(String method, String path, Predicate<SecuredPath> matcher) {
+        Entry matched = root.match(method, matcher, null);
+
+        Node node = root;
+        for(String segment : Strings.split(path, '/')) {
+            if(null == node.children || null == (node = node.children.get(segment))) {
+                break;
+            }
+            matched = node.match(method, matcher, matched);
+        }
+
+        return null == matched ? null : matched.path;
+    }
+
+    /**
+     * Returns the leading literal segments of the pattern.
+     *
+     * <p/>
+     * The last segment is excluded if the pattern is not an {@link AntPathPattern},
+     * because a path template may match it with suffix, i.e. '/users' matches '/users.json'.
+     */
+    protected static List<String> literalSegments(PathPattern pp) {
+        List<String> segments = new ArrayList<>();
+
+        String pattern = null == pp ? null : pp.pattern();
+        if(Strings.isEmpty(pattern)) {
+            return segments;
+        }
+
+        String[] parts = Strings.split(pattern, '/');
+        int      end   = pp instanceof AntPathPattern ? parts.length : parts.length - 1;
+        for(int i=0;i<end;i++) {
+            String part = parts[i];
+            if(!isLiteral(part)) {
+                break;
+            }
+            segments.add(part);
+        }
+
+        return segments;
+    }
+
+    protected static boolean isLiteral(String segment) {
+        for(int i=0;i<segment.length();i++) {
+            char c = segment.charAt(i);
+            if(c == '*' || c == '?' || c == '{' || c == '}') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected static final class Node {
+        private final List<Entry> entries = new ArrayList<>(1);
+        private Map<String, Node> children;
+
+        Node child(String segment) {
+            if(null == children) {
+                children = new HashMap<>();
+            }
+            return children.computeIfAbsent(segment, s -> new Node());
+        }
+
+        Entry match(String method, Predicate<SecuredPath> matcher, Entry matched) {
+            for(Entry e : entries) {
+                if(null != matched && e.index > matched.index) {
+                    break;
+                }
+                if(e.matches(method, matcher)) {
+                    return e;
+                }
+            }
+            return matched;
+        }
+    }
+
+    protected static final class Entry {
+        private final int         index;
+        private final SecuredPath path;
+        private final boolean     anyMethod;
+        private final String      method;
+
+        Entry(int index, SecuredPath path) {
+            this.index     = index;
+            this.path      = path;
+            this.method    = null == path.getRoute() ? null : path.getRoute().getMethod();
+            this.anyMethod = null == path.getRoute() || "*".equals(method);
+        }
+
+        boolean matches(String method, Predicate<SecuredPath> matcher) {
+            if(!anyMethod && !Strings.equalsIgnoreCase(this.method, method)) {
+                return false;
+            }
+            return matcher.test(path);
+        }
+    }
+}
@@ -67,4 +67,14 @@ public interface SecuredPaths extends Iterable<SecuredPath>,Emptiable {
      */
     boolean remove(SecuredPath path);
 
+    /**
+     * Returns the modification count which changes after any path applied or removed.
+     *
+     * <p/>
+     * Returns -1 if the modification count is not supported.
+     */
+    default int getModCount() {
+        return -1;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package leap.web.security.path;
+
+import leap.junit.TestBase;
+import leap.lang.time.StopWatch;
+import org.junit.Test;
+
+public class SecuredPathTrieTest extends TestBase {
+
+    @Test
+    public void testMostSpecificPathWins() {
+        DefaultSecuredPaths paths = new DefaultSecuredPaths();
+        paths.apply(new DefaultSecuredPathBuilder("/**").build());
+        paths.apply(new DefaultSecuredPathBuilder("/orders/**").build());
+        paths.apply(new DefaultSecuredPathBuilder("/orders/*/items").build());
+        paths.apply(new DefaultSecuredPathBuilder("/orders/public").build());
+        paths.apply(new DefaultSecuredPathBuilder("/users").build());
+
+        SecuredPathTrie trie = new SecuredPathTrie(paths);
+        assertEquals(5, trie.size());
+
+        assertMatches(paths, trie, "/orders/public",  "/orders/public");
+        assertMatches(paths, trie, "/orders/1/items", "/orders/*/items");
+        assertMatches(paths, trie, "/orders/123",     "/orders/**");
+        assertMatches(paths, trie, "/orders",         "/orders/**");
+        assertMatches(paths, trie, "/users",          "/users");
+        assertMatches(paths, trie, "/users/1",        "/**");
+        assertMatches(paths, trie, "/",               "/**");
+    }
+
+    @Test
+    public void testNoMatches() {
+        DefaultSecuredPaths paths = new DefaultSecuredPaths();
+        paths.apply(new DefaultSecuredPathBuilder("/orders/**").build());
+
+        SecuredPathTrie trie = new SecuredPathTrie(paths);
+        assertNull(trie.match("GET", "/users/1"));
+        assertNull(trie.match("GET", "/"));
+    }
+
+    @Test
+    public void testMatchesSameAsLinear() {
+        DefaultSecuredPaths paths = createPaths(200);
+        SecuredPathTrie     trie  = new SecuredPathTrie(paths);
+
+        for(String path : createRequestPaths(200)) {
+            assertSame(path, linear(paths, path), trie.match("GET", path));
+        }
+    }
+
+    @Test
+    public void testPerformance() {
+        DefaultSecuredPaths paths    = createPaths(2000);
+        SecuredPathTrie     trie     = new SecuredPathTrie(paths);
+        String[]            requests = createRequestPaths(2000);
+
+        int count = 20;
+
+        StopWatch sw = StopWatch.startNew();
+        for(int i=0;i<count;i++) {
+            for(String path : requests) {
+                linear(paths, path);
+            }
+        }
+        System.out.println("linear : " + sw.getElapsedMilliseconds() + "ms");
+
+        sw = StopWatch.startNew();
+        for(int i=0;i<count;i++) {
+            for(String path : requests) {
+                trie.match("GET", path);
+            }
+        }
+        System.out.println("trie   : " + sw.getElapsedMilliseconds() + "ms");
+    }
+
+    private static DefaultSecuredPaths createPaths(int rules) {
+        DefaultSecuredPaths paths = new DefaultSecuredPaths();
+        for(int i=0;i<rules;i++) {
+            switch (i % 4) {
+                case 0 : paths.apply(new DefaultSecuredPathBuilder("/api/res" + i + "/*").build()); break;
+                case 1 : paths.apply(new DefaultSecuredPathBuilder("/api/res" + i + "/*/items/**").build()); break;
+                case 2 : paths.apply(new DefaultSecuredPathBuilder("/api/res" + i).build()); break;
+                default: paths.apply(new DefaultSecuredPathBuilder("/module" + (i % 10) + "/res" + i + "/**").build());
+            }
+        }
+        paths.apply(new DefaultSecuredPathBuilder("/api/**").build());
+        return paths;
+    }
+
+    private static String[] createRequestPaths(int count) {
+        String[] requests = new String[count];
+        for(int i=0;i<count;i++) {
+            switch (i % 4) {
+                case 0 : requests[i] = "/api/res" + i + "/" + i; break;
+                case 1 : requests[i] = "/api/res" + i + "/" + i + "/items/" + i; break;
+                case 2 : requests[i] = "/api/res" + i + "/unknown/" + i; break;
+                default: requests[i] = "/module" + (i % 10) + "/res" + i + "/" + i;
+            }
+        }
+        return requests;
+    }
+
+    private static SecuredPath linear(SecuredPaths paths, String path) {
+        for(SecuredPath p : paths) {
+            if(p.matches(path)) {
+                return p;
+            }
+        }
+        return null;
+    }
+
+    private static void assertMatches(SecuredPaths paths, SecuredPathTrie trie, String path, String pattern) {
+        SecuredPath p = trie.match("GET", path);
+        assertNotNull(path, p);
+        assertEquals(path, pattern, p.getPattern().pattern());
+        assertSame(path, linear(paths, path), p);
+    }
+}